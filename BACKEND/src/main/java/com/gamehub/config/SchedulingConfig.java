@@ -0,0 +1,10 @@
+// Note: Bật @Scheduled cho các job nền (đối soát thống kê, dọn dữ liệu định kỳ).
+package com.gamehub.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -27,9 +27,11 @@
 package com.gamehub.config;
 
 import com.gamehub.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -53,10 +55,14 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Cost của BCrypt (4-31); hash cũ với cost khác sẽ được băm lại khi user đăng nhập thành công
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        logger.info("Initializing PasswordEncoder");
-        return new BCryptPasswordEncoder();
+        logger.info("Initializing PasswordEncoder with BCrypt strength {}", bcryptStrength);
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -67,14 +73,18 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Lượt dispatch ASYNC của stream SSE (request gốc đã được xác thực)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Cho phép tất cả truy cập các endpoint công khai
-                        .requestMatchers("/api/v1/auth/register", "/api/v1/auth/login").permitAll()
-                        .requestMatchers("/api/v1/games/public", "/api/v1/games/{id}","/api/v1/games/developer/{developerId}", "/api/v1/reviews/{gameId}", "/api/v1/leaderboard").permitAll()
+                        .requestMatchers("/api/v1/auth/register", "/api/v1/auth/login", "/api/v1/auth/refresh", "/api/v1/auth/logout").permitAll()
+                        .requestMatchers("/api/v1/games/public", "/api/v1/games/search", "/api/v1/games/{id}", "/api/v1/games/{id}/downloads","/api/v1/games/developer/{developerId}", "/api/v1/reviews/{gameId}", "/api/v1/leaderboard", "/api/v1/scores/*/top").permitAll()
                         // Cho phép tất cả truy cập danh sách quà tặng
                         .requestMatchers("/api/v1/gifts").permitAll()
                         // Cho phép tất cả truy cập assets đã duyệt
                         .requestMatchers("/api/v1/assets/public", "/api/v1/assets/free", "/api/v1/assets/paid", "/api/v1/assets/search").permitAll()
                         .requestMatchers("/api/v1/payment-info").permitAll()
+                        // Game server xác thực bằng API key trong IngestController (không dùng JWT)
+                        .requestMatchers("/api/v1/ingest/**").permitAll()
                         // Endpoint cho ADMIN
                         .requestMatchers("/api/v1/assets/pending", "/api/v1/assets/*/approve", "/api/v1/assets/*/reject").hasAuthority("ADMIN")
                         .requestMatchers("/api/v1/admin/**").hasAuthority("ADMIN")
@@ -83,13 +93,13 @@ public class SecurityConfig {
                         // Added transaction endpoints for admin
                         .requestMatchers("/api/v1/transactions/pending", "/api/v1/transactions/*/approve", "/api/v1/transactions/*/reject").hasAuthority("ADMIN")
                         // Endpoint cho DEVELOPER
-                        .requestMatchers("/api/v1/games/**", "/api/v1/gifts/upload").hasAuthority("DEVELOPER")
+                        .requestMatchers("/api/v1/games/**", "/api/v1/gifts/upload", "/api/v1/gifts/*/codes", "/api/v1/gifts/*/codes/**").hasAuthority("DEVELOPER")
 
                         .requestMatchers("/api/v1/deposits", "/api/v1/deposits/my-requests").hasAuthority("DEVELOPER")
                         // Added transaction endpoints for developer
                         .requestMatchers("/api/v1/transactions/purchase", "/api/v1/transactions/my-purchases").hasAuthority("DEVELOPER")
                         // Endpoint cho PLAYER
-                        .requestMatchers("/api/v1/games/**", "/api/v1/reviews", "/api/v1/points/**", "/api/v1/gifts/redeem", "/api/v1/gifts/transactions").hasAuthority("PLAYER")
+                        .requestMatchers("/api/v1/games/**", "/api/v1/reviews", "/api/v1/points/**", "/api/v1/scores/*", "/api/v1/gifts/redeem", "/api/v1/gifts/redeem/tickets/**", "/api/v1/gifts/transactions", "/api/v1/gifts/for-player").hasAuthority("PLAYER")
                         // Endpoint cho DESIGNER (thêm mới cho upload assets)
                         .requestMatchers("/api/v1/assets/upload", "/api/v1/assets/my-assets").hasAuthority("DESIGNER")
                         // Added transaction endpoints for designer
@@ -6,13 +6,19 @@
 // GET /api/v1/assets/free - Xem danh sách assets miễn phí (Public)
 // GET /api/v1/assets/paid - Xem danh sách assets có phí (Public)
 // GET /api/v1/assets/search?tag={tag} - Tìm kiếm assets theo tag (Public)
+// GET /api/v1/assets/search?tags=a,b&mode=all|any&type=&page=&size= - Tìm theo nhiều tag, có phân trang và số lượng theo tag (Public)
 package com.gamehub.controller;
 
 import com.gamehub.dto.AssetRequest;
 import com.gamehub.dto.AssetResponse;
+import com.gamehub.dto.AssetSearchResponse;
 import com.gamehub.exception.AssetException;
 import com.gamehub.model.enums.AssetType;
 import com.gamehub.service.AssetService;
+import com.gamehub.service.AssetTagIndex;
+import com.gamehub.service.CatalogResponseCache;
+import com.gamehub.service.CatalogVersions.Catalog;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,7 +27,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/assets")
@@ -33,6 +41,12 @@ public class AssetController {
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private AssetTagIndex assetTagIndex;
+
     @PostMapping("/upload")
     public ResponseEntity<AssetResponse> uploadAsset(@Valid @ModelAttribute AssetRequest assetRequest,
                                                      Authentication authentication) throws AssetException {
@@ -65,32 +79,51 @@ public class AssetController {
         return ResponseEntity.ok(assets);
     }
 
+    // Các danh sách công khai trả về JSON đã serialize sẵn kèm ETag (304 nếu client đã có bản mới nhất)
     @GetMapping("/public")
-    public ResponseEntity<List<AssetResponse>> getPublicAssets() {
+    public ResponseEntity<byte[]> getPublicAssets(HttpServletRequest request) {
         logger.info("Fetching public approved assets");
-        List<AssetResponse> assets = assetService.getPublicAssets();
-        return ResponseEntity.ok(assets);
+        return catalogResponseCache.respond(request, "assets:public", Catalog.ASSETS, true, assetService::getPublicAssets);
     }
 
     @GetMapping("/free")
-    public ResponseEntity<List<AssetResponse>> getFreeAssets() {
+    public ResponseEntity<byte[]> getFreeAssets(HttpServletRequest request) {
         logger.info("Fetching free assets");
-        List<AssetResponse> assets = assetService.getAssetsByType(AssetType.FREE);
-        return ResponseEntity.ok(assets);
+        return catalogResponseCache.respond(request, "assets:free", Catalog.ASSETS, true,
+                () -> assetService.getAssetsByType(AssetType.FREE));
     }
 
     @GetMapping("/paid")
-    public ResponseEntity<List<AssetResponse>> getPaidAssets() {
+    public ResponseEntity<byte[]> getPaidAssets(HttpServletRequest request) {
         logger.info("Fetching paid assets");
-        List<AssetResponse> assets = assetService.getAssetsByType(AssetType.PAID);
-        return ResponseEntity.ok(assets);
+        return catalogResponseCache.respond(request, "assets:paid", Catalog.ASSETS, true,
+                () -> assetService.getAssetsByType(AssetType.PAID));
     }
 
+    // Chỉ có ?tag= thì trả danh sách đầy đủ như trước; có tags/mode/type/page/size thì trả một trang kèm số lượng theo tag
     @GetMapping("/search")
-    public ResponseEntity<List<AssetResponse>> searchAssetsByTag(@RequestParam String tag) {
-        logger.info("Searching assets by tag: {}", tag);
-        List<AssetResponse> assets = assetService.searchAssetsByTag(tag);
-        return ResponseEntity.ok(assets);
+    public ResponseEntity<?> searchAssetsByTag(@RequestParam(required = false) String tag,
+                                               @RequestParam(required = false) List<String> tags,
+                                               @RequestParam(required = false) String mode,
+                                               @RequestParam(required = false) AssetType type,
+                                               @RequestParam(required = false) Integer page,
+                                               @RequestParam(required = false) Integer size) {
+        if (tag != null && tags == null && mode == null && type == null && page == null && size == null) {
+            logger.info("Searching assets by tag: {}", tag);
+            List<AssetResponse> assets = assetService.searchAssetsByTag(tag);
+            return ResponseEntity.ok(assets);
+        }
+        List<String> query = tags != null ? tags : (tag != null ? List.of(tag) : List.of());
+        logger.info("Searching assets: tags={}, mode={}, type={}, page={}, size={}", query, mode, type, page, size);
+        try {
+            AssetSearchResponse response = assetTagIndex.search(query, mode, type,
+                    page != null ? page : 0, size != null ? size : 20);
+            return ResponseEntity.ok(response);
+        } catch (AssetException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     @GetMapping("/pending")
@@ -1,5 +1,5 @@
 // Note: Xử lý các request HTTP cho đăng nhập và đăng ký.
-// Cung cấp endpoint /api/v1/auth/register và /api/v1/auth/login.
+// Cung cấp endpoint /api/v1/auth/register, /api/v1/auth/login, /api/v1/auth/refresh và /api/v1/auth/logout.
 package com.gamehub.controller;
 
 import com.gamehub.dto.AuthResponse;
@@ -7,11 +7,14 @@ import com.gamehub.dto.LoginRequest;
 import com.gamehub.dto.RegisterRequest;
 import com.gamehub.exception.AuthenticationException;
 import com.gamehub.exception.RegistrationException;
+import com.gamehub.exception.ServiceBusyException;
 import com.gamehub.service.AuthService;
+import com.gamehub.service.RefreshTokenService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -31,6 +34,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     @PostMapping("/register")
     public ResponseEntity<Map<String, Object>> register(@Valid @RequestBody RegisterRequest registerRequest,
                                       BindingResult bindingResult) {
@@ -55,11 +61,14 @@ public class AuthController {
             response.put("role", authResponse.getRole());
             response.put("email", authResponse.getEmail());
             response.put("id", authResponse.getId()); // Thêm id
+            response.put("refreshToken", authResponse.getRefreshToken());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (RegistrationException e) {
             response.put("message", e.getMessage());
             logger.error("Registration failed for email: {}", registerRequest.getEmail(), e);
             return ResponseEntity.badRequest().body(response);
+        } catch (ServiceBusyException e) {
+            return busyResponse(response, e);
         } catch (Exception e) {
             response.put("message", "Internal server error");
             logger.error("Unexpected error during registration for email: {}", registerRequest.getEmail(), e);
@@ -91,15 +100,59 @@ public class AuthController {
             response.put("role", authResponse.getRole());
             response.put("email", authResponse.getEmail());
             response.put("id", authResponse.getId()); // Thêm id
+            response.put("refreshToken", authResponse.getRefreshToken());
             return ResponseEntity.ok(response);
         } catch (AuthenticationException e) {
             response.put("message", e.getMessage());
             logger.error("Login failed for email: {}", loginRequest.getEmail(), e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (ServiceBusyException e) {
+            return busyResponse(response, e);
         } catch (Exception e) {
             response.put("message", "Internal server error");
             logger.error("Unexpected error during login for email: {}", loginRequest.getEmail(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+
+    // Đổi refresh token lấy access token mới mà không cần mật khẩu (không chạy BCrypt)
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            AuthResponse authResponse = refreshTokenService.refresh(request.get("refreshToken"));
+            response.put("message", "Token refreshed");
+            response.put("token", authResponse.getToken());
+            response.put("role", authResponse.getRole());
+            response.put("email", authResponse.getEmail());
+            response.put("id", authResponse.getId());
+            response.put("refreshToken", authResponse.getRefreshToken());
+            return ResponseEntity.ok(response);
+        } catch (AuthenticationException e) {
+            response.put("message", e.getMessage());
+            logger.warn("Token refresh rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (Exception e) {
+            response.put("message", "Internal server error");
+            logger.error("Unexpected error during token refresh", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestBody(required = false) Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+        refreshTokenService.revoke(request != null ? request.get("refreshToken") : null);
+        response.put("message", "Logged out");
+        return ResponseEntity.ok(response);
+    }
+
+    // Executor băm mật khẩu đã đầy: trả 503 ngay để client thử lại sau
+    private ResponseEntity<Map<String, Object>> busyResponse(Map<String, Object> response, ServiceBusyException e) {
+        response.put("message", e.getMessage());
+        logger.warn("Rejecting auth request - {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
 }
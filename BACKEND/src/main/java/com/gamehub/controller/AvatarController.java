@@ -39,7 +39,7 @@ public class AvatarController {
         try {
             String avatarUrl = cloudinaryService.uploadFile(avatarFile);
 
-            User user = userService.findByEmail(authentication.getName());
+            User user = userService.findFreshByEmail(authentication.getName());
             user.setAvatarUrl(avatarUrl);
             userService.save(user);
 
@@ -0,0 +1,69 @@
+// Note: Controller cho Admin quản lý cache danh sách game, index tìm kiếm và thống kê rating (xem số liệu, ép dựng lại từ DB).
+package com.gamehub.controller;
+
+import com.gamehub.service.GameCatalogCache;
+import com.gamehub.service.GameRatingStatsService;
+import com.gamehub.service.GameSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/catalog")
+public class CatalogAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogAdminController.class);
+
+    @Autowired
+    private GameCatalogCache gameCatalogCache;
+
+    @Autowired
+    private GameSearchIndex gameSearchIndex;
+
+    @Autowired
+    private GameRatingStatsService gameRatingStatsService;
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        logger.info("Admin requested game catalog cache rebuild");
+        gameCatalogCache.rebuild();
+        return ResponseEntity.ok(gameCatalogCache.getStats());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(gameCatalogCache.getStats());
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() throws IOException {
+        logger.info("Admin requested game search index rebuild");
+        gameSearchIndex.rebuild();
+        return ResponseEntity.ok(gameSearchIndex.getStats());
+    }
+
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchStats() {
+        return ResponseEntity.ok(gameSearchIndex.getStats());
+    }
+
+    @PostMapping("/ratings/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileRatings() {
+        logger.info("Admin requested rating stats reconciliation");
+        gameRatingStatsService.reconcile();
+        return ResponseEntity.ok(gameRatingStatsService.getStats());
+    }
+
+    @GetMapping("/ratings/stats")
+    public ResponseEntity<Map<String, Object>> getRatingStats() {
+        return ResponseEntity.ok(gameRatingStatsService.getStats());
+    }
+}
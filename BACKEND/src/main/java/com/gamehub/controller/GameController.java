@@ -1,13 +1,23 @@
 // Note: Controller xử lý các API liên quan đến tạo và xem danh sách game của Developer.
 package com.gamehub.controller;
 
+import com.gamehub.dto.GameApiKeyResponse;
 import com.gamehub.dto.GameRequest;
 import com.gamehub.dto.GameResponse;
+import com.gamehub.dto.GameSearchResponse;
 import com.gamehub.exception.GameException;
+import com.gamehub.model.GameDownloadStats;
+import com.gamehub.repository.GameDownloadStatsRepository;
+import com.gamehub.service.CatalogResponseCache;
+import com.gamehub.service.CatalogVersions.Catalog;
+import com.gamehub.service.GameApiKeyService;
+import com.gamehub.service.GameSearchIndex;
 import com.gamehub.service.GameService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -15,7 +25,9 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.view.RedirectView;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/games")
@@ -26,6 +38,24 @@ public class GameController {
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private GameSearchIndex gameSearchIndex;
+
+    @Autowired
+    private GameDownloadStatsRepository gameDownloadStatsRepository;
+
+    @Autowired
+    private GameApiKeyService gameApiKeyService;
+
+    @Value("${gamehub.catalog.legacy-unpaged-enabled:true}")
+    private boolean legacyUnpagedEnabled;
+
+    @Value("${gamehub.catalog.default-page-size:20}")
+    private int defaultPageSize;
+
     @PostMapping("/create")
     public ResponseEntity<GameResponse> createGame(@Valid @ModelAttribute GameRequest gameRequest,
                                                    Authentication authentication) throws GameException {
@@ -53,6 +83,46 @@ public class GameController {
         return ResponseEntity.ok("Game deleted successfully");
     }
 
+    // Cấp mới hoặc xoay API key cho game server; key gốc chỉ trả về trong response này
+    @PostMapping("/{id}/api-key")
+    public ResponseEntity<?> issueApiKey(@PathVariable Long id, Authentication authentication) {
+        logger.info("API key issue request for game ID: {} by user: {}", id, authentication.getName());
+        try {
+            GameApiKeyResponse response = gameApiKeyService.issueKey(id, authentication.getName());
+            return ResponseEntity.ok(response);
+        } catch (GameException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/{id}/api-key")
+    public ResponseEntity<?> getApiKey(@PathVariable Long id, Authentication authentication) {
+        try {
+            return gameApiKeyService.getKey(id, authentication.getName())
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (GameException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @DeleteMapping("/{id}/api-key")
+    public ResponseEntity<?> revokeApiKey(@PathVariable Long id, Authentication authentication) {
+        logger.info("API key revoke request for game ID: {} by user: {}", id, authentication.getName());
+        try {
+            gameApiKeyService.revokeKey(id, authentication.getName());
+            return ResponseEntity.ok("API key revoked successfully");
+        } catch (GameException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @GetMapping("/my-games")
     public ResponseEntity<List<GameResponse>> getMyGames(Authentication authentication) throws GameException {
         logger.info("Fetching games for user: {}", authentication.getName());
@@ -60,11 +130,49 @@ public class GameController {
         return ResponseEntity.ok(games);
     }
 
+    // Không truyền tham số nào: trả về danh sách đầy đủ như cũ (nếu còn bật cờ tương thích).
+    // Có cursor/limit/bộ lọc: trả về một trang GamePageResponse, lấy trang sau bằng nextCursor.
     @GetMapping("/public")
-    public ResponseEntity<List<GameResponse>> getPublicGames() {
-        logger.info("Fetching public approved games");
-        List<GameResponse> games = gameService.getPublicGames();
-        return ResponseEntity.ok(games);
+    public ResponseEntity<?> getPublicGames(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) Boolean supportsLeaderboard,
+                                            @RequestParam(required = false) Boolean supportsPoints,
+                                            @RequestParam(required = false) Long developerId,
+                                            HttpServletRequest request) {
+        boolean paged = cursor != null || limit != null || supportsLeaderboard != null
+                || supportsPoints != null || developerId != null;
+        if (!paged && legacyUnpagedEnabled) {
+            logger.info("Fetching public approved games (unpaged)");
+            return catalogResponseCache.respond(request, "games:public", Catalog.GAMES, true, gameService::getPublicGames);
+        }
+
+        logger.info("Fetching public approved games page: cursor={}, limit={}", cursor, limit);
+        try {
+            int pageSize = limit != null ? limit : defaultPageSize;
+            // Trang có tham số tùy ý: chỉ dùng ETag để trả 304, không lưu body
+            return catalogResponseCache.respond(request, "games:public?" + request.getQueryString(), Catalog.GAMES, false,
+                    () -> gameService.getPublicGamesPage(cursor, pageSize, supportsLeaderboard, supportsPoints, developerId));
+        } catch (GameException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Tìm kiếm toàn văn theo tên/mô tả game đã duyệt, sắp xếp theo độ liên quan; page bắt đầu từ 0
+    @GetMapping("/search")
+    public ResponseEntity<?> searchGames(@RequestParam("q") String query,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size) {
+        logger.info("Searching games: q={}, page={}, size={}", query, page, size);
+        try {
+            GameSearchResponse response = gameSearchIndex.search(query, page, size);
+            return ResponseEntity.ok(response);
+        } catch (GameException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     // New public endpoint to get a single game by its ID
@@ -75,6 +183,16 @@ public class GameController {
         return ResponseEntity.ok(game);
     }
 
+    @GetMapping("/{id}/downloads")
+    public ResponseEntity<Map<String, Object>> getDownloadCount(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("gameId", id);
+        response.put("downloadCount", gameDownloadStatsRepository.findById(id)
+                .map(GameDownloadStats::getDownloadCount)
+                .orElse(0L));
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/developer/{developerId}")
     public ResponseEntity<List<GameResponse>> getGamesByDeveloper(@PathVariable Long developerId) {
         logger.info("Fetching games for developer ID: {}", developerId);
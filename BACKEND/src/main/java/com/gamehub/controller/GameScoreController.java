@@ -0,0 +1,90 @@
+// Note: Controller xử lý bảng điểm theo game: game client nộp điểm của người chơi, đọc top-K và điểm của tôi.
+package com.gamehub.controller;
+
+import com.gamehub.dto.GameScoreBoardResponse;
+import com.gamehub.dto.ScoreSubmitRequest;
+import com.gamehub.exception.GameException;
+import com.gamehub.exception.ServiceBusyException;
+import com.gamehub.security.AuthenticatedUser;
+import com.gamehub.service.GameScoreService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/scores")
+public class GameScoreController {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameScoreController.class);
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    // Điểm được ghi DB theo lô nên trả về 202; rank = null khi điểm tốt nhất nằm ngoài top-K
+    @PostMapping("/{gameId}")
+    public ResponseEntity<Map<String, Object>> submitScore(@PathVariable Long gameId,
+                                                           @Valid @RequestBody ScoreSubmitRequest request,
+                                                           Authentication authentication) {
+        Map<String, Object> response = new HashMap<>();
+        AuthenticatedUser user = AuthenticatedUser.from(authentication);
+        if (user == null) {
+            response.put("message", "Unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            Integer rank = gameScoreService.submitScore(gameId, user.getId(), user.getName(), request.getScore());
+            response.put("gameId", gameId);
+            response.put("score", request.getScore());
+            response.put("rank", rank);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (GameException e) {
+            logger.warn("Score submission rejected: GameID={}, PlayerID={}: {}", gameId, user.getId(), e.getMessage());
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (ServiceBusyException e) {
+            logger.warn("Score submission rejected - {}", e.getMessage());
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
+        }
+    }
+
+    @GetMapping("/{gameId}/top")
+    public ResponseEntity<?> getTop(@PathVariable Long gameId, @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(gameScoreService.getTop(gameId, limit));
+        } catch (GameException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{gameId}/me")
+    public ResponseEntity<?> getMyScore(@PathVariable Long gameId, Authentication authentication) {
+        AuthenticatedUser user = AuthenticatedUser.from(authentication);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            GameScoreBoardResponse response = gameScoreService.getPlayerScore(gameId, user.getId());
+            return ResponseEntity.ok(response);
+        } catch (GameException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
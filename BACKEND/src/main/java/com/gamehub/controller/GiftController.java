@@ -1,19 +1,36 @@
 package com.gamehub.controller;
 
+import com.gamehub.dto.GiftCodePoolResponse;
 import com.gamehub.dto.GiftDTO;
+import com.gamehub.dto.GiftPageResponse;
 import com.gamehub.dto.GiftTransactionDTO;
+import com.gamehub.dto.RedeemTicketResponse;
 import com.gamehub.exception.GameException;
+import com.gamehub.exception.ServiceBusyException;
+import com.gamehub.security.AuthenticatedUser;
+import com.gamehub.service.CatalogResponseCache;
+import com.gamehub.service.CatalogVersions.Catalog;
+import com.gamehub.service.GiftCodePool;
+import com.gamehub.service.GiftDropService;
 import com.gamehub.service.GiftService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/gifts")
@@ -21,9 +38,24 @@ public class GiftController {
 
     private static final Logger logger = LoggerFactory.getLogger(GiftController.class);
 
+    // Danh sách quà đổi khi danh mục đổi (GIFTS) hoặc khi số lượng đổi sau lượt đổi quà (GIFT_STOCK)
+    private static final List<Catalog> GIFT_LISTINGS = List.of(Catalog.GIFTS, Catalog.GIFT_STOCK);
+
     @Autowired
     private GiftService giftService;
 
+    @Autowired
+    private GiftDropService giftDropService;
+
+    @Autowired
+    private GiftCodePool giftCodePool;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Value("${gamehub.gifts.default-page-size:20}")
+    private int defaultPageSize;
+
     @PostMapping("/upload")
     public ResponseEntity<GiftDTO> uploadGift(
             @RequestParam Long developerId,
@@ -41,6 +73,12 @@ public class GiftController {
             throw new GameException("Unauthorized");
         }
 
+        // Chỉ được upload quà cho chính mình
+        if (!AuthenticatedUser.isSelf(authentication, developerId)) {
+            logger.warn("Gift upload for another developer rejected: DeveloperID={}", developerId);
+            throw new GameException("Unauthorized");
+        }
+
         if (name == null || name.trim().isEmpty()) {
             throw new GameException("Gift name is required");
         }
@@ -57,11 +95,63 @@ public class GiftController {
         return new ResponseEntity<>(giftDTO, HttpStatus.CREATED);
     }
 
+    // Không truyền tham số: danh sách đầy đủ (JSON đã serialize sẵn kèm ETag; trả 304 khi danh sách quà chưa đổi).
+    // Có cursor/limit/bộ lọc: trả về một trang GiftPageResponse, lấy trang sau bằng nextCursor.
     @GetMapping
-    public ResponseEntity<List<GiftDTO>> getAllGifts() {
-        logger.info("Fetching all gifts");
-        List<GiftDTO> gifts = giftService.getAllGifts();
-        return new ResponseEntity<>(gifts, HttpStatus.OK);
+    public ResponseEntity<?> getAllGifts(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) Long developerId,
+                                         @RequestParam(required = false) Boolean inStock,
+                                         @RequestParam(required = false) Long minCost,
+                                         @RequestParam(required = false) Long maxCost,
+                                         HttpServletRequest request) {
+        boolean paged = cursor != null || limit != null || developerId != null
+                || inStock != null || minCost != null || maxCost != null;
+        if (!paged) {
+            logger.info("Fetching all gifts");
+            return catalogResponseCache.respond(request, "gifts:all", GIFT_LISTINGS, true, giftService::getAllGifts);
+        }
+
+        logger.info("Fetching gifts page: cursor={}, limit={}", cursor, limit);
+        try {
+            int pageSize = limit != null ? limit : defaultPageSize;
+            // Trang có tham số tùy ý: chỉ dùng ETag để trả 304, không lưu body
+            return catalogResponseCache.respond(request, "gifts:page?" + request.getQueryString(), GIFT_LISTINGS, false,
+                    () -> giftService.getGiftsPage(cursor, pageSize, developerId, inStock, minCost, maxCost));
+        } catch (GameException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Danh mục cá nhân hóa ("đổi được gì"): mỗi gift kèm playerPoints và affordable; không cache response vì điểm thay đổi liên tục
+    @GetMapping("/for-player")
+    public ResponseEntity<?> getGiftsForPlayer(@RequestParam Long playerId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) Long developerId,
+                                               @RequestParam(required = false) Boolean inStock,
+                                               @RequestParam(required = false) Long minCost,
+                                               @RequestParam(required = false) Long maxCost,
+                                               @RequestParam(defaultValue = "false") boolean affordableOnly,
+                                               Authentication authentication) {
+        logger.info("Fetching gifts for player: PlayerID={}, cursor={}, limit={}", playerId, cursor, limit);
+        Map<String, Object> error = new HashMap<>();
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
+            logger.warn("Personalized gift catalog for another player rejected: PlayerID={}", playerId);
+            error.put("message", "Unauthorized");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+        }
+        try {
+            int pageSize = limit != null ? limit : defaultPageSize;
+            GiftPageResponse page = giftService.getPlayerGiftsPage(playerId, cursor, pageSize, developerId, inStock,
+                    minCost, maxCost, affordableOnly);
+            return ResponseEntity.ok(page);
+        } catch (GameException e) {
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     @GetMapping("/developer/{developerId}")
@@ -85,8 +175,9 @@ public class GiftController {
         return new ResponseEntity<>(gifts, HttpStatus.OK);
     }
 
+    // Gift ở chế độ drop: trả 202 kèm ticket, kết quả lấy qua /redeem/tickets/{ticketId}
     @PostMapping("/redeem")
-    public ResponseEntity<GiftTransactionDTO> redeemGift(
+    public ResponseEntity<?> redeemGift(
             @RequestParam Long playerId,
             @RequestParam Long giftId,
             Authentication authentication) throws GameException {
@@ -98,10 +189,55 @@ public class GiftController {
             throw new GameException("Unauthorized");
         }
 
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
+            logger.warn("Gift redeem for another player rejected: PlayerID={}", playerId);
+            throw new GameException("Unauthorized");
+        }
+
+        if (giftDropService.isDropMode(giftId)) {
+            try {
+                RedeemTicketResponse ticket = giftDropService.enqueue(playerId, authentication.getName(), giftId);
+                return new ResponseEntity<>(ticket, HttpStatus.ACCEPTED);
+            } catch (ServiceBusyException e) {
+                logger.warn("Gift redeem rejected - {}", e.getMessage());
+                Map<String, String> response = new HashMap<>();
+                response.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(response);
+            }
+        }
+
         GiftTransactionDTO transactionDTO = giftService.redeemGift(playerId, giftId);
         return new ResponseEntity<>(transactionDTO, HttpStatus.OK);
     }
 
+    @GetMapping("/redeem/tickets/{ticketId}")
+    public ResponseEntity<?> getRedeemTicket(@PathVariable String ticketId, Authentication authentication) {
+        AuthenticatedUser user = AuthenticatedUser.from(authentication);
+        if (user != null) {
+            Optional<RedeemTicketResponse> ticket = giftDropService.getTicket(ticketId, user.getId());
+            if (ticket.isPresent()) {
+                return new ResponseEntity<>(ticket.get(), HttpStatus.OK);
+            }
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Redeem ticket not found");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    // Stream (SSE) kết quả ticket: sự kiện "ticket" với trạng thái hiện tại, rồi kết quả cuối cùng
+    @GetMapping(value = "/redeem/tickets/{ticketId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRedeemTicket(@PathVariable String ticketId, Authentication authentication) {
+        AuthenticatedUser user = AuthenticatedUser.from(authentication);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return giftDropService.subscribe(ticketId, user.getId())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
     @GetMapping("/transactions")
     public ResponseEntity<List<GiftTransactionDTO>> getGiftTransactions(
             @RequestParam Long playerId,
@@ -114,6 +250,11 @@ public class GiftController {
             throw new GameException("Unauthorized");
         }
 
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
+            logger.warn("Gift transactions fetch for another player rejected: PlayerID={}", playerId);
+            throw new GameException("Unauthorized");
+        }
+
         List<GiftTransactionDTO> transactions = giftService.getGiftTransactions(playerId);
         return new ResponseEntity<>(transactions, HttpStatus.OK);
     }
@@ -140,6 +281,69 @@ public class GiftController {
         return new ResponseEntity<>(giftDTO, HttpStatus.OK);
     }
 
+    @PutMapping("/{id}/drop-mode")
+    public ResponseEntity<GiftDTO> setDropMode(
+            @PathVariable Long id,
+            @RequestParam boolean enabled,
+            Authentication authentication) throws GameException {
+        logger.info("Gift drop mode request: GiftID={}, Enabled={}", id, enabled);
+
+        if (authentication == null || !authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("DEVELOPER"))) {
+            logger.warn("Unauthorized gift drop mode change attempt: GiftID={}", id);
+            throw new GameException("Unauthorized");
+        }
+
+        GiftDTO giftDTO = giftDropService.setDropMode(id, enabled, authentication.getName());
+        return new ResponseEntity<>(giftDTO, HttpStatus.OK);
+    }
+
+    // Tải lên kho mã đổi quà: file văn bản, mỗi dòng một mã; mã đã có trong kho được bỏ qua
+    @PostMapping("/{id}/codes")
+    public ResponseEntity<GiftCodePoolResponse> uploadCodes(
+            @PathVariable Long id,
+            @RequestParam MultipartFile file,
+            Authentication authentication) throws GameException {
+        logger.info("Upload gift codes request: GiftID={}", id);
+
+        if (authentication == null || !authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("DEVELOPER"))) {
+            logger.warn("Unauthorized gift code upload attempt: GiftID={}", id);
+            throw new GameException("Unauthorized");
+        }
+
+        GiftCodePoolResponse response = giftCodePool.uploadCodes(id, file, authentication.getName());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{id}/codes/generate")
+    public ResponseEntity<GiftCodePoolResponse> generateCodes(
+            @PathVariable Long id,
+            @RequestParam int count,
+            Authentication authentication) throws GameException {
+        logger.info("Generate gift codes request: GiftID={}, Count={}", id, count);
+
+        if (authentication == null || !authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("DEVELOPER"))) {
+            logger.warn("Unauthorized gift code generation attempt: GiftID={}", id);
+            throw new GameException("Unauthorized");
+        }
+
+        GiftCodePoolResponse response = giftCodePool.generateCodes(id, count, authentication.getName());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}/codes")
+    public ResponseEntity<GiftCodePoolResponse> getCodePool(@PathVariable Long id, Authentication authentication) throws GameException {
+        if (authentication == null || !authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("DEVELOPER"))) {
+            logger.warn("Unauthorized gift code pool fetch attempt: GiftID={}", id);
+            throw new GameException("Unauthorized");
+        }
+
+        return new ResponseEntity<>(giftCodePool.getSummary(id, authentication.getName()), HttpStatus.OK);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteGift(
             @PathVariable Long id,
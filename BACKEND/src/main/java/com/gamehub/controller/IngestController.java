@@ -0,0 +1,55 @@
+// Note: Controller nhận dữ liệu từ game server, xác thực bằng API key của game (header X-Api-Key) thay cho JWT.
+// JwtAuthenticationFilter bỏ qua /api/v1/ingest/** nên mỗi lô chỉ tốn một lần tra cache key.
+package com.gamehub.controller;
+
+import com.gamehub.dto.PointAwardBatchRequest;
+import com.gamehub.dto.PointAwardBatchResponse;
+import com.gamehub.exception.GameException;
+import com.gamehub.service.GameApiKeyService;
+import com.gamehub.service.PointIngestionService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1/ingest")
+public class IngestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestController.class);
+
+    static final String API_KEY_HEADER = "X-Api-Key";
+
+    @Autowired
+    private GameApiKeyService gameApiKeyService;
+
+    @Autowired
+    private PointIngestionService pointIngestionService;
+
+    // Một lô tối đa gamehub.ingest.max-batch-size lần cộng điểm cho game sở hữu API key
+    @PostMapping("/points")
+    public ResponseEntity<?> ingestPoints(@RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                                          @Valid @RequestBody PointAwardBatchRequest request) {
+        Optional<GameApiKeyService.IngestClient> client = gameApiKeyService.authenticate(apiKey);
+        if (client.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid API key"));
+        }
+        try {
+            PointAwardBatchResponse response = pointIngestionService.ingest(client.get(), request.getAwards());
+            return ResponseEntity.ok(response);
+        } catch (GameException e) {
+            logger.warn("Point batch rejected for game {}: {}", client.get().getGameId(), e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.gamehub.controller;
 
+import com.gamehub.dto.LeaderboardPageResponse;
 import com.gamehub.dto.LeaderboardResponse;
+import com.gamehub.model.enums.LeaderboardWindow;
+import com.gamehub.security.AuthenticatedUser;
 import com.gamehub.service.LeaderboardService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/leaderboard")
@@ -25,12 +32,15 @@ public class LeaderboardController {
     private LeaderboardService leaderboardService;
 
     // Bổ sung: Endpoint để lấy bảng xếp hạng 10 người chơi hàng đầu cho một developer
+    // window: ALL_TIME (mặc định), DAILY, WEEKLY, SEASON; period: một ngày bất kỳ trong kỳ muốn xem (mặc định hôm nay)
     @GetMapping("/developer/{developerId}")
-    public ResponseEntity<List<LeaderboardResponse>> getLeaderboardByDeveloper(
+    public ResponseEntity<?> getLeaderboardByDeveloper(
             @PathVariable Long developerId,
+            @RequestParam(defaultValue = "ALL_TIME") String window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate period,
             Authentication authentication) {
 
-        logger.info("Get leaderboard request for DeveloperID={}", developerId);
+        logger.info("Get leaderboard request for DeveloperID={}, window={}", developerId, window);
 
         // Kiểm tra quyền truy cập (player, developer hoặc admin được phép)
         if (authentication == null || !authentication.getAuthorities().stream()
@@ -41,8 +51,12 @@ public class LeaderboardController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        LeaderboardWindow leaderboardWindow = parseWindow(window);
+        if (leaderboardWindow == null) {
+            return invalidWindow(window);
+        }
         try {
-            List<LeaderboardResponse> leaderboard = leaderboardService.getLeaderboardByDeveloper(developerId);
+            List<LeaderboardResponse> leaderboard = leaderboardService.getLeaderboardByDeveloper(developerId, leaderboardWindow, period);
             logger.info("Retrieved leaderboard with {} players for DeveloperID={}", leaderboard.size(), developerId);
             return ResponseEntity.ok(leaderboard);
         } catch (Exception e) {
@@ -50,4 +64,65 @@ public class LeaderboardController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // Các endpoint dưới đây đọc hoàn toàn từ bảng xếp hạng trong bộ nhớ (không truy vấn DB)
+    // (kỳ hiện tại của ngày/tuần/mùa cũng ở trong bộ nhớ; kỳ đã đóng đọc từ bản chốt)
+    @GetMapping("/developer/{developerId}/top")
+    public ResponseEntity<?> getTop(@PathVariable Long developerId,
+                                    @RequestParam(defaultValue = "10") int limit,
+                                    @RequestParam(defaultValue = "ALL_TIME") String window,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate period) {
+        logger.info("Get top {} for DeveloperID={}, window={}", limit, developerId, window);
+        LeaderboardWindow leaderboardWindow = parseWindow(window);
+        if (leaderboardWindow == null) {
+            return invalidWindow(window);
+        }
+        return ResponseEntity.ok(leaderboardService.getTop(developerId, limit, leaderboardWindow, period));
+    }
+
+    @GetMapping("/developer/{developerId}/page")
+    public ResponseEntity<?> getPage(@PathVariable Long developerId,
+                                     @RequestParam(defaultValue = "0") int offset,
+                                     @RequestParam(defaultValue = "20") int limit,
+                                     @RequestParam(defaultValue = "ALL_TIME") String window,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate period) {
+        logger.info("Get leaderboard page for DeveloperID={}: offset={}, limit={}, window={}", developerId, offset, limit, window);
+        LeaderboardWindow leaderboardWindow = parseWindow(window);
+        if (leaderboardWindow == null) {
+            return invalidWindow(window);
+        }
+        return ResponseEntity.ok(leaderboardService.getPage(developerId, offset, limit, leaderboardWindow, period));
+    }
+
+    // Hạng của người đang đăng nhập cùng "radius" người ở trên và dưới
+    @GetMapping("/developer/{developerId}/around-me")
+    public ResponseEntity<?> getAroundMe(@PathVariable Long developerId,
+                                         @RequestParam(defaultValue = "5") int radius,
+                                         @RequestParam(defaultValue = "ALL_TIME") String window,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate period,
+                                         Authentication authentication) {
+        AuthenticatedUser user = AuthenticatedUser.from(authentication);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        LeaderboardWindow leaderboardWindow = parseWindow(window);
+        if (leaderboardWindow == null) {
+            return invalidWindow(window);
+        }
+        logger.info("Get leaderboard around PlayerID={} for DeveloperID={}, window={}", user.getId(), developerId, window);
+        return ResponseEntity.ok(leaderboardService.getAroundPlayer(developerId, user.getId(), radius, leaderboardWindow, period));
+    }
+
+    private static LeaderboardWindow parseWindow(String window) {
+        try {
+            return LeaderboardWindow.valueOf(window.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> invalidWindow(String window) {
+        logger.warn("Invalid leaderboard window: {}", window);
+        return ResponseEntity.badRequest().body(Map.of("message", "Invalid leaderboard window: " + window));
+    }
 }
@@ -3,18 +3,20 @@ package com.gamehub.controller;
 
 import com.gamehub.dto.GameResponse;
 import com.gamehub.dto.PlayerDeveloperPointsDTO;
+import com.gamehub.dto.PointHistoryResponse;
 import com.gamehub.dto.PointTransactionResponse;
 import com.gamehub.exception.GameException;
-import com.gamehub.model.PointTransaction;
-import com.gamehub.repository.PointTransactionRepository;
-import com.gamehub.repository.UserRepository;
-import com.gamehub.service.GameService;
+import com.gamehub.repository.GameRepository;
+import com.gamehub.security.AuthenticatedUser;
+import com.gamehub.service.DownloadTrackingService;
+import com.gamehub.service.GameCatalogCache;
+import com.gamehub.service.PointLedgerArchiveService;
 import com.gamehub.service.PointService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -23,11 +25,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.servlet.view.RedirectView;
 
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/points")
@@ -39,40 +40,47 @@ public class PointController {
     private PointService pointService;
 
     @Autowired
-    private GameService gameService;
+    private GameCatalogCache gameCatalogCache;
 
     @Autowired
-    private UserRepository userRepository;
+    private GameRepository gameRepository;
 
     @Autowired
-    private PointTransactionRepository pointTransactionRepository;
+    private DownloadTrackingService downloadTrackingService;
 
+    @Autowired
+    private PointLedgerArchiveService pointLedgerArchiveService;
+
+    // Redirect ngay tới APK (URL lấy từ cache danh sách game), việc cộng điểm và đếm lượt tải do
+    // DownloadTrackingService ghi nền theo lô. Đường nóng không dùng exception: lỗi trả thẳng status + message
     @GetMapping("/track-download")
-    public RedirectView trackDownload(@RequestParam Long playerId, @RequestParam Long gameId, Authentication authentication) throws GameException {
+    public ResponseEntity<?> trackDownload(@RequestParam Long playerId, @RequestParam Long gameId, Authentication authentication) {
         logger.info("Track download request: PlayerID={}, GameID={}", playerId, gameId);
 
-        // Kiểm tra người dùng đăng nhập
-        if (authentication == null || !authentication.getName().equals(userRepository.findById(playerId).orElseThrow().getEmail())) {
+        // Kiểm tra người dùng đăng nhập (so sánh với userId trong token)
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
             logger.warn("Unauthorized download tracking attempt: PlayerID={}", playerId);
-            throw new GameException("Unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
         }
 
-        try {
-            // Thử cộng điểm, nếu đã cộng rồi thì bỏ qua. Points null để dùng default.
-            pointService.awardPoints(playerId, gameId, "DOWNLOAD_GAME", null);
-            logger.info("Points awarded successfully for download");
-        } catch (Exception e) {
-            logger.info("Points not awarded (may have been awarded before): {}", e.getMessage());
-            // Không throw exception, vẫn cho phép download
+        Optional<GameResponse> found = gameCatalogCache.getApprovedGame(gameId);
+        if (found.isEmpty()) {
+            found = gameRepository.findGameResponseById(gameId);
+        }
+        if (found.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Game not found with ID: " + gameId));
+        }
+        GameResponse game = found.get();
+        String apkFileUrl = game.getApkFileUrl();
+        if (apkFileUrl == null || apkFileUrl.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Game has no APK file"));
         }
 
-        String apkFileUrl = gameService.getGameById(gameId).getApkFileUrl();
+        downloadTrackingService.record(playerId, authentication.getName(), gameId, game.getDeveloperId(), game.isSupportPoints());
         logger.info("Redirecting to APK URL: {}", apkFileUrl);
 
-        // Tạo RedirectView với external URL
-        RedirectView redirectView = new RedirectView(apkFileUrl);
-        redirectView.setStatusCode(HttpStatus.FOUND); // 302 redirect
-        return redirectView;
+        // 302 redirect tới external URL
+        return ResponseEntity.status(HttpStatus.FOUND).header(HttpHeaders.LOCATION, apkFileUrl).build();
     }
 
     @GetMapping("/transactions/{playerId}")
@@ -82,27 +90,15 @@ public class PointController {
 
         logger.info("Get transactions request for PlayerID={}", playerId);
 
-        // Kiểm tra người dùng đăng nhập
-        if (authentication == null || !authentication.getName().equals(userRepository.findById(playerId).orElseThrow().getEmail())) {
+        // Kiểm tra người dùng đăng nhập (so sánh với userId trong token)
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
             logger.warn("Unauthorized transactions access attempt: PlayerID={}", playerId);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         try {
-            // Lấy 10 giao dịch gần nhất, sắp xếp theo thời gian tạo giảm dần
-            List<PointTransaction> transactions = pointTransactionRepository
-                    .findByPlayerIdOrderByCreatedAtDesc(playerId, PageRequest.of(0, 10));
-
-            List<PointTransactionResponse> response = transactions.stream()
-                    .map(transaction -> new PointTransactionResponse(
-                            transaction.getId(),
-                            transaction.getPlayer().getId(),
-                            transaction.getGame() != null ? transaction.getGame().getId() : null,
-                            transaction.getActionType(),
-                            transaction.getPoints(),
-                            transaction.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                    ))
-                    .collect(Collectors.toList());
+            // Lấy 10 giao dịch gần nhất, sắp xếp theo thời gian tạo giảm dần (gồm cả giao dịch đã lưu trữ nếu cần)
+            List<PointTransactionResponse> response = pointLedgerArchiveService.getRecentTransactions(playerId, 10);
 
             logger.info("Retrieved {} transactions for PlayerID={}", response.size(), playerId);
             return ResponseEntity.ok(response);
@@ -112,6 +108,31 @@ public class PointController {
         }
     }
 
+    // Lịch sử điểm: giao dịch gần đây (dòng gốc) kèm tổng theo tháng của các giao dịch cũ đã lưu trữ
+    @GetMapping("/transactions/{playerId}/history")
+    public ResponseEntity<PointHistoryResponse> getPlayerPointHistory(
+            @PathVariable Long playerId,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+
+        logger.info("Get point history request for PlayerID={}", playerId);
+
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
+            logger.warn("Unauthorized point history access attempt: PlayerID={}", playerId);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            PointHistoryResponse history = pointLedgerArchiveService.getHistory(playerId, Math.max(1, Math.min(limit, 100)));
+            logger.info("Retrieved {} recent transactions and {} monthly summaries for PlayerID={}",
+                    history.getRecent().size(), history.getMonthly().size(), playerId);
+            return ResponseEntity.ok(history);
+        } catch (Exception e) {
+            logger.error("Error retrieving point history for PlayerID={}: {}", playerId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/player/{playerId}/by-developer")
     public ResponseEntity<List<PlayerDeveloperPointsDTO>> getPlayerPointsByDeveloper(
             @PathVariable Long playerId,
@@ -119,7 +140,7 @@ public class PointController {
 
         logger.info("Get player points by developer request for PlayerID={}", playerId);
 
-        if (authentication == null || !authentication.getName().equals(userRepository.findById(playerId).orElseThrow().getEmail())) {
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
             logger.warn("Unauthorized player points by developer access attempt: PlayerID={}", playerId);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -145,7 +166,7 @@ public class PointController {
 
         logger.info("Get player points for developer request: PlayerID={}, DeveloperID={}", playerId, developerId);
 
-        if (authentication == null || !authentication.getName().equals(userRepository.findById(playerId).orElseThrow().getEmail())) {
+        if (!AuthenticatedUser.isSelf(authentication, playerId)) {
             logger.warn("Unauthorized player points for developer access attempt: PlayerID={}", playerId);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -1,6 +1,7 @@
 // Note: Controller xử lý các request liên quan đến review (gửi, lấy danh sách).
 package com.gamehub.controller;
 
+import com.gamehub.dto.ReviewPageResponse;
 import com.gamehub.dto.ReviewRequest;
 import com.gamehub.dto.ReviewResponse;
 import com.gamehub.exception.GameException;
@@ -8,12 +9,15 @@ import com.gamehub.service.ReviewService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/reviews")
@@ -24,6 +28,12 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
 
+    @Value("${gamehub.reviews.legacy-unpaged-enabled:true}")
+    private boolean legacyUnpagedEnabled;
+
+    @Value("${gamehub.reviews.default-page-size:20}")
+    private int defaultPageSize;
+
     @PostMapping
     public ResponseEntity<ReviewResponse> submitReview(@Valid @RequestBody ReviewRequest reviewRequest, Authentication authentication) throws GameException {
         logger.info("Received review submission request from user: {}", authentication.getName());
@@ -31,10 +41,26 @@ public class ReviewController {
         return ResponseEntity.ok(response);
     }
 
+    // Không truyền tham số nào: trả về danh sách đầy đủ như cũ (nếu còn bật cờ tương thích).
+    // Có cursor/limit/sort: trả về một trang ReviewPageResponse (sort = newest | rating), lấy trang sau bằng nextCursor.
     @GetMapping("/{gameId}")
-    public ResponseEntity<List<ReviewResponse>> getReviews(@PathVariable Long gameId) {
-        logger.info("Fetching reviews for game ID: {}", gameId);
-        List<ReviewResponse> reviews = reviewService.getReviewsByGameId(gameId);
-        return ResponseEntity.ok(reviews);
+    public ResponseEntity<?> getReviews(@PathVariable Long gameId,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(required = false) String sort) {
+        try {
+            if (cursor == null && limit == null && sort == null && legacyUnpagedEnabled) {
+                logger.info("Fetching reviews for game ID: {} (unpaged)", gameId);
+                List<ReviewResponse> reviews = reviewService.getReviewsByGameId(gameId);
+                return ResponseEntity.ok(reviews);
+            }
+            logger.info("Fetching reviews page for game ID: {}, sort={}, cursor={}, limit={}", gameId, sort, cursor, limit);
+            ReviewPageResponse page = reviewService.getReviewsPage(gameId, cursor, limit != null ? limit : defaultPageSize, sort);
+            return ResponseEntity.ok(page);
+        } catch (GameException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 }
@@ -0,0 +1,160 @@
+// Note: Controller cho Admin xem số liệu vận hành nội bộ (executor, cache, buffer...).
+// Đường dẫn nằm dưới /api/v1/admin/** nên chỉ ADMIN truy cập được.
+package com.gamehub.controller;
+
+import com.gamehub.service.AssetTagIndex;
+import com.gamehub.service.CatalogResponseCache;
+import com.gamehub.service.DownloadTrackingService;
+import com.gamehub.service.GameScoreService;
+import com.gamehub.service.GiftCatalogCache;
+import com.gamehub.service.GiftDropService;
+import com.gamehub.service.LeaderboardIndex;
+import com.gamehub.service.LeaderboardWindowService;
+import com.gamehub.service.PasswordHashingService;
+import com.gamehub.service.DuplicateActionCache;
+import com.gamehub.service.GiftService;
+import com.gamehub.service.PointAccrualBuffer;
+import com.gamehub.service.PointLedgerArchiveService;
+import com.gamehub.service.PointIngestionService;
+import com.gamehub.service.RefreshTokenService;
+import com.gamehub.service.UserIdentityCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/stats")
+public class SystemStatsController {
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private DownloadTrackingService downloadTrackingService;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private LeaderboardWindowService leaderboardWindowService;
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private PointIngestionService pointIngestionService;
+
+    @Autowired
+    private PointAccrualBuffer pointAccrualBuffer;
+
+    @Autowired
+    private DuplicateActionCache duplicateActionCache;
+
+    @Autowired
+    private PointLedgerArchiveService pointLedgerArchiveService;
+
+    @Autowired
+    private GiftService giftService;
+
+    @Autowired
+    private GiftDropService giftDropService;
+
+    @Autowired
+    private GiftCatalogCache giftCatalogCache;
+
+    @Autowired
+    private AssetTagIndex assetTagIndex;
+
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    @GetMapping("/user-cache")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats() {
+        return ResponseEntity.ok(userIdentityCache.getStats());
+    }
+
+    @GetMapping("/refresh-tokens")
+    public ResponseEntity<Map<String, Object>> getRefreshTokenStats() {
+        return ResponseEntity.ok(refreshTokenService.getStats());
+    }
+
+    @GetMapping("/response-cache")
+    public ResponseEntity<Map<String, Object>> getResponseCacheStats() {
+        return ResponseEntity.ok(catalogResponseCache.getStats());
+    }
+
+    @GetMapping("/downloads")
+    public ResponseEntity<Map<String, Object>> getDownloadTrackingStats() {
+        return ResponseEntity.ok(downloadTrackingService.getStats());
+    }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<Map<String, Object>> getLeaderboardStats() {
+        return ResponseEntity.ok(leaderboardIndex.getStats());
+    }
+
+    @GetMapping("/leaderboard-windows")
+    public ResponseEntity<Map<String, Object>> getLeaderboardWindowStats() {
+        return ResponseEntity.ok(leaderboardWindowService.getStats());
+    }
+
+    @GetMapping("/scores")
+    public ResponseEntity<Map<String, Object>> getGameScoreStats() {
+        return ResponseEntity.ok(gameScoreService.getStats());
+    }
+
+    @GetMapping("/ingest")
+    public ResponseEntity<Map<String, Object>> getIngestStats() {
+        return ResponseEntity.ok(pointIngestionService.getStats());
+    }
+
+    @GetMapping("/point-buffer")
+    public ResponseEntity<Map<String, Object>> getPointBufferStats() {
+        return ResponseEntity.ok(pointAccrualBuffer.getStats());
+    }
+
+    @GetMapping("/duplicate-cache")
+    public ResponseEntity<Map<String, Object>> getDuplicateCacheStats() {
+        return ResponseEntity.ok(duplicateActionCache.getStats());
+    }
+
+    @GetMapping("/point-archive")
+    public ResponseEntity<Map<String, Object>> getPointArchiveStats() {
+        return ResponseEntity.ok(pointLedgerArchiveService.getStats());
+    }
+
+    @GetMapping("/gifts")
+    public ResponseEntity<Map<String, Object>> getGiftStats() {
+        return ResponseEntity.ok(giftService.getStats());
+    }
+
+    @GetMapping("/gift-drops")
+    public ResponseEntity<Map<String, Object>> getGiftDropStats() {
+        return ResponseEntity.ok(giftDropService.getStats());
+    }
+
+    @GetMapping("/gift-catalog")
+    public ResponseEntity<Map<String, Object>> getGiftCatalogStats() {
+        return ResponseEntity.ok(giftCatalogCache.getStats());
+    }
+
+    @GetMapping("/asset-tags")
+    public ResponseEntity<Map<String, Object>> getAssetTagStats() {
+        return ResponseEntity.ok(assetTagIndex.getStats());
+    }
+}
@@ -3,6 +3,7 @@ package com.gamehub.controller;
 import com.gamehub.model.User;
 import com.gamehub.model.enums.UserRole;
 import com.gamehub.model.enums.UserStatus;
+import com.gamehub.security.AuthenticatedUser;
 import com.gamehub.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -25,7 +26,7 @@ public class UserController {
     public ResponseEntity<User> updateUserProfile(@RequestBody Map<String, Object> profileData, Authentication authentication) {
         try {
             String email = authentication.getName();
-            User user = userService.findByEmail(email);
+            User user = userService.findFreshByEmail(email);
 
             // Update avatarUrl if provided
             if (profileData.containsKey("avatarUrl")) {
@@ -42,8 +43,7 @@ public class UserController {
     @GetMapping("/profile")
     public ResponseEntity<User> getUserProfile(Authentication authentication) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email);
+            User user = findAuthenticatedUser(authentication);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
@@ -53,8 +53,7 @@ public class UserController {
     @GetMapping("/balance")
     public ResponseEntity<Map<String, Object>> getUserBalance(Authentication authentication) {
         try {
-            String email = authentication.getName();
-            User user = userService.findByEmail(email);
+            User user = findAuthenticatedUser(authentication);
 
             Map<String, Object> response = new HashMap<>();
             // Convert BigDecimal to double for JSON response
@@ -78,4 +77,13 @@ public class UserController {
             return ResponseEntity.status(500).body(null);
         }
     }
+
+    // Ưu tiên tra theo userId trong token; token cũ không có id thì tra theo email
+    private User findAuthenticatedUser(Authentication authentication) {
+        AuthenticatedUser principal = AuthenticatedUser.from(authentication);
+        if (principal != null && principal.getId() != null) {
+            return userService.findById(principal.getId());
+        }
+        return userService.findByEmail(authentication.getName());
+    }
 }
@@ -0,0 +1,107 @@
+// Note: DTO trả về cho /api/v1/assets/search (một trang assets đã duyệt khớp các tag, kèm số lượng theo tag/loại để lọc tiếp).
+package com.gamehub.dto;
+
+import com.gamehub.model.enums.AssetType;
+
+import java.util.List;
+import java.util.Map;
+
+public class AssetSearchResponse {
+
+    private List<String> tags;
+    private String mode;
+    private AssetType type;
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<AssetResponse> items;
+    private Map<String, Long> tagCounts;
+    private Map<String, Long> typeCounts;
+
+    public AssetSearchResponse() {}
+
+    public AssetSearchResponse(List<String> tags, String mode, AssetType type, int page, int size, long totalHits,
+                               List<AssetResponse> items, Map<String, Long> tagCounts, Map<String, Long> typeCounts) {
+        this.tags = tags;
+        this.mode = mode;
+        this.type = type;
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+        this.items = items;
+        this.tagCounts = tagCounts;
+        this.typeCounts = typeCounts;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public AssetType getType() {
+        return type;
+    }
+
+    public void setType(AssetType type) {
+        this.type = type;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public List<AssetResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<AssetResponse> items) {
+        this.items = items;
+    }
+
+    public Map<String, Long> getTagCounts() {
+        return tagCounts;
+    }
+
+    public void setTagCounts(Map<String, Long> tagCounts) {
+        this.tagCounts = tagCounts;
+    }
+
+    public Map<String, Long> getTypeCounts() {
+        return typeCounts;
+    }
+
+    public void setTypeCounts(Map<String, Long> typeCounts) {
+        this.typeCounts = typeCounts;
+    }
+}
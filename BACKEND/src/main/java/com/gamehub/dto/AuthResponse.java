@@ -1,5 +1,5 @@
 // Note: DTO định nghĩa dữ liệu trả về sau khi đăng nhập hoặc đăng ký.
-// Bao gồm token JWT, role, và email.
+// Bao gồm token JWT, refresh token, role, và email.
 package com.gamehub.dto;
 
 public class AuthResponse {
@@ -8,6 +8,7 @@ public class AuthResponse {
     private String role;
     private String email;
     private Long id; // Thêm trường id
+    private String refreshToken; // null nếu tài khoản chưa được duyệt
 
     public AuthResponse() {}
 
@@ -18,6 +19,11 @@ public class AuthResponse {
         this.id = id;
     }
 
+    public AuthResponse(String token, String role, String email, Long id, String refreshToken) {
+        this(token, role, email, id);
+        this.refreshToken = refreshToken;
+    }
+
     public String getToken() {
         return token;
     }
@@ -45,4 +51,8 @@ public class AuthResponse {
     public Long getId() { return id; }
 
     public void setId(Long id) { this.id = id; }
+
+    public String getRefreshToken() { return refreshToken; }
+
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
 }
@@ -0,0 +1,54 @@
+// Note: DTO trả về cho developer khi xem, cấp hoặc xoay API key của game.
+// apiKey chỉ có giá trị trong response cấp key (DB không lưu key gốc).
+package com.gamehub.dto;
+
+import java.time.LocalDateTime;
+
+public class GameApiKeyResponse {
+
+    private Long gameId;
+    private String apiKey;
+    private String keyPrefix;
+    private LocalDateTime createdAt;
+
+    public GameApiKeyResponse() {}
+
+    public GameApiKeyResponse(Long gameId, String apiKey, String keyPrefix, LocalDateTime createdAt) {
+        this.gameId = gameId;
+        this.apiKey = apiKey;
+        this.keyPrefix = keyPrefix;
+        this.createdAt = createdAt;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public void setApiKey(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,47 @@
+// Note: Con trỏ phân trang keyset cho danh sách game công khai (và danh mục quà tặng): vị trí (createdAt, id) của phần tử cuối trang.
+// Client chỉ coi đây là chuỗi mờ (opaque), mã hóa Base64 URL-safe.
+package com.gamehub.dto;
+
+import com.gamehub.exception.GameException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public class GameCursor {
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public GameCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static GameCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator <= 0) {
+                throw new GameException("Invalid cursor");
+            }
+            return new GameCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new GameException("Invalid cursor");
+        }
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
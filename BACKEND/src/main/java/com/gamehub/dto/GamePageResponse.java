@@ -0,0 +1,37 @@
+// Note: DTO trả về một trang game công khai; nextCursor = null khi đã hết dữ liệu.
+package com.gamehub.dto;
+
+import java.util.List;
+
+public class GamePageResponse {
+
+    private List<GameResponse> items;
+    private String nextCursor;
+
+    public GamePageResponse() {}
+
+    public GamePageResponse(List<GameResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<GameResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<GameResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
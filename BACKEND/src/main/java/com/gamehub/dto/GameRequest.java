@@ -1,6 +1,7 @@
 // Note: DTO định nghĩa dữ liệu gửi từ client khi Developer tạo game mới.
 package com.gamehub.dto;
 
+import com.gamehub.model.enums.ScoreOrder;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.hibernate.validator.constraints.URL;
@@ -27,6 +28,9 @@ public class GameRequest {
 
     private boolean supportPoints;
 
+    // Không gửi thì giữ nguyên (mặc định DESC)
+    private ScoreOrder scoreOrder;
+
     public GameRequest() {}
 
     public GameRequest(String name, String description, String requirements, MultipartFile previewImage,
@@ -97,4 +101,12 @@ public class GameRequest {
     public void setSupportPoints(boolean supportPoints) {
         this.supportPoints = supportPoints;
     }
+
+    public ScoreOrder getScoreOrder() {
+        return scoreOrder;
+    }
+
+    public void setScoreOrder(ScoreOrder scoreOrder) {
+        this.scoreOrder = scoreOrder;
+    }
 }
@@ -3,6 +3,8 @@ package com.gamehub.dto;
 
 import com.gamehub.model.enums.GameStatus;
 
+import java.time.LocalDateTime;
+
 public class GameResponse {
 
     private Long id;
@@ -16,6 +18,11 @@ public class GameResponse {
     private GameStatus status;
     private Long developerId;
     private String apiKeyMessage;
+    private LocalDateTime createdAt;
+    // Thống kê rating lấy từ game_rating_stats; averageRating là null khi game chưa có review
+    private long reviewCount;
+    private Double averageRating;
+    private long[] ratingHistogram = new long[5];
 
     public GameResponse() {}
 
@@ -35,6 +42,39 @@ public class GameResponse {
         this.apiKeyMessage = apiKeyMessage;
     }
 
+    // Dùng cho JPQL constructor projection (danh sách game công khai), không cần load entity Game/User
+    public GameResponse(Long id, String name, String description, String requirements, String previewImageUrl,
+                        String apkFileUrl, boolean supportLeaderboard, boolean supportPoints, GameStatus status,
+                        Long developerId, LocalDateTime createdAt, Long reviewCount, Long ratingSum,
+                        Long rating1, Long rating2, Long rating3, Long rating4, Long rating5) {
+        this(id, name, description, requirements, previewImageUrl, apkFileUrl, supportLeaderboard, supportPoints,
+                status, developerId, (String) null);
+        this.createdAt = createdAt;
+        applyRatingStats(reviewCount, ratingSum, rating1, rating2, rating3, rating4, rating5);
+    }
+
+    // Các cột thống kê đến từ LEFT JOIN nên có thể null khi game chưa có review
+    public void applyRatingStats(Long reviewCount, Long ratingSum, Long rating1, Long rating2, Long rating3,
+                                 Long rating4, Long rating5) {
+        long count = reviewCount != null ? reviewCount : 0L;
+        long sum = ratingSum != null ? ratingSum : 0L;
+        this.reviewCount = count;
+        this.averageRating = count > 0 ? Math.round(sum * 100.0 / count) / 100.0 : null;
+        this.ratingHistogram = new long[]{
+                rating1 != null ? rating1 : 0L,
+                rating2 != null ? rating2 : 0L,
+                rating3 != null ? rating3 : 0L,
+                rating4 != null ? rating4 : 0L,
+                rating5 != null ? rating5 : 0L
+        };
+    }
+
+    public void copyRatingStatsFrom(GameResponse other) {
+        this.reviewCount = other.reviewCount;
+        this.averageRating = other.averageRating;
+        this.ratingHistogram = other.ratingHistogram.clone();
+    }
+
     // Getters và Setters
     public Long getId() {
         return id;
@@ -123,4 +163,37 @@ public class GameResponse {
     public void setApiKeyMessage(String apiKeyMessage) {
         this.apiKeyMessage = apiKeyMessage;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    // Số review theo số sao: phần tử 0 là 1 sao, phần tử 4 là 5 sao
+    public long[] getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public void setRatingHistogram(long[] ratingHistogram) {
+        this.ratingHistogram = ratingHistogram;
+    }
 }
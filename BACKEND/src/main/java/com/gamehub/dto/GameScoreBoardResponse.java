@@ -0,0 +1,65 @@
+// Note: DTO trả về bảng điểm của một game (top-K trong bộ nhớ) và/hoặc điểm, hạng của người chơi hiện tại.
+// playerRank = null khi người chơi chưa có điểm trong game.
+package com.gamehub.dto;
+
+import com.gamehub.model.enums.ScoreOrder;
+
+import java.util.List;
+
+public class GameScoreBoardResponse {
+
+    private Long gameId;
+    private ScoreOrder order;
+    private List<GameScoreEntry> items;
+    private Long playerScore;
+    private Integer playerRank;
+
+    public GameScoreBoardResponse() {}
+
+    public GameScoreBoardResponse(Long gameId, ScoreOrder order, List<GameScoreEntry> items) {
+        this.gameId = gameId;
+        this.order = order;
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public ScoreOrder getOrder() {
+        return order;
+    }
+
+    public void setOrder(ScoreOrder order) {
+        this.order = order;
+    }
+
+    public List<GameScoreEntry> getItems() {
+        return items;
+    }
+
+    public void setItems(List<GameScoreEntry> items) {
+        this.items = items;
+    }
+
+    public Long getPlayerScore() {
+        return playerScore;
+    }
+
+    public void setPlayerScore(Long playerScore) {
+        this.playerScore = playerScore;
+    }
+
+    public Integer getPlayerRank() {
+        return playerRank;
+    }
+
+    public void setPlayerRank(Integer playerRank) {
+        this.playerRank = playerRank;
+    }
+}
@@ -0,0 +1,64 @@
+// Note: DTO một dòng trong bảng điểm của game (hạng, người chơi, điểm tốt nhất, thời điểm đạt).
+package com.gamehub.dto;
+
+import java.time.LocalDateTime;
+
+public class GameScoreEntry {
+
+    private int rank;
+    private Long playerId;
+    private String playerEmail;
+    private long score;
+    private LocalDateTime achievedAt;
+
+    public GameScoreEntry() {}
+
+    public GameScoreEntry(int rank, Long playerId, String playerEmail, long score, LocalDateTime achievedAt) {
+        this.rank = rank;
+        this.playerId = playerId;
+        this.playerEmail = playerEmail;
+        this.score = score;
+        this.achievedAt = achievedAt;
+    }
+
+    // Getters and Setters
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public String getPlayerEmail() {
+        return playerEmail;
+    }
+
+    public void setPlayerEmail(String playerEmail) {
+        this.playerEmail = playerEmail;
+    }
+
+    public long getScore() {
+        return score;
+    }
+
+    public void setScore(long score) {
+        this.score = score;
+    }
+
+    public LocalDateTime getAchievedAt() {
+        return achievedAt;
+    }
+
+    public void setAchievedAt(LocalDateTime achievedAt) {
+        this.achievedAt = achievedAt;
+    }
+}
@@ -0,0 +1,35 @@
+// Note: Dòng của bảng game_scores kèm email người chơi, dùng để nạp bảng điểm top-K của game vào bộ nhớ.
+package com.gamehub.dto;
+
+import java.time.LocalDateTime;
+
+public class GameScoreRow {
+
+    private final Long playerId;
+    private final String playerEmail;
+    private final long bestScore;
+    private final LocalDateTime achievedAt;
+
+    public GameScoreRow(Long playerId, String playerEmail, long bestScore, LocalDateTime achievedAt) {
+        this.playerId = playerId;
+        this.playerEmail = playerEmail;
+        this.bestScore = bestScore;
+        this.achievedAt = achievedAt;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerEmail() {
+        return playerEmail;
+    }
+
+    public long getBestScore() {
+        return bestScore;
+    }
+
+    public LocalDateTime getAchievedAt() {
+        return achievedAt;
+    }
+}
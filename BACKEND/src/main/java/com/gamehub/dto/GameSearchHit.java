@@ -0,0 +1,51 @@
+// Note: Một kết quả tìm kiếm game: thông tin game, điểm liên quan và đoạn trích có đánh dấu từ khóa (<mark>).
+package com.gamehub.dto;
+
+public class GameSearchHit {
+
+    private GameResponse game;
+    private float score;
+    private String nameHighlight;
+    private String descriptionHighlight;
+
+    public GameSearchHit() {}
+
+    public GameSearchHit(GameResponse game, float score, String nameHighlight, String descriptionHighlight) {
+        this.game = game;
+        this.score = score;
+        this.nameHighlight = nameHighlight;
+        this.descriptionHighlight = descriptionHighlight;
+    }
+
+    public GameResponse getGame() {
+        return game;
+    }
+
+    public void setGame(GameResponse game) {
+        this.game = game;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+
+    public String getNameHighlight() {
+        return nameHighlight;
+    }
+
+    public void setNameHighlight(String nameHighlight) {
+        this.nameHighlight = nameHighlight;
+    }
+
+    public String getDescriptionHighlight() {
+        return descriptionHighlight;
+    }
+
+    public void setDescriptionHighlight(String descriptionHighlight) {
+        this.descriptionHighlight = descriptionHighlight;
+    }
+}
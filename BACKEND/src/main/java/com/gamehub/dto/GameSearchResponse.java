@@ -0,0 +1,63 @@
+// Note: DTO trả về cho /api/v1/games/search (một trang kết quả, sắp xếp theo độ liên quan).
+package com.gamehub.dto;
+
+import java.util.List;
+
+public class GameSearchResponse {
+
+    private String query;
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<GameSearchHit> items;
+
+    public GameSearchResponse() {}
+
+    public GameSearchResponse(String query, int page, int size, long totalHits, List<GameSearchHit> items) {
+        this.query = query;
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+        this.items = items;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public List<GameSearchHit> getItems() {
+        return items;
+    }
+
+    public void setItems(List<GameSearchHit> items) {
+        this.items = items;
+    }
+}
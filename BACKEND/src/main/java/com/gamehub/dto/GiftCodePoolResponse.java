@@ -0,0 +1,72 @@
+// Note: DTO trả về tình trạng kho mã đổi quà của một gift; added/duplicates chỉ có ý nghĩa với lần tải lên/sinh mã vừa thực hiện.
+package com.gamehub.dto;
+
+public class GiftCodePoolResponse {
+
+    private Long giftId;
+    private long totalCodes;
+    private long issuedCodes;
+    private long availableCodes;
+    private int added;
+    private int duplicates; // Mã đã có trong kho (hoặc trùng trong file) nên bị bỏ qua
+
+    public GiftCodePoolResponse() {}
+
+    public GiftCodePoolResponse(Long giftId, long totalCodes, long issuedCodes, long availableCodes, int added, int duplicates) {
+        this.giftId = giftId;
+        this.totalCodes = totalCodes;
+        this.issuedCodes = issuedCodes;
+        this.availableCodes = availableCodes;
+        this.added = added;
+        this.duplicates = duplicates;
+    }
+
+    // Getters and Setters
+    public Long getGiftId() {
+        return giftId;
+    }
+
+    public void setGiftId(Long giftId) {
+        this.giftId = giftId;
+    }
+
+    public long getTotalCodes() {
+        return totalCodes;
+    }
+
+    public void setTotalCodes(long totalCodes) {
+        this.totalCodes = totalCodes;
+    }
+
+    public long getIssuedCodes() {
+        return issuedCodes;
+    }
+
+    public void setIssuedCodes(long issuedCodes) {
+        this.issuedCodes = issuedCodes;
+    }
+
+    public long getAvailableCodes() {
+        return availableCodes;
+    }
+
+    public void setAvailableCodes(long availableCodes) {
+        this.availableCodes = availableCodes;
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public void setAdded(int added) {
+        this.added = added;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+}
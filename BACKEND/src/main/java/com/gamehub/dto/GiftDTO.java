@@ -12,6 +12,7 @@ public class GiftDTO {
     private Long quantity;
     private Long developerId;
     private String createdAt;
+    private boolean dropMode;
 
     public GiftDTO() {}
 
@@ -90,4 +91,12 @@ public class GiftDTO {
     public void setCreatedAt(String createdAt) {
         this.createdAt = createdAt;
     }
+
+    public boolean isDropMode() {
+        return dropMode;
+    }
+
+    public void setDropMode(boolean dropMode) {
+        this.dropMode = dropMode;
+    }
 }
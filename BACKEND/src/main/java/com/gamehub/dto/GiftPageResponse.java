@@ -0,0 +1,37 @@
+// Note: DTO trả về một trang quà tặng; nextCursor = null khi đã hết dữ liệu.
+package com.gamehub.dto;
+
+import java.util.List;
+
+public class GiftPageResponse {
+
+    private List<? extends GiftDTO> items;
+    private String nextCursor;
+
+    public GiftPageResponse() {}
+
+    public GiftPageResponse(List<? extends GiftDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<? extends GiftDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<? extends GiftDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
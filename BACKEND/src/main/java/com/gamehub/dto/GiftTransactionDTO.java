@@ -9,6 +9,7 @@ public class GiftTransactionDTO {
     private Long giftId;
     private Long pointsSpent;
     private String createdAt;
+    private String redemptionCode; // Mã voucher, null nếu gift không có kho mã
 
     public GiftTransactionDTO() {}
 
@@ -60,4 +61,12 @@ public class GiftTransactionDTO {
     public void setCreatedAt(String createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getRedemptionCode() {
+        return redemptionCode;
+    }
+
+    public void setRedemptionCode(String redemptionCode) {
+        this.redemptionCode = redemptionCode;
+    }
 }
@@ -0,0 +1,112 @@
+// Note: DTO trả về một đoạn bảng xếp hạng của developer (top, trang theo offset, hoặc quanh hạng của người chơi).
+// playerRank/playerPoints chỉ có giá trị với "around me"; playerRank = null khi người chơi chưa có điểm.
+// Với cửa sổ ngày/tuần/mùa: periodStart/periodEnd là kỳ được trả về, archived = true khi đọc từ bản chốt của kỳ đã đóng.
+package com.gamehub.dto;
+
+import com.gamehub.model.enums.LeaderboardWindow;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class LeaderboardPageResponse {
+
+    private Long developerId;
+    private int totalPlayers;
+    private int offset;
+    private Integer playerRank;
+    private Long playerPoints;
+    private List<LeaderboardResponse> items;
+    private LeaderboardWindow window = LeaderboardWindow.ALL_TIME;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private boolean archived;
+
+    public LeaderboardPageResponse() {}
+
+    public LeaderboardPageResponse(Long developerId, int totalPlayers, int offset, List<LeaderboardResponse> items) {
+        this.developerId = developerId;
+        this.totalPlayers = totalPlayers;
+        this.offset = offset;
+        this.items = items;
+    }
+
+    public Long getDeveloperId() {
+        return developerId;
+    }
+
+    public void setDeveloperId(Long developerId) {
+        this.developerId = developerId;
+    }
+
+    public int getTotalPlayers() {
+        return totalPlayers;
+    }
+
+    public void setTotalPlayers(int totalPlayers) {
+        this.totalPlayers = totalPlayers;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public Integer getPlayerRank() {
+        return playerRank;
+    }
+
+    public void setPlayerRank(Integer playerRank) {
+        this.playerRank = playerRank;
+    }
+
+    public Long getPlayerPoints() {
+        return playerPoints;
+    }
+
+    public void setPlayerPoints(Long playerPoints) {
+        this.playerPoints = playerPoints;
+    }
+
+    public List<LeaderboardResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<LeaderboardResponse> items) {
+        this.items = items;
+    }
+
+    public LeaderboardWindow getWindow() {
+        return window;
+    }
+
+    public void setWindow(LeaderboardWindow window) {
+        this.window = window;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public void setPeriodEnd(LocalDate periodEnd) {
+        this.periodEnd = periodEnd;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+}
@@ -0,0 +1,35 @@
+// Note: Gift kèm số điểm hiện có của player ở developer sở hữu gift và cờ affordable (đủ điểm và còn hàng).
+// Dựng từ GiftDTO trong cache danh mục, không sửa bản gốc đang được chia sẻ.
+package com.gamehub.dto;
+
+public class PlayerGiftDTO extends GiftDTO {
+
+    private long playerPoints;
+    private boolean affordable;
+
+    public PlayerGiftDTO() {}
+
+    public PlayerGiftDTO(GiftDTO gift, long playerPoints) {
+        super(gift.getId(), gift.getName(), gift.getDescription(), gift.getImageUrl(), gift.getPointCost(),
+                gift.getQuantity(), gift.getDeveloperId(), gift.getCreatedAt());
+        setDropMode(gift.isDropMode());
+        this.playerPoints = playerPoints;
+        this.affordable = gift.getQuantity() > 0 && playerPoints >= gift.getPointCost();
+    }
+
+    public long getPlayerPoints() {
+        return playerPoints;
+    }
+
+    public void setPlayerPoints(long playerPoints) {
+        this.playerPoints = playerPoints;
+    }
+
+    public boolean isAffordable() {
+        return affordable;
+    }
+
+    public void setAffordable(boolean affordable) {
+        this.affordable = affordable;
+    }
+}
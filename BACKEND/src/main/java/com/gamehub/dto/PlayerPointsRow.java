@@ -0,0 +1,41 @@
+// Note: Dòng của bảng player_developer_points kèm email người chơi, dùng để dựng bảng xếp hạng trong bộ nhớ.
+package com.gamehub.dto;
+
+import java.time.LocalDateTime;
+
+public class PlayerPointsRow {
+
+    private final Long developerId;
+    private final Long playerId;
+    private final String playerEmail;
+    private final Long totalPoints;
+    private final LocalDateTime lastUpdated;
+
+    public PlayerPointsRow(Long developerId, Long playerId, String playerEmail, Long totalPoints, LocalDateTime lastUpdated) {
+        this.developerId = developerId;
+        this.playerId = playerId;
+        this.playerEmail = playerEmail;
+        this.totalPoints = totalPoints;
+        this.lastUpdated = lastUpdated;
+    }
+
+    public Long getDeveloperId() {
+        return developerId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerEmail() {
+        return playerEmail;
+    }
+
+    public Long getTotalPoints() {
+        return totalPoints;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+}
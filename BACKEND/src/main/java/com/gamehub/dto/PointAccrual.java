@@ -0,0 +1,36 @@
+// Note: Một lần cộng điểm của người chơi cho developer (đã ghi vào point_transactions trong transaction hiện tại),
+// dùng để cộng vào các bảng xếp hạng theo ngày/tuần/mùa.
+package com.gamehub.dto;
+
+import java.time.LocalDateTime;
+
+public class PointAccrual {
+
+    private final Long developerId;
+    private final Long playerId;
+    private final long points;
+    private final LocalDateTime occurredAt;
+
+    public PointAccrual(Long developerId, Long playerId, long points, LocalDateTime occurredAt) {
+        this.developerId = developerId;
+        this.playerId = playerId;
+        this.points = points;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getDeveloperId() {
+        return developerId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
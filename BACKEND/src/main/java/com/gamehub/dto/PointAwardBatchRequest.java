@@ -0,0 +1,27 @@
+// Note: DTO lô cộng điểm game server gửi lên POST /api/v1/ingest/points (xác thực bằng API key của game).
+package com.gamehub.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class PointAwardBatchRequest {
+
+    @NotEmpty(message = "awards không được rỗng")
+    private List<@Valid PointAwardItem> awards;
+
+    public PointAwardBatchRequest() {}
+
+    public PointAwardBatchRequest(List<PointAwardItem> awards) {
+        this.awards = awards;
+    }
+
+    public List<PointAwardItem> getAwards() {
+        return awards;
+    }
+
+    public void setAwards(List<PointAwardItem> awards) {
+        this.awards = awards;
+    }
+}
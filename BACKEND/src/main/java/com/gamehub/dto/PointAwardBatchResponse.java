@@ -0,0 +1,61 @@
+// Note: Kết quả ghi một lô cộng điểm: số lần được cộng và số lần bị bỏ vì đã cộng trước đó (gửi lại lô là an toàn).
+package com.gamehub.dto;
+
+public class PointAwardBatchResponse {
+
+    private Long gameId;
+    private int received;
+    private int awarded;
+    private int duplicates;
+    private long pointsAwarded;
+
+    public PointAwardBatchResponse() {}
+
+    public PointAwardBatchResponse(Long gameId, int received, int awarded, int duplicates, long pointsAwarded) {
+        this.gameId = gameId;
+        this.received = received;
+        this.awarded = awarded;
+        this.duplicates = duplicates;
+        this.pointsAwarded = pointsAwarded;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getAwarded() {
+        return awarded;
+    }
+
+    public void setAwarded(int awarded) {
+        this.awarded = awarded;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getPointsAwarded() {
+        return pointsAwarded;
+    }
+
+    public void setPointsAwarded(long pointsAwarded) {
+        this.pointsAwarded = pointsAwarded;
+    }
+}
@@ -0,0 +1,48 @@
+// Note: Một lần cộng điểm trong lô game server gửi lên đường ingest (points để trống thì dùng điểm mặc định của hành động).
+package com.gamehub.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class PointAwardItem {
+
+    @NotNull(message = "playerId là bắt buộc")
+    private Long playerId;
+
+    @NotBlank(message = "actionType là bắt buộc")
+    private String actionType;
+
+    private Long points;
+
+    public PointAwardItem() {}
+
+    public PointAwardItem(Long playerId, String actionType, Long points) {
+        this.playerId = playerId;
+        this.actionType = actionType;
+        this.points = points;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public String getActionType() {
+        return actionType;
+    }
+
+    public void setActionType(String actionType) {
+        this.actionType = actionType;
+    }
+
+    public Long getPoints() {
+        return points;
+    }
+
+    public void setPoints(Long points) {
+        this.points = points;
+    }
+}
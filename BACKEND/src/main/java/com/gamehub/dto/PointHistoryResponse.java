@@ -0,0 +1,34 @@
+// Note: DTO trả về lịch sử điểm của player: các giao dịch gần đây (dòng gốc còn trong point_transactions)
+// và tổng hợp theo tháng của các giao dịch cũ hơn đã được lưu trữ.
+package com.gamehub.dto;
+
+import java.util.List;
+
+public class PointHistoryResponse {
+
+    private List<PointTransactionResponse> recent;
+    private List<PointMonthlySummaryResponse> monthly;
+
+    public PointHistoryResponse() {}
+
+    public PointHistoryResponse(List<PointTransactionResponse> recent, List<PointMonthlySummaryResponse> monthly) {
+        this.recent = recent;
+        this.monthly = monthly;
+    }
+
+    public List<PointTransactionResponse> getRecent() {
+        return recent;
+    }
+
+    public void setRecent(List<PointTransactionResponse> recent) {
+        this.recent = recent;
+    }
+
+    public List<PointMonthlySummaryResponse> getMonthly() {
+        return monthly;
+    }
+
+    public void setMonthly(List<PointMonthlySummaryResponse> monthly) {
+        this.monthly = monthly;
+    }
+}
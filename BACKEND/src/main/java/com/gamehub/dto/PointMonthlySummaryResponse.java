@@ -0,0 +1,63 @@
+// Note: DTO trả về tổng hợp điểm theo tháng của một player cho một game (giao dịch đã được lưu trữ).
+// month có dạng yyyy-MM; gameId = null nếu giao dịch không gắn với game nào.
+package com.gamehub.dto;
+
+public class PointMonthlySummaryResponse {
+
+    private Long playerId;
+    private Long gameId;
+    private String month;
+    private long transactionCount;
+    private long totalPoints;
+
+    public PointMonthlySummaryResponse() {}
+
+    public PointMonthlySummaryResponse(Long playerId, Long gameId, String month, long transactionCount, long totalPoints) {
+        this.playerId = playerId;
+        this.gameId = gameId;
+        this.month = month;
+        this.transactionCount = transactionCount;
+        this.totalPoints = totalPoints;
+    }
+
+    // Getters and Setters
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public long getTotalPoints() {
+        return totalPoints;
+    }
+
+    public void setTotalPoints(long totalPoints) {
+        this.totalPoints = totalPoints;
+    }
+}
@@ -0,0 +1,106 @@
+// Note: DTO trả về ticket đổi quà ở chế độ drop: nhận ngay khi xếp hàng, client hỏi lại hoặc stream (SSE) để lấy kết quả.
+// position là số ticket đứng trước lúc xếp hàng; transaction chỉ có khi status = REDEEMED.
+package com.gamehub.dto;
+
+import com.gamehub.model.enums.RedeemTicketStatus;
+
+public class RedeemTicketResponse {
+
+    private String ticketId;
+    private Long giftId;
+    private Long playerId;
+    private RedeemTicketStatus status;
+    private String message;
+    private int position;
+    private GiftTransactionDTO transaction;
+    private String createdAt;
+    private String completedAt;
+
+    public RedeemTicketResponse() {}
+
+    public RedeemTicketResponse(String ticketId, Long giftId, Long playerId, RedeemTicketStatus status, String message,
+                                int position, GiftTransactionDTO transaction, String createdAt, String completedAt) {
+        this.ticketId = ticketId;
+        this.giftId = giftId;
+        this.playerId = playerId;
+        this.status = status;
+        this.message = message;
+        this.position = position;
+        this.transaction = transaction;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+    }
+
+    // Getters and Setters
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public void setTicketId(String ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public Long getGiftId() {
+        return giftId;
+    }
+
+    public void setGiftId(Long giftId) {
+        this.giftId = giftId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public RedeemTicketStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RedeemTicketStatus status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public GiftTransactionDTO getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(GiftTransactionDTO transaction) {
+        this.transaction = transaction;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(String completedAt) {
+        this.completedAt = completedAt;
+    }
+}
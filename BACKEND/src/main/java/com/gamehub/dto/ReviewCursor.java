@@ -0,0 +1,85 @@
+// Note: Con trỏ phân trang keyset cho danh sách review của một game.
+// Lưu thứ tự sắp xếp cùng vị trí của review cuối trang: (createdAt, id) với NEWEST, (rating, createdAt, id) với RATING.
+// Client chỉ coi đây là chuỗi mờ (opaque), mã hóa Base64 URL-safe.
+package com.gamehub.dto;
+
+import com.gamehub.exception.GameException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public class ReviewCursor {
+
+    public enum Sort {
+        NEWEST,
+        RATING;
+
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NEWEST;
+            }
+            try {
+                return Sort.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new GameException("Invalid sort, expected 'newest' or 'rating'");
+            }
+        }
+    }
+
+    private final Sort sort;
+    private final Integer rating;
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public ReviewCursor(Sort sort, Integer rating, LocalDateTime createdAt, Long id) {
+        this.sort = sort;
+        this.rating = rating;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public String encode() {
+        String raw = sort + "|" + (rating != null ? rating : "") + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor của thứ tự này không dùng được cho thứ tự khác: vị trí keyset sẽ không còn đúng
+    public static ReviewCursor decode(String cursor, Sort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new GameException("Invalid cursor");
+            }
+            Sort sort = Sort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new GameException("Cursor does not match the requested sort");
+            }
+            Integer rating = parts[1].isEmpty() ? null : Integer.valueOf(parts[1]);
+            if (sort == Sort.RATING && rating == null) {
+                throw new GameException("Invalid cursor");
+            }
+            return new ReviewCursor(sort, rating, LocalDateTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new GameException("Invalid cursor");
+        }
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,37 @@
+// Note: DTO trả về một trang review của game; nextCursor = null khi đã hết dữ liệu.
+package com.gamehub.dto;
+
+import java.util.List;
+
+public class ReviewPageResponse {
+
+    private List<ReviewResponse> items;
+    private String nextCursor;
+
+    public ReviewPageResponse() {}
+
+    public ReviewPageResponse(List<ReviewResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReviewResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReviewResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
@@ -3,6 +3,9 @@ package com.gamehub.dto;
 
 import com.gamehub.model.enums.ReviewStatus;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
 public class ReviewResponse {
 
     private Long id;
@@ -27,6 +30,13 @@ public class ReviewResponse {
         this.createdAt = createdAt;
     }
 
+    // Dùng cho JPQL constructor projection: tên người review lấy bằng join, không load entity User/Game
+    public ReviewResponse(Long id, Long playerId, String playerName, Long gameId, Integer rating, String comment,
+                          LocalDateTime createdAt) {
+        this(id, playerId, playerName, gameId, rating, comment, ReviewStatus.APPROVED,
+                createdAt != null ? createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
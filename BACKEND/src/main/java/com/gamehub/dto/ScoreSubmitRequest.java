@@ -0,0 +1,24 @@
+// Note: DTO định nghĩa dữ liệu game client gửi lên khi nộp điểm của một lượt chơi.
+package com.gamehub.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class ScoreSubmitRequest {
+
+    @NotNull(message = "Điểm là bắt buộc")
+    private Long score;
+
+    public ScoreSubmitRequest() {}
+
+    public ScoreSubmitRequest(Long score) {
+        this.score = score;
+    }
+
+    public Long getScore() {
+        return score;
+    }
+
+    public void setScore(Long score) {
+        this.score = score;
+    }
+}
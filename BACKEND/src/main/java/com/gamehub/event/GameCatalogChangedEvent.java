@@ -0,0 +1,16 @@
+// Note: Sự kiện phát ra khi một game thay đổi (tạo, sửa, duyệt, xóa).
+// GameCatalogCache nghe sự kiện này sau khi transaction commit để cập nhật lại đúng game đó.
+package com.gamehub.event;
+
+public class GameCatalogChangedEvent {
+
+    private final Long gameId;
+
+    public GameCatalogChangedEvent(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+}
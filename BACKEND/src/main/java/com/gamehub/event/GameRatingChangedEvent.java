@@ -0,0 +1,17 @@
+// Note: Sự kiện phát ra khi thống kê rating của một game thay đổi (review mới hoặc job đối soát sửa lệch).
+// Chỉ GameCatalogCache nghe sự kiện này (sau commit) để cập nhật reviewCount/averageRating của game đó;
+// khác GameCatalogChangedEvent, nó không làm index tìm kiếm, bảng điểm hay API key của game bị nạp lại.
+package com.gamehub.event;
+
+public class GameRatingChangedEvent {
+
+    private final Long gameId;
+
+    public GameRatingChangedEvent(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+}
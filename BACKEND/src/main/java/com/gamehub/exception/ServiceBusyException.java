@@ -0,0 +1,13 @@
+// Note: Exception khi một tài nguyên giới hạn (ví dụ: executor băm mật khẩu) đang quá tải.
+// Controller trả về 503 kèm Retry-After thay vì để request xếp hàng trên thread của Tomcat.
+package com.gamehub.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,54 @@
+// Note: Entity đại diện cho bảng asset_tags trong MySQL: mỗi tag (đã chuẩn hóa: trim, chữ thường) của một asset là một dòng.
+// Cột assets.tags vẫn giữ chuỗi gốc designer nhập để hiển thị; tìm kiếm theo tag dùng bảng này (qua AssetTagIndex).
+package com.gamehub.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "asset_tags",
+        uniqueConstraints = @UniqueConstraint(name = "uk_asset_tags_asset_tag", columnNames = {"asset_id", "tag"}),
+        indexes = @Index(name = "idx_asset_tags_tag_asset", columnList = "tag, asset_id"))
+public class AssetTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "asset_id", nullable = false)
+    private Long assetId;
+
+    @Column(nullable = false, length = 64)
+    private String tag;
+
+    public AssetTag() {}
+
+    public AssetTag(Long assetId, String tag) {
+        this.assetId = assetId;
+        this.tag = tag;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAssetId() {
+        return assetId;
+    }
+
+    public void setAssetId(Long assetId) {
+        this.assetId = assetId;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+}
@@ -2,13 +2,17 @@
 package com.gamehub.model;
 
 import com.gamehub.model.enums.GameStatus;
+import com.gamehub.model.enums.ScoreOrder;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "games")
+@Table(name = "games", indexes = {
+        // Phục vụ phân trang keyset của danh sách game công khai
+        @Index(name = "idx_games_status_created", columnList = "status, created_at, id")
+})
 public class Game {
 
     @Id
@@ -36,6 +40,11 @@ public class Game {
     @Column(name = "support_points", nullable = false)
     private boolean supportPoints;
 
+    // Chiều xếp hạng của bảng điểm theo game; null với game tạo trước khi có cột này (coi như DESC)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "score_order", length = 8)
+    private ScoreOrder scoreOrder;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private GameStatus status;
@@ -128,6 +137,14 @@ public class Game {
         this.supportPoints = supportPoints;
     }
 
+    public ScoreOrder getScoreOrder() {
+        return scoreOrder != null ? scoreOrder : ScoreOrder.DESC;
+    }
+
+    public void setScoreOrder(ScoreOrder scoreOrder) {
+        this.scoreOrder = scoreOrder;
+    }
+
     public GameStatus getStatus() {
         return status;
     }
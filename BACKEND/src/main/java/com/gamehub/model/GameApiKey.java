@@ -0,0 +1,79 @@
+// Note: Entity đại diện cho bảng game_api_keys trong MySQL.
+// Mỗi game có tối đa một API key cho game server; chỉ lưu SHA-256 của key (key gốc chỉ trả về một lần khi cấp).
+// key_prefix là vài ký tự đầu để developer nhận ra key đang dùng, không đủ để xác thực.
+package com.gamehub.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "game_api_keys")
+public class GameApiKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "game_id", nullable = false, unique = true)
+    private Long gameId;
+
+    @Column(name = "key_hash", nullable = false, unique = true, length = 64)
+    private String keyHash;
+
+    @Column(name = "key_prefix", nullable = false, length = 16)
+    private String keyPrefix;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public GameApiKey() {}
+
+    public GameApiKey(Long gameId, String keyHash, String keyPrefix, LocalDateTime createdAt) {
+        this.gameId = gameId;
+        this.keyHash = keyHash;
+        this.keyPrefix = keyPrefix;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getKeyHash() {
+        return keyHash;
+    }
+
+    public void setKeyHash(String keyHash) {
+        this.keyHash = keyHash;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
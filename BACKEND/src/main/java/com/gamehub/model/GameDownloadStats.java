@@ -0,0 +1,49 @@
+// Note: Entity đại diện cho bảng game_download_stats trong MySQL.
+// Một dòng cho mỗi game đã từng được tải; chỉ DownloadTrackingService ghi vào (upsert theo lô).
+package com.gamehub.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "game_download_stats")
+public class GameDownloadStats {
+
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Column(name = "download_count", nullable = false)
+    private long downloadCount;
+
+    @Column(name = "last_download_at", nullable = false)
+    private LocalDateTime lastDownloadAt;
+
+    public GameDownloadStats() {}
+
+    // Getters and Setters
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public long getDownloadCount() {
+        return downloadCount;
+    }
+
+    public void setDownloadCount(long downloadCount) {
+        this.downloadCount = downloadCount;
+    }
+
+    public LocalDateTime getLastDownloadAt() {
+        return lastDownloadAt;
+    }
+
+    public void setLastDownloadAt(LocalDateTime lastDownloadAt) {
+        this.lastDownloadAt = lastDownloadAt;
+    }
+}
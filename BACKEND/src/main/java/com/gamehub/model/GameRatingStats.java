@@ -0,0 +1,155 @@
+// Note: Entity đại diện cho bảng game_rating_stats trong MySQL.
+// Một dòng cho mỗi game có review: số review, tổng điểm và histogram số sao 1–5.
+// Được cộng dồn trong cùng transaction với ReviewService.submitReview và đối soát định kỳ với bảng reviews.
+package com.gamehub.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "game_rating_stats")
+public class GameRatingStats {
+
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public GameRatingStats() {}
+
+    public GameRatingStats(Long gameId) {
+        this.gameId = gameId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Dùng cho JPQL constructor projection khi đếm lại từ bảng reviews (đối soát)
+    public GameRatingStats(Long gameId, Long reviewCount, Long ratingSum, Long rating1, Long rating2,
+                           Long rating3, Long rating4, Long rating5) {
+        this(gameId);
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum != null ? ratingSum : 0L;
+        this.rating1 = rating1 != null ? rating1 : 0L;
+        this.rating2 = rating2 != null ? rating2 : 0L;
+        this.rating3 = rating3 != null ? rating3 : 0L;
+        this.rating4 = rating4 != null ? rating4 : 0L;
+        this.rating5 = rating5 != null ? rating5 : 0L;
+    }
+
+    public boolean sameCountsAs(GameRatingStats other) {
+        return other != null
+                && reviewCount == other.reviewCount
+                && ratingSum == other.ratingSum
+                && rating1 == other.rating1
+                && rating2 == other.rating2
+                && rating3 == other.rating3
+                && rating4 == other.rating4
+                && rating5 == other.rating5;
+    }
+
+    public void copyCountsFrom(GameRatingStats other) {
+        this.reviewCount = other.reviewCount;
+        this.ratingSum = other.ratingSum;
+        this.rating1 = other.rating1;
+        this.rating2 = other.rating2;
+        this.rating3 = other.rating3;
+        this.rating4 = other.rating4;
+        this.rating5 = other.rating5;
+    }
+
+    // Getters and Setters
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public long getRating1() {
+        return rating1;
+    }
+
+    public void setRating1(long rating1) {
+        this.rating1 = rating1;
+    }
+
+    public long getRating2() {
+        return rating2;
+    }
+
+    public void setRating2(long rating2) {
+        this.rating2 = rating2;
+    }
+
+    public long getRating3() {
+        return rating3;
+    }
+
+    public void setRating3(long rating3) {
+        this.rating3 = rating3;
+    }
+
+    public long getRating4() {
+        return rating4;
+    }
+
+    public void setRating4(long rating4) {
+        this.rating4 = rating4;
+    }
+
+    public long getRating5() {
+        return rating5;
+    }
+
+    public void setRating5(long rating5) {
+        this.rating5 = rating5;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,99 @@
+// Note: Entity đại diện cho bảng game_scores trong MySQL: điểm tốt nhất của mỗi người chơi trong một game.
+// Chỉ GameScoreService ghi vào (upsert theo lô, giữ điểm tốt nhất theo chiều xếp hạng của game).
+package com.gamehub.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "game_scores",
+        uniqueConstraints = @UniqueConstraint(name = "uk_game_scores_game_player", columnNames = {"game_id", "player_id"}),
+        indexes = {
+                // Đọc top-K và đếm số người đứng trên một điểm số
+                @Index(name = "idx_game_scores_game_score", columnList = "game_id, best_score, achieved_at")
+        })
+public class GameScore {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "game_id", nullable = false)
+    private Long gameId;
+
+    @Column(name = "player_id", nullable = false)
+    private Long playerId;
+
+    @Column(name = "best_score", nullable = false)
+    private long bestScore;
+
+    // Thời điểm đạt điểm tốt nhất (bằng điểm thì ai đạt trước đứng trước)
+    @Column(name = "achieved_at", nullable = false)
+    private LocalDateTime achievedAt;
+
+    @Column(name = "submit_count", nullable = false)
+    private long submitCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public GameScore() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public long getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(long bestScore) {
+        this.bestScore = bestScore;
+    }
+
+    public LocalDateTime getAchievedAt() {
+        return achievedAt;
+    }
+
+    public void setAchievedAt(LocalDateTime achievedAt) {
+        this.achievedAt = achievedAt;
+    }
+
+    public long getSubmitCount() {
+        return submitCount;
+    }
+
+    public void setSubmitCount(long submitCount) {
+        this.submitCount = submitCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -35,6 +35,10 @@ public class Gift {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Chế độ drop: lượt đổi nhận ticket và được xử lý tuần tự theo lô (GiftDropService); null với gift tạo trước khi có cột này
+    @Column(name = "drop_mode")
+    private Boolean dropMode;
+
     public Gift() {}
 
     public Gift(String name, String description, String imageUrl, Long pointCost, Long quantity, User developer, LocalDateTime createdAt) {
@@ -111,4 +115,12 @@ public class Gift {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public boolean isDropMode() {
+        return Boolean.TRUE.equals(dropMode);
+    }
+
+    public void setDropMode(boolean dropMode) {
+        this.dropMode = dropMode;
+    }
 }
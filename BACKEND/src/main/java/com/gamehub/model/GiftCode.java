@@ -0,0 +1,85 @@
+// Note: Entity đại diện cho bảng gift_codes trong MySQL: mã đổi quà (voucher) developer tải lên hoặc hệ thống sinh cho một gift.
+// Mỗi lượt đổi nhận một mã; mã đã phát được ghi ngay vào gift_transactions.redemption_code (cùng transaction đổi quà),
+// claimed_at/claimed_by ở đây được GiftCodePool ghi sau theo lô.
+package com.gamehub.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "gift_codes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_gift_codes_gift_code", columnNames = {"gift_id", "code"}),
+        indexes = @Index(name = "idx_gift_codes_gift_claimed", columnList = "gift_id, claimed_at"))
+public class GiftCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "gift_id", nullable = false)
+    private Long giftId;
+
+    @Column(nullable = false, length = 64)
+    private String code;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "claimed_by")
+    private Long claimedBy;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    public GiftCode() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getGiftId() {
+        return giftId;
+    }
+
+    public void setGiftId(Long giftId) {
+        this.giftId = giftId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(Long claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+}
@@ -6,7 +6,8 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gift_transactions")
+@Table(name = "gift_transactions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_gift_transactions_gift_code", columnNames = {"gift_id", "redemption_code"}))
 public class GiftTransaction {
 
     @Id
@@ -27,6 +28,10 @@ public class GiftTransaction {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Mã voucher phát cho lượt đổi (null nếu gift không có kho mã); unique theo gift nên một mã không thể phát hai lần
+    @Column(name = "redemption_code", length = 64)
+    private String redemptionCode;
+
     public GiftTransaction() {}
 
     public GiftTransaction(User player, Gift gift, Long pointsSpent, LocalDateTime createdAt) {
@@ -76,4 +81,12 @@ public class GiftTransaction {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getRedemptionCode() {
+        return redemptionCode;
+    }
+
+    public void setRedemptionCode(String redemptionCode) {
+        this.redemptionCode = redemptionCode;
+    }
 }
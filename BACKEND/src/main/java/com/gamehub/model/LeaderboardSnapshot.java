@@ -0,0 +1,110 @@
+// Note: Entity đại diện cho bảng leaderboard_snapshots trong MySQL: bảng xếp hạng đã chốt của một kỳ đã đóng.
+// Chỉ giữ top N người mỗi developer (gamehub.leaderboard.snapshot-size) nên mỗi kỳ chỉ tốn vài dòng.
+package com.gamehub.model;
+
+import com.gamehub.model.enums.LeaderboardWindow;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "leaderboard_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_snapshots_bucket_dev_rank",
+                columnNames = {"window_type", "bucket_start", "developer_id", "rank_position"}),
+        indexes = @Index(name = "idx_snapshots_bucket_dev_player", columnList = "window_type, bucket_start, developer_id, player_id"))
+public class LeaderboardSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "window_type", nullable = false, length = 16)
+    private LeaderboardWindow windowType;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "developer_id", nullable = false)
+    private Long developerId;
+
+    @Column(name = "rank_position", nullable = false)
+    private int rankPosition;
+
+    @Column(name = "player_id", nullable = false)
+    private Long playerId;
+
+    @Column(nullable = false)
+    private long points;
+
+    // Tổng số người có điểm trong kỳ (kể cả người nằm ngoài top N được lưu)
+    @Column(name = "total_players", nullable = false)
+    private int totalPlayers;
+
+    public LeaderboardSnapshot() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LeaderboardWindow getWindowType() {
+        return windowType;
+    }
+
+    public void setWindowType(LeaderboardWindow windowType) {
+        this.windowType = windowType;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getDeveloperId() {
+        return developerId;
+    }
+
+    public void setDeveloperId(Long developerId) {
+        this.developerId = developerId;
+    }
+
+    public int getRankPosition() {
+        return rankPosition;
+    }
+
+    public void setRankPosition(int rankPosition) {
+        this.rankPosition = rankPosition;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    public void setPoints(long points) {
+        this.points = points;
+    }
+
+    public int getTotalPlayers() {
+        return totalPlayers;
+    }
+
+    public void setTotalPlayers(int totalPlayers) {
+        this.totalPlayers = totalPlayers;
+    }
+}
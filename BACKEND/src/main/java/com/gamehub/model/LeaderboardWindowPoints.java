@@ -0,0 +1,99 @@
+// Note: Entity đại diện cho bảng leaderboard_window_points trong MySQL: điểm kiếm được của người chơi
+// theo developer trong một kỳ (ngày/tuần/mùa) còn mở. Cộng dồn khi ghi điểm (cùng transaction với point_transactions);
+// kỳ đã đóng được LeaderboardWindowService chép sang leaderboard_snapshots rồi xóa khỏi bảng này.
+package com.gamehub.model;
+
+import com.gamehub.model.enums.LeaderboardWindow;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "leaderboard_window_points",
+        uniqueConstraints = @UniqueConstraint(name = "uk_window_points_bucket_dev_player",
+                columnNames = {"window_type", "bucket_start", "developer_id", "player_id"}))
+public class LeaderboardWindowPoints {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "window_type", nullable = false, length = 16)
+    private LeaderboardWindow windowType;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "developer_id", nullable = false)
+    private Long developerId;
+
+    @Column(name = "player_id", nullable = false)
+    private Long playerId;
+
+    @Column(nullable = false)
+    private long points;
+
+    @Column(name = "last_updated", nullable = false)
+    private LocalDateTime lastUpdated;
+
+    public LeaderboardWindowPoints() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LeaderboardWindow getWindowType() {
+        return windowType;
+    }
+
+    public void setWindowType(LeaderboardWindow windowType) {
+        this.windowType = windowType;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getDeveloperId() {
+        return developerId;
+    }
+
+    public void setDeveloperId(Long developerId) {
+        this.developerId = developerId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    public void setPoints(long points) {
+        this.points = points;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -0,0 +1,98 @@
+// Note: Entity đại diện cho bảng point_monthly_summaries trong MySQL: tổng hợp theo tháng (player, game)
+// của các giao dịch điểm đã được lưu trữ khỏi point_transactions.
+// game_id = 0 dùng cho giao dịch không gắn với game nào (để unique key và upsert cộng dồn hoạt động, NULL không trùng nhau).
+package com.gamehub.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "point_monthly_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_point_monthly_player_month_game",
+                columnNames = {"player_id", "month_start", "game_id"}))
+public class PointMonthlySummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "player_id", nullable = false)
+    private Long playerId;
+
+    @Column(name = "game_id", nullable = false)
+    private Long gameId;
+
+    // Ngày đầu tháng
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+
+    @Column(name = "total_points", nullable = false)
+    private long totalPoints;
+
+    @Column(name = "last_created_at", nullable = false)
+    private LocalDateTime lastCreatedAt;
+
+    public PointMonthlySummary() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public long getTotalPoints() {
+        return totalPoints;
+    }
+
+    public void setTotalPoints(long totalPoints) {
+        this.totalPoints = totalPoints;
+    }
+
+    public LocalDateTime getLastCreatedAt() {
+        return lastCreatedAt;
+    }
+
+    public void setLastCreatedAt(LocalDateTime lastCreatedAt) {
+        this.lastCreatedAt = lastCreatedAt;
+    }
+}
@@ -6,7 +6,12 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "point_transactions")
+@Table(name = "point_transactions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_point_transactions_player_game_action", columnNames = {"player_id", "game_id", "action_type"})
+}, indexes = {
+        // Job lưu trữ (PointLedgerArchiveService) lấy giao dịch cũ theo created_at
+        @Index(name = "idx_point_transactions_created", columnList = "created_at, id")
+})
 public class PointTransaction {
 
     @Id
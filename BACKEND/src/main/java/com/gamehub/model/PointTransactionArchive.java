@@ -0,0 +1,99 @@
+// Note: Entity đại diện cho bảng point_transaction_archive trong MySQL: các dòng point_transactions cũ đã được
+// PointLedgerArchiveService chuyển khỏi bảng nóng. Giữ nguyên id và dữ liệu gốc; unique (player, game, action)
+// giống bảng gốc để kiểm tra cộng điểm trùng vẫn đúng sau khi dòng đã được lưu trữ.
+package com.gamehub.model;
+
+import com.gamehub.model.enums.PointActionType;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "point_transaction_archive",
+        uniqueConstraints = @UniqueConstraint(name = "uk_point_archive_player_game_action",
+                columnNames = {"player_id", "game_id", "action_type"}),
+        indexes = @Index(name = "idx_point_archive_player_created", columnList = "player_id, created_at"))
+public class PointTransactionArchive {
+
+    // Cùng id với dòng gốc trong point_transactions
+    @Id
+    private Long id;
+
+    @Column(name = "player_id", nullable = false)
+    private Long playerId;
+
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action_type", nullable = false, length = 50)
+    private PointActionType actionType;
+
+    @Column(nullable = false)
+    private Long points;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public PointTransactionArchive() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public PointActionType getActionType() {
+        return actionType;
+    }
+
+    public void setActionType(PointActionType actionType) {
+        this.actionType = actionType;
+    }
+
+    public Long getPoints() {
+        return points;
+    }
+
+    public void setPoints(Long points) {
+        this.points = points;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
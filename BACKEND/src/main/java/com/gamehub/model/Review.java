@@ -5,7 +5,12 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reviews_player_game", columnNames = {"player_id", "game_id"})
+}, indexes = {
+        @Index(name = "idx_reviews_game_created", columnList = "game_id, created_at, id"),
+        @Index(name = "idx_reviews_game_rating", columnList = "game_id, rating, created_at, id")
+})
 public class Review {
 
     @Id
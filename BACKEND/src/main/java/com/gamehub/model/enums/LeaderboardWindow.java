@@ -0,0 +1,47 @@
+// Note: Enum định nghĩa cửa sổ thời gian của bảng xếp hạng điểm theo developer.
+// ALL_TIME là tổng điểm trong player_developer_points; các cửa sổ còn lại chỉ tính điểm kiếm được trong kỳ:
+// DAILY theo ngày, WEEKLY theo tuần (bắt đầu thứ Hai), SEASON theo quý (bắt đầu 1/1, 1/4, 1/7, 1/10).
+package com.gamehub.model.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum LeaderboardWindow {
+    ALL_TIME,
+    DAILY,
+    WEEKLY,
+    SEASON;
+
+    // Ngày bắt đầu của kỳ chứa "day"
+    public LocalDate bucketStart(LocalDate day) {
+        switch (this) {
+            case DAILY:
+                return day;
+            case WEEKLY:
+                return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case SEASON:
+                return LocalDate.of(day.getYear(), ((day.getMonthValue() - 1) / 3) * 3 + 1, 1);
+            default:
+                throw new IllegalStateException("ALL_TIME has no buckets");
+        }
+    }
+
+    // Ngày bắt đầu của kỳ kế tiếp (kỳ [bucketStart, bucketEnd) đã đóng khi tới bucketEnd)
+    public LocalDate bucketEnd(LocalDate bucketStart) {
+        switch (this) {
+            case DAILY:
+                return bucketStart.plusDays(1);
+            case WEEKLY:
+                return bucketStart.plusWeeks(1);
+            case SEASON:
+                return bucketStart.plusMonths(3);
+            default:
+                throw new IllegalStateException("ALL_TIME has no buckets");
+        }
+    }
+
+    public boolean isBucketed() {
+        return this != ALL_TIME;
+    }
+}
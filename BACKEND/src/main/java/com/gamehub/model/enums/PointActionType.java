@@ -2,6 +2,17 @@
 package com.gamehub.model.enums;
 
 public enum PointActionType {
-    DOWNLOAD_GAME,
-    WRITE_REVIEW
+    DOWNLOAD_GAME(10L),
+    WRITE_REVIEW(20L);
+
+    // Số điểm dùng khi request không ghi rõ points
+    private final long defaultPoints;
+
+    PointActionType(long defaultPoints) {
+        this.defaultPoints = defaultPoints;
+    }
+
+    public long getDefaultPoints() {
+        return defaultPoints;
+    }
 }
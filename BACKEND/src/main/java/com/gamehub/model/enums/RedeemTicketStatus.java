@@ -0,0 +1,10 @@
+// Note: Enum định nghĩa trạng thái ticket đổi quà ở chế độ drop (QUEUED: đang chờ xử lý; các trạng thái còn lại là kết quả cuối).
+package com.gamehub.model.enums;
+
+public enum RedeemTicketStatus {
+    QUEUED,
+    REDEEMED,
+    SOLD_OUT,
+    REJECTED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+// Note: Enum định nghĩa chiều xếp hạng điểm của game (DESC: điểm cao hơn là tốt hơn, ASC: thấp hơn là tốt hơn, ví dụ thời gian hoàn thành).
+package com.gamehub.model.enums;
+
+public enum ScoreOrder {
+    DESC,
+    ASC
+}
@@ -19,6 +19,4 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
     List<Asset> findByType(AssetType type);
 
     List<Asset> findByStatusAndType(AssetStatus status, AssetType type);
-
-    List<Asset> findByTagsContainingIgnoreCase(String tag);
 }
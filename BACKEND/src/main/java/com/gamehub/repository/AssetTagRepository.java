@@ -0,0 +1,20 @@
+// Note: Repository để truy vấn bảng asset_tags (tag đã chuẩn hóa của từng asset).
+package com.gamehub.repository;
+
+import com.gamehub.model.AssetTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AssetTagRepository extends JpaRepository<AssetTag, Long> {
+    List<AssetTag> findByAssetId(Long assetId);
+
+    @Modifying
+    @Query(value = "DELETE FROM asset_tags WHERE asset_id = :assetId", nativeQuery = true)
+    int deleteByAssetId(@Param("assetId") Long assetId);
+}
@@ -0,0 +1,16 @@
+// Note: Repository để truy vấn bảng game_api_keys trong MySQL.
+package com.gamehub.repository;
+
+import com.gamehub.model.GameApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GameApiKeyRepository extends JpaRepository<GameApiKey, Long> {
+
+    Optional<GameApiKey> findByKeyHash(String keyHash);
+
+    Optional<GameApiKey> findByGameId(Long gameId);
+}
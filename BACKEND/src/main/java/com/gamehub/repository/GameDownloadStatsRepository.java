@@ -0,0 +1,10 @@
+// Note: Repository để truy vấn bảng game_download_stats trong MySQL.
+package com.gamehub.repository;
+
+import com.gamehub.model.GameDownloadStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GameDownloadStatsRepository extends JpaRepository<GameDownloadStats, Long> {
+}
@@ -0,0 +1,39 @@
+// Note: Repository để truy vấn bảng game_rating_stats trong MySQL.
+package com.gamehub.repository;
+
+import com.gamehub.model.GameRatingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface GameRatingStatsRepository extends JpaRepository<GameRatingStats, Long> {
+
+    // Cộng một review vào thống kê bằng một câu lệnh duy nhất (tạo dòng nếu game chưa có review nào).
+    // Không đọc rồi ghi lại nên hai review đồng thời cho cùng game không ghi đè lên nhau.
+    @Modifying
+    @Query(value = "INSERT INTO game_rating_stats (game_id, review_count, rating_sum, " +
+            "rating_1, rating_2, rating_3, rating_4, rating_5, updated_at) " +
+            "VALUES (:gameId, 1, :rating, " +
+            "CASE WHEN :rating = 1 THEN 1 ELSE 0 END, CASE WHEN :rating = 2 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :rating = 3 THEN 1 ELSE 0 END, CASE WHEN :rating = 4 THEN 1 ELSE 0 END, " +
+            "CASE WHEN :rating = 5 THEN 1 ELSE 0 END, :now) " +
+            "ON DUPLICATE KEY UPDATE review_count = review_count + 1, rating_sum = rating_sum + VALUES(rating_sum), " +
+            "rating_1 = rating_1 + VALUES(rating_1), rating_2 = rating_2 + VALUES(rating_2), " +
+            "rating_3 = rating_3 + VALUES(rating_3), rating_4 = rating_4 + VALUES(rating_4), " +
+            "rating_5 = rating_5 + VALUES(rating_5), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int addRating(@Param("gameId") Long gameId, @Param("rating") int rating, @Param("now") LocalDateTime now);
+
+    // Khóa dòng thống kê khi đối soát để review mới gửi trong lúc đó phải chờ và cộng lên giá trị đã sửa
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM GameRatingStats s WHERE s.gameId = :gameId")
+    Optional<GameRatingStats> findForUpdate(@Param("gameId") Long gameId);
+}
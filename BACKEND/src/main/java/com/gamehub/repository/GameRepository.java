@@ -3,9 +3,14 @@ package com.gamehub.repository;
 
 import com.gamehub.model.Game;
 import com.gamehub.model.enums.GameStatus;
+import com.gamehub.dto.GameResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +19,38 @@ public interface GameRepository extends JpaRepository<Game, Long> {
     List<Game> findByStatus(GameStatus status);
     List<Game> findByDeveloperId(Long developerId);
     List<Game> findByDeveloperIdAndStatus(Long developerId, GameStatus status);
+
+    // Projection trực tiếp sang DTO: không load entity Game và không join bảng users (chỉ đọc developer_id).
+    // Thống kê rating lấy bằng LEFT JOIN theo khóa chính game_rating_stats (một dòng mỗi game)
+    String GAME_RESPONSE_PROJECTION = "SELECT new com.gamehub.dto.GameResponse(g.id, g.name, g.description, g.requirements, " +
+            "g.previewImageUrl, g.apkFileUrl, g.supportLeaderboard, g.supportPoints, g.status, g.developer.id, g.createdAt, " +
+            "s.reviewCount, s.ratingSum, s.rating1, s.rating2, s.rating3, s.rating4, s.rating5) " +
+            "FROM Game g LEFT JOIN GameRatingStats s ON s.gameId = g.id ";
+
+    String PUBLIC_GAME_PROJECTION = GAME_RESPONSE_PROJECTION + "WHERE g.status = :status " +
+            "AND (:supportLeaderboard IS NULL OR g.supportLeaderboard = :supportLeaderboard) " +
+            "AND (:supportPoints IS NULL OR g.supportPoints = :supportPoints) " +
+            "AND (:developerId IS NULL OR g.developer.id = :developerId) ";
+
+    @Query(PUBLIC_GAME_PROJECTION + "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GameResponse> findPublicGames(@Param("status") GameStatus status,
+                                       @Param("supportLeaderboard") Boolean supportLeaderboard,
+                                       @Param("supportPoints") Boolean supportPoints,
+                                       @Param("developerId") Long developerId,
+                                       Pageable pageable);
+
+    @Query(GAME_RESPONSE_PROJECTION + "WHERE g.id = :id")
+    Optional<GameResponse> findGameResponseById(@Param("id") Long id);
+
+    // Trang tiếp theo: các game đứng sau (createdAt, id) của phần tử cuối trang trước
+    @Query(PUBLIC_GAME_PROJECTION +
+            "AND (g.createdAt < :createdAt OR (g.createdAt = :createdAt AND g.id < :id)) " +
+            "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GameResponse> findPublicGamesAfter(@Param("status") GameStatus status,
+                                            @Param("supportLeaderboard") Boolean supportLeaderboard,
+                                            @Param("supportPoints") Boolean supportPoints,
+                                            @Param("developerId") Long developerId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
 }
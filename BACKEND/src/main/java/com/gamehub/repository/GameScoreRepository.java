@@ -0,0 +1,44 @@
+// Note: Repository để truy vấn bảng game_scores trong MySQL.
+// Ghi (upsert theo lô) nằm ở GameScoreService qua JdbcTemplate; ở đây chỉ có các truy vấn đọc.
+package com.gamehub.repository;
+
+import com.gamehub.dto.GameScoreRow;
+import com.gamehub.model.GameScore;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GameScoreRepository extends JpaRepository<GameScore, Long> {
+
+    String SCORE_ROW_PROJECTION =
+            "SELECT new com.gamehub.dto.GameScoreRow(s.playerId, u.email, s.bestScore, s.achievedAt) " +
+            "FROM GameScore s JOIN User u ON u.id = s.playerId WHERE s.gameId = :gameId ";
+
+    @Query(SCORE_ROW_PROJECTION + "ORDER BY s.bestScore DESC, s.achievedAt ASC, s.playerId ASC")
+    List<GameScoreRow> findTopHighest(@Param("gameId") Long gameId, Pageable pageable);
+
+    @Query(SCORE_ROW_PROJECTION + "ORDER BY s.bestScore ASC, s.achievedAt ASC, s.playerId ASC")
+    List<GameScoreRow> findTopLowest(@Param("gameId") Long gameId, Pageable pageable);
+
+    Optional<GameScore> findByGameIdAndPlayerId(Long gameId, Long playerId);
+
+    // Số người đứng trên một điểm số (dùng cho hạng của người chơi nằm ngoài top-K)
+    @Query("SELECT COUNT(s) FROM GameScore s WHERE s.gameId = :gameId AND " +
+           "(s.bestScore > :score OR (s.bestScore = :score AND s.achievedAt < :achievedAt))")
+    long countAheadHighest(@Param("gameId") Long gameId, @Param("score") long score,
+                           @Param("achievedAt") LocalDateTime achievedAt);
+
+    @Query("SELECT COUNT(s) FROM GameScore s WHERE s.gameId = :gameId AND " +
+           "(s.bestScore < :score OR (s.bestScore = :score AND s.achievedAt < :achievedAt))")
+    long countAheadLowest(@Param("gameId") Long gameId, @Param("score") long score,
+                          @Param("achievedAt") LocalDateTime achievedAt);
+
+    long countByGameId(Long gameId);
+}
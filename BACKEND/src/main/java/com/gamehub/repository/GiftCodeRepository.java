@@ -0,0 +1,24 @@
+// Note: Repository để truy vấn bảng gift_codes (mã đổi quà của từng gift).
+package com.gamehub.repository;
+
+import com.gamehub.model.GiftCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GiftCodeRepository extends JpaRepository<GiftCode, Long> {
+    long countByGiftId(Long giftId);
+
+    // Mã đã phát: đã đánh dấu claimed hoặc đã nằm trong một giao dịch đổi quà (chưa kịp đánh dấu)
+    @Query(value = "SELECT COUNT(*) FROM gift_codes c WHERE c.gift_id = :giftId AND (c.claimed_at IS NOT NULL OR EXISTS " +
+            "(SELECT 1 FROM gift_transactions t WHERE t.gift_id = c.gift_id AND t.redemption_code = c.code))",
+            nativeQuery = true)
+    long countIssued(@Param("giftId") Long giftId);
+
+    @Modifying
+    @Query(value = "DELETE FROM gift_codes WHERE gift_id = :giftId", nativeQuery = true)
+    int deleteByGiftId(@Param("giftId") Long giftId);
+}
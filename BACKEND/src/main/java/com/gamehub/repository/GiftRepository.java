@@ -4,11 +4,23 @@ package com.gamehub.repository;
 
 import com.gamehub.model.Gift;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GiftRepository extends JpaRepository<Gift, Long> {
     List<Gift> findByDeveloperId(Long developerId);
+
+    // Giảm số lượng có điều kiện trong một câu lệnh: trả về 0 khi đã hết hàng, không bao giờ xuống âm
+    @Modifying
+    @Query(value = "UPDATE gifts SET quantity = quantity - 1 WHERE id = :giftId AND quantity > 0", nativeQuery = true)
+    int decrementQuantity(@Param("giftId") Long giftId);
+
+    @Query("SELECT g.quantity FROM Gift g WHERE g.id = :giftId")
+    Optional<Long> findQuantity(@Param("giftId") Long giftId);
 }
@@ -0,0 +1,40 @@
+// Note: Repository để truy vấn bảng leaderboard_snapshots (bảng xếp hạng đã chốt của các kỳ đã đóng).
+package com.gamehub.repository;
+
+import com.gamehub.dto.LeaderboardResponse;
+import com.gamehub.model.LeaderboardSnapshot;
+import com.gamehub.model.enums.LeaderboardWindow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LeaderboardSnapshotRepository extends JpaRepository<LeaderboardSnapshot, Long> {
+
+    @Query("SELECT new com.gamehub.dto.LeaderboardResponse(s.playerId, u.email, s.points, s.rankPosition) " +
+           "FROM LeaderboardSnapshot s JOIN User u ON u.id = s.playerId " +
+           "WHERE s.windowType = :window AND s.bucketStart = :bucketStart AND s.developerId = :developerId " +
+           "AND s.rankPosition > :offset ORDER BY s.rankPosition")
+    List<LeaderboardResponse> findRanked(@Param("window") LeaderboardWindow window,
+                                         @Param("bucketStart") LocalDate bucketStart,
+                                         @Param("developerId") Long developerId,
+                                         @Param("offset") int offset,
+                                         Pageable pageable);
+
+    Optional<LeaderboardSnapshot> findByWindowTypeAndBucketStartAndDeveloperIdAndPlayerId(
+            LeaderboardWindow windowType, LocalDate bucketStart, Long developerId, Long playerId);
+
+    Optional<LeaderboardSnapshot> findFirstByWindowTypeAndBucketStartAndDeveloperId(
+            LeaderboardWindow windowType, LocalDate bucketStart, Long developerId);
+
+    boolean existsByWindowTypeAndBucketStart(LeaderboardWindow windowType, LocalDate bucketStart);
+
+    @Query("SELECT DISTINCT s.developerId FROM LeaderboardSnapshot s WHERE s.windowType = :window AND s.bucketStart = :bucketStart")
+    List<Long> findArchivedDevelopers(@Param("window") LeaderboardWindow window, @Param("bucketStart") LocalDate bucketStart);
+}
@@ -0,0 +1,42 @@
+// Note: Repository để truy vấn bảng leaderboard_window_points trong MySQL.
+// Cộng điểm (upsert theo lô) nằm ở LeaderboardWindowService qua JdbcTemplate; ở đây là các truy vấn đọc và dọn kỳ đã chốt.
+package com.gamehub.repository;
+
+import com.gamehub.dto.PlayerPointsRow;
+import com.gamehub.model.LeaderboardWindowPoints;
+import com.gamehub.model.enums.LeaderboardWindow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LeaderboardWindowPointsRepository extends JpaRepository<LeaderboardWindowPoints, Long> {
+
+    String WINDOW_POINTS_ROW = "SELECT new com.gamehub.dto.PlayerPointsRow(w.developerId, w.playerId, u.email, " +
+            "w.points, w.lastUpdated) FROM LeaderboardWindowPoints w JOIN User u ON u.id = w.playerId " +
+            "WHERE w.windowType = :window AND w.bucketStart = :bucketStart ";
+
+    // Nạp một kỳ của một developer vào bộ nhớ
+    @Query(WINDOW_POINTS_ROW + "AND w.developerId = :developerId")
+    List<PlayerPointsRow> findBucketRows(@Param("window") LeaderboardWindow window,
+                                         @Param("bucketStart") LocalDate bucketStart,
+                                         @Param("developerId") Long developerId);
+
+    // Chốt kỳ: mọi developer, đã sắp theo thứ tự xếp hạng
+    @Query(WINDOW_POINTS_ROW + "ORDER BY w.developerId, w.points DESC, w.lastUpdated DESC, w.playerId ASC")
+    List<PlayerPointsRow> findBucketRowsRanked(@Param("window") LeaderboardWindow window,
+                                               @Param("bucketStart") LocalDate bucketStart);
+
+    @Query("SELECT DISTINCT w.bucketStart FROM LeaderboardWindowPoints w " +
+           "WHERE w.windowType = :window AND w.bucketStart < :before ORDER BY w.bucketStart")
+    List<LocalDate> findBucketsBefore(@Param("window") LeaderboardWindow window, @Param("before") LocalDate before);
+
+    @Modifying
+    @Query("DELETE FROM LeaderboardWindowPoints w WHERE w.windowType = :window AND w.bucketStart = :bucketStart")
+    int deleteBucket(@Param("window") LeaderboardWindow window, @Param("bucketStart") LocalDate bucketStart);
+}
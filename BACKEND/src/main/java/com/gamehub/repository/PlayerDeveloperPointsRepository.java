@@ -1,11 +1,17 @@
 package com.gamehub.repository;
 
+import com.gamehub.dto.PlayerDeveloperPointsDTO;
+import com.gamehub.dto.PlayerPointsRow;
 import com.gamehub.model.PlayerDeveloperPoints;
 import com.gamehub.model.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +20,37 @@ public interface PlayerDeveloperPointsRepository extends JpaRepository<PlayerDev
     Optional<PlayerDeveloperPoints> findByPlayerAndDeveloper(User player, User developer);
     List<PlayerDeveloperPoints> findByPlayer(User player);
     List<PlayerDeveloperPoints> findByDeveloperOrderByTotalPointsDesc(User developer, Pageable pageable);
+
+    // Dùng để dựng bảng xếp hạng trong bộ nhớ: chỉ các cột cần thiết, không load entity User
+    String PLAYER_POINTS_ROW = "SELECT new com.gamehub.dto.PlayerPointsRow(p.developer.id, pl.id, pl.email, " +
+            "p.totalPoints, p.lastUpdated) FROM PlayerDeveloperPoints p JOIN p.player pl ";
+
+    @Query(PLAYER_POINTS_ROW)
+    List<PlayerPointsRow> findAllPointsRows();
+
+    @Query(PLAYER_POINTS_ROW + "WHERE p.developer.id = :developerId AND pl.id = :playerId")
+    Optional<PlayerPointsRow> findPointsRow(@Param("developerId") Long developerId, @Param("playerId") Long playerId);
+
+    // Điểm của một player ở mọi developer trong một câu (id = developerId), dùng cho danh mục quà cá nhân hóa
+    @Query("SELECT new com.gamehub.dto.PlayerDeveloperPointsDTO(p.developer.id, p.totalPoints) " +
+            "FROM PlayerDeveloperPoints p WHERE p.player.id = :playerId")
+    List<PlayerDeveloperPointsDTO> findPointsByPlayerId(@Param("playerId") Long playerId);
+
+    // Cộng điểm nguyên tử trong một câu lệnh (tạo dòng nếu chưa có): không đọc-sửa-ghi nên không mất cập nhật
+    // khi hai lần cộng điểm cho cùng (player, developer) chạy song song; H2 ở chế độ MySQL hiểu cùng cú pháp
+    @Modifying
+    @Query(value = "INSERT INTO player_developer_points (player_id, developer_id, total_points, last_updated) " +
+            "VALUES (:playerId, :developerId, :points, :now) " +
+            "ON DUPLICATE KEY UPDATE total_points = total_points + VALUES(total_points), last_updated = VALUES(last_updated)",
+            nativeQuery = true)
+    int addPoints(@Param("playerId") Long playerId, @Param("developerId") Long developerId,
+                  @Param("points") long points, @Param("now") LocalDateTime now);
+
+    // Trừ điểm có điều kiện: trả về 0 khi không đủ điểm (hoặc chưa có dòng điểm), số dư không bao giờ âm
+    @Modifying
+    @Query(value = "UPDATE player_developer_points SET total_points = total_points - :points, last_updated = :now " +
+            "WHERE player_id = :playerId AND developer_id = :developerId AND total_points >= :points",
+            nativeQuery = true)
+    int spendPoints(@Param("playerId") Long playerId, @Param("developerId") Long developerId,
+                    @Param("points") long points, @Param("now") LocalDateTime now);
 }
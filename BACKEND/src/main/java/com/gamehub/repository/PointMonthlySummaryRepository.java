@@ -0,0 +1,14 @@
+// Note: Repository để truy vấn bảng point_monthly_summaries (tổng hợp theo tháng của giao dịch điểm đã lưu trữ).
+package com.gamehub.repository;
+
+import com.gamehub.model.PointMonthlySummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PointMonthlySummaryRepository extends JpaRepository<PointMonthlySummary, Long> {
+    List<PointMonthlySummary> findByPlayerIdOrderByMonthStartDescGameIdAsc(Long playerId, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+// Note: Repository để truy vấn bảng point_transaction_archive (giao dịch điểm cũ đã chuyển khỏi bảng nóng).
+package com.gamehub.repository;
+
+import com.gamehub.model.PointTransactionArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PointTransactionArchiveRepository extends JpaRepository<PointTransactionArchive, Long> {
+    List<PointTransactionArchive> findByPlayerIdOrderByCreatedAtDesc(Long playerId, Pageable pageable);
+}
@@ -2,7 +2,6 @@
 package com.gamehub.repository;
 
 import com.gamehub.model.PointTransaction;
-import com.gamehub.model.enums.PointActionType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -11,6 +10,5 @@ import java.util.List;
 
 @Repository
 public interface PointTransactionRepository extends JpaRepository<PointTransaction, Long> {
-    boolean existsByPlayerIdAndGameIdAndActionType(Long playerId, Long gameId, PointActionType actionType);
     List<PointTransaction> findByPlayerIdOrderByCreatedAtDesc(Long playerId, Pageable pageable);
 }
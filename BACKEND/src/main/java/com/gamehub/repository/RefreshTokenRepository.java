@@ -0,0 +1,50 @@
+// Note: Repository để truy vấn bảng refresh_tokens trong MySQL.
+package com.gamehub.repository;
+
+import com.gamehub.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Thu hồi có điều kiện: chỉ một request thắng khi cùng một token được dùng đồng thời (trả về 0 với request còn lại)
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now " +
+            "WHERE t.tokenHash = :tokenHash AND t.revoked = false AND t.expiresAt > :now")
+    int revokeIfActive(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    @Query("SELECT t.tokenHash FROM RefreshToken t WHERE t.user.id = :userId AND t.revoked = false AND t.expiresAt > :now")
+    List<String> findActiveTokenHashesByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now WHERE t.user.id = :userId AND t.revoked = false")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Xóa user: refresh_tokens.user_id là khóa ngoại nên phải xóa token của user trước
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    // Dùng để dựng lại bloom filter: chỉ các token đã thu hồi mà chưa hết hạn mới cần kiểm tra
+    @Query("SELECT t.tokenHash FROM RefreshToken t WHERE t.revoked = true AND t.expiresAt > :now")
+    List<String> findRevokedUnexpiredTokenHashes(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
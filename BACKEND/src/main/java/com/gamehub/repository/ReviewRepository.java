@@ -1,14 +1,63 @@
 // Note: Repository để truy vấn bảng reviews trong MySQL.
 package com.gamehub.repository;
 
+import com.gamehub.dto.ReviewResponse;
+import com.gamehub.model.GameRatingStats;
 import com.gamehub.model.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByGameId(Long gameId);
-    boolean existsByPlayerIdAndGameId(Long playerId, Long gameId);
+
+    // Một query cho cả kiểm tra game tồn tại và lấy trang review: đi từ Game và LEFT JOIN review/người review.
+    // Không có dòng nào = game không tồn tại; một dòng với id null = game tồn tại nhưng không còn review.
+    String REVIEW_PAGE_SELECT = "SELECT new com.gamehub.dto.ReviewResponse(r.id, p.id, p.fullName, g.id, r.rating, " +
+            "r.comment, r.createdAt) FROM Game g LEFT JOIN Review r ON r.game.id = g.id ";
+    String REVIEW_PAGE_JOIN_PLAYER = "LEFT JOIN r.player p WHERE g.id = :gameId ";
+    String ORDER_BY_NEWEST = "ORDER BY r.createdAt DESC, r.id DESC";
+    String ORDER_BY_RATING = "ORDER BY r.rating DESC, r.createdAt DESC, r.id DESC";
+
+    @Query(REVIEW_PAGE_SELECT + REVIEW_PAGE_JOIN_PLAYER + ORDER_BY_NEWEST)
+    List<ReviewResponse> findReviewPageNewest(@Param("gameId") Long gameId, Pageable pageable);
+
+    @Query(REVIEW_PAGE_SELECT +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            REVIEW_PAGE_JOIN_PLAYER + ORDER_BY_NEWEST)
+    List<ReviewResponse> findReviewPageNewestAfter(@Param("gameId") Long gameId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    @Query(REVIEW_PAGE_SELECT + REVIEW_PAGE_JOIN_PLAYER + ORDER_BY_RATING)
+    List<ReviewResponse> findReviewPageByRating(@Param("gameId") Long gameId, Pageable pageable);
+
+    @Query(REVIEW_PAGE_SELECT +
+            "AND (r.rating < :rating OR (r.rating = :rating AND (r.createdAt < :createdAt " +
+            "OR (r.createdAt = :createdAt AND r.id < :id)))) " +
+            REVIEW_PAGE_JOIN_PLAYER + ORDER_BY_RATING)
+    List<ReviewResponse> findReviewPageByRatingAfter(@Param("gameId") Long gameId,
+                                                     @Param("rating") Integer rating,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    // Đếm lại thống kê rating từ bảng reviews, chỉ dùng cho job đối soát game_rating_stats
+    String RATING_AGGREGATE = "SELECT new com.gamehub.model.GameRatingStats(r.game.id, COUNT(r), SUM(r.rating), " +
+            "SUM(CASE WHEN r.rating = 1 THEN 1L ELSE 0L END), SUM(CASE WHEN r.rating = 2 THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN r.rating = 3 THEN 1L ELSE 0L END), SUM(CASE WHEN r.rating = 4 THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN r.rating = 5 THEN 1L ELSE 0L END)) FROM Review r ";
+
+    @Query(RATING_AGGREGATE + "GROUP BY r.game.id")
+    List<GameRatingStats> aggregateRatingsByGame();
+
+    @Query(RATING_AGGREGATE + "WHERE r.game.id = :gameId GROUP BY r.game.id")
+    List<GameRatingStats> aggregateRatingsForGame(@Param("gameId") Long gameId);
 }
@@ -0,0 +1,73 @@
+// Note: Principal đặt vào SecurityContext bởi JwtAuthenticationFilter, lấy hoàn toàn từ token (id, email, role).
+// getName() trả về email nên authentication.getName() ở các controller cũ vẫn hoạt động như trước.
+package com.gamehub.security;
+
+import org.springframework.security.core.Authentication;
+
+import java.security.Principal;
+import java.util.Objects;
+
+public final class AuthenticatedUser implements Principal {
+
+    private final Long id;
+    private final String email;
+    private final String role;
+
+    public AuthenticatedUser(Long id, String email, String role) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+    }
+
+    public static AuthenticatedUser from(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) authentication.getPrincipal();
+        }
+        return null;
+    }
+
+    // Kiểm tra quyền sở hữu chỉ bằng thông tin trong token, không cần load User từ DB
+    public static boolean isSelf(Authentication authentication, Long userId) {
+        AuthenticatedUser user = from(authentication);
+        return user != null && user.isSelf(userId);
+    }
+
+    public boolean isSelf(Long userId) {
+        return id != null && id.equals(userId);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AuthenticatedUser)) return false;
+        AuthenticatedUser that = (AuthenticatedUser) o;
+        return Objects.equals(id, that.id) && Objects.equals(email, that.email) && Objects.equals(role, that.role);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, email, role);
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
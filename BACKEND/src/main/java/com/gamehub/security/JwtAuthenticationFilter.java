@@ -1,11 +1,14 @@
 // Lọc yêu cầu HTTP để xác thực và ủy quyền người dùng bằng JWT,
 // bỏ qua một số đường dẫn cụ thể như đăng ký và đăng nhập.
+// Đường /api/v1/ingest/** của game server xác thực bằng API key nên không đi qua filter này.
 package com.gamehub.security;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.gamehub.model.User;
+import com.gamehub.service.UserIdentityCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,11 +33,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
     private static final List<String> EXCLUDED_PATHS = Arrays.asList(
             "/api/v1/auth/register",
-            "/api/v1/auth/login"
+            "/api/v1/auth/login",
+            "/api/v1/auth/refresh",
+            "/api/v1/auth/logout"
     );
 
+    private static final String INGEST_PATH_PREFIX = "/api/v1/ingest/";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(INGEST_PATH_PREFIX);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
@@ -47,13 +62,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String jwt = getJwtFromRequest(request);
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String email = jwtUtil.getEmailFromToken(jwt);
-                String role = jwtUtil.getRoleFromToken(jwt);
-                logger.debug("Token validated. Email: {}, Role: {}", email, role); // Log vai trò
+            VerifiedClaims claims = StringUtils.hasText(jwt) ? jwtUtil.verify(jwt) : null;
+            if (claims != null) {
+                String email = claims.getEmail();
+                String role = claims.getRole();
+                Long userId = claims.getUserId();
+                if (userId == null) {
+                    // Token cũ chưa có claim uid: tra id qua cache cho đến khi token hết hạn
+                    userId = userIdentityCache.findByEmail(email).map(User::getId).orElse(null);
+                    logger.debug("Legacy token without uid claim, resolved userId={} for {}", userId, email);
+                }
+                logger.debug("Token validated. UserId: {}, Email: {}, Role: {}", userId, email, role); // Log vai trò
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                email,
+                                new AuthenticatedUser(userId, email, role),
                                 null,
                                 Collections.singletonList(new SimpleGrantedAuthority(role))
                         );
@@ -8,12 +8,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -21,8 +24,33 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
-    public String generateToken(String email, String role) {
-        logger.debug("Generating token for email: {}, role: {}", email, role);
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Key và parser được dựng một lần; JwtParser của jjwt là immutable và thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @PostConstruct
+    void init() {
+        verifiedTokenCache = new VerifiedTokenCache(verifiedCacheSize);
+        if (jwtSecret == null || jwtSecret.length() < 32) {
+            logger.error("Invalid jwtSecret: length is {} (must be at least 32 characters)",
+                    jwtSecret == null ? 0 : jwtSecret.length());
+            return;
+        }
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    public String generateToken(Long userId, String email, String role) {
+        logger.debug("Generating token for userId: {}, email: {}, role: {}", userId, email, role);
         logger.debug("jwtSecret: {}, jwtExpirationMs: {}", jwtSecret, jwtExpirationMs);
         try {
             if (jwtSecret == null || jwtSecret.length() < 32) {
@@ -32,13 +60,13 @@ public class JwtUtil {
             }
             Date now = new Date();
             Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
             String token = Jwts.builder()
                     .setSubject(email)
+                    .claim("uid", userId)
                     .claim("role", role)
                     .setIssuedAt(now)
                     .setExpiration(expiryDate)
-                    .signWith(key, SignatureAlgorithm.HS256)
+                    .signWith(signingKey, SignatureAlgorithm.HS256)
                     .compact();
             logger.debug("Generated token: {}", token);
             return token;
@@ -48,32 +76,94 @@ public class JwtUtil {
         }
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.getSubject();
+    // Refresh token cũng là JWT ký bằng cùng key nhưng có typ=refresh và jti ngẫu nhiên (mỗi token là duy nhất).
+    // Không dùng được làm access token: verify() từ chối mọi token có typ=refresh.
+    public String generateRefreshToken(Long userId, String email, String role) {
+        if (signingKey == null) {
+            throw new IllegalArgumentException("JWT secret must be at least 32 characters");
+        }
+        Date now = new Date();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email)
+                .claim("uid", userId)
+                .claim("role", role)
+                .claim("typ", REFRESH_TOKEN_TYPE)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + refreshExpirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
     }
 
-    public String getRoleFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("role", String.class);
+    // Chỉ kiểm tra chữ ký và hạn dùng; việc token đã bị thu hồi hay chưa do RefreshTokenService quyết định
+    public VerifiedClaims verifyRefreshToken(String token) {
+        try {
+            Claims claims = getClaimsFromToken(token);
+            if (!REFRESH_TOKEN_TYPE.equals(claims.get("typ", String.class))) {
+                return null;
+            }
+            return new VerifiedClaims(
+                    claims.get("uid", Long.class),
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.getExpiration().getTime()
+            );
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Invalid refresh token: {}", e.getMessage());
+            return null;
+        }
     }
 
-    public boolean validateToken(String token) {
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
+    }
+
+    // Xác thực token và trả về claims đã parse, hoặc null nếu token không hợp lệ/hết hạn.
+    // Token đã xác thực được cache theo hash cho đến khi hết hạn, nên mỗi request chỉ parse tối đa một lần.
+    public VerifiedClaims verify(String token) {
+        VerifiedClaims cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            getClaimsFromToken(token);
-            return true;
+            Claims claims = getClaimsFromToken(token);
+            if (REFRESH_TOKEN_TYPE.equals(claims.get("typ", String.class))) {
+                logger.warn("Refresh token used as access token");
+                return null;
+            }
+            Date expiration = claims.getExpiration();
+            VerifiedClaims verified = new VerifiedClaims(
+                    claims.get("uid", Long.class), // null với token cũ chưa có claim uid
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE
+            );
+            verifiedTokenCache.put(token, verified);
+            return verified;
         } catch (JwtException | IllegalArgumentException e) {
             logger.error("Invalid JWT token: {}", e.getMessage(), e);
-            return false;
+            return null;
         }
     }
 
+    public String getEmailFromToken(String token) {
+        VerifiedClaims claims = verify(token);
+        return claims != null ? claims.getEmail() : null;
+    }
+
+    public String getRoleFromToken(String token) {
+        VerifiedClaims claims = verify(token);
+        return claims != null ? claims.getRole() : null;
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
     private Claims getClaimsFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (jwtParser == null) {
+            throw new IllegalArgumentException("JWT secret must be at least 32 characters");
+        }
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 }
@@ -0,0 +1,94 @@
+// Note: Bloom filter trong bộ nhớ cho các refresh token đã bị thu hồi (khóa bằng SHA-256 hex của token).
+// "Không chứa" là chắc chắn chưa bị thu hồi; "có thể chứa" cần xác nhận lại bằng bảng refresh_tokens.
+// Không hỗ trợ xóa phần tử nên được dựng lại từ DB khi số phần tử vượt quá dung lượng thiết kế.
+package com.gamehub.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RevocationBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    public RevocationBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        this.expectedInsertions = n;
+    }
+
+    public void add(String tokenHash) {
+        long h1 = hash1(tokenHash);
+        long h2 = hash2(tokenHash);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(h1, h2, i);
+            long mask = 1L << (index & 63);
+            int word = index >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.increment();
+    }
+
+    public boolean mightContain(String tokenHash) {
+        long h1 = hash1(tokenHash);
+        long h2 = hash2(tokenHash);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(h1, h2, i);
+            if ((bits.get(index >>> 6) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isSaturated() {
+        return insertions.sum() > expectedInsertions;
+    }
+
+    public long getInsertions() {
+        return insertions.sum();
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    // Double hashing (Kirsch-Mitzenmacher): g_i = h1 + i*h2
+    private int index(long h1, long h2, int i) {
+        long combined = h1 + i * h2;
+        return (int) Math.floorMod(combined, (long) bitCount);
+    }
+
+    // Khóa đã là SHA-256 hex nên chỉ cần lấy 2 đoạn 64-bit từ chuỗi hex
+    private static long hash1(String tokenHash) {
+        return parseHex(tokenHash, 0);
+    }
+
+    private static long hash2(String tokenHash) {
+        return parseHex(tokenHash, 16) | 1L;
+    }
+
+    private static long parseHex(String hex, int offset) {
+        if (hex.length() >= offset + 16) {
+            return Long.parseUnsignedLong(hex.substring(offset, offset + 16), 16);
+        }
+        return (long) hex.hashCode() * 0x9E3779B97F4A7C15L + offset;
+    }
+}
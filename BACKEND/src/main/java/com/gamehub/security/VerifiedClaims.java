@@ -0,0 +1,39 @@
+// Note: Kết quả đã xác thực của một token JWT (userId, email, role, thời điểm hết hạn).
+// Bất biến để có thể chia sẻ an toàn giữa các request qua VerifiedTokenCache.
+// userId là null với token cũ được phát hành trước khi có claim "uid".
+package com.gamehub.security;
+
+public final class VerifiedClaims {
+
+    private final Long userId;
+    private final String email;
+    private final String role;
+    private final long expiresAtMillis;
+
+    public VerifiedClaims(Long userId, String email, String role, long expiresAtMillis) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
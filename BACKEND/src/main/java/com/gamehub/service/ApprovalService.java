@@ -22,6 +22,12 @@ public class ApprovalService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     public void approveUser(ApprovalRequest approvalRequest) throws ApprovalException {
         logger.info("Approval attempt for user ID: {}", approvalRequest.getUserId());
 
@@ -53,6 +59,7 @@ public class ApprovalService {
         user.setStatus(status);
         try {
             userRepository.save(user);
+            userIdentityCache.evict(user);
             logger.info("User approval status updated successfully: ID={}, Status={}", user.getId(), status);
         } catch (Exception e) {
             logger.error("Error updating user approval status: {}", user.getId(), e);
@@ -71,7 +78,11 @@ public class ApprovalService {
                 });
 
         try {
+            // Refresh token tham chiếu tới user: xóa cùng transaction trước khi xóa user
+            int deletedTokens = refreshTokenService.deleteAllForUser(user.getId());
+            logger.debug("Deleted {} refresh tokens of user ID={}", deletedTokens, user.getId());
             userRepository.delete(user);
+            userIdentityCache.evict(user);
             logger.info("User deleted successfully: ID={}, Email={}", user.getId(), user.getEmail());
         } catch (Exception e) {
             logger.error("Error deleting user: {}", user.getId(), e);
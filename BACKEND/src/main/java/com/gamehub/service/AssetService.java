@@ -6,13 +6,14 @@ import com.gamehub.dto.AssetRequest;
 import com.gamehub.dto.AssetResponse;
 import com.gamehub.exception.AssetException;
 import com.gamehub.model.Asset;
+import com.gamehub.model.AssetTag;
 import com.gamehub.model.User;
 import com.gamehub.model.enums.AssetStatus;
 import com.gamehub.model.enums.AssetType;
 import com.gamehub.model.enums.UserRole;
 import com.gamehub.model.enums.UserStatus;
 import com.gamehub.repository.AssetRepository;
-import com.gamehub.repository.UserRepository;
+import com.gamehub.repository.AssetTagRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,7 +38,16 @@ public class AssetService {
     private AssetRepository assetRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private AssetTagRepository assetTagRepository;
+
+    @Autowired
+    private AssetTagIndex assetTagIndex;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
 
     @Autowired
     private CloudinaryService cloudinaryService;
@@ -45,7 +55,7 @@ public class AssetService {
     public AssetResponse uploadAsset(AssetRequest assetRequest, String userEmail) throws AssetException {
         logger.info("Asset upload attempt by user: {}", userEmail);
 
-        User designer = userRepository.findByEmail(userEmail)
+        User designer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new AssetException("User not found");
@@ -117,6 +127,8 @@ public class AssetService {
 
         try {
             assetRepository.save(asset);
+            saveTags(asset);
+            catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.ASSETS);
             logger.info("Asset uploaded successfully: ID={}, Name={}, Type={}, Preview={}",
                     asset.getId(), asset.getName(), asset.getType(), previewUrl != null);
         } catch (Exception e) {
@@ -130,7 +142,7 @@ public class AssetService {
     public AssetResponse updateAsset(Long assetId, AssetRequest assetRequest, String userEmail) throws AssetException {
         logger.info("Asset update attempt for ID: {} by user: {}", assetId, userEmail);
 
-        User designer = userRepository.findByEmail(userEmail)
+        User designer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new AssetException("User not found");
@@ -223,6 +235,9 @@ public class AssetService {
 
         try {
             assetRepository.save(asset);
+            assetTagRepository.deleteByAssetId(asset.getId());
+            saveTags(asset);
+            catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.ASSETS);
             logger.info("Asset updated successfully: ID={}, Name={}", asset.getId(), asset.getName());
         } catch (Exception e) {
             logger.error("Error updating asset: {}", asset.getName(), e);
@@ -235,7 +250,7 @@ public class AssetService {
     public void deleteAsset(Long assetId, String userEmail) throws AssetException {
         logger.info("Asset delete attempt for ID: {} by user: {}", assetId, userEmail);
 
-        User designer = userRepository.findByEmail(userEmail)
+        User designer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new AssetException("User not found");
@@ -265,7 +280,9 @@ public class AssetService {
         }
 
         try {
+            assetTagRepository.deleteByAssetId(asset.getId());
             assetRepository.delete(asset);
+            catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.ASSETS);
             logger.info("Asset deleted successfully: ID={}, Name={} by user: {}",
                     asset.getId(), asset.getName(), userEmail);
         } catch (Exception e) {
@@ -277,7 +294,7 @@ public class AssetService {
     public List<AssetResponse> getMyAssets(String userEmail) throws AssetException {
         logger.info("Fetching assets for designer: {}", userEmail);
 
-        User designer = userRepository.findByEmail(userEmail)
+        User designer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new AssetException("User not found");
@@ -313,18 +330,14 @@ public class AssetService {
 
     public List<AssetResponse> searchAssetsByTag(String tag) {
         logger.info("Searching assets by tag: {}", tag);
-        List<Asset> assets = assetRepository.findByTagsContainingIgnoreCase(tag);
-        return assets.stream()
-                .filter(asset -> asset.getStatus() == AssetStatus.APPROVED)
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return assetTagIndex.findByTag(tag);
     }
 
     // Admin methods for asset approval management
     public List<AssetResponse> getPendingAssets(String userEmail) throws AssetException {
         logger.info("Admin fetching pending assets: {}", userEmail);
 
-        User admin = userRepository.findByEmail(userEmail)
+        User admin = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new AssetException("User not found");
@@ -345,7 +358,7 @@ public class AssetService {
     public AssetResponse approveAsset(Long assetId, String userEmail) throws AssetException {
         logger.info("Admin approving asset ID: {} by user: {}", assetId, userEmail);
 
-        User admin = userRepository.findByEmail(userEmail)
+        User admin = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new AssetException("User not found");
@@ -373,6 +386,7 @@ public class AssetService {
 
         try {
             assetRepository.save(asset);
+            catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.ASSETS);
             logger.info("Asset approved successfully: ID={}, Name={}", asset.getId(), asset.getName());
         } catch (Exception e) {
             logger.error("Error approving asset: {}", asset.getName(), e);
@@ -385,7 +399,7 @@ public class AssetService {
     public AssetResponse rejectAsset(Long assetId, String reason, String userEmail) throws AssetException {
         logger.info("Admin rejecting asset ID: {} by user: {}", assetId, userEmail);
 
-        User admin = userRepository.findByEmail(userEmail)
+        User admin = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new AssetException("User not found");
@@ -414,6 +428,7 @@ public class AssetService {
 
         try {
             assetRepository.save(asset);
+            catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.ASSETS);
             logger.info("Asset rejected successfully: ID={}, Name={}, Reason={}",
                     asset.getId(), asset.getName(), reason);
         } catch (Exception e) {
@@ -468,6 +483,16 @@ public class AssetService {
                 ".jpeg".equals(extension);
     }
 
+    // Ghi các tag đã chuẩn hóa vào asset_tags (cùng transaction với asset)
+    private void saveTags(Asset asset) {
+        List<AssetTag> tags = AssetTagIndex.normalizeTags(asset.getTags()).stream()
+                .map(tag -> new AssetTag(asset.getId(), tag))
+                .collect(Collectors.toList());
+        if (!tags.isEmpty()) {
+            assetTagRepository.saveAll(tags);
+        }
+    }
+
     private AssetResponse mapToResponse(Asset asset) {
         if (asset.getDesigner() == null) {
             logger.warn("Asset with ID {} has a null designer reference. Skipping.", asset.getId());
@@ -0,0 +1,371 @@
+// Note: Chỉ mục ngược trong bộ nhớ tag -> assets đã duyệt, phục vụ /api/v1/assets/search (AND/OR nhiều tag, đếm theo tag).
+// - Snapshot bất biến gắn với phiên bản CatalogVersions.ASSETS: upload/sửa/xóa/duyệt/từ chối asset thì lần đọc tiếp theo
+//   dựng lại từ asset_tags + assets (hai câu SELECT chỉ lấy cột cần thiết).
+// - Mỗi asset đã duyệt được gán một vị trí liên tục theo thứ tự danh mục (createdAt DESC, id DESC); mỗi tag giữ một BitSet
+//   các vị trí, nên duyệt bit đã set là ra kết quả đúng thứ tự, phân trang chỉ là bỏ qua page * size bit.
+// - Số lượng theo tag đếm trên chính tập kết quả (chi phí tỉ lệ với số kết quả, không phải số tag trong danh mục).
+// - Các AssetResponse trong snapshot được chia sẻ giữa các request: không được sửa (set...) trực tiếp.
+// - Tag truy vấn rỗng hoặc dài quá MAX_TAG_LENGTH bị từ chối (400) thay vì bỏ qua: bỏ qua thì mode "all" rộng ra
+//   và truy vấn chỉ có tag sai sẽ trả về toàn bộ danh mục.
+package com.gamehub.service;
+
+import com.gamehub.dto.AssetResponse;
+import com.gamehub.dto.AssetSearchResponse;
+import com.gamehub.exception.AssetException;
+import com.gamehub.model.enums.AssetStatus;
+import com.gamehub.model.enums.AssetType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class AssetTagIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssetTagIndex.class);
+
+    public static final int MAX_TAG_LENGTH = 64;
+    public static final String MODE_ALL = "all";
+    public static final String MODE_ANY = "any";
+
+    private static final String FIND_APPROVED_ASSETS =
+            "SELECT a.id, a.name, a.description, a.file_url, a.preview_url, a.type, a.price, a.tags, a.file_type, a.created_at, " +
+            "u.id AS designer_id, u.full_name, u.avatar_url " +
+            "FROM assets a JOIN users u ON u.id = a.designer_id WHERE a.status = 'APPROVED' " +
+            "ORDER BY a.created_at DESC, a.id DESC";
+
+    private static final String FIND_APPROVED_TAGS =
+            "SELECT t.asset_id, t.tag FROM asset_tags t JOIN assets a ON a.id = t.asset_id WHERE a.status = 'APPROVED'";
+
+    // Asset tạo trước khi có bảng asset_tags: chỉ có chuỗi tags gốc
+    private static final String FIND_UNINDEXED_ASSETS =
+            "SELECT a.id, a.tags FROM assets a WHERE a.tags IS NOT NULL AND a.tags <> '' " +
+            "AND NOT EXISTS (SELECT 1 FROM asset_tags t WHERE t.asset_id = a.id)";
+
+    private static final String INSERT_TAG = "INSERT INTO asset_tags (asset_id, tag) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Value("${gamehub.assets.search.max-tags:10}")
+    private int maxQueryTags;
+
+    @Value("${gamehub.assets.search.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${gamehub.assets.search.max-facets:50}")
+    private int maxFacets;
+
+    private volatile Snapshot snapshot;
+    private final Object rebuildLock = new Object();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile LocalDateTime lastRebuildAt;
+
+    // Tách chuỗi tags designer nhập (phân cách bằng dấu phẩy) thành danh sách tag chuẩn hóa, không trùng
+    public static List<String> normalizeTags(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return Collections.emptyList();
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        for (String part : raw.split(",")) {
+            String tag = normalizeTag(part);
+            if (tag != null) {
+                tags.add(tag);
+            }
+        }
+        return new ArrayList<>(tags);
+    }
+
+    public static String normalizeTag(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String tag = raw.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return tag.isEmpty() || tag.length() > MAX_TAG_LENGTH ? null : tag;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            backfill();
+        } catch (Exception e) {
+            logger.error("Could not backfill asset_tags at startup", e);
+        }
+    }
+
+    // Điền asset_tags cho các asset cũ từ cột assets.tags (chạy lại an toàn: chỉ lấy asset chưa có dòng nào)
+    public int backfill() {
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(FIND_UNINDEXED_ASSETS, rs -> {
+            long assetId = rs.getLong("id");
+            for (String tag : normalizeTags(rs.getString("tags"))) {
+                rows.add(new Object[]{assetId, tag});
+            }
+        });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TAG, rows);
+        catalogVersions.bump(CatalogVersions.Catalog.ASSETS);
+        logger.info("Backfilled {} asset tags from assets.tags", rows.size());
+        return rows.size();
+    }
+
+    // Danh sách đầy đủ các asset đã duyệt có đúng tag này (cho /search?tag= cũ)
+    public List<AssetResponse> findByTag(String rawTag) {
+        String tag = normalizeTag(rawTag);
+        if (tag == null) {
+            return Collections.emptyList();
+        }
+        Snapshot current = current();
+        BitSet bits = current.byTag.get(tag);
+        if (bits == null) {
+            return Collections.emptyList();
+        }
+        List<AssetResponse> assets = new ArrayList<>(bits.cardinality());
+        for (int pos = bits.nextSetBit(0); pos >= 0; pos = bits.nextSetBit(pos + 1)) {
+            assets.add(current.assets[pos]);
+        }
+        return assets;
+    }
+
+    // mode "all": asset phải có mọi tag; "any": có ít nhất một tag. Không truyền tag nào thì trả toàn bộ assets đã duyệt;
+    // đã truyền tag thì mỗi tag phải hợp lệ sau khi chuẩn hóa.
+    public AssetSearchResponse search(List<String> rawTags, String mode, AssetType type, int page, int size) {
+        String searchMode = mode == null || mode.isBlank() ? MODE_ALL : mode.trim().toLowerCase(Locale.ROOT);
+        if (!MODE_ALL.equals(searchMode) && !MODE_ANY.equals(searchMode)) {
+            throw new AssetException("Search mode must be 'all' or 'any'");
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        boolean supplied = false;
+        if (rawTags != null) {
+            for (String raw : rawTags) {
+                if (raw == null) {
+                    continue;
+                }
+                supplied = true;
+                for (String part : raw.split(",")) {
+                    String tag = normalizeTag(part);
+                    if (tag != null) {
+                        normalized.add(tag);
+                    } else if (!part.isBlank()) {
+                        throw new AssetException("Tags must be at most " + MAX_TAG_LENGTH + " characters");
+                    }
+                }
+            }
+        }
+        if (supplied && normalized.isEmpty()) {
+            throw new AssetException("Tags must not be empty");
+        }
+        List<String> tags = new ArrayList<>(normalized);
+        if (tags.size() > maxQueryTags) {
+            throw new AssetException("At most " + maxQueryTags + " tags can be searched at once");
+        }
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        int pageIndex = Math.max(0, page);
+
+        long startedAt = System.nanoTime();
+        try {
+            Snapshot current = current();
+            BitSet matched = match(current, tags, searchMode);
+
+            // Số lượng theo loại tính trước khi lọc loại để client biết mỗi lựa chọn còn bao nhiêu kết quả
+            Map<String, Long> typeCounts = new LinkedHashMap<>();
+            for (AssetType assetType : AssetType.values()) {
+                BitSet ofType = (BitSet) matched.clone();
+                ofType.and(current.byType.get(assetType));
+                typeCounts.put(assetType.name(), (long) ofType.cardinality());
+            }
+            if (type != null) {
+                matched.and(current.byType.get(type));
+            }
+
+            List<AssetResponse> items = new ArrayList<>(pageSize);
+            Map<String, Long> counts = new HashMap<>();
+            long skip = (long) pageIndex * pageSize;
+            int seen = 0;
+            for (int pos = matched.nextSetBit(0); pos >= 0; pos = matched.nextSetBit(pos + 1)) {
+                if (seen >= skip && items.size() < pageSize) {
+                    items.add(current.assets[pos]);
+                }
+                seen++;
+                for (String tag : current.assetTags[pos]) {
+                    counts.merge(tag, 1L, Long::sum);
+                }
+            }
+            return new AssetSearchResponse(tags, searchMode, type, pageIndex, pageSize, seen, items,
+                    topFacets(counts), typeCounts);
+        } finally {
+            queries.increment();
+            queryNanos.add(System.nanoTime() - startedAt);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        long count = queries.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", current != null);
+        stats.put("version", current != null ? current.version : null);
+        stats.put("assets", current != null ? current.assets.length : 0);
+        stats.put("tags", current != null ? current.byTag.size() : 0);
+        stats.put("queries", count);
+        stats.put("avgQueryMillis", count == 0 ? 0.0 : queryNanos.sum() / 1_000_000.0 / count);
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        return stats;
+    }
+
+    private static BitSet match(Snapshot current, List<String> tags, String mode) {
+        if (tags.isEmpty()) {
+            BitSet all = new BitSet(current.assets.length);
+            all.set(0, current.assets.length);
+            return all;
+        }
+        BitSet result = null;
+        for (String tag : tags) {
+            BitSet bits = current.byTag.get(tag);
+            if (MODE_ALL.equals(mode)) {
+                if (bits == null) {
+                    return new BitSet();
+                }
+                if (result == null) {
+                    result = (BitSet) bits.clone();
+                } else {
+                    result.and(bits);
+                }
+            } else if (bits != null) {
+                if (result == null) {
+                    result = (BitSet) bits.clone();
+                } else {
+                    result.or(bits);
+                }
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    // Các tag phổ biến nhất trong kết quả: số lượng giảm dần, cùng số lượng thì theo tên
+    private Map<String, Long> topFacets(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> facets = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size() && i < maxFacets; i++) {
+            facets.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return facets;
+    }
+
+    private Snapshot current() {
+        long version = catalogVersions.get(CatalogVersions.Catalog.ASSETS);
+        Snapshot current = snapshot;
+        if (current != null && current.version == version) {
+            return current;
+        }
+        synchronized (rebuildLock) {
+            // Đọc phiên bản trước khi truy vấn: thay đổi commit trong lúc truy vấn sẽ làm snapshot này cũ ngay,
+            // lần đọc sau dựng lại
+            version = catalogVersions.get(CatalogVersions.Catalog.ASSETS);
+            current = snapshot;
+            if (current != null && current.version == version) {
+                return current;
+            }
+            List<AssetResponse> assets = jdbcTemplate.query(FIND_APPROVED_ASSETS, (rs, rowNum) -> {
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                return new AssetResponse(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                        rs.getString("file_url"), rs.getString("preview_url"), AssetType.valueOf(rs.getString("type")),
+                        rs.getBigDecimal("price"), rs.getString("tags"), rs.getString("file_type"), AssetStatus.APPROVED,
+                        rs.getLong("designer_id"), rs.getString("full_name"), rs.getString("avatar_url"),
+                        createdAt != null ? createdAt.toLocalDateTime() : null);
+            });
+            List<Long> tagAssetIds = new ArrayList<>();
+            List<String> tagNames = new ArrayList<>();
+            jdbcTemplate.query(FIND_APPROVED_TAGS, rs -> {
+                tagAssetIds.add(rs.getLong("asset_id"));
+                tagNames.add(rs.getString("tag"));
+            });
+            return install(version, assets, tagAssetIds, tagNames);
+        }
+    }
+
+    // assets theo thứ tự danh mục; tagAssetIds/tagNames là các cặp (asset_id, tag) của asset_tags
+    Snapshot install(long version, List<AssetResponse> assets, List<Long> tagAssetIds, List<String> tagNames) {
+        Snapshot current = new Snapshot(version, assets, tagAssetIds, tagNames);
+        snapshot = current;
+        rebuilds.increment();
+        lastRebuildAt = LocalDateTime.now();
+        logger.debug("Asset tag index rebuilt with {} assets and {} tags at version {}",
+                current.assets.length, current.byTag.size(), version);
+        return current;
+    }
+
+    // Snapshot bất biến: assets theo thứ tự danh mục + BitSet vị trí theo tag và theo loại
+    static final class Snapshot {
+        private final long version;
+        private final AssetResponse[] assets;
+        private final String[][] assetTags;
+        private final Map<String, BitSet> byTag;
+        private final Map<AssetType, BitSet> byType;
+
+        private Snapshot(long version, List<AssetResponse> approved, List<Long> tagAssetIds, List<String> tagNames) {
+            this.version = version;
+            this.assets = approved.toArray(new AssetResponse[0]);
+            Map<Long, Integer> positions = new HashMap<>(assets.length * 2);
+            Map<AssetType, BitSet> types = new EnumMap<>(AssetType.class);
+            for (AssetType type : AssetType.values()) {
+                types.put(type, new BitSet(assets.length));
+            }
+            for (int pos = 0; pos < assets.length; pos++) {
+                positions.put(assets[pos].getId(), pos);
+                types.get(assets[pos].getType()).set(pos);
+            }
+
+            Map<String, BitSet> tags = new HashMap<>();
+            List<List<String>> perAsset = new ArrayList<>(assets.length);
+            for (int pos = 0; pos < assets.length; pos++) {
+                perAsset.add(new ArrayList<>(4));
+            }
+            for (int i = 0; i < tagAssetIds.size(); i++) {
+                Integer pos = positions.get(tagAssetIds.get(i));
+                if (pos == null) {
+                    // Asset được duyệt giữa hai câu SELECT: lần dựng lại sau sẽ có
+                    continue;
+                }
+                String tag = tagNames.get(i);
+                tags.computeIfAbsent(tag, key -> new BitSet(assets.length)).set(pos);
+                perAsset.get(pos).add(tag);
+            }
+            this.assetTags = new String[assets.length][];
+            for (int pos = 0; pos < assets.length; pos++) {
+                assetTags[pos] = perAsset.get(pos).toArray(new String[0]);
+            }
+            this.byTag = Collections.unmodifiableMap(tags);
+            this.byType = Collections.unmodifiableMap(types);
+        }
+    }
+}
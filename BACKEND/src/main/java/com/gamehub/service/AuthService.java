@@ -15,7 +15,6 @@ import com.gamehub.security.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,11 +28,17 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     public AuthResponse register(RegisterRequest registerRequest) throws RegistrationException {
         logger.info("Registration attempt for email: {}", registerRequest.getEmail());
         logger.debug("Input: email={}, role={}", registerRequest.getEmail(), registerRequest.getRole());
@@ -74,7 +79,7 @@ public class AuthService {
 
         User user = new User(
                 registerRequest.getEmail(),
-                passwordEncoder.encode(registerRequest.getPassword()),
+                passwordHashingService.encode(registerRequest.getPassword()),
                 role,
                 registerRequest.getFullName(),
                 registerRequest.getPortfolioUrl(),
@@ -93,14 +98,16 @@ public class AuthService {
 
         String token;
         try {
-            token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+            token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name());
             logger.info("Registration successful for user: {}", user.getEmail());
         } catch (Exception e) {
             logger.error("Error generating token for user: {}", user.getEmail(), e);
             throw e;
         }
 
-        return new AuthResponse(token, user.getRole().name(), user.getEmail(), user.getId());
+        // Tài khoản chờ duyệt không được cấp refresh token (refresh sẽ bị từ chối cho đến khi được duyệt)
+        String refreshToken = user.getStatus() == UserStatus.APPROVED ? refreshTokenService.issue(user) : null;
+        return new AuthResponse(token, user.getRole().name(), user.getEmail(), user.getId(), refreshToken);
     }
 
     public AuthResponse login(LoginRequest loginRequest) throws AuthenticationException {
@@ -112,7 +119,7 @@ public class AuthService {
                     return new AuthenticationException("Invalid credentials");
                 });
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())) {
             logger.warn("Login failed - invalid password for user: {}", loginRequest.getEmail());
             throw new AuthenticationException("Invalid credentials");
         }
@@ -122,8 +129,20 @@ public class AuthService {
             throw new AuthenticationException("Account is not approved. Please wait for admin approval.");
         }
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        // Băm lại mật khẩu khi cost BCrypt đã được cấu hình lại
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            String rehashed = passwordHashingService.rehash(loginRequest.getPassword());
+            if (rehashed != null) {
+                user.setPassword(rehashed);
+                userRepository.save(user);
+                userIdentityCache.evict(user);
+                logger.info("Password rehashed with current BCrypt strength for user: {}", user.getEmail());
+            }
+        }
+
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name());
+        String refreshToken = refreshTokenService.issue(user);
         logger.info("Login successful for user: {}", user.getEmail());
-        return new AuthResponse(token, user.getRole().name(), user.getEmail(), user.getId());
+        return new AuthResponse(token, user.getRole().name(), user.getEmail(), user.getId(), refreshToken);
     }
 }
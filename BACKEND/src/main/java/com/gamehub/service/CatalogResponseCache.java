@@ -0,0 +1,177 @@
+// Note: Giữ sẵn JSON đã serialize (và bản nén gzip) của các danh sách công khai, kèm ETag lấy từ CatalogVersions.
+// - If-None-Match khớp: trả 304 ngay, không chạy truy vấn và không serialize.
+// - Phiên bản chưa đổi: trả lại đúng mảng byte đã lưu.
+// - Chỉ lưu body cho các key cố định (danh sách không tham số); request có tham số chỉ được hưởng 304.
+// Brotli chưa hỗ trợ vì JDK không có encoder; client hỗ trợ gzip sẽ nhận bản gzip.
+package com.gamehub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gamehub.service.CatalogVersions.Catalog;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class CatalogResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogResponseCache.class);
+    private static final String GZIP = "gzip";
+
+    // Đổi sau mỗi lần khởi động vì phiên bản bắt đầu lại từ 0
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${gamehub.response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final Map<String, CachedBody> bodies = new ConcurrentHashMap<>();
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    // storeBody = false cho các request có tham số tùy ý (cursor, bộ lọc) để cache không phình vô hạn
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, String key, Catalog catalog,
+                                          boolean storeBody, Supplier<?> body) {
+        return respond(request, key, List.of(catalog), storeBody, body);
+    }
+
+    // Response phụ thuộc nhiều phiên bản (ví dụ danh mục quà: GIFTS + GIFT_STOCK). Các phiên bản chỉ tăng nên tổng của chúng
+    // tăng mỗi khi một phiên bản bất kỳ tăng, dùng được làm phiên bản chung
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, String key, List<Catalog> catalogs,
+                                          boolean storeBody, Supplier<?> body) {
+        long version = 0;
+        for (Catalog catalog : catalogs) {
+            version += catalogVersions.get(catalog);
+        }
+        boolean gzip = acceptsGzip(request);
+        String etag = etag(key, catalogs.get(0), version);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        CachedBody cached = storeBody ? bodies.get(key) : null;
+        if (cached != null && cached.version == version) {
+            hits.increment();
+        } else {
+            misses.increment();
+            cached = serialize(version, body.get());
+            if (storeBody) {
+                bodies.put(key, cached);
+            }
+        }
+
+        byte[] payload = gzip && cached.gzip != null ? cached.gzip : cached.json;
+        bytesServed.add(payload.length);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload == cached.gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return builder.body(payload);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", bodies.size());
+        stats.put("notModified", notModified.sum());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("bytesServed", bytesServed.sum());
+        return stats;
+    }
+
+    // ETag chỉ phụ thuộc phiên bản danh mục; bản gzip và bản thường có cùng nội dung JSON nên dùng chung ETag yếu
+    private String etag(String key, Catalog catalog, long version) {
+        return "W/\"" + bootId + "-" + catalog.name().toLowerCase() + "-" + version + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals(opaque)
+                    || (value.startsWith("W/") && value.substring(2).equals(opaque))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+
+    private CachedBody serialize(long version, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+            return new CachedBody(version, json, gzip);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize catalog response", e);
+            throw new IllegalStateException("Could not serialize catalog response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class CachedBody {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private CachedBody(long version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+}
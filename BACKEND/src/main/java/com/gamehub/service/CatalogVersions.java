@@ -0,0 +1,52 @@
+// Note: Số phiên bản của từng danh mục công khai (game, asset, quà tặng).
+// Mỗi lần dữ liệu của danh mục thay đổi thì tăng phiên bản sau khi transaction commit;
+// CatalogResponseCache dựa vào số này để tạo ETag và biết khi nào phải serialize lại.
+// GIFTS chỉ tăng khi "hình dạng" danh mục quà đổi (tạo, sửa, xóa, đổi chế độ drop); lượt đổi quà chỉ làm giảm số lượng
+// nên tăng GIFT_STOCK (GiftCatalogCache cập nhật số lượng tại chỗ, không phải dựng lại snapshot).
+package com.gamehub.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CatalogVersions {
+
+    public enum Catalog {
+        GAMES, ASSETS, GIFTS, GIFT_STOCK
+    }
+
+    private final Map<Catalog, AtomicLong> versions = new EnumMap<>(Catalog.class);
+
+    public CatalogVersions() {
+        for (Catalog catalog : Catalog.values()) {
+            versions.put(catalog, new AtomicLong());
+        }
+    }
+
+    public long get(Catalog catalog) {
+        return versions.get(catalog).get();
+    }
+
+    // Tăng sau khi commit để response được serialize lại chỉ nhìn thấy dữ liệu đã commit
+    public void bumpAfterCommit(Catalog catalog) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(catalog);
+                }
+            });
+        } else {
+            bump(catalog);
+        }
+    }
+
+    public void bump(Catalog catalog) {
+        versions.get(catalog).incrementAndGet();
+    }
+}
@@ -0,0 +1,365 @@
+// Note: Ghi nhận lượt tải game bất đồng bộ: request chỉ đẩy sự kiện vào hàng đợi có giới hạn rồi redirect ngay,
+// một thread nền gom sự kiện và ghi theo lô bằng JDBC batch trong một transaction:
+// - game_download_stats: cộng dồn số lượt tải theo game (mọi lượt tải đều được đếm)
+// - point_transactions + player_developer_points: cộng điểm DOWNLOAD_GAME, mỗi player chỉ một lần cho mỗi game
+//   (kèm điểm theo ngày/tuần/mùa qua LeaderboardWindowService)
+// Lượt tải lại đã biết được DuplicateActionCache loại ngay; phần còn lại kiểm tra trùng theo lô,
+// unique (player_id, game_id, action_type) chặn nốt trường hợp chạy đua với nguồn cộng điểm khác (lô lỗi được ghi lại từng sự kiện).
+// Hàng đợi đầy thì bỏ sự kiện (vẫn cho tải) và tăng bộ đếm dropped.
+package com.gamehub.service;
+
+import com.gamehub.dto.PointAccrual;
+import com.gamehub.model.enums.PointActionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Service
+public class DownloadTrackingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownloadTrackingService.class);
+
+    // Cùng số điểm với awardPoints (PointService) cho lượt tải game
+    static final long DOWNLOAD_POINTS = PointActionType.DOWNLOAD_GAME.getDefaultPoints();
+
+    private static final String UPSERT_DOWNLOAD_STATS =
+            "INSERT INTO game_download_stats (game_id, download_count, last_download_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE download_count = download_count + VALUES(download_count), " +
+            "last_download_at = GREATEST(last_download_at, VALUES(last_download_at))";
+
+    private static final String INSERT_POINT_TRANSACTION =
+            "INSERT INTO point_transactions (player_id, game_id, action_type, points, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_PLAYER_DEVELOPER_POINTS =
+            "INSERT INTO player_developer_points (player_id, developer_id, total_points, last_updated) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_points = total_points + VALUES(total_points), last_updated = VALUES(last_updated)";
+
+    // Cả giao dịch đã lưu trữ (PointLedgerArchiveService) cũng tính là đã cộng điểm
+    private static final String FIND_AWARDED_DOWNLOADS =
+            "SELECT player_id, game_id FROM point_transactions " +
+            "WHERE action_type = :actionType AND player_id IN (:playerIds) AND game_id IN (:gameIds) " +
+            "UNION ALL SELECT player_id, game_id FROM point_transaction_archive " +
+            "WHERE action_type = :actionType AND player_id IN (:playerIds) AND game_id IN (:gameIds)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private LeaderboardWindowService leaderboardWindowService;
+
+    @Autowired
+    private DuplicateActionCache duplicateActionCache;
+
+    @Value("${gamehub.downloads.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${gamehub.downloads.batch-size:500}")
+    private int batchSize;
+
+    @Value("${gamehub.downloads.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private BlockingQueue<DownloadEvent> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder pointsAwarded = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::drainLoop, "download-tracker");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Download tracker started: queueCapacity={}, batchSize={}", queueCapacity, batchSize);
+    }
+
+    // Không chặn request: trả về false nếu hàng đợi đầy
+    public boolean record(Long playerId, String playerEmail, Long gameId, Long developerId, boolean supportPoints) {
+        boolean offered = queue.offer(new DownloadEvent(playerId, playerEmail, gameId, developerId, supportPoints, LocalDateTime.now()));
+        if (offered) {
+            accepted.increment();
+        } else {
+            dropped.increment();
+            logger.warn("Download tracking queue is full, dropping event: PlayerID={}, GameID={}", playerId, gameId);
+        }
+        return offered;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("accepted", accepted.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("pointsAwarded", pointsAwarded.sum());
+        stats.put("duplicateAwardsSkipped", duplicates.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    // Dừng thread ghi rồi ghi nốt các sự kiện còn trong hàng đợi trước khi tắt ứng dụng
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        List<DownloadEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.info("Flushing {} pending download events before shutdown", remaining.size());
+            flush(remaining);
+        }
+    }
+
+    private void drainLoop() {
+        List<DownloadEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                DownloadEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // shutdown() sẽ ghi nốt phần còn lại
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Unexpected error in download tracker", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Ghi cả lô trong một transaction; nếu lỗi (ví dụ player/game vừa bị xóa) thì ghi lại từng sự kiện để chỉ bỏ sự kiện hỏng
+    private void flush(List<DownloadEvent> batch) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        try {
+            BatchResult result = template.execute(status -> writeBatch(batch));
+            batches.increment();
+            written.add(batch.size());
+            result.addTo(pointsAwarded, duplicates);
+        } catch (Exception e) {
+            logger.warn("Download batch of {} failed, retrying events one by one: {}", batch.size(), e.getMessage());
+            for (DownloadEvent event : batch) {
+                try {
+                    BatchResult result = template.execute(status -> writeBatch(List.of(event)));
+                    written.increment();
+                    result.addTo(pointsAwarded, duplicates);
+                } catch (Exception single) {
+                    failed.increment();
+                    logger.error("Could not record download: PlayerID={}, GameID={}: {}",
+                            event.playerId, event.gameId, single.getMessage());
+                }
+            }
+        }
+    }
+
+    // Bộ đếm chỉ được cộng sau khi transaction commit (lô lỗi sẽ được ghi lại từng sự kiện)
+    private BatchResult writeBatch(List<DownloadEvent> batch) {
+        // Số lượt tải: gộp theo game để mỗi game chỉ một câu upsert
+        Map<Long, List<DownloadEvent>> byGame = batch.stream()
+                .collect(Collectors.groupingBy(event -> event.gameId, LinkedHashMap::new, Collectors.toList()));
+        List<Object[]> downloadRows = new ArrayList<>(byGame.size());
+        byGame.forEach((gameId, events) -> downloadRows.add(new Object[]{
+                gameId,
+                events.size(),
+                Timestamp.valueOf(events.get(events.size() - 1).occurredAt)
+        }));
+        jdbcTemplate.batchUpdate(UPSERT_DOWNLOAD_STATS, downloadRows);
+
+        // Điểm DOWNLOAD_GAME: chỉ lần tải đầu tiên của mỗi (player, game), bỏ cả trùng trong lô lẫn đã có trong DB.
+        // Lượt tải lại đã biết (cache) bị bỏ ngay, không cần đưa vào truy vấn kiểm tra trùng
+        Map<PlayerGame, DownloadEvent> candidates = new LinkedHashMap<>();
+        long skipped = 0;
+        for (DownloadEvent event : batch) {
+            if (event.supportPoints && event.developerId != null) {
+                if (duplicateActionCache.isAwarded(event.gameId, event.playerId, PointActionType.DOWNLOAD_GAME)
+                        || candidates.putIfAbsent(new PlayerGame(event.playerId, event.gameId), event) != null) {
+                    skipped++;
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return new BatchResult(0, skipped);
+        }
+        Set<PlayerGame> alreadyAwarded = findAwarded(candidates.keySet());
+        for (PlayerGame key : alreadyAwarded) {
+            duplicateActionCache.markAwarded(key.gameId, key.playerId, PointActionType.DOWNLOAD_GAME);
+        }
+        skipped += alreadyAwarded.size();
+        candidates.keySet().removeAll(alreadyAwarded);
+        if (candidates.isEmpty()) {
+            return new BatchResult(0, skipped);
+        }
+
+        List<Object[]> transactionRows = new ArrayList<>(candidates.size());
+        Map<PlayerDeveloper, Long> pointsByDeveloper = new LinkedHashMap<>();
+        Map<Long, String> emails = new HashMap<>();
+        List<PointAccrual> accruals = new ArrayList<>(candidates.size());
+        for (DownloadEvent event : candidates.values()) {
+            emails.putIfAbsent(event.playerId, event.playerEmail);
+            transactionRows.add(new Object[]{
+                    event.playerId, event.gameId, PointActionType.DOWNLOAD_GAME.name(), DOWNLOAD_POINTS,
+                    Timestamp.valueOf(event.occurredAt)
+            });
+            pointsByDeveloper.merge(new PlayerDeveloper(event.playerId, event.developerId), DOWNLOAD_POINTS, Long::sum);
+            duplicateActionCache.markAwardedAfterCommit(event.gameId, event.playerId, PointActionType.DOWNLOAD_GAME);
+            accruals.add(new PointAccrual(event.developerId, event.playerId, DOWNLOAD_POINTS, event.occurredAt));
+        }
+        jdbcTemplate.batchUpdate(INSERT_POINT_TRANSACTION, transactionRows);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> pointRows = new ArrayList<>(pointsByDeveloper.size());
+        pointsByDeveloper.forEach((key, points) -> pointRows.add(new Object[]{key.playerId, key.developerId, points, now}));
+        jdbcTemplate.batchUpdate(UPSERT_PLAYER_DEVELOPER_POINTS, pointRows);
+        leaderboardWindowService.recordPoints(accruals);
+        // Bảng xếp hạng trong bộ nhớ chỉ được cộng sau khi lô commit
+        pointsByDeveloper.forEach((key, points) ->
+                leaderboardIndex.recordDelta(key.developerId, key.playerId, emails.get(key.playerId), points));
+        return new BatchResult(transactionRows.size(), skipped);
+    }
+
+    private Set<PlayerGame> findAwarded(Set<PlayerGame> candidates) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("actionType", PointActionType.DOWNLOAD_GAME.name())
+                .addValue("playerIds", candidates.stream().map(key -> key.playerId).collect(Collectors.toSet()))
+                .addValue("gameIds", candidates.stream().map(key -> key.gameId).collect(Collectors.toSet()));
+        Set<PlayerGame> awarded = new HashSet<>();
+        namedParameterJdbcTemplate.query(FIND_AWARDED_DOWNLOADS, params, rs -> {
+            PlayerGame key = new PlayerGame(rs.getLong("player_id"), rs.getLong("game_id"));
+            // IN x IN có thể trả về cặp không thuộc lô, chỉ giữ các cặp đang xét
+            if (candidates.contains(key)) {
+                awarded.add(key);
+            }
+        });
+        return awarded;
+    }
+
+    private static final class DownloadEvent {
+        private final Long playerId;
+        private final String playerEmail;
+        private final Long gameId;
+        private final Long developerId;
+        private final boolean supportPoints;
+        private final LocalDateTime occurredAt;
+
+        private DownloadEvent(Long playerId, String playerEmail, Long gameId, Long developerId, boolean supportPoints,
+                              LocalDateTime occurredAt) {
+            this.playerId = playerId;
+            this.playerEmail = playerEmail;
+            this.gameId = gameId;
+            this.developerId = developerId;
+            this.supportPoints = supportPoints;
+            this.occurredAt = occurredAt;
+        }
+    }
+
+    private static final class BatchResult {
+        private final long awarded;
+        private final long duplicates;
+
+        private BatchResult(long awarded, long duplicates) {
+            this.awarded = awarded;
+            this.duplicates = duplicates;
+        }
+
+        private void addTo(LongAdder awardedCounter, LongAdder duplicateCounter) {
+            awardedCounter.add(awarded);
+            duplicateCounter.add(duplicates);
+        }
+    }
+
+    private static final class PlayerGame {
+        private final long playerId;
+        private final long gameId;
+
+        private PlayerGame(long playerId, long gameId) {
+            this.playerId = playerId;
+            this.gameId = gameId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PlayerGame)) return false;
+            PlayerGame other = (PlayerGame) o;
+            return playerId == other.playerId && gameId == other.gameId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerId, gameId);
+        }
+    }
+
+    private static final class PlayerDeveloper {
+        private final long playerId;
+        private final long developerId;
+
+        private PlayerDeveloper(long playerId, long developerId) {
+            this.playerId = playerId;
+            this.developerId = developerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PlayerDeveloper)) return false;
+            PlayerDeveloper other = (PlayerDeveloper) o;
+            return playerId == other.playerId && developerId == other.developerId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerId, developerId);
+        }
+    }
+}
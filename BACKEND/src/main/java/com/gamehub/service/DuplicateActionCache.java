@@ -0,0 +1,161 @@
+// Note: Cache trong bộ nhớ các (player, game) đã được cộng điểm theo từng loại hành động hoặc đã viết review,
+// dùng để trả lời ngay các lần lặp lại rõ ràng mà không cần round trip tới DB.
+// - Mỗi game giữ một BitSet player id cho mỗi PointActionType và một BitSet cho review (id tự tăng nên bitmap gọn).
+// - Chỉ ghi nhận khi chắc chắn đã có trong DB (sau commit, hoặc khi DB báo trùng), nên "có trong cache" luôn đúng;
+//   "không có" thì vẫn đi xuống DB, nơi unique constraint là nguồn quyết định cuối cùng.
+// - Giới hạn số game giữ trong bộ nhớ: vượt ngưỡng thì bỏ game lâu không dùng nhất (chỉ mất phần tắt nhanh).
+package com.gamehub.service;
+
+import com.gamehub.model.enums.PointActionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class DuplicateActionCache {
+
+    private static final int REVIEW_SLOT = PointActionType.values().length;
+
+    @Value("${gamehub.points.duplicate-cache.max-games:2000}")
+    private int maxGames;
+
+    private final Map<Long, GameSets> games = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder marks = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public boolean isAwarded(Long gameId, Long playerId, PointActionType action) {
+        return contains(gameId, playerId, action.ordinal());
+    }
+
+    // Đã biết chắc có trong DB (ví dụ DB vừa báo trùng)
+    public void markAwarded(Long gameId, Long playerId, PointActionType action) {
+        add(gameId, playerId, action.ordinal());
+    }
+
+    // Gọi trong transaction vừa ghi point_transactions: chỉ ghi nhận khi transaction commit
+    public void markAwardedAfterCommit(Long gameId, Long playerId, PointActionType action) {
+        afterCommit(() -> add(gameId, playerId, action.ordinal()));
+    }
+
+    public boolean isReviewed(Long gameId, Long playerId) {
+        return contains(gameId, playerId, REVIEW_SLOT);
+    }
+
+    public void markReviewed(Long gameId, Long playerId) {
+        add(gameId, playerId, REVIEW_SLOT);
+    }
+
+    public void markReviewedAfterCommit(Long gameId, Long playerId) {
+        afterCommit(() -> add(gameId, playerId, REVIEW_SLOT));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long bytes = 0;
+        for (GameSets sets : games.values()) {
+            bytes += sets.sizeInBytes();
+        }
+        stats.put("games", games.size());
+        stats.put("maxGames", maxGames);
+        stats.put("approxBytes", bytes);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("marks", marks.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private boolean contains(Long gameId, Long playerId, int slot) {
+        if (gameId == null || !fitsBitSet(playerId)) {
+            return false;
+        }
+        GameSets sets = games.get(gameId);
+        if (sets != null && sets.contains(slot, playerId.intValue())) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    private void add(Long gameId, Long playerId, int slot) {
+        if (gameId == null || !fitsBitSet(playerId)) {
+            return;
+        }
+        GameSets sets = games.computeIfAbsent(gameId, id -> new GameSets());
+        sets.add(slot, playerId.intValue());
+        marks.increment();
+        if (games.size() > maxGames) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Long oldest = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<Long, GameSets> entry : games.entrySet()) {
+            if (entry.getValue().lastAccess < oldestAccess) {
+                oldestAccess = entry.getValue().lastAccess;
+                oldest = entry.getKey();
+            }
+        }
+        if (oldest != null && games.remove(oldest) != null) {
+            evictions.increment();
+        }
+    }
+
+    private static boolean fitsBitSet(Long playerId) {
+        return playerId != null && playerId >= 0 && playerId <= Integer.MAX_VALUE;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class GameSets {
+        private final BitSet[] players = new BitSet[REVIEW_SLOT + 1];
+        private volatile long lastAccess = System.nanoTime();
+
+        private synchronized boolean contains(int slot, int playerId) {
+            lastAccess = System.nanoTime();
+            return players[slot] != null && players[slot].get(playerId);
+        }
+
+        private synchronized void add(int slot, int playerId) {
+            lastAccess = System.nanoTime();
+            if (players[slot] == null) {
+                players[slot] = new BitSet();
+            }
+            players[slot].set(playerId);
+        }
+
+        private synchronized long sizeInBytes() {
+            long bytes = 0;
+            for (BitSet set : players) {
+                if (set != null) {
+                    bytes += set.size() / 8;
+                }
+            }
+            return bytes;
+        }
+    }
+}
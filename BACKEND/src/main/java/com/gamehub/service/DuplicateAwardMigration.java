@@ -0,0 +1,138 @@
+// Note: Migration một lần cho dữ liệu cũ trước khi có unique key chống cộng điểm/review trùng.
+// Chỉ chạy khi bật gamehub.schema.repair-unique-keys=true (UniqueKeyGuard gọi trước khi server nhận request,
+// trước khi bảng xếp hạng/cache trong bộ nhớ được dựng từ DB).
+// - Giao dịch điểm trùng: giữ id nhỏ nhất mỗi (player, game, action); dòng đã có bản lưu trữ thì bỏ cả dòng nóng.
+//   Điểm của các dòng bị xóa được trừ lại khỏi player_developer_points và leaderboard_window_points của kỳ tương ứng
+//   (không xuống dưới 0: player đã tiêu điểm cộng thừa thì về 0). Kỳ đã chốt (leaderboard_snapshots) giữ nguyên.
+//   point_monthly_summaries chỉ tổng hợp từ bảng lưu trữ (đã có unique key) nên không bị ảnh hưởng.
+// - Review trùng: giữ id nhỏ nhất mỗi (player, game), sau đó đối soát lại game_rating_stats.
+// - Dọn dữ liệu và trừ điểm trong một transaction; thêm unique key sau khi commit (DDL tự commit trên MySQL).
+package com.gamehub.service;
+
+import com.gamehub.model.enums.LeaderboardWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class DuplicateAwardMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateAwardMigration.class);
+
+    private static final int DELETE_CHUNK = 1000;
+
+    // Dòng cần bỏ: không phải id nhỏ nhất trong nhóm, hoặc cùng khóa đã nằm trong point_transaction_archive.
+    // Bảng tạm (derived table) để MySQL cho phép đọc chính bảng sẽ bị xóa.
+    private static final String FIND_DUPLICATE_TRANSACTIONS =
+            "SELECT t.id, t.player_id, g.developer_id, t.points, t.created_at FROM point_transactions t " +
+            "JOIN games g ON g.id = t.game_id " +
+            "WHERE t.game_id IS NOT NULL AND (t.id NOT IN (SELECT keep_id FROM (" +
+            "SELECT MIN(id) AS keep_id FROM point_transactions WHERE game_id IS NOT NULL " +
+            "GROUP BY player_id, game_id, action_type) keep_rows) " +
+            "OR EXISTS (SELECT 1 FROM point_transaction_archive a WHERE a.player_id = t.player_id " +
+            "AND a.game_id = t.game_id AND a.action_type = t.action_type)) ORDER BY t.id";
+
+    private static final String DELETE_TRANSACTIONS =
+            "DELETE FROM point_transactions WHERE id IN (:ids)";
+
+    private static final String SUBTRACT_PLAYER_DEVELOPER_POINTS =
+            "UPDATE player_developer_points SET total_points = GREATEST(total_points - ?, 0), last_updated = ? " +
+            "WHERE player_id = ? AND developer_id = ?";
+
+    private static final String SUBTRACT_WINDOW_POINTS =
+            "UPDATE leaderboard_window_points SET points = GREATEST(points - ?, 0) " +
+            "WHERE window_type = ? AND bucket_start = ? AND developer_id = ? AND player_id = ?";
+
+    private static final String DELETE_DUPLICATE_REVIEWS =
+            "DELETE FROM reviews WHERE id NOT IN (SELECT keep_id FROM (" +
+            "SELECT MIN(id) AS keep_id FROM reviews GROUP BY player_id, game_id) keep_rows)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private GameRatingStatsService gameRatingStatsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Dọn dữ liệu trùng rồi thêm các key còn thiếu (missing là tập key UniqueKeyGuard không tìm thấy)
+    public void run(List<UniqueKeyGuard.RequiredKey> missing) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int deletedReviews = template.execute(status -> {
+            removeDuplicateTransactions();
+            int reviews = jdbcTemplate.update(DELETE_DUPLICATE_REVIEWS);
+            logger.warn("Deleted {} duplicate reviews", reviews);
+            return reviews;
+        });
+
+        for (UniqueKeyGuard.RequiredKey key : missing) {
+            logger.warn("Adding unique key {} on {}", key.name, key.table);
+            jdbcTemplate.execute("ALTER TABLE " + key.table + " ADD CONSTRAINT " + key.name
+                    + " UNIQUE (" + String.join(", ", key.columns) + ")");
+        }
+
+        if (deletedReviews > 0) {
+            // Review trùng đã được tính vào game_rating_stats
+            gameRatingStatsService.reconcile();
+        }
+    }
+
+    private void removeDuplicateTransactions() {
+        List<Long> ids = new ArrayList<>();
+        Map<List<Long>, Long> playerTotals = new LinkedHashMap<>();
+        Map<List<Object>, Long> windowTotals = new LinkedHashMap<>();
+        jdbcTemplate.query(FIND_DUPLICATE_TRANSACTIONS, rs -> {
+            long playerId = rs.getLong("player_id");
+            long developerId = rs.getLong("developer_id");
+            long points = rs.getLong("points");
+            LocalDate day = rs.getTimestamp("created_at").toLocalDateTime().toLocalDate();
+            ids.add(rs.getLong("id"));
+            playerTotals.merge(List.of(playerId, developerId), points, Long::sum);
+            for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                if (window.isBucketed()) {
+                    windowTotals.merge(List.of(window.name(), window.bucketStart(day), developerId, playerId), points, Long::sum);
+                }
+            }
+        });
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> playerRows = new ArrayList<>(playerTotals.size());
+        playerTotals.forEach((key, points) -> playerRows.add(new Object[]{points, now, key.get(0), key.get(1)}));
+        jdbcTemplate.batchUpdate(SUBTRACT_PLAYER_DEVELOPER_POINTS, playerRows);
+
+        // Kỳ đã chốt thì dòng chi tiết không còn: UPDATE không khớp dòng nào
+        List<Object[]> windowRows = new ArrayList<>(windowTotals.size());
+        windowTotals.forEach((key, points) -> windowRows.add(new Object[]{
+                points, key.get(0), Date.valueOf((LocalDate) key.get(1)), key.get(2), key.get(3)}));
+        jdbcTemplate.batchUpdate(SUBTRACT_WINDOW_POINTS, windowRows);
+
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK, ids.size()));
+            namedParameterJdbcTemplate.update(DELETE_TRANSACTIONS, new MapSqlParameterSource("ids", chunk));
+        }
+        logger.warn("Deleted {} duplicate point transactions and subtracted their points from {} player/developer totals",
+                ids.size(), playerTotals.size());
+    }
+}
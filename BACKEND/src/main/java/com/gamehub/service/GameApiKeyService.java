@@ -0,0 +1,264 @@
+// Note: Cấp, xoay, thu hồi và xác thực API key theo game cho game server (đường /api/v1/ingest, không dùng JWT).
+// - Key gốc chỉ trả về một lần khi cấp; DB chỉ lưu SHA-256 (giống refresh token) nên tra cứu theo hash.
+// - Sau lần dùng đầu tiên, key hợp lệ được giữ trong bộ nhớ (theo hash) cùng gameId/developerId,
+//   nên các lô tiếp theo không truy vấn DB để xác thực.
+// - Xoay/thu hồi key xóa mục cache sau khi commit; game thay đổi (duyệt, tắt tích điểm, xóa) xóa mục của game đó.
+//   TTL giới hạn thời gian key cũ còn được chấp nhận trên các instance khác.
+package com.gamehub.service;
+
+import com.gamehub.dto.GameApiKeyResponse;
+import com.gamehub.event.GameCatalogChangedEvent;
+import com.gamehub.exception.GameException;
+import com.gamehub.model.Game;
+import com.gamehub.model.GameApiKey;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.GameStatus;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.repository.GameApiKeyRepository;
+import com.gamehub.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class GameApiKeyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameApiKeyService.class);
+
+    static final String KEY_PREFIX = "ghk_";
+    private static final int KEY_BYTES = 32;
+    private static final int DISPLAY_PREFIX_LENGTH = 12;
+
+    @Autowired
+    private GameApiKeyRepository gameApiKeyRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gamehub.ingest.key-cache-ttl-ms:300000}")
+    private long keyCacheTtlMs;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, CachedClient> clients = new ConcurrentHashMap<>();
+    // Tăng mỗi lần evict; kết quả tra DB chỉ được đưa vào cache nếu không có evict nào xảy ra trong lúc tra
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder issued = new LongAdder();
+
+    // Cấp key mới cho game (thay key cũ nếu có); key gốc chỉ xuất hiện trong response này
+    @Transactional
+    public GameApiKeyResponse issueKey(Long gameId, String developerEmail) throws GameException {
+        Game game = findOwnedGame(gameId, developerEmail);
+        if (game.getStatus() != GameStatus.APPROVED) {
+            throw new GameException("API will be provided after Admin approves the game.");
+        }
+        if (!game.isSupportPoints()) {
+            throw new GameException("Game does not support points");
+        }
+
+        byte[] secret = new byte[KEY_BYTES];
+        random.nextBytes(secret);
+        String rawKey = KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        String keyPrefix = rawKey.substring(0, DISPLAY_PREFIX_LENGTH);
+        LocalDateTime now = LocalDateTime.now();
+
+        GameApiKey key = gameApiKeyRepository.findByGameId(gameId).orElse(null);
+        if (key != null) {
+            evictAfterCommit(key.getKeyHash());
+            key.setKeyHash(hash(rawKey));
+            key.setKeyPrefix(keyPrefix);
+            key.setCreatedAt(now);
+        } else {
+            key = new GameApiKey(gameId, hash(rawKey), keyPrefix, now);
+        }
+        gameApiKeyRepository.save(key);
+        issued.increment();
+        logger.info("API key issued for game {} ({}...)", gameId, keyPrefix);
+        return new GameApiKeyResponse(gameId, rawKey, keyPrefix, now);
+    }
+
+    // Chỉ trả về prefix và thời điểm cấp, không bao giờ trả lại key gốc
+    @Transactional(readOnly = true)
+    public Optional<GameApiKeyResponse> getKey(Long gameId, String developerEmail) throws GameException {
+        findOwnedGame(gameId, developerEmail);
+        return gameApiKeyRepository.findByGameId(gameId)
+                .map(key -> new GameApiKeyResponse(gameId, null, key.getKeyPrefix(), key.getCreatedAt()));
+    }
+
+    @Transactional
+    public void revokeKey(Long gameId, String developerEmail) throws GameException {
+        findOwnedGame(gameId, developerEmail);
+        GameApiKey key = gameApiKeyRepository.findByGameId(gameId)
+                .orElseThrow(() -> new GameException("Game has no API key"));
+        gameApiKeyRepository.delete(key);
+        evictAfterCommit(key.getKeyHash());
+        logger.info("API key revoked for game {} ({}...)", gameId, key.getKeyPrefix());
+    }
+
+    // Trả về game sở hữu key, hoặc empty nếu key sai/đã thu hồi hoặc game không còn nhận điểm
+    public Optional<IngestClient> authenticate(String rawKey) {
+        if (!StringUtils.hasText(rawKey) || !rawKey.startsWith(KEY_PREFIX)) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        String keyHash = hash(rawKey);
+        CachedClient cached = clients.get(keyHash);
+        if (cached != null && cached.expiresAtMillis > System.currentTimeMillis()) {
+            hits.increment();
+            return Optional.of(cached.client);
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        IngestClient client = template.execute(status -> load(keyHash));
+        if (client == null) {
+            clients.remove(keyHash);
+            rejected.increment();
+            return Optional.empty();
+        }
+        if (generation.get() == loadGeneration) {
+            clients.put(keyHash, new CachedClient(client, System.currentTimeMillis() + keyCacheTtlMs));
+        }
+        return Optional.of(client);
+    }
+
+    // Game đổi trạng thái, tắt tích điểm hoặc bị xóa: bỏ các key đã cache của game đó để xác thực lại từ DB
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameChanged(GameCatalogChangedEvent event) {
+        generation.incrementAndGet();
+        clients.values().removeIf(cached -> cached.client.getGameId().equals(event.getGameId()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedKeys", clients.size());
+        stats.put("cacheTtlMs", keyCacheTtlMs);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("issued", issued.sum());
+        return stats;
+    }
+
+    private IngestClient load(String keyHash) {
+        Optional<GameApiKey> key = gameApiKeyRepository.findByKeyHash(keyHash);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Game game = gameRepository.findById(key.get().getGameId()).orElse(null);
+        if (game == null || game.getStatus() != GameStatus.APPROVED || !game.isSupportPoints()) {
+            logger.warn("API key for game {} rejected: game missing, not approved or points disabled", key.get().getGameId());
+            return null;
+        }
+        User developer = game.getDeveloper();
+        if (developer == null || developer.getRole() != UserRole.DEVELOPER) {
+            return null;
+        }
+        return new IngestClient(game.getId(), developer.getId());
+    }
+
+    private Game findOwnedGame(Long gameId, String developerEmail) throws GameException {
+        User developer = userIdentityCache.findByEmail(developerEmail)
+                .orElseThrow(() -> new GameException("User not found"));
+        if (developer.getRole() != UserRole.DEVELOPER) {
+            throw new GameException("Only DEVELOPER accounts can manage API keys");
+        }
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new GameException("Game not found"));
+        if (!game.getDeveloper().getId().equals(developer.getId())) {
+            logger.warn("API key request rejected - user {} is not the owner of game {}", developerEmail, gameId);
+            throw new GameException("You can only manage API keys of your own games");
+        }
+        return game;
+    }
+
+    private void evictAfterCommit(String keyHash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(keyHash);
+                }
+            });
+        } else {
+            evict(keyHash);
+        }
+    }
+
+    private void evict(String keyHash) {
+        generation.incrementAndGet();
+        clients.remove(keyHash);
+    }
+
+    private static String hash(String rawKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Game đã xác thực bằng API key; developerId dùng để cộng điểm và bảng xếp hạng
+    public static final class IngestClient {
+        private final Long gameId;
+        private final Long developerId;
+
+        private IngestClient(Long gameId, Long developerId) {
+            this.gameId = gameId;
+            this.developerId = developerId;
+        }
+
+        public Long getGameId() {
+            return gameId;
+        }
+
+        public Long getDeveloperId() {
+            return developerId;
+        }
+    }
+
+    private static final class CachedClient {
+        private final IngestClient client;
+        private final long expiresAtMillis;
+
+        private CachedClient(IngestClient client, long expiresAtMillis) {
+            this.client = client;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
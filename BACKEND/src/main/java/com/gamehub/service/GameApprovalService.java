@@ -2,6 +2,7 @@
 package com.gamehub.service;
 
 import com.gamehub.dto.GameApprovalRequest;
+import com.gamehub.event.GameCatalogChangedEvent;
 import com.gamehub.exception.GameException;
 import com.gamehub.model.Game;
 import com.gamehub.model.enums.GameStatus;
@@ -9,6 +10,7 @@ import com.gamehub.repository.GameRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +23,9 @@ public class GameApprovalService {
     @Autowired
     private GameRepository gameRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public void approveGame(GameApprovalRequest approvalRequest) throws GameException {
         logger.info("Game approval attempt for game ID: {}", approvalRequest.getGameId());
 
@@ -48,6 +53,7 @@ public class GameApprovalService {
         try {
             gameRepository.save(game);
             logger.info("Game approval status updated successfully: ID={}, Status={}", game.getId(), status);
+            eventPublisher.publishEvent(new GameCatalogChangedEvent(game.getId()));
         } catch (Exception e) {
             logger.error("Error updating game approval status: {}", game.getId(), e);
             throw new GameException("Error updating game status");
@@ -0,0 +1,249 @@
+// Note: Cache trong bộ nhớ của danh sách game đã duyệt (APPROVED), dùng cho các API xem game công khai.
+// - Không dùng TTL: cache được cập nhật bởi GameCatalogChangedEvent sau khi transaction ghi commit.
+// - GameRatingChangedEvent (review mới) chỉ thay phần thống kê rating của game đó, đọc từ game_rating_stats.
+// - Copy-on-write: mỗi lần thay đổi tạo snapshot mới rồi thay tham chiếu volatile, nên người đọc không bao giờ bị chặn.
+// - Các GameResponse trong snapshot được chia sẻ giữa các request: không được sửa (set...) trực tiếp.
+package com.gamehub.service;
+
+import com.gamehub.dto.GameCursor;
+import com.gamehub.dto.GameResponse;
+import com.gamehub.event.GameCatalogChangedEvent;
+import com.gamehub.event.GameRatingChangedEvent;
+import com.gamehub.model.GameRatingStats;
+import com.gamehub.model.enums.GameStatus;
+import com.gamehub.repository.GameRatingStatsRepository;
+import com.gamehub.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class GameCatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameCatalogCache.class);
+
+    // Thứ tự giống phân trang keyset: createdAt DESC, id DESC
+    private static final Comparator<GameResponse> CATALOG_ORDER = Comparator
+            .comparing(GameResponse::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(GameResponse::getId, Comparator.reverseOrder());
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameRatingStatsRepository gameRatingStatsRepository;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    // null cho đến khi dựng xong lần đầu; khi đó mọi lần đọc đều là miss và đi thẳng xuống DB
+    private volatile Snapshot snapshot;
+    private final Object writeLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder eventsApplied = new LongAdder();
+    private final LongAdder ratingUpdates = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile LocalDateTime lastRebuildAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Could not build game catalog cache at startup; reads will fall back to the database", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onGameChanged(GameCatalogChangedEvent event) {
+        // Đọc lại từ DB trong lock để hai sự kiện của cùng một game không ghi đè nhau theo thứ tự sai
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Optional<GameResponse> latest = gameRepository.findGameResponseById(event.getGameId())
+                    .filter(game -> game.getStatus() == GameStatus.APPROVED);
+            List<GameResponse> games = new ArrayList<>(current.games.size() + 1);
+            for (GameResponse game : current.games) {
+                if (!game.getId().equals(event.getGameId())) {
+                    games.add(game);
+                }
+            }
+            latest.ifPresent(games::add);
+            snapshot = new Snapshot(games);
+            catalogVersions.bump(CatalogVersions.Catalog.GAMES);
+            eventsApplied.increment();
+            logger.debug("Game catalog cache updated for game ID={}, approved={}", event.getGameId(), latest.isPresent());
+        }
+    }
+
+    // Chỉ thống kê rating đổi: thay bản sao của game với số liệu mới, không đọc lại cả game
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onRatingChanged(GameRatingChangedEvent event) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            GameResponse cached = current != null ? current.byId.get(event.getGameId()) : null;
+            if (cached == null) {
+                // Game chưa duyệt (không có trong cache) thì không có gì để cập nhật
+                return;
+            }
+            Optional<GameRatingStats> stats = gameRatingStatsRepository.findById(event.getGameId());
+            GameResponse updated = new GameResponse(cached.getId(), cached.getName(), cached.getDescription(),
+                    cached.getRequirements(), cached.getPreviewImageUrl(), cached.getApkFileUrl(),
+                    cached.isSupportLeaderboard(), cached.isSupportPoints(), cached.getStatus(), cached.getDeveloperId(),
+                    cached.getCreatedAt(),
+                    stats.map(GameRatingStats::getReviewCount).orElse(null),
+                    stats.map(GameRatingStats::getRatingSum).orElse(null),
+                    stats.map(GameRatingStats::getRating1).orElse(null),
+                    stats.map(GameRatingStats::getRating2).orElse(null),
+                    stats.map(GameRatingStats::getRating3).orElse(null),
+                    stats.map(GameRatingStats::getRating4).orElse(null),
+                    stats.map(GameRatingStats::getRating5).orElse(null));
+            List<GameResponse> games = new ArrayList<>(current.games.size());
+            for (GameResponse game : current.games) {
+                games.add(game.getId().equals(event.getGameId()) ? updated : game);
+            }
+            snapshot = new Snapshot(games);
+            // averageRating/reviewCount nằm trong JSON của danh sách nên ETag vẫn phải đổi
+            catalogVersions.bump(CatalogVersions.Catalog.GAMES);
+            ratingUpdates.increment();
+            logger.debug("Game catalog cache rating stats updated for game ID={}", event.getGameId());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public int rebuild() {
+        synchronized (writeLock) {
+            List<GameResponse> games = gameRepository.findPublicGames(GameStatus.APPROVED, null, null, null, Pageable.unpaged());
+            snapshot = new Snapshot(games);
+            catalogVersions.bump(CatalogVersions.Catalog.GAMES);
+            rebuilds.increment();
+            lastRebuildAt = LocalDateTime.now();
+            logger.info("Game catalog cache rebuilt with {} approved games", games.size());
+            return games.size();
+        }
+    }
+
+    // Trả về Optional.empty() nếu cache chưa sẵn sàng (caller tự đọc DB)
+    public Optional<List<GameResponse>> getApprovedGames() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(current.games);
+    }
+
+    public Optional<List<GameResponse>> getApprovedGamesByDeveloper(Long developerId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(current.byDeveloper.getOrDefault(developerId, Collections.emptyList()));
+    }
+
+    // Game chưa duyệt không có trong cache: trả về empty để caller đọc DB
+    public Optional<GameResponse> getApprovedGame(Long gameId) {
+        Snapshot current = snapshot;
+        GameResponse game = current != null ? current.byId.get(gameId) : null;
+        if (game == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(game);
+    }
+
+    // Một trang (keyset) lấy từ snapshot; cùng thứ tự và cùng định dạng cursor với truy vấn DB
+    public Optional<List<GameResponse>> findPage(GameCursor after, int count, Boolean supportLeaderboard,
+                                                 Boolean supportPoints, Long developerId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        List<GameResponse> source = developerId != null
+                ? current.byDeveloper.getOrDefault(developerId, Collections.emptyList())
+                : current.games;
+        int start = 0;
+        if (after != null) {
+            GameResponse probe = new GameResponse();
+            probe.setCreatedAt(after.getCreatedAt());
+            probe.setId(after.getId());
+            int index = Collections.binarySearch(source, probe, CATALOG_ORDER);
+            start = index >= 0 ? index + 1 : -index - 1;
+        }
+        List<GameResponse> page = new ArrayList<>(Math.min(count, 64));
+        for (int i = start; i < source.size() && page.size() < count; i++) {
+            GameResponse game = source.get(i);
+            if (supportLeaderboard != null && game.isSupportLeaderboard() != supportLeaderboard) continue;
+            if (supportPoints != null && game.isSupportPoints() != supportPoints) continue;
+            page.add(game);
+        }
+        return Optional.of(page);
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", current != null);
+        stats.put("games", current != null ? current.games.size() : 0);
+        stats.put("developers", current != null ? current.byDeveloper.size() : 0);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("eventsApplied", eventsApplied.sum());
+        stats.put("ratingUpdates", ratingUpdates.sum());
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        return stats;
+    }
+
+    // Snapshot bất biến: danh sách đã sắp xếp + chỉ mục theo id và theo developer
+    private static final class Snapshot {
+        private final List<GameResponse> games;
+        private final Map<Long, GameResponse> byId;
+        private final Map<Long, List<GameResponse>> byDeveloper;
+
+        private Snapshot(List<GameResponse> source) {
+            List<GameResponse> sorted = new ArrayList<>(source);
+            sorted.sort(CATALOG_ORDER);
+            Map<Long, GameResponse> ids = new HashMap<>(sorted.size() * 2);
+            Map<Long, List<GameResponse>> developers = new HashMap<>();
+            for (GameResponse game : sorted) {
+                ids.put(game.getId(), game);
+                developers.computeIfAbsent(game.getDeveloperId(), key -> new ArrayList<>()).add(game);
+            }
+            developers.replaceAll((key, list) -> Collections.unmodifiableList(list));
+            this.games = Collections.unmodifiableList(sorted);
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byDeveloper = Collections.unmodifiableMap(developers);
+        }
+    }
+}
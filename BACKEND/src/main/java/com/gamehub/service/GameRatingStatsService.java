@@ -0,0 +1,145 @@
+// Note: Duy trì bảng game_rating_stats (số review, tổng điểm, histogram 1–5) thay vì đếm lại toàn bộ review mỗi lần hiển thị.
+// - recordReview chạy trong transaction của submitReview: review và thống kê cùng commit hoặc cùng rollback.
+// - Job đối soát định kỳ so sánh với bảng reviews và sửa các game bị lệch (ví dụ review bị xóa/sửa tay trong DB).
+package com.gamehub.service;
+
+import com.gamehub.event.GameRatingChangedEvent;
+import com.gamehub.model.GameRatingStats;
+import com.gamehub.repository.GameRatingStatsRepository;
+import com.gamehub.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class GameRatingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameRatingStatsService.class);
+
+    @Autowired
+    private GameRatingStatsRepository gameRatingStatsRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile int lastCorrected;
+    private volatile long totalCorrected;
+
+    // Bắt buộc chạy trong transaction của caller (submitReview) để thống kê không lệch khi lưu review thất bại
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReview(Long gameId, int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        gameRatingStatsRepository.addRating(gameId, rating, LocalDateTime.now());
+        // Cache danh sách game cập nhật averageRating/reviewCount của game này sau commit (chỉ phần rating)
+        eventPublisher.publishEvent(new GameRatingChangedEvent(gameId));
+    }
+
+    @Scheduled(initialDelayString = "${gamehub.rating-stats.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${gamehub.rating-stats.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.error("Rating stats reconciliation failed", e);
+        }
+    }
+
+    // Lượt đầu so sánh không khóa để tìm game bị lệch; chỉ các game đó mới được đếm lại dưới khóa dòng
+    public synchronized int reconcile() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Set<Long> suspects = readOnly.execute(status -> {
+            Map<Long, GameRatingStats> expected = reviewRepository.aggregateRatingsByGame().stream()
+                    .collect(Collectors.toMap(GameRatingStats::getGameId, Function.identity()));
+            Set<Long> mismatched = new HashSet<>();
+            for (GameRatingStats stored : gameRatingStatsRepository.findAll()) {
+                GameRatingStats actual = expected.remove(stored.getGameId());
+                if (actual == null ? stored.getReviewCount() != 0 : !actual.sameCountsAs(stored)) {
+                    mismatched.add(stored.getGameId());
+                }
+            }
+            // Game có review nhưng chưa có dòng thống kê
+            mismatched.addAll(expected.keySet());
+            return mismatched;
+        });
+
+        int corrected = 0;
+        for (Long gameId : suspects) {
+            if (reconcileGame(gameId)) {
+                corrected++;
+            }
+        }
+        lastReconciledAt = LocalDateTime.now();
+        lastCorrected = corrected;
+        totalCorrected += corrected;
+        if (corrected > 0) {
+            logger.warn("Rating stats reconciliation corrected {} game(s)", corrected);
+        } else {
+            logger.debug("Rating stats reconciliation found no drift");
+        }
+        return corrected;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lastReconciledAt", lastReconciledAt);
+        stats.put("lastCorrected", lastCorrected);
+        stats.put("totalCorrected", totalCorrected);
+        return stats;
+    }
+
+    private boolean reconcileGame(Long gameId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Boolean changed = template.execute(status -> {
+            GameRatingStats stored = gameRatingStatsRepository.findForUpdate(gameId).orElse(null);
+            List<GameRatingStats> counted = reviewRepository.aggregateRatingsForGame(gameId);
+            GameRatingStats actual = counted.isEmpty() ? null : counted.get(0);
+
+            if (actual == null) {
+                if (stored == null) {
+                    return false;
+                }
+                gameRatingStatsRepository.delete(stored);
+            } else if (stored == null) {
+                gameRatingStatsRepository.save(actual);
+            } else if (!actual.sameCountsAs(stored)) {
+                stored.copyCountsFrom(actual);
+                stored.setUpdatedAt(LocalDateTime.now());
+            } else {
+                return false;
+            }
+            logger.info("Rating stats corrected for game ID={}: reviewCount={}", gameId,
+                    actual != null ? actual.getReviewCount() : 0);
+            eventPublisher.publishEvent(new GameRatingChangedEvent(gameId));
+            return true;
+        });
+        return Boolean.TRUE.equals(changed);
+    }
+}
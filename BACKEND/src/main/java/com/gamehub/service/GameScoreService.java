@@ -0,0 +1,487 @@
+// Note: Bảng điểm theo game (game có supportLeaderboard), chịu được tần suất nộp điểm cao:
+// - Nộp điểm chỉ gộp vào bộ đệm trong bộ nhớ (mỗi (game, player) một ô, giữ điểm tốt nhất) rồi trả về ngay;
+//   thread lập lịch ghi bộ đệm xuống game_scores theo lô bằng upsert JDBC (không hạ điểm tốt nhất đã có).
+// - Đọc top-K lấy từ RankedScoreboard trong bộ nhớ, giới hạn K người mỗi game; nạp từ DB lần đầu game được truy cập.
+// - Chiều xếp hạng theo Game.scoreOrder: DESC (cao hơn tốt hơn) hoặc ASC (thấp hơn tốt hơn).
+// Bộ đệm quá lớn (DB chậm/lỗi) thì từ chối nộp điểm bằng ServiceBusyException thay vì dùng hết bộ nhớ.
+package com.gamehub.service;
+
+import com.gamehub.dto.GameScoreBoardResponse;
+import com.gamehub.dto.GameScoreEntry;
+import com.gamehub.dto.GameScoreRow;
+import com.gamehub.event.GameCatalogChangedEvent;
+import com.gamehub.exception.GameException;
+import com.gamehub.exception.ServiceBusyException;
+import com.gamehub.model.Game;
+import com.gamehub.model.GameScore;
+import com.gamehub.model.enums.GameStatus;
+import com.gamehub.model.enums.ScoreOrder;
+import com.gamehub.repository.GameRepository;
+import com.gamehub.repository.GameScoreRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class GameScoreService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameScoreService.class);
+
+    // achieved_at phải gán trước best_score: MySQL dùng giá trị mới cho các phép gán phía sau
+    private static final String UPSERT_HIGHEST =
+            "INSERT INTO game_scores (game_id, player_id, best_score, achieved_at, submit_count, updated_at) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "achieved_at = CASE WHEN VALUES(best_score) > best_score THEN VALUES(achieved_at) ELSE achieved_at END, " +
+            "best_score = GREATEST(best_score, VALUES(best_score)), " +
+            "submit_count = submit_count + VALUES(submit_count), updated_at = VALUES(updated_at)";
+
+    private static final String UPSERT_LOWEST =
+            "INSERT INTO game_scores (game_id, player_id, best_score, achieved_at, submit_count, updated_at) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "achieved_at = CASE WHEN VALUES(best_score) < best_score THEN VALUES(achieved_at) ELSE achieved_at END, " +
+            "best_score = LEAST(best_score, VALUES(best_score)), " +
+            "submit_count = submit_count + VALUES(submit_count), updated_at = VALUES(updated_at)";
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameScoreRepository gameScoreRepository;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gamehub.scores.top-k:1000}")
+    private int topK;
+
+    @Value("${gamehub.scores.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${gamehub.scores.batch-size:1000}")
+    private int batchSize;
+
+    // Điểm đã nộp nhưng chưa ghi DB, và phần đang được ghi (để nạp lại bảng trong lúc flush không bỏ sót)
+    private final Map<ScoreKey, PendingScore> pending = new ConcurrentHashMap<>();
+    private final Map<ScoreKey, PendingScore> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, ScoreSettings> settings = new ConcurrentHashMap<>();
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder boardLoads = new LongAdder();
+
+    // Trả về hạng hiện tại trong top-K, hoặc null nếu điểm tốt nhất của người chơi nằm ngoài top-K
+    public Integer submitScore(Long gameId, Long playerId, String playerEmail, Long score) {
+        if (score == null || score == Long.MIN_VALUE) {
+            throw new GameException("Invalid score");
+        }
+        ScoreSettings game = settingsFor(gameId);
+        if (!game.acceptsScores) {
+            throw new GameException("Game does not support leaderboard");
+        }
+        if (pending.size() >= maxPending) {
+            rejected.increment();
+            throw new ServiceBusyException("Score buffer is full, please retry later");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        PendingScore submission = new PendingScore(game.order, score, now, 1);
+        if (pending.merge(new ScoreKey(gameId, playerId), submission, PendingScore::combine) != submission) {
+            coalesced.increment();
+        }
+        submitted.increment();
+
+        Board board = boardFor(gameId, game.order);
+        board.lock.writeLock().lock();
+        try {
+            board.offer(playerId, playerEmail, score, toMillis(now));
+            int rank = board.scoreboard.rankOf(playerId);
+            return rank > 0 ? rank : null;
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    public GameScoreBoardResponse getTop(Long gameId, int limit) {
+        ScoreSettings game = settingsFor(gameId);
+        Board board = boardFor(gameId, game.order);
+        int size = Math.max(1, Math.min(limit, topK));
+        board.lock.readLock().lock();
+        try {
+            return new GameScoreBoardResponse(gameId, game.order, toEntries(board, board.scoreboard.range(0, size)));
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    // Điểm tốt nhất và hạng của người chơi; ngoài top-K thì hạng được đếm bằng truy vấn có index trên game_scores
+    public GameScoreBoardResponse getPlayerScore(Long gameId, Long playerId) {
+        ScoreSettings game = settingsFor(gameId);
+        Board board = boardFor(gameId, game.order);
+        GameScoreBoardResponse response = new GameScoreBoardResponse(gameId, game.order, List.of());
+        board.lock.readLock().lock();
+        try {
+            int rank = board.scoreboard.rankOf(playerId);
+            if (rank > 0) {
+                response.setPlayerRank(rank);
+                response.setPlayerScore(board.scoreOf(playerId));
+                return response;
+            }
+        } finally {
+            board.lock.readLock().unlock();
+        }
+
+        ScoreKey key = new ScoreKey(gameId, playerId);
+        PendingScore best = PendingScore.combine(pending.get(key), inFlight.get(key));
+        Optional<GameScore> stored = gameScoreRepository.findByGameIdAndPlayerId(gameId, playerId);
+        if (stored.isPresent()) {
+            best = PendingScore.combine(best, new PendingScore(game.order, stored.get().getBestScore(),
+                    stored.get().getAchievedAt(), 0));
+        }
+        if (best == null) {
+            return response;
+        }
+        long ahead = game.order == ScoreOrder.ASC
+                ? gameScoreRepository.countAheadLowest(gameId, best.score, best.achievedAt)
+                : gameScoreRepository.countAheadHighest(gameId, best.score, best.achievedAt);
+        response.setPlayerScore(best.score);
+        response.setPlayerRank((int) Math.min(Integer.MAX_VALUE, ahead + 1));
+        return response;
+    }
+
+    // Đổi chiều xếp hạng, trạng thái duyệt hoặc xóa game: bỏ cấu hình và bảng đã nạp để đọc lại từ DB
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameChanged(GameCatalogChangedEvent event) {
+        settings.remove(event.getGameId());
+        boards.remove(event.getGameId());
+    }
+
+    @Scheduled(fixedDelayString = "${gamehub.scores.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Unexpected error while flushing game scores", e);
+        }
+    }
+
+    // Ghi toàn bộ bộ đệm hiện có xuống game_scores, mỗi lô tối đa batchSize dòng trong một transaction
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<ScoreKey, PendingScore>> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        for (ScoreKey key : pending.keySet()) {
+            PendingScore value = pending.get(key);
+            if (value == null) {
+                continue;
+            }
+            // Đưa vào inFlight trước khi gỡ khỏi pending; nếu vừa có điểm mới gộp vào thì để lần flush sau
+            inFlight.put(key, value);
+            if (!pending.remove(key, value)) {
+                inFlight.remove(key, value);
+                continue;
+            }
+            batch.add(Map.entry(key, value));
+            if (batch.size() >= batchSize) {
+                writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!pending.isEmpty()) {
+            logger.info("Flushing {} pending game scores before shutdown", pending.size());
+            flush();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("maxPending", maxPending);
+        stats.put("boards", boards.size());
+        stats.put("topK", topK);
+        stats.put("submitted", submitted.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        stats.put("boardLoads", boardLoads.sum());
+        return stats;
+    }
+
+    // Lô lỗi (ví dụ game vừa bị xóa) được ghi lại từng dòng để chỉ bỏ dòng hỏng
+    private void writeBatch(List<Map.Entry<ScoreKey, PendingScore>> batch) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        try {
+            template.executeWithoutResult(status -> upsert(batch));
+            batches.increment();
+            written.add(batch.size());
+        } catch (Exception e) {
+            logger.warn("Game score batch of {} failed, retrying rows one by one: {}", batch.size(), e.getMessage());
+            for (Map.Entry<ScoreKey, PendingScore> row : batch) {
+                try {
+                    template.executeWithoutResult(status -> upsert(List.of(row)));
+                    written.increment();
+                } catch (Exception single) {
+                    failed.increment();
+                    logger.error("Could not store score: GameID={}, PlayerID={}: {}",
+                            row.getKey().gameId, row.getKey().playerId, single.getMessage());
+                }
+            }
+        } finally {
+            for (Map.Entry<ScoreKey, PendingScore> row : batch) {
+                inFlight.remove(row.getKey(), row.getValue());
+            }
+        }
+    }
+
+    private void upsert(List<Map.Entry<ScoreKey, PendingScore>> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> highest = new ArrayList<>();
+        List<Object[]> lowest = new ArrayList<>();
+        for (Map.Entry<ScoreKey, PendingScore> row : rows) {
+            PendingScore value = row.getValue();
+            Object[] args = {row.getKey().gameId, row.getKey().playerId, value.score,
+                    Timestamp.valueOf(value.achievedAt), value.submitCount, now};
+            (value.order == ScoreOrder.ASC ? lowest : highest).add(args);
+        }
+        if (!highest.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_HIGHEST, highest);
+        }
+        if (!lowest.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_LOWEST, lowest);
+        }
+    }
+
+    private ScoreSettings settingsFor(Long gameId) {
+        ScoreSettings cached = settings.get(gameId);
+        if (cached != null) {
+            return cached;
+        }
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new GameException("Game not found with ID: " + gameId));
+        ScoreSettings loaded = new ScoreSettings(
+                game.getStatus() == GameStatus.APPROVED && game.isSupportLeaderboard(), game.getScoreOrder());
+        settings.put(gameId, loaded);
+        return loaded;
+    }
+
+    // Nạp top-K từ DB một lần cho mỗi game, rồi phủ lên các điểm chưa ghi xong (pending/inFlight)
+    private Board boardFor(Long gameId, ScoreOrder order) {
+        Board board = boards.computeIfAbsent(gameId, id -> new Board(order, topK));
+        if (board.loaded) {
+            return board;
+        }
+        board.lock.writeLock().lock();
+        try {
+            if (!board.loaded) {
+                PageRequest firstK = PageRequest.of(0, topK);
+                List<GameScoreRow> rows = order == ScoreOrder.ASC
+                        ? gameScoreRepository.findTopLowest(gameId, firstK)
+                        : gameScoreRepository.findTopHighest(gameId, firstK);
+                for (GameScoreRow row : rows) {
+                    board.offer(row.getPlayerId(), row.getPlayerEmail(), row.getBestScore(), toMillis(row.getAchievedAt()));
+                }
+                overlay(board, gameId, inFlight);
+                overlay(board, gameId, pending);
+                board.loaded = true;
+                boardLoads.increment();
+                logger.info("Loaded score board for GameID={}: order={}, entries={}", gameId, order, board.scoreboard.size());
+            }
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+        return board;
+    }
+
+    private static void overlay(Board board, Long gameId, Map<ScoreKey, PendingScore> scores) {
+        scores.forEach((key, value) -> {
+            if (key.gameId == gameId && value.order == board.order) {
+                board.offer(key.playerId, null, value.score, toMillis(value.achievedAt));
+            }
+        });
+    }
+
+    private List<GameScoreEntry> toEntries(Board board, List<RankedScoreboard.Entry> entries) {
+        List<GameScoreEntry> result = new ArrayList<>(entries.size());
+        for (RankedScoreboard.Entry entry : entries) {
+            long playerId = entry.getPlayerId();
+            result.add(new GameScoreEntry(entry.getRank(), playerId, emailOf(board, playerId),
+                    board.toScore(entry.getScore()), toLocalDateTime(-entry.getUpdatedAtMillis())));
+        }
+        return result;
+    }
+
+    // Email nạp cùng bảng hoặc gửi kèm khi nộp điểm; thiếu (điểm nạp lại từ bộ đệm) thì lấy qua cache User
+    private String emailOf(Board board, long playerId) {
+        String email = board.emails.get(playerId);
+        return email != null ? email : userIdentityCache.findById(playerId).map(user -> user.getEmail()).orElse(null);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    // Top-K của một game. RankedScoreboard xếp điểm giảm dần và thời gian lớn hơn trước, nên lưu:
+    // - điểm dạng khóa (ASC thì đổi dấu) để "tốt hơn" luôn là lớn hơn
+    // - thời gian đạt đổi dấu để ai đạt trước đứng trước khi bằng điểm
+    private static final class Board {
+        private final ScoreOrder order;
+        private final int capacity;
+        private final RankedScoreboard scoreboard = new RankedScoreboard();
+        private final Map<Long, String> emails = new HashMap<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean loaded;
+
+        private Board(ScoreOrder order, int capacity) {
+            this.order = order;
+            this.capacity = capacity;
+        }
+
+        // Gọi khi đang giữ write lock. Chỉ nhận điểm tốt hơn điểm hiện có của người chơi và lọt vào top-K;
+        // người bị đẩy ra khỏi top-K chỉ có thể quay lại bằng một điểm tốt hơn nên không cần giữ thêm
+        private void offer(long playerId, String email, long score, long achievedAtMillis) {
+            long key = toKey(score);
+            if (scoreboard.contains(playerId) && scoreboard.scoreOf(playerId) >= key) {
+                return;
+            }
+            if (!scoreboard.contains(playerId) && scoreboard.size() >= capacity
+                    && scoreboard.range(capacity - 1, 1).get(0).getScore() >= key) {
+                return;
+            }
+            scoreboard.put(playerId, key, -achievedAtMillis);
+            if (email != null) {
+                emails.put(playerId, email);
+            }
+            if (scoreboard.size() > capacity) {
+                long evicted = scoreboard.range(capacity, 1).get(0).getPlayerId();
+                scoreboard.remove(evicted);
+                emails.remove(evicted);
+            }
+        }
+
+        private long scoreOf(long playerId) {
+            return toScore(scoreboard.scoreOf(playerId));
+        }
+
+        private long toKey(long score) {
+            return order == ScoreOrder.ASC ? -score : score;
+        }
+
+        private long toScore(long key) {
+            return order == ScoreOrder.ASC ? -key : key;
+        }
+    }
+
+    private static final class ScoreSettings {
+        private final boolean acceptsScores;
+        private final ScoreOrder order;
+
+        private ScoreSettings(boolean acceptsScores, ScoreOrder order) {
+            this.acceptsScores = acceptsScores;
+            this.order = order;
+        }
+    }
+
+    // Điểm tốt nhất chưa ghi của một (game, player) cùng số lượt nộp đã gộp
+    private static final class PendingScore {
+        private final ScoreOrder order;
+        private final long score;
+        private final LocalDateTime achievedAt;
+        private final long submitCount;
+
+        private PendingScore(ScoreOrder order, long score, LocalDateTime achievedAt, long submitCount) {
+            this.order = order;
+            this.score = score;
+            this.achievedAt = achievedAt;
+            this.submitCount = submitCount;
+        }
+
+        private boolean isBetterThan(PendingScore other) {
+            if (score != other.score) {
+                return order == ScoreOrder.ASC ? score < other.score : score > other.score;
+            }
+            return achievedAt.isBefore(other.achievedAt);
+        }
+
+        private static PendingScore combine(PendingScore a, PendingScore b) {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            PendingScore best = a.isBetterThan(b) ? a : b;
+            return new PendingScore(best.order, best.score, best.achievedAt, a.submitCount + b.submitCount);
+        }
+    }
+
+    private static final class ScoreKey {
+        private final long gameId;
+        private final long playerId;
+
+        private ScoreKey(long gameId, long playerId) {
+            this.gameId = gameId;
+            this.playerId = playerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ScoreKey)) return false;
+            ScoreKey other = (ScoreKey) o;
+            return gameId == other.gameId && playerId == other.playerId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gameId, playerId);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+// Note: Index Lucene trong bộ nhớ (ByteBuffersDirectory) cho các game đã duyệt, phục vụ tìm kiếm toàn văn.
+// - Dựng lại toàn bộ từ MySQL khi khởi động, sau đó đồng bộ theo GameCatalogChangedEvent (sau commit).
+// - Tìm theo name (trọng số cao hơn) và description, xếp hạng BM25, có đoạn trích highlight.
+// - Dữ liệu game trả về lấy từ GameCatalogCache; index chỉ giữ các trường cần để tìm và highlight.
+package com.gamehub.service;
+
+import com.gamehub.dto.GameResponse;
+import com.gamehub.dto.GameSearchHit;
+import com.gamehub.dto.GameSearchResponse;
+import com.gamehub.event.GameCatalogChangedEvent;
+import com.gamehub.exception.GameException;
+import com.gamehub.model.enums.GameStatus;
+import com.gamehub.repository.GameRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class GameSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameSearchIndex.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_DESCRIPTION = "description";
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameCatalogCache gameCatalogCache;
+
+    @Value("${gamehub.search.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${gamehub.search.max-results:1000}")
+    private int maxResults;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final ByteBuffersDirectory directory = new ByteBuffersDirectory();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    public GameSearchIndex() throws IOException {
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Could not build game search index at startup", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public synchronized int rebuild() throws IOException {
+        List<GameResponse> games = gameRepository.findPublicGames(GameStatus.APPROVED, null, null, null, Pageable.unpaged());
+        writer.deleteAll();
+        for (GameResponse game : games) {
+            writer.addDocument(toDocument(game));
+        }
+        writer.commit();
+        searcherManager.maybeRefresh();
+        rebuilds.increment();
+        logger.info("Game search index rebuilt with {} approved games", games.size());
+        return games.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onGameChanged(GameCatalogChangedEvent event) {
+        try {
+            Term idTerm = new Term(FIELD_ID, String.valueOf(event.getGameId()));
+            Optional<GameResponse> latest = gameRepository.findGameResponseById(event.getGameId())
+                    .filter(game -> game.getStatus() == GameStatus.APPROVED);
+            if (latest.isPresent()) {
+                writer.updateDocument(idTerm, toDocument(latest.get()));
+            } else {
+                writer.deleteDocuments(idTerm);
+            }
+            searcherManager.maybeRefresh();
+            updates.increment();
+        } catch (IOException e) {
+            logger.error("Could not update search index for game ID={}", event.getGameId(), e);
+        }
+    }
+
+    public GameSearchResponse search(String queryText, int page, int size) {
+        if (queryText == null || queryText.isBlank()) {
+            throw new GameException("Search query is required");
+        }
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        int pageIndex = Math.max(0, page);
+        int topN = (pageIndex + 1) * pageSize;
+        if (topN > maxResults) {
+            throw new GameException("Page is too deep, please refine the search query");
+        }
+
+        Query query = parse(queryText.trim());
+        long startedAt = System.nanoTime();
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(query, topN);
+            QueryScorer scorer = new QueryScorer(query);
+            Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<mark>", "</mark>"),
+                    new SimpleHTMLEncoder(), scorer);
+            highlighter.setTextFragmenter(new SimpleSpanFragmenter(scorer, 160));
+
+            List<GameSearchHit> hits = new ArrayList<>(pageSize);
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = pageIndex * pageSize; i < scoreDocs.length; i++) {
+                Document doc = searcher.storedFields().document(scoreDocs[i].doc);
+                Long gameId = Long.valueOf(doc.get(FIELD_ID));
+                Optional<GameResponse> game = gameCatalogCache.getApprovedGame(gameId)
+                        .or(() -> gameRepository.findGameResponseById(gameId));
+                if (game.isEmpty()) {
+                    continue;
+                }
+                hits.add(new GameSearchHit(
+                        game.get(),
+                        scoreDocs[i].score,
+                        highlight(highlighter, FIELD_NAME, doc.get(FIELD_NAME)),
+                        highlight(highlighter, FIELD_DESCRIPTION, doc.get(FIELD_DESCRIPTION))
+                ));
+            }
+            return new GameSearchResponse(queryText, pageIndex, pageSize, topDocs.totalHits.value, hits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            queries.increment();
+            queryNanos.add(System.nanoTime() - startedAt);
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    logger.warn("Could not release index searcher", e);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    public Map<String, Object> getStats() {
+        long count = queries.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", size());
+        stats.put("bufferedBytes", writer.ramBytesUsed());
+        stats.put("queries", count);
+        stats.put("avgQueryMillis", count == 0 ? 0.0 : queryNanos.sum() / 1_000_000.0 / count);
+        stats.put("incrementalUpdates", updates.sum());
+        stats.put("rebuilds", rebuilds.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    // Cho phép cú pháp Lucene (AND, OR, "cụm từ", tiền tố*); nếu người dùng nhập sai cú pháp thì tìm như văn bản thường
+    private Query parse(String queryText) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(
+                new String[]{FIELD_NAME, FIELD_DESCRIPTION}, analyzer, Map.of(FIELD_NAME, 3.0f, FIELD_DESCRIPTION, 1.0f));
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(queryText);
+        } catch (ParseException e) {
+            try {
+                return parser.parse(QueryParser.escape(queryText));
+            } catch (ParseException escaped) {
+                throw new GameException("Invalid search query");
+            }
+        }
+    }
+
+    private String highlight(Highlighter highlighter, String field, String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return highlighter.getBestFragment(analyzer, field, text);
+        } catch (IOException | InvalidTokenOffsetsException e) {
+            logger.debug("Could not highlight field {}: {}", field, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Document toDocument(GameResponse game) {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, String.valueOf(game.getId()), Field.Store.YES));
+        doc.add(new TextField(FIELD_NAME, game.getName() != null ? game.getName() : "", Field.Store.YES));
+        doc.add(new TextField(FIELD_DESCRIPTION, game.getDescription() != null ? game.getDescription() : "", Field.Store.YES));
+        doc.add(new StoredField("developerId", game.getDeveloperId()));
+        return doc;
+    }
+}
@@ -1,20 +1,27 @@
 // Note: Xử lý logic tạo và quản lý game do Developer upload.
 package com.gamehub.service;
 
+import com.gamehub.dto.GameCursor;
+import com.gamehub.dto.GamePageResponse;
 import com.gamehub.dto.GameRequest;
 import com.gamehub.dto.GameResponse;
+import com.gamehub.event.GameCatalogChangedEvent;
 import com.gamehub.exception.GameException;
 import com.gamehub.model.Game;
+import com.gamehub.model.GameRatingStats;
 import com.gamehub.model.User;
 import com.gamehub.model.enums.GameStatus;
 import com.gamehub.model.enums.UserRole;
 import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.GameRatingStatsRepository;
 import com.gamehub.repository.GameRepository;
-import com.gamehub.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -22,7 +29,9 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,20 +41,31 @@ public class GameService {
     private static final Logger logger = LoggerFactory.getLogger(GameService.class);
 
     private final GameRepository gameRepository;
-    private final UserRepository userRepository;
+    private final UserIdentityCache userIdentityCache;
     private final CloudinaryService cloudinaryService; // Injected CloudinaryService
+    private final GameCatalogCache gameCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GameRatingStatsRepository gameRatingStatsRepository;
+
+    @Value("${gamehub.catalog.max-page-size:100}")
+    private int maxPageSize;
 
     @Autowired
-    public GameService(GameRepository gameRepository, UserRepository userRepository, CloudinaryService cloudinaryService) {
+    public GameService(GameRepository gameRepository, UserIdentityCache userIdentityCache, CloudinaryService cloudinaryService,
+                       GameCatalogCache gameCatalogCache, ApplicationEventPublisher eventPublisher,
+                       GameRatingStatsRepository gameRatingStatsRepository) {
         this.gameRepository = gameRepository;
-        this.userRepository = userRepository;
+        this.userIdentityCache = userIdentityCache;
         this.cloudinaryService = cloudinaryService;
+        this.gameCatalogCache = gameCatalogCache;
+        this.eventPublisher = eventPublisher;
+        this.gameRatingStatsRepository = gameRatingStatsRepository;
     }
 
     public GameResponse createGame(GameRequest gameRequest, String userEmail) throws GameException {
         logger.info("Game creation attempt by user: {}", userEmail);
 
-        User developer = userRepository.findByEmail(userEmail)
+        User developer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new GameException("User not found");
@@ -76,6 +96,7 @@ public class GameService {
                 GameStatus.PENDING,
                 developer
         );
+        game.setScoreOrder(gameRequest.getScoreOrder());
 
         try {
             gameRepository.save(game);
@@ -106,7 +127,7 @@ public class GameService {
     public GameResponse updateGame(Long gameId, GameRequest gameRequest, String userEmail) throws GameException {
         logger.info("Game update attempt for ID: {} by user: {}", gameId, userEmail);
 
-        User developer = userRepository.findByEmail(userEmail)
+        User developer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new GameException("User not found");
@@ -139,6 +160,9 @@ public class GameService {
 
         game.setSupportLeaderboard(gameRequest.isSupportLeaderboard());
         game.setSupportPoints(gameRequest.isSupportPoints());
+        if (gameRequest.getScoreOrder() != null) {
+            game.setScoreOrder(gameRequest.getScoreOrder());
+        }
 
         // Update preview image if provided
         if (gameRequest.getPreviewImage() != null && !gameRequest.getPreviewImage().isEmpty()) {
@@ -152,6 +176,7 @@ public class GameService {
         try {
             gameRepository.save(game);
             logger.info("Game updated successfully: ID={}, Name={}", game.getId(), game.getName());
+            eventPublisher.publishEvent(new GameCatalogChangedEvent(game.getId()));
         } catch (Exception e) {
             logger.error("Error updating game: {}", game.getName(), e);
             throw new GameException("Error updating game");
@@ -178,7 +203,7 @@ public class GameService {
     public void deleteGame(Long gameId, String userEmail) throws GameException {
         logger.info("Game deletion attempt for ID: {} by user: {}", gameId, userEmail);
 
-        User developer = userRepository.findByEmail(userEmail)
+        User developer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new GameException("User not found");
@@ -203,6 +228,7 @@ public class GameService {
         try {
             gameRepository.delete(game);
             logger.info("Game deleted successfully: ID={}, Name={}", game.getId(), game.getName());
+            eventPublisher.publishEvent(new GameCatalogChangedEvent(game.getId()));
         } catch (Exception e) {
             logger.error("Error deleting game: {}", game.getName(), e);
             throw new GameException("Error deleting game");
@@ -212,7 +238,7 @@ public class GameService {
     public List<GameResponse> getGamesByDeveloper(String userEmail) throws GameException {
         logger.info("Fetching games for developer: {}", userEmail);
 
-        User developer = userRepository.findByEmail(userEmail)
+        User developer = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new GameException("User not found");
@@ -226,7 +252,7 @@ public class GameService {
         List<Game> games = gameRepository.findByDeveloperId(developer.getId());
 
         // Added robust mapping to prevent crashes from bad data
-        return games.stream().map(game -> {
+        List<GameResponse> responses = games.stream().map(game -> {
             if (game.getDeveloper() == null) {
                 logger.warn("Game with ID {} has a null developer reference. Skipping.", game.getId());
                 return null;
@@ -245,28 +271,65 @@ public class GameService {
                     generateApiKeyMessage(game)
             );
         }).filter(Objects::nonNull).collect(Collectors.toList());
+        return withRatingStats(responses);
     }
 
+    // Danh sách đầy đủ (không phân trang), chỉ giữ lại cho client cũ khi bật gamehub.catalog.legacy-unpaged-enabled
     public List<GameResponse> getPublicGames() {
         logger.info("Fetching public approved games");
+        return gameCatalogCache.getApprovedGames()
+                .orElseGet(() -> gameRepository.findPublicGames(GameStatus.APPROVED, null, null, null, Pageable.unpaged()));
+    }
 
-        List<Game> games = gameRepository.findByStatus(GameStatus.APPROVED);
-        return games.stream().map(game -> new GameResponse(
-                game.getId(),
-                game.getName(),
-                game.getDescription(),
-                game.getRequirements(),
-                game.getPreviewImageUrl(),
-                game.getApkFileUrl(),
-                game.isSupportLeaderboard(),
-                game.isSupportPoints(),
-                game.getStatus(),
-                game.getDeveloper().getId(),
-                null
-        )).collect(Collectors.toList());
+    // Phân trang keyset theo (createdAt DESC, id DESC): mỗi trang là một range scan trên index,
+    // không dùng OFFSET nên chi phí không tăng theo số trang đã đọc
+    @Transactional(readOnly = true)
+    public GamePageResponse getPublicGamesPage(String cursor, int limit, Boolean supportLeaderboard,
+                                               Boolean supportPoints, Long developerId) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // Lấy dư 1 phần tử để biết còn trang sau hay không
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        GameCursor position = cursor == null || cursor.isBlank() ? null : GameCursor.decode(cursor);
+        List<GameResponse> rows = gameCatalogCache.findPage(position, pageSize + 1, supportLeaderboard, supportPoints, developerId)
+                .orElseGet(() -> position == null
+                        ? gameRepository.findPublicGames(GameStatus.APPROVED, supportLeaderboard, supportPoints, developerId, pageable)
+                        : gameRepository.findPublicGamesAfter(GameStatus.APPROVED, supportLeaderboard, supportPoints, developerId,
+                                position.getCreatedAt(), position.getId(), pageable));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<GameResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            GameResponse last = items.get(items.size() - 1);
+            nextCursor = new GameCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new GamePageResponse(items, nextCursor);
     }
 
     public GameResponse getGameById(Long id) {
+        // Game đã duyệt lấy từ cache; trả về bản sao vì apiKeyMessage được gắn riêng cho response này
+        Optional<GameResponse> cached = gameCatalogCache.getApprovedGame(id);
+        if (cached.isPresent()) {
+            GameResponse source = cached.get();
+            GameResponse response = new GameResponse(
+                    source.getId(),
+                    source.getName(),
+                    source.getDescription(),
+                    source.getRequirements(),
+                    source.getPreviewImageUrl(),
+                    source.getApkFileUrl(),
+                    source.isSupportLeaderboard(),
+                    source.isSupportPoints(),
+                    source.getStatus(),
+                    source.getDeveloperId(),
+                    generateApiKeyMessage(source.getId(), source.getStatus(), source.isSupportLeaderboard(), source.isSupportPoints())
+            );
+            response.setCreatedAt(source.getCreatedAt());
+            response.copyRatingStatsFrom(source);
+            return response;
+        }
+
         Game game = gameRepository.findById(id)
                 .orElseThrow(() -> new GameException("Game not found with ID: " + id));
 
@@ -275,7 +338,7 @@ public class GameService {
             throw new GameException("Game with ID " + id + " has a null developer reference.");
         }
 
-        return new GameResponse(
+        GameResponse response = new GameResponse(
                 game.getId(),
                 game.getName(),
                 game.getDescription(),
@@ -288,12 +351,13 @@ public class GameService {
                 game.getDeveloper().getId(),
                 generateApiKeyMessage(game)
         );
+        return withRatingStats(List.of(response)).get(0);
     }
 
     public List<GameResponse> getGamesByDeveloperId(Long developerId) {
         logger.info("Fetching games for developer ID: {}", developerId);
 
-        User developer = userRepository.findById(developerId)
+        User developer = userIdentityCache.findById(developerId)
                 .orElseThrow(() -> {
                     logger.warn("Developer not found with ID: {}", developerId);
                     return new GameException("Developer not found");
@@ -304,9 +368,14 @@ public class GameService {
             throw new GameException("User is not a developer");
         }
 
+        Optional<List<GameResponse>> cached = gameCatalogCache.getApprovedGamesByDeveloper(developerId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
         List<Game> games = gameRepository.findByDeveloperIdAndStatus(developerId, GameStatus.APPROVED);
 
-        return games.stream().map(game -> {
+        List<GameResponse> responses = games.stream().map(game -> {
             if (game.getDeveloper() == null) {
                 logger.warn("Game with ID {} has a null developer reference. Skipping.", game.getId());
                 return null;
@@ -322,22 +391,48 @@ public class GameService {
                     game.isSupportPoints(),
                     game.getStatus(),
                     game.getDeveloper().getId(),
-                    null // No API key for public viewing
+                    (String) null // No API key for public viewing
             );
         }).filter(Objects::nonNull).collect(Collectors.toList());
+        return withRatingStats(responses);
+    }
+
+    // Gắn thống kê rating cho các response dựng từ entity Game (đường không đi qua projection/cache)
+    private List<GameResponse> withRatingStats(List<GameResponse> responses) {
+        if (responses.isEmpty()) {
+            return responses;
+        }
+        Map<Long, GameRatingStats> statsByGame = gameRatingStatsRepository
+                .findAllById(responses.stream().map(GameResponse::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(GameRatingStats::getGameId, stats -> stats));
+        for (GameResponse response : responses) {
+            GameRatingStats stats = statsByGame.get(response.getId());
+            if (stats != null) {
+                response.applyRatingStats(stats.getReviewCount(), stats.getRatingSum(), stats.getRating1(),
+                        stats.getRating2(), stats.getRating3(), stats.getRating4(), stats.getRating5());
+            }
+        }
+        return responses;
     }
 
     private String generateApiKeyMessage(Game game) {
-        if (game.getStatus() != GameStatus.APPROVED) {
+        return generateApiKeyMessage(game.getId(), game.getStatus(), game.isSupportLeaderboard(), game.isSupportPoints());
+    }
+
+    private String generateApiKeyMessage(Long gameId, GameStatus status, boolean supportLeaderboard, boolean supportPoints) {
+        if (status != GameStatus.APPROVED) {
             return "API will be provided after Admin approves the game.";
         }
         StringBuilder message = new StringBuilder();
-        if (game.isSupportLeaderboard()) {
-            message.append("Leaderboard API Key: [Simulated_KEY_").append(game.getId()).append("_LB]");
+        if (supportLeaderboard) {
+            message.append("Leaderboard API: POST /api/v1/scores/").append(gameId);
         }
-        if (game.isSupportPoints()) {
+        if (supportPoints) {
             if (message.length() > 0) message.append(" | ");
-            message.append("Points API Key: [Simulated_KEY_").append(game.getId()).append("_PT]");
+            // Key thật chỉ trả về một lần khi cấp (DB chỉ lưu hash), nên response game chỉ hướng dẫn cách lấy key
+            message.append("Points API Key: issue or rotate via POST /api/v1/games/").append(gameId)
+                    .append("/api-key, then send batches to POST /api/v1/ingest/points with header X-Api-Key");
         }
         return message.length() > 0 ? message.toString() : "No API Key required.";
     }
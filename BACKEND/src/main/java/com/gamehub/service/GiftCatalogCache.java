@@ -0,0 +1,228 @@
+// Note: Cache trong bộ nhớ của toàn bộ danh mục quà tặng, dùng cho danh sách /gifts (phân trang, lọc) và bản cá nhân hóa theo player.
+// - Snapshot bất biến gắn với phiên bản CatalogVersions.GIFTS: phiên bản đổi (tạo, sửa, xóa gift, đổi chế độ drop) thì lần đọc tiếp theo
+//   dựng lại bằng một câu SELECT chỉ lấy các cột cần thiết (không load entity developer).
+// - Nhiều request cùng thấy phiên bản mới chỉ dựng lại một lần (lock + kiểm tra lại phiên bản).
+// - Số lượng (quantity) không nằm cố định trong snapshot: mỗi gift có một AtomicLong cập nhật sau commit của lượt đổi quà
+//   (recordStockAfterCommit), nên đổi quà không làm dựng lại snapshot. Trong một phiên bản GIFTS số lượng chỉ giảm
+//   (tăng lại chỉ qua sửa gift, vốn tăng GIFTS), nên lấy min là đúng dù các commit báo về không theo thứ tự.
+// - Các GiftDTO trong snapshot được chia sẻ giữa các request: không được sửa (set...) trực tiếp; GiftDTO trả ra
+//   là bản sao khi số lượng hiện tại khác số lượng lúc dựng snapshot.
+package com.gamehub.service;
+
+import com.gamehub.dto.GameCursor;
+import com.gamehub.dto.GiftDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+@Service
+public class GiftCatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GiftCatalogCache.class);
+
+    private static final String FIND_ALL_GIFTS =
+            "SELECT id, name, description, image_url, point_cost, quantity, developer_id, created_at, drop_mode FROM gifts";
+
+    // Thứ tự giống danh mục game: createdAt DESC, id DESC
+    private static final Comparator<Entry> CATALOG_ORDER = Comparator
+            .comparing((Entry entry) -> entry.createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(entry -> entry.gift.getId(), Comparator.reverseOrder());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    private volatile Snapshot snapshot;
+    private final Object rebuildLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder stockUpdates = new LongAdder();
+    private volatile LocalDateTime lastRebuildAt;
+
+    public List<GiftDTO> getAllGifts() {
+        return current().gifts();
+    }
+
+    // Gọi trong transaction vừa giảm quantity, sau câu UPDATE (dòng gift đang bị khóa nên quantityAfter đúng tại lúc commit).
+    // Sau commit: ghi số lượng mới vào snapshot hiện tại và tăng GIFT_STOCK cho ETag của các danh sách quà
+    public void recordStockAfterCommit(Long giftId, long quantityAfter) {
+        long version = catalogVersions.get(CatalogVersions.Catalog.GIFTS);
+        Runnable apply = () -> {
+            Snapshot current = snapshot;
+            // Snapshot đã đổi phiên bản (gift vừa được sửa/nhập thêm): bản mới tự đọc số lượng từ DB
+            if (current != null && current.version == version) {
+                AtomicLong stock = current.stock.get(giftId);
+                if (stock != null) {
+                    stock.accumulateAndGet(quantityAfter, Math::min);
+                }
+            }
+            stockUpdates.increment();
+            catalogVersions.bump(CatalogVersions.Catalog.GIFT_STOCK);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Một trang (keyset) theo thứ tự danh mục; filter áp dụng khi duyệt nên trang luôn đủ count phần tử nếu còn dữ liệu
+    public List<GiftDTO> findPage(GameCursor after, int count, Long developerId, Predicate<GiftDTO> filter) {
+        Snapshot current = current();
+        List<Entry> source = developerId != null
+                ? current.byDeveloper.getOrDefault(developerId, Collections.emptyList())
+                : current.entries;
+        int start = 0;
+        if (after != null) {
+            int index = Collections.binarySearch(source, new Entry(after.getCreatedAt(), probe(after.getId())), CATALOG_ORDER);
+            start = index >= 0 ? index + 1 : -index - 1;
+        }
+        List<GiftDTO> page = new ArrayList<>(Math.min(count, 64));
+        for (int i = start; i < source.size() && page.size() < count; i++) {
+            GiftDTO gift = current.withStock(source.get(i).gift);
+            if (filter.test(gift)) {
+                page.add(gift);
+            }
+        }
+        return page;
+    }
+
+    // Vị trí cursor của một gift trong danh mục hiện tại
+    public GameCursor cursorOf(GiftDTO gift) {
+        return new GameCursor(LocalDateTime.parse(gift.getCreatedAt(), DateTimeFormatter.ISO_LOCAL_DATE_TIME), gift.getId());
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", current != null);
+        stats.put("version", current != null ? current.version : null);
+        stats.put("gifts", current != null ? current.entries.size() : 0);
+        stats.put("developers", current != null ? current.byDeveloper.size() : 0);
+        stats.put("hits", hits.sum());
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("stockUpdates", stockUpdates.sum());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        return stats;
+    }
+
+    private Snapshot current() {
+        long version = catalogVersions.get(CatalogVersions.Catalog.GIFTS);
+        Snapshot current = snapshot;
+        if (current != null && current.version == version) {
+            hits.increment();
+            return current;
+        }
+        synchronized (rebuildLock) {
+            // Đọc phiên bản trước khi truy vấn: thay đổi commit trong lúc truy vấn sẽ làm snapshot này cũ ngay,
+            // lần đọc sau dựng lại
+            version = catalogVersions.get(CatalogVersions.Catalog.GIFTS);
+            current = snapshot;
+            if (current != null && current.version == version) {
+                hits.increment();
+                return current;
+            }
+            List<Entry> entries = jdbcTemplate.query(FIND_ALL_GIFTS, (rs, rowNum) -> {
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                LocalDateTime created = createdAt != null ? createdAt.toLocalDateTime() : null;
+                GiftDTO gift = new GiftDTO(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                        rs.getString("image_url"), rs.getLong("point_cost"), rs.getLong("quantity"), rs.getLong("developer_id"),
+                        created != null ? created.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+                gift.setDropMode(rs.getBoolean("drop_mode"));
+                return new Entry(created, gift);
+            });
+            current = new Snapshot(version, entries);
+            snapshot = current;
+            rebuilds.increment();
+            lastRebuildAt = LocalDateTime.now();
+            logger.debug("Gift catalog cache rebuilt with {} gifts at version {}", entries.size(), version);
+            return current;
+        }
+    }
+
+    private static GiftDTO probe(Long id) {
+        GiftDTO gift = new GiftDTO();
+        gift.setId(id);
+        return gift;
+    }
+
+    private static final class Entry {
+        private final LocalDateTime createdAt;
+        private final GiftDTO gift;
+
+        private Entry(LocalDateTime createdAt, GiftDTO gift) {
+            this.createdAt = createdAt;
+            this.gift = gift;
+        }
+    }
+
+    // Snapshot bất biến: danh sách đã sắp xếp + chỉ mục theo developer; chỉ số lượng theo gift là thay đổi được
+    private static final class Snapshot {
+        private final long version;
+        private final List<Entry> entries;
+        private final Map<Long, List<Entry>> byDeveloper;
+        private final Map<Long, AtomicLong> stock;
+
+        private Snapshot(long version, List<Entry> source) {
+            List<Entry> sorted = new ArrayList<>(source);
+            sorted.sort(CATALOG_ORDER);
+            Map<Long, List<Entry>> developers = new HashMap<>();
+            Map<Long, AtomicLong> quantities = new HashMap<>();
+            for (Entry entry : sorted) {
+                developers.computeIfAbsent(entry.gift.getDeveloperId(), key -> new ArrayList<>()).add(entry);
+                quantities.put(entry.gift.getId(), new AtomicLong(entry.gift.getQuantity()));
+            }
+            developers.replaceAll((key, list) -> Collections.unmodifiableList(list));
+            this.version = version;
+            this.entries = Collections.unmodifiableList(sorted);
+            this.byDeveloper = Collections.unmodifiableMap(developers);
+            this.stock = Collections.unmodifiableMap(quantities);
+        }
+
+        private List<GiftDTO> gifts() {
+            List<GiftDTO> gifts = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                gifts.add(withStock(entry.gift));
+            }
+            return gifts;
+        }
+
+        // GiftDTO với số lượng hiện tại (bản sao nếu đã có lượt đổi kể từ lúc dựng snapshot)
+        private GiftDTO withStock(GiftDTO gift) {
+            long quantity = stock.get(gift.getId()).get();
+            if (quantity == gift.getQuantity()) {
+                return gift;
+            }
+            GiftDTO copy = new GiftDTO(gift.getId(), gift.getName(), gift.getDescription(), gift.getImageUrl(),
+                    gift.getPointCost(), quantity, gift.getDeveloperId(), gift.getCreatedAt());
+            copy.setDropMode(gift.isDropMode());
+            return copy;
+        }
+    }
+}
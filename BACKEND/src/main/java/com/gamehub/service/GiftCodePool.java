@@ -0,0 +1,450 @@
+// Note: Kho mã đổi quà (voucher) cho từng gift: developer tải lên file mã (mỗi dòng một mã) hoặc để hệ thống sinh mã.
+// - Phát mã không khóa: mã chưa phát của một gift được nạp từ DB thành từng đoạn (mảng id + mảng mã, không tạo entity),
+//   mỗi lượt đổi lấy một vị trí bằng AtomicInteger.getAndIncrement(); chỉ khi hết đoạn mới nạp đoạn tiếp theo (theo id tăng dần).
+//   Không có SELECT ... FOR UPDATE trên gift_codes.
+// - Transaction đổi quà rollback thì mã được trả lại (hàng đợi returned, được phát trước).
+// - An toàn khi crash: mã phát cho lượt đổi được ghi vào gift_transactions.redemption_code trong cùng transaction đổi quà
+//   (unique theo gift). claimed_by/claimed_at trong gift_codes chỉ được ghi sau theo lô; khi nạp lại sau khởi động,
+//   mã đã nằm trong gift_transactions bị loại ra nên không bao giờ phát lại, kể cả khi chưa kịp ghi claimed_at.
+// - Chỉ một instance phát mã cho một gift; nếu nhiều instance cùng phát, unique key vẫn chặn mã trùng (lượt đổi đó báo lỗi).
+package com.gamehub.service;
+
+import com.gamehub.dto.GiftCodePoolResponse;
+import com.gamehub.exception.GameException;
+import com.gamehub.model.Gift;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.repository.GiftCodeRepository;
+import com.gamehub.repository.GiftRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class GiftCodePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(GiftCodePool.class);
+
+    private static final int MAX_CODE_LENGTH = 64;
+
+    // Bỏ các ký tự dễ nhầm (0/O, 1/I/L)
+    private static final char[] CODE_ALPHABET = "ABCDEFGHJKMNPQRSTUVWXYZ23456789".toCharArray();
+
+    private static final String FIND_POOL_GIFTS = "SELECT DISTINCT gift_id FROM gift_codes";
+
+    // Mã chưa phát: chưa đánh dấu claimed và chưa nằm trong giao dịch đổi quà nào (unique key (gift_id, redemption_code) làm index)
+    private static final String FIND_UNISSUED =
+            "SELECT c.id, c.code FROM gift_codes c WHERE c.gift_id = ? AND c.id > ? AND c.claimed_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM gift_transactions t WHERE t.gift_id = c.gift_id AND t.redemption_code = c.code) " +
+            "ORDER BY c.id LIMIT ?";
+
+    private static final String INSERT_CODE = "INSERT IGNORE INTO gift_codes (gift_id, code, created_at) VALUES (?, ?, ?)";
+
+    private static final String MARK_CLAIMED = "UPDATE gift_codes SET claimed_by = ?, claimed_at = ? WHERE id = ? AND claimed_at IS NULL";
+
+    private static final int INSERT_CHUNK = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GiftRepository giftRepository;
+
+    @Autowired
+    private GiftCodeRepository giftCodeRepository;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Value("${gamehub.gifts.codes.segment-size:500}")
+    private int segmentSize;
+
+    @Value("${gamehub.gifts.codes.max-per-upload:10000}")
+    private int maxPerUpload;
+
+    @Value("${gamehub.gifts.codes.generated-length:12}")
+    private int generatedLength;
+
+    @Value("${gamehub.gifts.codes.claim-flush-batch-size:500}")
+    private int claimFlushBatchSize;
+
+    private final SecureRandom random = new SecureRandom();
+
+    // Các gift có kho mã: lượt đổi gift này bắt buộc phải nhận được một mã
+    private final Set<Long> poolGifts = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Pool> pools = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Claim> pendingClaims = new ConcurrentLinkedQueue<>();
+    private TransactionTemplate refillTemplate;
+
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder exhaustedRejects = new LongAdder();
+    private final LongAdder claimsPersisted = new LongAdder();
+    private final LongAdder codesAdded = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        // Nạp đoạn mới trong transaction riêng, READ COMMITTED: thấy ngay mã vừa tải lên và giao dịch vừa commit
+        refillTemplate = new TransactionTemplate(transactionManager);
+        refillTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        refillTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        refillTemplate.setReadOnly(true);
+        poolGifts.addAll(jdbcTemplate.queryForList(FIND_POOL_GIFTS, Long.class));
+        logger.info("Gift code pool started: {} gifts with redemption codes", poolGifts.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushClaims();
+    }
+
+    public boolean hasPool(Long giftId) {
+        return poolGifts.contains(giftId);
+    }
+
+    // Lấy một mã cho lượt đổi trong transaction hiện tại. empty = gift không có kho mã (đổi quà như cũ);
+    // gift có kho mã nhưng đã phát hết thì GameException. Mã được trả lại nếu transaction rollback hoặc gọi release().
+    public Optional<ClaimedCode> claim(Long giftId, Long playerId) {
+        if (!poolGifts.contains(giftId)) {
+            return Optional.empty();
+        }
+        Pool pool = pools.computeIfAbsent(giftId, Pool::new);
+        ClaimedCode code = pool.returned.poll();
+        while (code == null) {
+            Segment segment = pool.segment;
+            int index = segment.next.getAndIncrement();
+            if (index >= 0 && index < segment.ids.length) {
+                code = new ClaimedCode(giftId, segment.ids[index], segment.codes[index]);
+            } else if (!refill(pool, segment)) {
+                exhaustedRejects.increment();
+                throw new GameException("No redemption codes left for this gift");
+            }
+        }
+        claimed.increment();
+        ClaimedCode taken = code;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED && !taken.released) {
+                    pendingClaims.add(new Claim(taken.id, playerId, LocalDateTime.now()));
+                } else {
+                    giveBack(taken);
+                }
+            }
+        });
+        return Optional.of(code);
+    }
+
+    // Lượt đổi đã lấy mã nhưng không thành (ví dụ không đủ điểm) trong khi transaction vẫn commit: trả mã lại sau khi kết thúc
+    public void release(ClaimedCode code) {
+        code.released = true;
+    }
+
+    @Transactional
+    public GiftCodePoolResponse uploadCodes(Long giftId, MultipartFile file, String developerEmail) throws GameException {
+        ownedGift(giftId, developerEmail);
+        if (file == null || file.isEmpty()) {
+            throw new GameException("Code file is required");
+        }
+        Set<String> codes = new LinkedHashSet<>();
+        int submitted = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String code = line.trim();
+                if (code.isEmpty()) {
+                    continue;
+                }
+                if (code.length() > MAX_CODE_LENGTH) {
+                    throw new GameException("Code on line " + lineNumber + " is longer than " + MAX_CODE_LENGTH + " characters");
+                }
+                codes.add(code);
+                submitted++;
+                if (codes.size() > maxPerUpload) {
+                    throw new GameException("At most " + maxPerUpload + " codes can be uploaded at once");
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not read code file for GiftID={}", giftId, e);
+            throw new GameException("Failed to read code file: " + e.getMessage());
+        }
+        if (codes.isEmpty()) {
+            throw new GameException("Code file does not contain any codes");
+        }
+        return addCodes(giftId, codes, submitted);
+    }
+
+    @Transactional
+    public GiftCodePoolResponse generateCodes(Long giftId, int count, String developerEmail) throws GameException {
+        ownedGift(giftId, developerEmail);
+        if (count <= 0 || count > maxPerUpload) {
+            throw new GameException("Count must be between 1 and " + maxPerUpload);
+        }
+        Set<String> codes = new LinkedHashSet<>(count * 2);
+        char[] buffer = new char[generatedLength];
+        while (codes.size() < count) {
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = CODE_ALPHABET[random.nextInt(CODE_ALPHABET.length)];
+            }
+            codes.add(new String(buffer));
+        }
+        return addCodes(giftId, codes, count);
+    }
+
+    @Transactional(readOnly = true)
+    public GiftCodePoolResponse getSummary(Long giftId, String developerEmail) throws GameException {
+        ownedGift(giftId, developerEmail);
+        return summary(giftId, 0, 0);
+    }
+
+    // Gift bị xóa: xóa mã trong cùng transaction, bỏ kho trong bộ nhớ sau commit
+    public void onGiftDeleted(Long giftId) {
+        giftCodeRepository.deleteByGiftId(giftId);
+        afterCommit(() -> {
+            poolGifts.remove(giftId);
+            pools.remove(giftId);
+        });
+    }
+
+    // Ghi claimed_by/claimed_at của các mã đã phát theo lô (chỉ để tra cứu; việc chống phát lại dựa vào gift_transactions)
+    @Scheduled(fixedDelayString = "${gamehub.gifts.codes.claim-flush-interval-ms:1000}")
+    public void flushClaims() {
+        while (!pendingClaims.isEmpty()) {
+            List<Claim> batch = new ArrayList<>(claimFlushBatchSize);
+            Claim claim;
+            while (batch.size() < claimFlushBatchSize && (claim = pendingClaims.poll()) != null) {
+                batch.add(claim);
+            }
+            try {
+                jdbcTemplate.batchUpdate(MARK_CLAIMED, batch, batch.size(), (statement, item) -> {
+                    statement.setLong(1, item.playerId);
+                    statement.setTimestamp(2, Timestamp.valueOf(item.claimedAt));
+                    statement.setLong(3, item.codeId);
+                });
+                claimsPersisted.add(batch.size());
+            } catch (Exception e) {
+                // Cập nhật idempotent: đưa lại vào hàng đợi, lần chạy sau ghi tiếp
+                logger.error("Could not persist {} gift code claims, will retry", batch.size(), e);
+                pendingClaims.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("giftsWithCodes", poolGifts.size());
+        stats.put("loadedPools", pools.size());
+        stats.put("claimed", claimed.sum());
+        stats.put("returned", returned.sum());
+        stats.put("refills", refills.sum());
+        stats.put("exhaustedRejects", exhaustedRejects.sum());
+        stats.put("pendingClaims", pendingClaims.size());
+        stats.put("claimsPersisted", claimsPersisted.sum());
+        stats.put("codesAdded", codesAdded.sum());
+        return stats;
+    }
+
+    // submitted: số mã trong yêu cầu, kể cả mã trùng trong chính file (đã được gộp trong codes)
+    private GiftCodePoolResponse addCodes(Long giftId, Set<String> codes, int submitted) {
+        long before = giftCodeRepository.countByGiftId(giftId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<String> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (String code : codes) {
+            chunk.add(code);
+            if (chunk.size() == INSERT_CHUNK) {
+                insertChunk(giftId, chunk, now);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(giftId, chunk, now);
+        }
+        int added = (int) (giftCodeRepository.countByGiftId(giftId) - before);
+        codesAdded.add(added);
+        // Mã mới có id lớn hơn mọi mã đã nạp nên đoạn nạp tiếp theo sẽ thấy; bỏ cờ hết mã để thử nạp lại
+        afterCommit(() -> {
+            poolGifts.add(giftId);
+            Pool pool = pools.get(giftId);
+            if (pool != null) {
+                pool.exhausted = false;
+            }
+        });
+        logger.info("Added {} redemption codes to GiftID={} ({} duplicates skipped)", added, giftId, submitted - added);
+        return summary(giftId, added, submitted - added);
+    }
+
+    private void insertChunk(Long giftId, List<String> codes, Timestamp now) {
+        jdbcTemplate.batchUpdate(INSERT_CODE, codes, codes.size(), (statement, code) -> {
+            statement.setLong(1, giftId);
+            statement.setString(2, code);
+            statement.setTimestamp(3, now);
+        });
+    }
+
+    private GiftCodePoolResponse summary(Long giftId, int added, int duplicates) {
+        long total = giftCodeRepository.countByGiftId(giftId);
+        long issued = giftCodeRepository.countIssued(giftId);
+        return new GiftCodePoolResponse(giftId, total, issued, total - issued, added, duplicates);
+    }
+
+    private Gift ownedGift(Long giftId, String developerEmail) {
+        User developer = userIdentityCache.findByEmail(developerEmail)
+                .orElseThrow(() -> new GameException("Developer not found"));
+        if (developer.getRole() != UserRole.DEVELOPER) {
+            throw new GameException("Only DEVELOPER accounts can manage redemption codes");
+        }
+        Gift gift = giftRepository.findById(giftId)
+                .orElseThrow(() -> new GameException("Gift not found"));
+        if (!gift.getDeveloper().getId().equals(developer.getId())) {
+            logger.warn("Redemption code access rejected - user {} is not the owner of gift {}", developerEmail, giftId);
+            throw new GameException("You can only manage codes of your own gifts");
+        }
+        return gift;
+    }
+
+    // Nạp đoạn tiếp theo khi đoạn hiện tại đã phát hết; false nếu DB không còn mã chưa phát
+    private boolean refill(Pool pool, Segment exhausted) {
+        synchronized (pool) {
+            if (pool.segment != exhausted) {
+                // Thread khác vừa nạp xong
+                return true;
+            }
+            if (pool.exhausted) {
+                return false;
+            }
+            List<Object[]> rows = refillTemplate.execute(status -> jdbcTemplate.query(FIND_UNISSUED,
+                    (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getString("code")},
+                    pool.giftId, pool.lastLoadedId, segmentSize));
+            refills.increment();
+            if (rows == null || rows.isEmpty()) {
+                pool.exhausted = true;
+                return false;
+            }
+            long[] ids = new long[rows.size()];
+            String[] codes = new String[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = (Long) rows.get(i)[0];
+                codes[i] = (String) rows.get(i)[1];
+            }
+            pool.lastLoadedId = ids[ids.length - 1];
+            pool.segment = new Segment(ids, codes);
+            logger.debug("Loaded {} redemption codes for GiftID={}", ids.length, pool.giftId);
+            return true;
+        }
+    }
+
+    private void giveBack(ClaimedCode code) {
+        Pool pool = pools.get(code.giftId);
+        if (pool != null) {
+            code.released = false;
+            pool.returned.add(code);
+            returned.increment();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static final class ClaimedCode {
+        private final Long giftId;
+        private final long id;
+        private final String code;
+        private volatile boolean released;
+
+        private ClaimedCode(Long giftId, long id, String code) {
+            this.giftId = giftId;
+            this.id = id;
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    private static final class Claim {
+        private final long codeId;
+        private final long playerId;
+        private final LocalDateTime claimedAt;
+
+        private Claim(long codeId, long playerId, LocalDateTime claimedAt) {
+            this.codeId = codeId;
+            this.playerId = playerId;
+            this.claimedAt = claimedAt;
+        }
+    }
+
+    // Đoạn mã bất biến; next là vị trí phát tiếp theo (có thể vượt quá độ dài khi đã hết)
+    private static final class Segment {
+        private final long[] ids;
+        private final String[] codes;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Segment(long[] ids, String[] codes) {
+            this.ids = ids;
+            this.codes = codes;
+        }
+    }
+
+    private static final class Pool {
+        private final Long giftId;
+        private final ConcurrentLinkedQueue<ClaimedCode> returned = new ConcurrentLinkedQueue<>();
+        private volatile Segment segment = new Segment(new long[0], new String[0]);
+        // Chỉ đọc/ghi trong synchronized (pool)
+        private long lastLoadedId;
+        private volatile boolean exhausted;
+
+        private Pool(Long giftId) {
+            this.giftId = giftId;
+        }
+    }
+}
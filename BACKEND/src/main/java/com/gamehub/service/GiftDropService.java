@@ -0,0 +1,645 @@
+// Note: Chế độ drop cho gift số lượng giới hạn: thay vì mỗi request /gifts/redeem giữ một transaction và tranh khóa dòng gifts,
+// lượt đổi nhận ngay một ticket và vào hàng đợi FIFO có giới hạn của gift đó.
+// - Mỗi gift có tối đa một consumer tại một thời điểm (cờ scheduled), lấy ticket theo lô và xử lý cả lô trong một transaction:
+//   trừ điểm có điều kiện từng player theo thứ tự, rồi giảm quantity một lần cho cả lô (UPDATE ... WHERE quantity >= n),
+//   cùng thứ tự khóa với GiftService.redeemGift (điểm trước, gift sau). quantity bị nơi khác giảm trong lúc đó thì làm lại lô.
+// - Kết quả ticket chỉ được công bố sau commit; client hỏi lại theo ticketId hoặc stream (SSE) để nhận kết quả.
+// - Gift đã hết hàng được ghi nhớ: lượt mới trả SOLD_OUT ngay, không xếp hàng và không lưu ticket (bão request sau khi
+//   hết hàng không làm map ticket phình ra); bỏ ghi nhớ khi gift được sửa hoặc bật lại drop.
+// - Hàng đợi đầy thì từ chối bằng ServiceBusyException (503); ticket đã có kết quả được giữ trong bộ nhớ một khoảng TTL.
+// - Khi tắt ứng dụng: ngừng nhận ticket, chờ consumer xong lô đang chạy, ticket còn trong hàng đợi được trả FAILED
+//   (kèm lời nhắn thử lại) để các stream SSE đóng lại thay vì treo.
+package com.gamehub.service;
+
+import com.gamehub.dto.GiftDTO;
+import com.gamehub.dto.GiftTransactionDTO;
+import com.gamehub.dto.RedeemTicketResponse;
+import com.gamehub.exception.GameException;
+import com.gamehub.exception.ServiceBusyException;
+import com.gamehub.model.Gift;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.RedeemTicketStatus;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.repository.GiftRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class GiftDropService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GiftDropService.class);
+
+    private static final String FIND_DROP_GIFTS = "SELECT id FROM gifts WHERE drop_mode = TRUE";
+
+    private static final String FIND_GIFT = "SELECT point_cost, developer_id, quantity FROM gifts WHERE id = ?";
+
+    private static final String SPEND_POINTS =
+            "UPDATE player_developer_points SET total_points = total_points - ?, last_updated = ? " +
+            "WHERE player_id = ? AND developer_id = ? AND total_points >= ?";
+
+    private static final String DECREMENT_QUANTITY =
+            "UPDATE gifts SET quantity = quantity - ? WHERE id = ? AND quantity >= ?";
+
+    private static final String INSERT_GIFT_TRANSACTION =
+            "INSERT INTO gift_transactions (player_id, gift_id, points_spent, created_at, redemption_code) VALUES (?, ?, ?, ?, ?)";
+
+    // Số lần làm lại một lô khi quantity bị nơi khác giảm giữa lúc đọc và lúc ghi
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String SHUTDOWN_MESSAGE = "Server is restarting, please retry the redemption";
+
+    @Autowired
+    private GiftRepository giftRepository;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PointAccrualBuffer pointAccrualBuffer;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private StripedGiftInventory stripedGiftInventory;
+
+    @Autowired
+    private GiftCodePool giftCodePool;
+
+    @Autowired
+    private GiftCatalogCache giftCatalogCache;
+
+    @Value("${gamehub.gifts.drop.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${gamehub.gifts.drop.batch-size:200}")
+    private int batchSize;
+
+    @Value("${gamehub.gifts.drop.consumer-threads:2}")
+    private int consumerThreads;
+
+    @Value("${gamehub.gifts.drop.ticket-ttl-ms:600000}")
+    private long ticketTtlMs;
+
+    @Value("${gamehub.gifts.drop.sse-timeout-ms:60000}")
+    private long sseTimeoutMs;
+
+    private final Set<Long> dropGifts = ConcurrentHashMap.newKeySet();
+    private final Map<Long, GiftDrop> drops = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private ExecutorService consumers;
+    private volatile boolean stopping;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejectedBusy = new LongAdder();
+    private final LongAdder redeemed = new LongAdder();
+    private final LongAdder soldOut = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedTickets = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        consumers = Executors.newFixedThreadPool(Math.max(1, consumerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "gift-drop-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dropGifts.addAll(jdbcTemplate.queryForList(FIND_DROP_GIFTS, Long.class));
+        logger.info("Gift drop service started: {} gifts in drop mode, queueCapacity={}, batchSize={}",
+                dropGifts.size(), queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        consumers.shutdown();
+        boolean terminated = consumers.awaitTermination(10, TimeUnit.SECONDS);
+        // Ticket chưa được lấy khỏi hàng đợi thì chắc chắn chưa xử lý: trả FAILED để client đổi lại sau
+        for (GiftDrop drop : drops.values()) {
+            failQueued(drop);
+        }
+        if (terminated) {
+            // Consumer đã dừng hẳn: ticket còn QUEUED (ví dụ trong hàng đợi của gift vừa rời chế độ drop) không ai xử lý nữa
+            for (Ticket ticket : tickets.values()) {
+                if (!ticket.isDone()) {
+                    fail(ticket, SHUTDOWN_MESSAGE);
+                }
+            }
+        } else {
+            logger.warn("Gift drop consumers did not finish within 10s; in-flight batches may still complete");
+        }
+    }
+
+    public boolean isDropMode(Long giftId) {
+        return dropGifts.contains(giftId);
+    }
+
+    // Developer sở hữu gift bật/tắt chế độ drop; tắt thì bỏ hàng đợi của gift khỏi map, các ticket đã xếp hàng vẫn được
+    // consumer đang giữ hàng đợi đó xử lý nốt
+    @Transactional
+    public GiftDTO setDropMode(Long giftId, boolean enabled, String developerEmail) throws GameException {
+        User developer = userIdentityCache.findByEmail(developerEmail)
+                .orElseThrow(() -> new GameException("Developer not found"));
+        if (developer.getRole() != UserRole.DEVELOPER) {
+            throw new GameException("Only DEVELOPER accounts can change drop mode");
+        }
+        Gift gift = giftRepository.findById(giftId)
+                .orElseThrow(() -> new GameException("Gift not found"));
+        if (!gift.getDeveloper().getId().equals(developer.getId())) {
+            logger.warn("Drop mode change rejected - user {} is not the owner of gift {}", developerEmail, giftId);
+            throw new GameException("You can only change drop mode of your own gifts");
+        }
+        gift.setDropMode(enabled);
+        giftRepository.save(gift);
+        catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.GIFTS);
+        afterCommit(() -> {
+            if (enabled) {
+                dropGifts.add(giftId);
+                clearSoldOut(giftId);
+            } else {
+                forgetDrop(giftId);
+            }
+        });
+        logger.info("Gift {} drop mode {}", giftId, enabled ? "enabled" : "disabled");
+        return GiftService.toDTO(gift);
+    }
+
+    // Gift được sửa (ví dụ nhập thêm hàng): bỏ ghi nhớ hết hàng sau commit để ticket mới được xử lý lại
+    public void onGiftChanged(Long giftId) {
+        afterCommit(() -> clearSoldOut(giftId));
+    }
+
+    // Gift bị xóa: rời chế độ drop sau commit (ticket còn xếp hàng sẽ nhận FAILED "Gift not found")
+    public void onGiftDeleted(Long giftId) {
+        afterCommit(() -> forgetDrop(giftId));
+    }
+
+    // Nhận lượt đổi: trả ticket ngay (QUEUED, hoặc SOLD_OUT nếu đã biết hết hàng - kết quả cuối nên không cần lưu để hỏi lại)
+    public RedeemTicketResponse enqueue(Long playerId, String playerEmail, Long giftId) {
+        if (stopping) {
+            rejectedBusy.increment();
+            throw new ServiceBusyException(SHUTDOWN_MESSAGE);
+        }
+        GiftDrop drop = drops.computeIfAbsent(giftId, id -> new GiftDrop(id, queueCapacity));
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), playerId, playerEmail, giftId, drop.queue.size());
+        if (drop.soldOut) {
+            complete(ticket, RedeemTicketStatus.SOLD_OUT, "Gift is out of stock", null);
+            soldOut.increment();
+            return ticket.toResponse();
+        }
+        tickets.put(ticket.id, ticket);
+        if (!drop.queue.offer(ticket)) {
+            tickets.remove(ticket.id);
+            rejectedBusy.increment();
+            throw new ServiceBusyException("Gift redemption queue is full, please retry later");
+        }
+        enqueued.increment();
+        if (stopping) {
+            // stop() có thể đã dọn hàng đợi trước khi ticket này vào
+            failQueued(drop);
+        } else {
+            schedule(drop);
+        }
+        return ticket.toResponse();
+    }
+
+    // Chỉ chủ ticket mới xem được kết quả
+    public Optional<RedeemTicketResponse> getTicket(String ticketId, Long playerId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.playerId.equals(playerId)) {
+            return Optional.empty();
+        }
+        return Optional.of(ticket.toResponse());
+    }
+
+    // Stream kết quả ticket: gửi trạng thái hiện tại ngay, rồi gửi kết quả cuối khi có và đóng stream
+    public Optional<SseEmitter> subscribe(String ticketId, Long playerId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.playerId.equals(playerId)) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> ticket.removeEmitter(emitter));
+        emitter.onTimeout(() -> ticket.removeEmitter(emitter));
+        boolean done = ticket.addEmitterIfPending(emitter);
+        send(emitter, ticket.toResponse(), done);
+        return Optional.of(emitter);
+    }
+
+    @Scheduled(fixedDelayString = "${gamehub.gifts.drop.cleanup-interval-ms:60000}")
+    public void removeExpiredTickets() {
+        long cutoff = System.currentTimeMillis() - ticketTtlMs;
+        tickets.values().removeIf(ticket -> ticket.isDone() && ticket.completedAtMillis < cutoff);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dropGifts", dropGifts.size());
+        stats.put("queuedTickets", drops.values().stream().mapToInt(drop -> drop.queue.size()).sum());
+        stats.put("trackedTickets", tickets.size());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("rejectedBusy", rejectedBusy.sum());
+        stats.put("redeemed", redeemed.sum());
+        stats.put("soldOut", soldOut.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        long batchCount = batches.sum();
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) batchedTickets.sum() / batchCount);
+        stats.put("conflicts", conflicts.sum());
+        return stats;
+    }
+
+    // Bảo đảm mỗi gift chỉ có một consumer chạy tại một thời điểm; đang tắt thì không lên lịch (stop() dọn hàng đợi)
+    private void schedule(GiftDrop drop) {
+        if (stopping) {
+            return;
+        }
+        if (drop.scheduled.compareAndSet(false, true)) {
+            try {
+                consumers.execute(() -> drain(drop));
+            } catch (RejectedExecutionException e) {
+                drop.scheduled.set(false);
+                failQueued(drop);
+            }
+        }
+    }
+
+    private void failQueued(GiftDrop drop) {
+        List<Ticket> leftover = new ArrayList<>();
+        drop.queue.drainTo(leftover);
+        for (Ticket ticket : leftover) {
+            fail(ticket, SHUTDOWN_MESSAGE);
+        }
+    }
+
+    private void clearSoldOut(Long giftId) {
+        GiftDrop drop = drops.get(giftId);
+        if (drop != null) {
+            drop.soldOut = false;
+        }
+    }
+
+    // Gift rời chế độ drop: bỏ hàng đợi khỏi map để map không phình mãi; consumer đang giữ tham chiếu vẫn xử lý nốt
+    private void forgetDrop(Long giftId) {
+        dropGifts.remove(giftId);
+        drops.remove(giftId);
+    }
+
+    private void drain(GiftDrop drop) {
+        try {
+            List<Ticket> batch = new ArrayList<>(batchSize);
+            while (drop.queue.drainTo(batch, batchSize) > 0) {
+                try {
+                    process(drop, batch);
+                } catch (Exception e) {
+                    logger.error("Unexpected error processing gift drop batch for GiftID={}", drop.giftId, e);
+                    for (Ticket ticket : batch) {
+                        if (!ticket.isDone()) {
+                            fail(ticket, "Could not process redemption");
+                        }
+                    }
+                }
+                batch.clear();
+            }
+        } finally {
+            drop.scheduled.set(false);
+            // Ticket vào hàng đợi sau lần drainTo cuối nhưng trước khi bỏ cờ
+            if (!drop.queue.isEmpty()) {
+                schedule(drop);
+            }
+        }
+    }
+
+    private void process(GiftDrop drop, List<Ticket> batch) {
+        if (drop.soldOut) {
+            batch.forEach(ticket -> complete(ticket, RedeemTicketStatus.SOLD_OUT, "Gift is out of stock", null));
+            soldOut.add(batch.size());
+            return;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(FIND_GIFT, drop.giftId);
+        if (rows.isEmpty()) {
+            batch.forEach(ticket -> fail(ticket, "Gift not found"));
+            return;
+        }
+        // Ghi trước phần điểm đang chờ trong buffer write-behind của các player trong lô
+        Long developerId = ((Number) rows.get(0).get("developer_id")).longValue();
+        Set<Long> players = new HashSet<>();
+        for (Ticket ticket : batch) {
+            if (players.add(ticket.playerId)) {
+                pointAccrualBuffer.flushPair(ticket.playerId, developerId);
+            }
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        BatchOutcome outcome = null;
+        try {
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS && outcome == null; attempt++) {
+                try {
+                    outcome = template.execute(status -> applyBatch(drop.giftId, batch));
+                } catch (StockConflictException e) {
+                    conflicts.increment();
+                }
+            }
+        } catch (Exception e) {
+            // Lô lỗi (ví dụ player vừa bị xóa): xử lý lại từng ticket để chỉ ticket hỏng bị FAILED
+            logger.warn("Gift drop batch of {} for GiftID={} failed, retrying tickets one by one: {}",
+                    batch.size(), drop.giftId, e.getMessage());
+            for (Ticket ticket : batch) {
+                try {
+                    publish(drop, template.execute(status -> applyBatch(drop.giftId, List.of(ticket))));
+                } catch (Exception single) {
+                    logger.error("Could not redeem gift drop ticket {}: {}", ticket.id, single.getMessage());
+                    fail(ticket, "Could not process redemption");
+                }
+            }
+            return;
+        }
+        if (outcome == null) {
+            batch.forEach(ticket -> fail(ticket, "Gift stock changed too often, please retry"));
+            return;
+        }
+        batches.increment();
+        batchedTickets.add(batch.size());
+        publish(drop, outcome);
+    }
+
+    // Một transaction cho cả lô; kết quả chỉ được công bố sau khi commit (publish)
+    private BatchOutcome applyBatch(Long giftId, List<Ticket> batch) {
+        BatchOutcome outcome = new BatchOutcome();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(FIND_GIFT, giftId);
+        if (rows.isEmpty()) {
+            batch.forEach(ticket -> outcome.add(ticket, RedeemTicketStatus.FAILED, "Gift not found", null));
+            return outcome;
+        }
+        long pointCost = ((Number) rows.get(0).get("point_cost")).longValue();
+        long developerId = ((Number) rows.get(0).get("developer_id")).longValue();
+        long remaining = ((Number) rows.get(0).get("quantity")).longValue();
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Ticket> granted = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        boolean codesExhausted = false;
+        for (Ticket ticket : batch) {
+            if (codesExhausted || granted.size() >= remaining) {
+                outcome.add(ticket, RedeemTicketStatus.SOLD_OUT, "Gift is out of stock", null);
+                continue;
+            }
+            // Mã voucher (nếu gift có kho mã) lấy trước khi trừ điểm; hết mã thì các ticket còn lại coi như hết hàng
+            Optional<GiftCodePool.ClaimedCode> code;
+            try {
+                code = giftCodePool.claim(giftId, ticket.playerId);
+            } catch (GameException e) {
+                codesExhausted = true;
+                outcome.add(ticket, RedeemTicketStatus.SOLD_OUT, e.getMessage(), null);
+                continue;
+            }
+            if (jdbcTemplate.update(SPEND_POINTS, pointCost, timestamp, ticket.playerId, developerId, pointCost) == 0) {
+                code.ifPresent(giftCodePool::release);
+                outcome.add(ticket, RedeemTicketStatus.REJECTED, "Not enough points to redeem this gift", null);
+            } else {
+                granted.add(ticket);
+                codes.add(code.map(GiftCodePool.ClaimedCode::getCode).orElse(null));
+            }
+        }
+        outcome.soldOut = codesExhausted || granted.size() >= remaining;
+        if (granted.isEmpty()) {
+            return outcome;
+        }
+
+        // Một câu giảm quantity cho cả lô, sau khi đã trừ điểm (cùng thứ tự khóa với redeemGift)
+        if (jdbcTemplate.update(DECREMENT_QUANTITY, granted.size(), giftId, granted.size()) == 0) {
+            throw new StockConflictException();
+        }
+        for (int i = 0; i < granted.size(); i++) {
+            Ticket ticket = granted.get(i);
+            String redemptionCode = codes.get(i);
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_GIFT_TRANSACTION, Statement.RETURN_GENERATED_KEYS);
+                statement.setLong(1, ticket.playerId);
+                statement.setLong(2, giftId);
+                statement.setLong(3, pointCost);
+                statement.setTimestamp(4, timestamp);
+                statement.setString(5, redemptionCode);
+                return statement;
+            }, keyHolder);
+            Number transactionId = keyHolder.getKey();
+            GiftTransactionDTO transaction = new GiftTransactionDTO(
+                    transactionId != null ? transactionId.longValue() : null, ticket.playerId, giftId, pointCost,
+                    now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            transaction.setRedemptionCode(redemptionCode);
+            outcome.add(ticket, RedeemTicketStatus.REDEEMED, null, transaction);
+            leaderboardIndex.recordDelta(developerId, ticket.playerId, ticket.playerEmail, -pointCost);
+        }
+        giftCatalogCache.recordStockAfterCommit(giftId, giftRepository.findQuantity(giftId).orElse(0L));
+        stripedGiftInventory.invalidateAfterCommit(giftId);
+        return outcome;
+    }
+
+    private void publish(GiftDrop drop, BatchOutcome outcome) {
+        if (outcome.soldOut) {
+            drop.soldOut = true;
+        }
+        for (TicketResult result : outcome.results) {
+            switch (result.status) {
+                case REDEEMED -> redeemed.increment();
+                case SOLD_OUT -> soldOut.increment();
+                case REJECTED -> rejected.increment();
+                default -> failed.increment();
+            }
+            complete(result.ticket, result.status, result.message, result.transaction);
+        }
+    }
+
+    private void fail(Ticket ticket, String message) {
+        failed.increment();
+        complete(ticket, RedeemTicketStatus.FAILED, message, null);
+    }
+
+    private void complete(Ticket ticket, RedeemTicketStatus status, String message, GiftTransactionDTO transaction) {
+        List<SseEmitter> emitters = ticket.complete(status, message, transaction);
+        RedeemTicketResponse response = ticket.toResponse();
+        for (SseEmitter emitter : emitters) {
+            send(emitter, response, true);
+        }
+    }
+
+    private static void send(SseEmitter emitter, RedeemTicketResponse response, boolean last) {
+        try {
+            emitter.send(SseEmitter.event().name("ticket").data(response));
+            if (last) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client đã ngắt kết nối; vẫn có thể hỏi lại kết quả theo ticketId
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // quantity bị giảm ở nơi khác giữa lúc đọc và lúc ghi: rollback lô và làm lại
+    private static final class StockConflictException extends RuntimeException {
+        private StockConflictException() {
+            super("Gift stock changed during drop batch", null, false, false);
+        }
+    }
+
+    private static final class GiftDrop {
+        private final Long giftId;
+        private final BlockingQueue<Ticket> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean soldOut;
+
+        private GiftDrop(Long giftId, int capacity) {
+            this.giftId = giftId;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private static final class Ticket {
+        private final String id;
+        private final Long playerId;
+        private final String playerEmail;
+        private final Long giftId;
+        private final int position;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private RedeemTicketStatus status = RedeemTicketStatus.QUEUED;
+        private String message;
+        private GiftTransactionDTO transaction;
+        private LocalDateTime completedAt;
+        private volatile long completedAtMillis;
+
+        private Ticket(String id, Long playerId, String playerEmail, Long giftId, int position) {
+            this.id = id;
+            this.playerId = playerId;
+            this.playerEmail = playerEmail;
+            this.giftId = giftId;
+            this.position = position;
+        }
+
+        private synchronized boolean isDone() {
+            return status != RedeemTicketStatus.QUEUED;
+        }
+
+        // Trả về các stream đang chờ để gửi kết quả (ngoài khóa)
+        private synchronized List<SseEmitter> complete(RedeemTicketStatus status, String message, GiftTransactionDTO transaction) {
+            this.status = status;
+            this.message = message;
+            this.transaction = transaction;
+            this.completedAt = LocalDateTime.now();
+            this.completedAtMillis = System.currentTimeMillis();
+            List<SseEmitter> waiting = new ArrayList<>(emitters);
+            emitters.clear();
+            return waiting;
+        }
+
+        // false nếu ticket đã có kết quả (không cần chờ)
+        private synchronized boolean addEmitterIfPending(SseEmitter emitter) {
+            if (status != RedeemTicketStatus.QUEUED) {
+                return true;
+            }
+            emitters.add(emitter);
+            return false;
+        }
+
+        private synchronized void removeEmitter(SseEmitter emitter) {
+            emitters.remove(emitter);
+        }
+
+        private synchronized RedeemTicketResponse toResponse() {
+            return new RedeemTicketResponse(id, giftId, playerId, status, message, position, transaction,
+                    createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    completedAt != null ? completedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+        }
+    }
+
+    private static final class TicketResult {
+        private final Ticket ticket;
+        private final RedeemTicketStatus status;
+        private final String message;
+        private final GiftTransactionDTO transaction;
+
+        private TicketResult(Ticket ticket, RedeemTicketStatus status, String message, GiftTransactionDTO transaction) {
+            this.ticket = ticket;
+            this.status = status;
+            this.message = message;
+            this.transaction = transaction;
+        }
+    }
+
+    private static final class BatchOutcome {
+        private final List<TicketResult> results = new ArrayList<>();
+        private boolean soldOut;
+
+        private void add(Ticket ticket, RedeemTicketStatus status, String message, GiftTransactionDTO transaction) {
+            results.add(new TicketResult(ticket, status, message, transaction));
+        }
+    }
+}
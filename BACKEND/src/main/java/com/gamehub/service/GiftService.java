@@ -1,26 +1,36 @@
 package com.gamehub.service;
 
+import com.gamehub.dto.GameCursor;
 import com.gamehub.dto.GiftDTO;
+import com.gamehub.dto.GiftPageResponse;
 import com.gamehub.dto.GiftTransactionDTO;
+import com.gamehub.dto.PlayerDeveloperPointsDTO;
+import com.gamehub.dto.PlayerGiftDTO;
 import com.gamehub.exception.GameException;
 import com.gamehub.model.Gift;
 import com.gamehub.model.GiftTransaction;
-import com.gamehub.model.PlayerDeveloperPoints;
 import com.gamehub.model.User;
 import com.gamehub.repository.GiftRepository;
 import com.gamehub.repository.GiftTransactionRepository;
 import com.gamehub.repository.PlayerDeveloperPointsRepository;
-import com.gamehub.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,7 +46,10 @@ public class GiftService {
     private GiftTransactionRepository giftTransactionRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
 
     @Autowired
     private PointService pointService; // Bổ sung: Để kiểm tra total_points
@@ -44,13 +57,38 @@ public class GiftService {
     @Autowired
     private PlayerDeveloperPointsRepository playerDeveloperPointsRepository; // Bổ sung: Để cập nhật total_points
 
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private PointAccrualBuffer pointAccrualBuffer;
+
+    @Autowired
+    private StripedGiftInventory stripedGiftInventory;
+
+    @Autowired
+    private GiftDropService giftDropService;
+
+    @Autowired
+    private GiftCatalogCache giftCatalogCache;
+
+    @Autowired
+    private GiftCodePool giftCodePool;
+
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Value("${gamehub.gifts.max-page-size:100}")
+    private int maxPageSize;
+
+    private final LongAdder redeemed = new LongAdder();
+    private final LongAdder outOfStock = new LongAdder();
+    private final LongAdder insufficientPoints = new LongAdder();
+
     public GiftDTO uploadGift(Long developerId, String name, String description, MultipartFile imageFile, Long pointCost, Long quantity) throws GameException {
         logger.info("Uploading gift: DeveloperID={}, Name={}, PointCost={}, Quantity={}", developerId, name, pointCost, quantity);
 
-        User developer = userRepository.findById(developerId)
+        User developer = userIdentityCache.findById(developerId)
                 .orElseThrow(() -> {
                     logger.warn("Developer not found: {}", developerId);
                     return new GameException("Developer not found");
@@ -79,40 +117,75 @@ public class GiftService {
 
         Gift gift = new Gift(name, description, imageUrl, pointCost, quantity, developer, LocalDateTime.now());
         gift = giftRepository.save(gift);
+        catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.GIFTS);
 
         logger.info("Gift uploaded successfully: GiftID={}", gift.getId());
-        return new GiftDTO(
-                gift.getId(),
-                gift.getName(),
-                gift.getDescription(),
-                gift.getImageUrl(),
-                gift.getPointCost(),
-                gift.getQuantity(),
-                gift.getDeveloper().getId(),
-                gift.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-        );
+        return toDTO(gift);
     }
 
     public List<GiftDTO> getAllGifts() {
         logger.info("Fetching all gifts");
-        return giftRepository.findAll().stream()
-                .map(gift -> new GiftDTO(
-                        gift.getId(),
-                        gift.getName(),
-                        gift.getDescription(),
-                        gift.getImageUrl(),
-                        gift.getPointCost(),
-                        gift.getQuantity(),
-                        gift.getDeveloper().getId(),
-                        gift.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                ))
-                .collect(Collectors.toList());
+        return giftCatalogCache.getAllGifts();
+    }
+
+    // Một trang danh mục quà (keyset theo createdAt DESC, id DESC) lấy từ cache, lọc theo developer, còn hàng và khoảng giá
+    @Transactional(readOnly = true)
+    public GiftPageResponse getGiftsPage(String cursor, int limit, Long developerId, Boolean inStock, Long minCost, Long maxCost) {
+        return page(cursor, limit, developerId, catalogFilter(inStock, minCost, maxCost), gift -> gift);
+    }
+
+    // Danh mục cá nhân hóa: cùng trang như trên, mỗi gift kèm số điểm player có ở developer của gift và cờ affordable.
+    // Điểm của player ở mọi developer lấy trong một câu truy vấn; affordableOnly chỉ giữ các gift đổi được ngay
+    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
+    public GiftPageResponse getPlayerGiftsPage(Long playerId, String cursor, int limit, Long developerId, Boolean inStock,
+                                               Long minCost, Long maxCost, boolean affordableOnly) throws GameException {
+        userIdentityCache.findById(playerId)
+                .orElseThrow(() -> new GameException("Player not found"));
+
+        // Cộng phần điểm đang chờ trong buffer write-behind (chỉ để hiển thị; lượt đổi vẫn trừ điểm có điều kiện trong DB).
+        // Điểm đã lưu phải đọc bên trong readAllWithPending để không tính hai lần một lần ghi xen giữa
+        Map<Long, Long> points = pointAccrualBuffer.isEnabled()
+                ? pointAccrualBuffer.readAllWithPending(playerId, () -> persistedPoints(playerId))
+                : persistedPoints(playerId);
+        Function<Long, Long> pointsFor = developer -> points.getOrDefault(developer, 0L);
+
+        Predicate<GiftDTO> filter = catalogFilter(inStock, minCost, maxCost);
+        if (affordableOnly) {
+            filter = filter.and(gift -> gift.getQuantity() > 0 && pointsFor.apply(gift.getDeveloperId()) >= gift.getPointCost());
+        }
+        return page(cursor, limit, developerId, filter, gift -> new PlayerGiftDTO(gift, pointsFor.apply(gift.getDeveloperId())));
+    }
+
+    private Map<Long, Long> persistedPoints(Long playerId) {
+        Map<Long, Long> persisted = new HashMap<>();
+        for (PlayerDeveloperPointsDTO points : playerDeveloperPointsRepository.findPointsByPlayerId(playerId)) {
+            persisted.put(points.getId(), points.getPoints());
+        }
+        return persisted;
+    }
+
+    private GiftPageResponse page(String cursor, int limit, Long developerId, Predicate<GiftDTO> filter,
+                                  Function<GiftDTO, ? extends GiftDTO> mapper) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        GameCursor position = cursor == null || cursor.isBlank() ? null : GameCursor.decode(cursor);
+        // Lấy dư 1 phần tử để biết còn trang sau hay không
+        List<GiftDTO> rows = giftCatalogCache.findPage(position, pageSize + 1, developerId, filter);
+        boolean hasMore = rows.size() > pageSize;
+        List<GiftDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? giftCatalogCache.cursorOf(items.get(items.size() - 1)).encode() : null;
+        return new GiftPageResponse(items.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+
+    private static Predicate<GiftDTO> catalogFilter(Boolean inStock, Long minCost, Long maxCost) {
+        return gift -> (inStock == null || (gift.getQuantity() > 0) == inStock)
+                && (minCost == null || gift.getPointCost() >= minCost)
+                && (maxCost == null || gift.getPointCost() <= maxCost);
     }
 
     public GiftTransactionDTO redeemGift(Long playerId, Long giftId) throws GameException {
         logger.info("Redeeming gift: PlayerID={}, GiftID={}", playerId, giftId);
 
-        User player = userRepository.findById(playerId)
+        User player = userIdentityCache.findById(playerId)
                 .orElseThrow(() -> {
                     logger.warn("Player not found: {}", playerId);
                     return new GameException("Player not found");
@@ -124,91 +197,80 @@ public class GiftService {
                     return new GameException("Gift not found");
                 });
 
-        if (gift.getQuantity() <= 0) {
+        // Kiểm tra nhanh (không quyết định): hết hàng theo bản đã đọc hoặc theo bộ đếm trong bộ nhớ thì từ chối ngay
+        if (gift.getQuantity() <= 0 || !stripedGiftInventory.tryReserve(giftId, giftRepository::findQuantity)) {
+            outOfStock.increment();
             logger.warn("Gift out of stock: GiftID={}", giftId);
             throw new GameException("Gift is out of stock");
         }
 
-        // Trừ điểm từ PlayerDeveloperPoints
-        PlayerDeveloperPoints pdp = playerDeveloperPointsRepository.findByPlayerAndDeveloper(player, gift.getDeveloper())
-                .orElseThrow(() -> new GameException("Player points not found for this developer"));
-        pdp.setTotalPoints(pdp.getTotalPoints() - gift.getPointCost());
-        pdp.setLastUpdated(LocalDateTime.now());
-        playerDeveloperPointsRepository.save(pdp);
+        // Trừ điểm có điều kiện (ghi trước phần điểm đang chờ trong buffer write-behind của cặp này):
+        // không đủ điểm thì không trừ, số dư không bao giờ âm
+        Long developerId = gift.getDeveloper().getId();
+        pointAccrualBuffer.flushPair(player.getId(), developerId);
+        if (playerDeveloperPointsRepository.spendPoints(player.getId(), developerId, gift.getPointCost(), LocalDateTime.now()) == 0) {
+            insufficientPoints.increment();
+            logger.warn("Gift redeem rejected - not enough points: PlayerID={}, GiftID={}, Cost={}", playerId, giftId, gift.getPointCost());
+            throw new GameException("Not enough points to redeem this gift");
+        }
 
-        // Giảm quantity của gift
-        gift.setQuantity(gift.getQuantity() - 1);
-        giftRepository.save(gift);
+        // Giảm quantity có điều kiện sau cùng để khóa dòng gift (dòng bị tranh chấp nhiều nhất) ngắn nhất có thể;
+        // hết hàng thì exception rollback luôn phần điểm vừa trừ
+        if (giftRepository.decrementQuantity(giftId) == 0) {
+            stripedGiftInventory.markSoldOut(giftId);
+            outOfStock.increment();
+            logger.warn("Gift out of stock: GiftID={}", giftId);
+            throw new GameException("Gift is out of stock");
+        }
+        // Mã voucher nếu gift có kho mã (lấy không khóa); hết mã thì exception rollback cả điểm và số lượng
+        String redemptionCode = giftCodePool.claim(giftId, player.getId())
+                .map(GiftCodePool.ClaimedCode::getCode)
+                .orElse(null);
+        leaderboardIndex.recordDelta(developerId, player.getId(), player.getEmail(), -gift.getPointCost());
+        // Chỉ số lượng đổi: cập nhật tại chỗ trong cache danh mục, không làm dựng lại snapshot
+        giftCatalogCache.recordStockAfterCommit(giftId, giftRepository.findQuantity(giftId).orElse(0L));
 
         // Tạo giao dịch đổi quà
         GiftTransaction transaction = new GiftTransaction(player, gift, gift.getPointCost(), LocalDateTime.now());
+        transaction.setRedemptionCode(redemptionCode);
         transaction = giftTransactionRepository.save(transaction);
 
+        redeemed.increment();
         logger.info("Gift redeemed successfully: TransactionID={}", transaction.getId());
-        return new GiftTransactionDTO(
-                transaction.getId(),
-                transaction.getPlayer().getId(),
-                transaction.getGift().getId(),
-                transaction.getPointsSpent(),
-                transaction.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-        );
+        return toTransactionDTO(transaction);
     }
 
     public List<GiftDTO> getGiftsByDeveloper(Long developerId) {
         logger.info("Fetching gifts for developer: {}", developerId);
         return giftRepository.findByDeveloperId(developerId).stream()
-                .map(gift -> new GiftDTO(
-                        gift.getId(),
-                        gift.getName(),
-                        gift.getDescription(),
-                        gift.getImageUrl(),
-                        gift.getPointCost(),
-                        gift.getQuantity(),
-                        gift.getDeveloper().getId(),
-                        gift.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                ))
+                .map(GiftService::toDTO)
                 .collect(Collectors.toList());
     }
 
     public List<GiftDTO> getMyGifts(String email) throws GameException {
         logger.info("Fetching gifts for developer email: {}", email);
 
-        User developer = userRepository.findByEmail(email)
+        User developer = userIdentityCache.findByEmail(email)
                 .orElseThrow(() -> {
                     logger.warn("Developer not found with email: {}", email);
                     return new GameException("Developer not found");
                 });
 
         return giftRepository.findByDeveloperId(developer.getId()).stream()
-                .map(gift -> new GiftDTO(
-                        gift.getId(),
-                        gift.getName(),
-                        gift.getDescription(),
-                        gift.getImageUrl(),
-                        gift.getPointCost(),
-                        gift.getQuantity(),
-                        gift.getDeveloper().getId(),
-                        gift.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                ))
+                .map(GiftService::toDTO)
                 .collect(Collectors.toList());
     }
 
     public List<GiftTransactionDTO> getGiftTransactions(Long playerId) throws GameException {
         logger.info("Fetching gift transactions for PlayerID={}", playerId);
-        User player = userRepository.findById(playerId)
+        User player = userIdentityCache.findById(playerId)
                 .orElseThrow(() -> {
                     logger.warn("Player not found: {}", playerId);
                     return new GameException("Player not found");
                 });
 
         return giftTransactionRepository.findByPlayerId(playerId).stream()
-                .map(transaction -> new GiftTransactionDTO(
-                        transaction.getId(),
-                        transaction.getPlayer().getId(),
-                        transaction.getGift().getId(),
-                        transaction.getPointsSpent(),
-                        transaction.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-                ))
+                .map(GiftService::toTransactionDTO)
                 .collect(Collectors.toList());
     }
 
@@ -258,18 +320,12 @@ public class GiftService {
         }
 
         gift = giftRepository.save(gift);
+        catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.GIFTS);
+        stripedGiftInventory.invalidateAfterCommit(gift.getId());
+        giftDropService.onGiftChanged(gift.getId());
 
         logger.info("Gift updated successfully: GiftID={}", gift.getId());
-        return new GiftDTO(
-                gift.getId(),
-                gift.getName(),
-                gift.getDescription(),
-                gift.getImageUrl(),
-                gift.getPointCost(),
-                gift.getQuantity(),
-                gift.getDeveloper().getId(),
-                gift.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-        );
+        return toDTO(gift);
     }
 
     public void deleteGift(Long id, Boolean force) throws GameException {
@@ -295,11 +351,52 @@ public class GiftService {
             logger.info("Force deleting gift with potential transactions: GiftID={}", id);
         }
 
+        giftCodePool.onGiftDeleted(id);
         giftRepository.delete(gift);
+        catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.GIFTS);
+        stripedGiftInventory.invalidateAfterCommit(id);
+        giftDropService.onGiftDeleted(id);
         logger.info("Gift deleted successfully: GiftID={}", id);
     }
 
     public void deleteGift(Long id) throws GameException {
         deleteGift(id, false);
     }
+
+    static GiftDTO toDTO(Gift gift) {
+        GiftDTO dto = new GiftDTO(
+                gift.getId(),
+                gift.getName(),
+                gift.getDescription(),
+                gift.getImageUrl(),
+                gift.getPointCost(),
+                gift.getQuantity(),
+                gift.getDeveloper().getId(),
+                gift.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+        );
+        dto.setDropMode(gift.isDropMode());
+        return dto;
+    }
+
+    private static GiftTransactionDTO toTransactionDTO(GiftTransaction transaction) {
+        GiftTransactionDTO dto = new GiftTransactionDTO(
+                transaction.getId(),
+                transaction.getPlayer().getId(),
+                transaction.getGift().getId(),
+                transaction.getPointsSpent(),
+                transaction.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+        );
+        dto.setRedemptionCode(transaction.getRedemptionCode());
+        return dto;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("redeemed", redeemed.sum());
+        stats.put("outOfStock", outOfStock.sum());
+        stats.put("insufficientPoints", insufficientPoints.sum());
+        stats.put("stripedInventory", stripedGiftInventory.getStats());
+        stats.put("codePool", giftCodePool.getStats());
+        return stats;
+    }
 }
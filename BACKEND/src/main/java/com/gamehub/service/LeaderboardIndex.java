@@ -0,0 +1,285 @@
+// Note: Bảng xếp hạng điểm theo developer giữ trong bộ nhớ (mỗi developer một RankedScoreboard).
+// - Dựng lại từ player_developer_points khi khởi động; sau đó chỉ cộng/trừ điểm khi transaction ghi điểm commit
+//   (PointService.awardPoints, DownloadTrackingService, GiftService.redeemGift).
+// - Đọc top-N, trang theo offset và "quanh hạng của tôi" không truy vấn DB.
+// - Thay đổi xảy ra trong lúc đang dựng lại được ghi nhận và đọc lại giá trị tuyệt đối từ DB sau khi dựng xong.
+package com.gamehub.service;
+
+import com.gamehub.dto.LeaderboardPageResponse;
+import com.gamehub.dto.LeaderboardResponse;
+import com.gamehub.dto.PlayerPointsRow;
+import com.gamehub.repository.PlayerDeveloperPointsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+@Service
+public class LeaderboardIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardIndex.class);
+
+    @Autowired
+    private PlayerDeveloperPointsRepository playerDeveloperPointsRepository;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PointAccrualBuffer pointAccrualBuffer;
+
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+    private final Map<Long, String> playerEmails = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+    // Khác null khi đang dựng lại: các cặp (developerId, playerId) thay đổi trong lúc đó
+    private volatile Set<PlayerKey> changedDuringRebuild;
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Chưa sẵn sàng thì LeaderboardService/PointService vẫn đọc từ DB như trước
+            logger.error("Could not build in-memory leaderboard at startup", e);
+        }
+    }
+
+    public synchronized void rebuild() {
+        Set<PlayerKey> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            Supplier<List<PlayerPointsRow>> read = () -> template.execute(status -> playerDeveloperPointsRepository.findAllPointsRows());
+            // Chế độ write-behind: điểm đã commit nhưng còn chờ ghi vào player_developer_points cũng phải có trong bảng
+            List<long[]> buffered = new ArrayList<>();
+            List<PlayerPointsRow> rows = pointAccrualBuffer.isEnabled()
+                    ? pointAccrualBuffer.readWithAllPending(read,
+                            (playerId, developerId, delta) -> buffered.add(new long[]{playerId, developerId, delta}))
+                    : read.get();
+
+            Map<Long, Board> rebuilt = new LinkedHashMap<>();
+            for (PlayerPointsRow row : rows) {
+                rebuilt.computeIfAbsent(row.getDeveloperId(), id -> new Board())
+                        .scoreboard.put(row.getPlayerId(), row.getTotalPoints(), toMillis(row.getLastUpdated()));
+                playerEmails.put(row.getPlayerId(), row.getPlayerEmail());
+            }
+            long now = System.currentTimeMillis();
+            for (long[] delta : buffered) {
+                rebuilt.computeIfAbsent(delta[1], id -> new Board()).scoreboard.add(delta[0], delta[2], now);
+            }
+            boards.keySet().retainAll(rebuilt.keySet());
+            boards.putAll(rebuilt);
+            ready = true;
+
+            // Các thay đổi commit trong lúc đọc có thể đã (hoặc chưa) nằm trong snapshot: đọc lại giá trị tuyệt đối
+            changedDuringRebuild = null;
+            for (PlayerKey key : changed) {
+                reloadFromDatabase(key.developerId, key.playerId);
+            }
+            logger.info("In-memory leaderboard rebuilt: developers={}, entries={}, reloaded={}",
+                    rebuilt.size(), rows.size(), changed.size());
+        } finally {
+            changedDuringRebuild = null;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Cộng/trừ điểm sau khi transaction hiện tại commit (áp dụng ngay nếu không có transaction)
+    public void recordDelta(Long developerId, Long playerId, String playerEmail, long delta) {
+        if (developerId == null || playerId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyDelta(developerId, playerId, playerEmail, delta);
+                }
+            });
+        } else {
+            applyDelta(developerId, playerId, playerEmail, delta);
+        }
+    }
+
+    public List<LeaderboardResponse> top(Long developerId, int limit) {
+        return page(developerId, 0, limit).getItems();
+    }
+
+    public LeaderboardPageResponse page(Long developerId, int offset, int limit) {
+        reads.increment();
+        int start = Math.max(0, offset);
+        return read(developerId, scoreboard -> new LeaderboardPageResponse(
+                developerId, scoreboard.size(), start, toResponses(scoreboard.range(start, limit))));
+    }
+
+    // Cửa sổ gồm tối đa "window" người ở trên và dưới hạng của player; player chưa có điểm thì trả về top
+    public LeaderboardPageResponse around(Long developerId, Long playerId, int window) {
+        reads.increment();
+        int radius = Math.max(0, window);
+        return read(developerId, scoreboard -> {
+            int rank = scoreboard.rankOf(playerId);
+            int start = rank > 0 ? Math.max(0, rank - 1 - radius) : 0;
+            LeaderboardPageResponse response = new LeaderboardPageResponse(developerId, scoreboard.size(), start,
+                    toResponses(scoreboard.range(start, rank > 0 ? (rank - 1 - start) + radius + 1 : radius + 1)));
+            response.setPlayerRank(rank > 0 ? rank : null);
+            response.setPlayerPoints(scoreboard.scoreOf(playerId));
+            return response;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("developers", boards.size());
+        stats.put("entries", boards.values().stream().mapToInt(board -> read(board, RankedScoreboard::size)).sum());
+        stats.put("updates", updates.sum());
+        stats.put("reads", reads.sum());
+        return stats;
+    }
+
+    private void applyDelta(Long developerId, Long playerId, String playerEmail, long delta) {
+        if (playerEmail != null) {
+            playerEmails.put(playerId, playerEmail);
+        }
+        Set<PlayerKey> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(new PlayerKey(developerId, playerId));
+        }
+        Board board = boards.computeIfAbsent(developerId, id -> new Board());
+        board.lock.writeLock().lock();
+        try {
+            board.scoreboard.add(playerId, delta, System.currentTimeMillis());
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+        updates.increment();
+    }
+
+    private void reloadFromDatabase(Long developerId, Long playerId) {
+        List<Optional<PlayerPointsRow>> holder = new ArrayList<>(1);
+        LongSupplier persisted = () -> {
+            Optional<PlayerPointsRow> found = playerDeveloperPointsRepository.findPointsRow(developerId, playerId);
+            holder.add(found);
+            return found.map(PlayerPointsRow::getTotalPoints).orElse(0L);
+        };
+        // Cộng phần còn chờ ghi trong buffer write-behind (đọc cùng khóa để không tính hai lần)
+        long total = pointAccrualBuffer.isEnabled()
+                ? pointAccrualBuffer.readWithPending(playerId, developerId, persisted)
+                : persisted.getAsLong();
+        Optional<PlayerPointsRow> row = holder.get(0);
+        Board board = boards.computeIfAbsent(developerId, id -> new Board());
+        board.lock.writeLock().lock();
+        try {
+            if (row.isPresent() || total != 0) {
+                long updatedAt = row.map(found -> toMillis(found.getLastUpdated())).orElse(System.currentTimeMillis());
+                board.scoreboard.put(playerId, total, updatedAt);
+                row.ifPresent(found -> playerEmails.put(playerId, found.getPlayerEmail()));
+            } else {
+                board.scoreboard.remove(playerId);
+            }
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Long developerId, Function<RankedScoreboard, T> reader) {
+        Board board = boards.get(developerId);
+        return read(board != null ? board : new Board(), reader);
+    }
+
+    private static <T> T read(Board board, Function<RankedScoreboard, T> reader) {
+        board.lock.readLock().lock();
+        try {
+            return reader.apply(board.scoreboard);
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    private List<LeaderboardResponse> toResponses(List<RankedScoreboard.Entry> entries) {
+        List<LeaderboardResponse> responses = new ArrayList<>(entries.size());
+        for (RankedScoreboard.Entry entry : entries) {
+            responses.add(new LeaderboardResponse(entry.getPlayerId(), emailOf(entry.getPlayerId()),
+                    entry.getScore(), entry.getRank()));
+        }
+        return responses;
+    }
+
+    // Email gần như luôn có sẵn (nạp khi dựng lại hoặc khi ghi điểm); thiếu thì lấy qua cache User
+    private String emailOf(long playerId) {
+        String email = playerEmails.get(playerId);
+        if (email == null) {
+            email = userIdentityCache.findById(playerId).map(user -> user.getEmail()).orElse(null);
+            if (email != null) {
+                playerEmails.put(playerId, email);
+            }
+        }
+        return email;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    private static final class Board {
+        private final RankedScoreboard scoreboard = new RankedScoreboard();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+
+    private static final class PlayerKey {
+        private final Long developerId;
+        private final Long playerId;
+
+        private PlayerKey(Long developerId, Long playerId) {
+            this.developerId = developerId;
+            this.playerId = playerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PlayerKey)) return false;
+            PlayerKey other = (PlayerKey) o;
+            return developerId.equals(other.developerId) && playerId.equals(other.playerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * developerId.hashCode() + playerId.hashCode();
+        }
+    }
+}
@@ -1,17 +1,20 @@
 package com.gamehub.service;
 
+import com.gamehub.dto.LeaderboardPageResponse;
 import com.gamehub.dto.LeaderboardResponse;
 import com.gamehub.model.PlayerDeveloperPoints;
 import com.gamehub.model.User;
+import com.gamehub.model.enums.LeaderboardWindow;
 import com.gamehub.repository.PlayerDeveloperPointsRepository;
-import com.gamehub.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -22,22 +25,36 @@ public class LeaderboardService {
     private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
 
     @Autowired
-    private UserRepository userRepository;
+    private UserIdentityCache userIdentityCache;
 
     @Autowired
     private PlayerDeveloperPointsRepository playerDeveloperPointsRepository;
 
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private LeaderboardWindowService leaderboardWindowService;
+
+    @Value("${gamehub.leaderboard.max-page-size:100}")
+    private int maxPageSize;
+
     // Bổ sung: Lấy bảng xếp hạng 10 người chơi hàng đầu cho một developer
     public List<LeaderboardResponse> getLeaderboardByDeveloper(Long developerId) {
         logger.info("Fetching leaderboard for DeveloperID={}", developerId);
 
         // Kiểm tra developer có tồn tại
-        User developer = userRepository.findById(developerId)
+        User developer = userIdentityCache.findById(developerId)
                 .orElseThrow(() -> {
                     logger.warn("Developer not found: {}", developerId);
                     return new RuntimeException("Developer not found");
                 });
 
+        // Bảng xếp hạng trong bộ nhớ có cùng thứ tự; chỉ đọc DB khi chưa dựng xong
+        if (leaderboardIndex.isReady()) {
+            return leaderboardIndex.top(developerId, 10);
+        }
+
         // Lấy 10 người chơi có điểm cao nhất, sắp xếp theo totalPoints (giảm dần) và lastUpdated (gần nhất trước)
         List<PlayerDeveloperPoints> topPlayers = playerDeveloperPointsRepository.findByDeveloperOrderByTotalPointsDesc(
                 developer, PageRequest.of(0, 10, Sort.by(
@@ -58,4 +75,38 @@ public class LeaderboardService {
                 })
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    // Top 10 của một kỳ ngày/tuần/mùa; period = null là kỳ hiện tại
+    public List<LeaderboardResponse> getLeaderboardByDeveloper(Long developerId, LeaderboardWindow window, LocalDate period) {
+        if (!window.isBucketed()) {
+            return getLeaderboardByDeveloper(developerId);
+        }
+        userIdentityCache.findById(developerId)
+                .orElseThrow(() -> new RuntimeException("Developer not found"));
+        return leaderboardWindowService.page(window, developerId, period, 0, 10).getItems();
+    }
+
+    public List<LeaderboardResponse> getTop(Long developerId, int limit, LeaderboardWindow window, LocalDate period) {
+        return getPage(developerId, 0, limit, window, period).getItems();
+    }
+
+    public LeaderboardPageResponse getPage(Long developerId, int offset, int limit, LeaderboardWindow window, LocalDate period) {
+        if (window.isBucketed()) {
+            return leaderboardWindowService.page(window, developerId, period, offset, clamp(limit));
+        }
+        return leaderboardIndex.page(developerId, offset, clamp(limit));
+    }
+
+    public LeaderboardPageResponse getAroundPlayer(Long developerId, Long playerId, int radius,
+                                                   LeaderboardWindow window, LocalDate period) {
+        int clamped = Math.min(Math.max(0, radius), maxPageSize / 2);
+        if (window.isBucketed()) {
+            return leaderboardWindowService.around(window, developerId, period, playerId, clamped);
+        }
+        return leaderboardIndex.around(developerId, playerId, clamped);
+    }
+
+    private int clamp(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+}
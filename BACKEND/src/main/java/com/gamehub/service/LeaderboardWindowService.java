@@ -0,0 +1,522 @@
+// Note: Bảng xếp hạng điểm theo developer trong từng kỳ ngày/tuần/mùa (LeaderboardWindow).
+// - Mỗi lần ghi point_transactions, điểm được cộng vào leaderboard_window_points của kỳ tương ứng trong cùng transaction
+//   (upsert JDBC); sau khi commit, kỳ đang mở trong bộ nhớ được nâng lên giá trị tuyệt đối vừa đọc lại.
+//   Điểm trong kỳ chỉ tăng (không trừ khi đổi quà) nên nâng theo max là đúng bất kể thứ tự commit/nạp.
+// - Đọc kỳ hiện tại từ RankedScoreboard trong bộ nhớ (nạp từ DB lần đầu mỗi developer mỗi kỳ), không quét point_transactions.
+// - Kỳ đã đóng quá thời gian ân hạn được chốt: top N mỗi developer chép sang leaderboard_snapshots rồi xóa dòng chi tiết.
+//   Đọc một kỳ đã đóng thì lấy từ bản chốt (hoặc từ dòng chi tiết nếu kỳ còn trong thời gian ân hạn).
+package com.gamehub.service;
+
+import com.gamehub.dto.LeaderboardPageResponse;
+import com.gamehub.dto.LeaderboardResponse;
+import com.gamehub.dto.PlayerPointsRow;
+import com.gamehub.dto.PointAccrual;
+import com.gamehub.model.LeaderboardSnapshot;
+import com.gamehub.model.enums.LeaderboardWindow;
+import com.gamehub.repository.LeaderboardSnapshotRepository;
+import com.gamehub.repository.LeaderboardWindowPointsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+@Service
+public class LeaderboardWindowService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardWindowService.class);
+
+    private static final List<LeaderboardWindow> BUCKETED_WINDOWS =
+            List.of(LeaderboardWindow.DAILY, LeaderboardWindow.WEEKLY, LeaderboardWindow.SEASON);
+
+    private static final String UPSERT_WINDOW_POINTS =
+            "INSERT INTO leaderboard_window_points (window_type, bucket_start, developer_id, player_id, points, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE points = points + VALUES(points), " +
+            "last_updated = GREATEST(last_updated, VALUES(last_updated))";
+
+    private static final String FIND_WINDOW_POINTS =
+            "SELECT window_type, bucket_start, developer_id, player_id, points, last_updated FROM leaderboard_window_points " +
+            "WHERE developer_id IN (:developerIds) AND player_id IN (:playerIds) AND bucket_start IN (:buckets)";
+
+    private static final String INSERT_SNAPSHOT =
+            "INSERT INTO leaderboard_snapshots (window_type, bucket_start, developer_id, rank_position, player_id, points, total_players) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private LeaderboardWindowPointsRepository windowPointsRepository;
+
+    @Autowired
+    private LeaderboardSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gamehub.leaderboard.snapshot-size:100}")
+    private int snapshotSize;
+
+    // Kỳ đã đóng chỉ được chốt sau khoảng này, để các transaction ghi điểm đang chạy lúc giao kỳ kịp commit
+    @Value("${gamehub.leaderboard.archive-grace-ms:300000}")
+    private long archiveGraceMs;
+
+    // Chỉ giữ kỳ đang mở của mỗi (cửa sổ, developer)
+    private final Map<BoardKey, Board> boards = new ConcurrentHashMap<>();
+
+    private final LongAdder accruals = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder snapshotReads = new LongAdder();
+    private final LongAdder boardLoads = new LongAdder();
+    private final LongAdder archivedBuckets = new LongAdder();
+    private final LongAdder archivedRows = new LongAdder();
+
+    // Gọi trong transaction đã ghi point_transactions (PointService.awardPoints, DownloadTrackingService)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPoints(List<PointAccrual> pointAccruals) {
+        // Gộp theo dòng đích và sắp theo khóa để các transaction khóa dòng theo cùng thứ tự
+        Map<BucketKey, WindowDelta> deltas = new TreeMap<>();
+        for (PointAccrual accrual : pointAccruals) {
+            if (accrual.getPoints() <= 0 || accrual.getDeveloperId() == null || accrual.getPlayerId() == null) {
+                continue;
+            }
+            LocalDate day = accrual.getOccurredAt().toLocalDate();
+            for (LeaderboardWindow window : BUCKETED_WINDOWS) {
+                BucketKey key = new BucketKey(window, window.bucketStart(day), accrual.getDeveloperId(), accrual.getPlayerId());
+                deltas.computeIfAbsent(key, k -> new WindowDelta()).add(accrual.getPoints(), accrual.getOccurredAt());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[]{
+                key.window.name(), Date.valueOf(key.bucketStart), key.developerId, key.playerId,
+                delta.points, Timestamp.valueOf(delta.lastUpdated)
+        }));
+        jdbcTemplate.batchUpdate(UPSERT_WINDOW_POINTS, rows);
+        accruals.add(pointAccruals.size());
+
+        // Đọc lại tổng của kỳ (dòng đang bị transaction này khóa) để áp dụng dạng tuyệt đối sau khi commit
+        List<WindowTotal> totals = findTotals(deltas.keySet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    totals.forEach(LeaderboardWindowService.this::raise);
+                }
+            });
+        }
+    }
+
+    public LeaderboardPageResponse page(LeaderboardWindow window, Long developerId, LocalDate period, int offset, int limit) {
+        int start = Math.max(0, offset);
+        return read(window, developerId, period,
+                scoreboard -> page(scoreboard, developerId, start, limit),
+                archived -> {
+                    List<LeaderboardResponse> items = snapshotRepository.findRanked(window, archived.bucketStart, developerId,
+                            start, PageRequest.of(0, Math.max(1, limit)));
+                    return new LeaderboardPageResponse(developerId, archived.totalPlayers, start, items);
+                });
+    }
+
+    public LeaderboardPageResponse around(LeaderboardWindow window, Long developerId, LocalDate period, Long playerId, int radius) {
+        int size = Math.max(0, radius);
+        return read(window, developerId, period,
+                board -> {
+                    int rank = board.rankOf(playerId);
+                    int start = rank > 0 ? Math.max(0, rank - 1 - size) : 0;
+                    LeaderboardPageResponse response = page(board, developerId, start,
+                            rank > 0 ? (rank - 1 - start) + size + 1 : size + 1);
+                    response.setPlayerRank(rank > 0 ? rank : null);
+                    response.setPlayerPoints(board.scoreOf(playerId));
+                    return response;
+                },
+                archived -> {
+                    // Bản chốt chỉ giữ top N: người nằm ngoài top N không có hạng
+                    Optional<LeaderboardSnapshot> mine = snapshotRepository
+                            .findByWindowTypeAndBucketStartAndDeveloperIdAndPlayerId(window, archived.bucketStart, developerId, playerId);
+                    int rank = mine.map(LeaderboardSnapshot::getRankPosition).orElse(0);
+                    int start = rank > 0 ? Math.max(0, rank - 1 - size) : 0;
+                    int count = rank > 0 ? (rank - 1 - start) + size + 1 : size + 1;
+                    LeaderboardPageResponse response = new LeaderboardPageResponse(developerId, archived.totalPlayers, start,
+                            snapshotRepository.findRanked(window, archived.bucketStart, developerId, start, PageRequest.of(0, count)));
+                    response.setPlayerRank(rank > 0 ? rank : null);
+                    response.setPlayerPoints(mine.map(LeaderboardSnapshot::getPoints).orElse(0L));
+                    return response;
+                });
+    }
+
+    @Scheduled(initialDelayString = "${gamehub.leaderboard.archive-initial-delay-ms:60000}",
+            fixedDelayString = "${gamehub.leaderboard.archive-interval-ms:300000}")
+    public void scheduledArchive() {
+        try {
+            archiveClosedWindows();
+        } catch (Exception e) {
+            logger.error("Could not archive closed leaderboard windows", e);
+        }
+    }
+
+    // Chốt mọi kỳ đã đóng quá thời gian ân hạn; trả về số kỳ đã chốt
+    public synchronized int archiveClosedWindows() {
+        LocalDate cutoffDay = LocalDateTime.now().minusNanos(archiveGraceMs * 1_000_000L).toLocalDate();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int archived = 0;
+        for (LeaderboardWindow window : BUCKETED_WINDOWS) {
+            // Các kỳ bắt đầu trước kỳ chứa thời điểm cutoff đều đã kết thúc trước cutoff
+            for (LocalDate bucketStart : windowPointsRepository.findBucketsBefore(window, window.bucketStart(cutoffDay))) {
+                int rows = template.execute(status -> archiveBucket(window, bucketStart));
+                archived++;
+                archivedBuckets.increment();
+                archivedRows.add(rows);
+                logger.info("Archived {} leaderboard window starting {}: {} snapshot rows", window, bucketStart, rows);
+            }
+        }
+        return archived;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("boards", boards.size());
+        stats.put("entries", boards.values().stream().mapToInt(board -> {
+            board.lock.readLock().lock();
+            try {
+                return board.scoreboard.size();
+            } finally {
+                board.lock.readLock().unlock();
+            }
+        }).sum());
+        stats.put("accruals", accruals.sum());
+        stats.put("updates", updates.sum());
+        stats.put("reads", reads.sum());
+        stats.put("snapshotReads", snapshotReads.sum());
+        stats.put("boardLoads", boardLoads.sum());
+        stats.put("archivedBuckets", archivedBuckets.sum());
+        stats.put("archivedRows", archivedRows.sum());
+        return stats;
+    }
+
+    private int archiveBucket(LeaderboardWindow window, LocalDate bucketStart) {
+        List<PlayerPointsRow> ranked = windowPointsRepository.findBucketRowsRanked(window, bucketStart);
+        // Điểm ghi trễ vào kỳ đã chốt (transaction dài hơn thời gian ân hạn) không làm thay đổi bản chốt
+        Set<Long> alreadyArchived = new HashSet<>(snapshotRepository.findArchivedDevelopers(window, bucketStart));
+        Map<Long, List<PlayerPointsRow>> byDeveloper = new LinkedHashMap<>();
+        for (PlayerPointsRow row : ranked) {
+            byDeveloper.computeIfAbsent(row.getDeveloperId(), id -> new ArrayList<>()).add(row);
+        }
+        List<Object[]> snapshotRows = new ArrayList<>();
+        byDeveloper.forEach((developerId, rows) -> {
+            if (alreadyArchived.contains(developerId)) {
+                logger.warn("Dropping late points for archived {} window {} of DeveloperID={}", window, bucketStart, developerId);
+                return;
+            }
+            for (int i = 0; i < Math.min(snapshotSize, rows.size()); i++) {
+                PlayerPointsRow row = rows.get(i);
+                snapshotRows.add(new Object[]{window.name(), Date.valueOf(bucketStart), developerId, i + 1,
+                        row.getPlayerId(), row.getTotalPoints(), rows.size()});
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, snapshotRows);
+        windowPointsRepository.deleteBucket(window, bucketStart);
+        return snapshotRows.size();
+    }
+
+    // Kỳ đang mở: đọc từ bộ nhớ; kỳ đã đóng: từ bản chốt, hoặc dựng tạm từ dòng chi tiết nếu chưa chốt
+    private LeaderboardPageResponse read(LeaderboardWindow window, Long developerId, LocalDate period,
+                                         Function<RankedScoreboard, LeaderboardPageResponse> live,
+                                         Function<ArchivedBucket, LeaderboardPageResponse> archived) {
+        LocalDate today = LocalDate.now();
+        LocalDate bucketStart = window.bucketStart(period != null ? period : today);
+        LeaderboardPageResponse response;
+        if (bucketStart.isAfter(today)) {
+            response = new LeaderboardPageResponse(developerId, 0, 0, List.of());
+        } else if (bucketStart.equals(window.bucketStart(today))) {
+            reads.increment();
+            Board board = boardFor(window, developerId, bucketStart);
+            board.lock.readLock().lock();
+            try {
+                response = live.apply(board.scoreboard);
+            } finally {
+                board.lock.readLock().unlock();
+            }
+        } else {
+            Optional<LeaderboardSnapshot> first = snapshotRepository
+                    .findFirstByWindowTypeAndBucketStartAndDeveloperId(window, bucketStart, developerId);
+            if (first.isPresent() || snapshotRepository.existsByWindowTypeAndBucketStart(window, bucketStart)) {
+                snapshotReads.increment();
+                response = archived.apply(new ArchivedBucket(bucketStart, first.map(LeaderboardSnapshot::getTotalPlayers).orElse(0)));
+                response.setArchived(true);
+            } else {
+                Board closed = new Board(bucketStart);
+                load(closed, window, developerId);
+                response = live.apply(closed.scoreboard);
+            }
+        }
+        response.setWindow(window);
+        response.setPeriodStart(bucketStart);
+        response.setPeriodEnd(window.bucketEnd(bucketStart));
+        return response;
+    }
+
+    private Board boardFor(LeaderboardWindow window, Long developerId, LocalDate bucketStart) {
+        BoardKey key = new BoardKey(window, developerId);
+        Board board = boards.compute(key, (k, existing) ->
+                existing != null && !existing.bucketStart.isBefore(bucketStart) ? existing : new Board(bucketStart));
+        if (!board.bucketStart.equals(bucketStart)) {
+            // Giao kỳ: nơi khác đã chuyển sang kỳ mới hơn, đọc kỳ được hỏi bằng một bảng tạm
+            Board other = new Board(bucketStart);
+            load(other, window, developerId);
+            return other;
+        }
+        if (!board.loaded) {
+            load(board, window, developerId);
+        }
+        return board;
+    }
+
+    private void load(Board board, LeaderboardWindow window, Long developerId) {
+        board.lock.writeLock().lock();
+        try {
+            if (board.loaded) {
+                return;
+            }
+            for (PlayerPointsRow row : windowPointsRepository.findBucketRows(window, board.bucketStart, developerId)) {
+                board.raise(row.getPlayerId(), row.getTotalPoints(), toMillis(row.getLastUpdated()));
+            }
+            board.loaded = true;
+            boardLoads.increment();
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    // Chỉ cập nhật bảng đã nạp của đúng kỳ; bảng chưa nạp sẽ đọc được giá trị đã commit từ DB khi nạp
+    private void raise(WindowTotal total) {
+        BoardKey key = new BoardKey(total.window, total.developerId);
+        Board board = boards.get(key);
+        if (board == null) {
+            return;
+        }
+        if (total.bucketStart.isAfter(board.bucketStart)) {
+            // Kỳ mới đã bắt đầu: bỏ bảng cũ, lần đọc sau nạp kỳ mới
+            boards.remove(key, board);
+            return;
+        }
+        if (!total.bucketStart.equals(board.bucketStart)) {
+            return;
+        }
+        board.lock.writeLock().lock();
+        try {
+            if (board.loaded) {
+                board.raise(total.playerId, total.points, toMillis(total.lastUpdated));
+                updates.increment();
+            }
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    private List<WindowTotal> findTotals(Set<BucketKey> keys) {
+        Set<Long> developerIds = new HashSet<>();
+        Set<Long> playerIds = new HashSet<>();
+        Set<LocalDate> buckets = new HashSet<>();
+        for (BucketKey key : keys) {
+            developerIds.add(key.developerId);
+            playerIds.add(key.playerId);
+            buckets.add(key.bucketStart);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("developerIds", developerIds)
+                .addValue("playerIds", playerIds)
+                .addValue("buckets", buckets.stream().map(Date::valueOf).toList());
+        List<WindowTotal> totals = new ArrayList<>(keys.size());
+        namedParameterJdbcTemplate.query(FIND_WINDOW_POINTS, params, rs -> {
+            BucketKey key = new BucketKey(LeaderboardWindow.valueOf(rs.getString("window_type")),
+                    rs.getDate("bucket_start").toLocalDate(), rs.getLong("developer_id"), rs.getLong("player_id"));
+            // IN x IN x IN có thể trả về dòng không thuộc lần ghi này, chỉ giữ các dòng vừa cộng
+            if (keys.contains(key)) {
+                totals.add(new WindowTotal(key.window, key.bucketStart, key.developerId, key.playerId,
+                        rs.getLong("points"), rs.getTimestamp("last_updated").toLocalDateTime()));
+            }
+        });
+        return totals;
+    }
+
+    private LeaderboardPageResponse page(RankedScoreboard scoreboard, Long developerId, int offset, int limit) {
+        List<RankedScoreboard.Entry> entries = scoreboard.range(offset, Math.max(1, limit));
+        List<LeaderboardResponse> items = new ArrayList<>(entries.size());
+        for (RankedScoreboard.Entry entry : entries) {
+            items.add(new LeaderboardResponse(entry.getPlayerId(), emailOf(entry.getPlayerId()), entry.getScore(), entry.getRank()));
+        }
+        return new LeaderboardPageResponse(developerId, scoreboard.size(), offset, items);
+    }
+
+    private String emailOf(long playerId) {
+        return userIdentityCache.findById(playerId).map(user -> user.getEmail()).orElse(null);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    private static final class Board {
+        private final LocalDate bucketStart;
+        private final RankedScoreboard scoreboard = new RankedScoreboard();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean loaded;
+
+        private Board(LocalDate bucketStart) {
+            this.bucketStart = bucketStart;
+        }
+
+        // Gọi khi đang giữ write lock
+        private void raise(long playerId, long points, long updatedAtMillis) {
+            if (!scoreboard.contains(playerId) || scoreboard.scoreOf(playerId) < points) {
+                scoreboard.put(playerId, points, updatedAtMillis);
+            }
+        }
+    }
+
+    private static final class ArchivedBucket {
+        private final LocalDate bucketStart;
+        private final int totalPlayers;
+
+        private ArchivedBucket(LocalDate bucketStart, int totalPlayers) {
+            this.bucketStart = bucketStart;
+            this.totalPlayers = totalPlayers;
+        }
+    }
+
+    private static final class WindowDelta {
+        private long points;
+        private LocalDateTime lastUpdated;
+
+        private void add(long delta, LocalDateTime occurredAt) {
+            points += delta;
+            if (lastUpdated == null || occurredAt.isAfter(lastUpdated)) {
+                lastUpdated = occurredAt;
+            }
+        }
+    }
+
+    private static final class WindowTotal {
+        private final LeaderboardWindow window;
+        private final LocalDate bucketStart;
+        private final Long developerId;
+        private final Long playerId;
+        private final long points;
+        private final LocalDateTime lastUpdated;
+
+        private WindowTotal(LeaderboardWindow window, LocalDate bucketStart, Long developerId, Long playerId,
+                            long points, LocalDateTime lastUpdated) {
+            this.window = window;
+            this.bucketStart = bucketStart;
+            this.developerId = developerId;
+            this.playerId = playerId;
+            this.points = points;
+            this.lastUpdated = lastUpdated;
+        }
+    }
+
+    private static final class BoardKey {
+        private final LeaderboardWindow window;
+        private final Long developerId;
+
+        private BoardKey(LeaderboardWindow window, Long developerId) {
+            this.window = window;
+            this.developerId = developerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BoardKey)) return false;
+            BoardKey other = (BoardKey) o;
+            return window == other.window && developerId.equals(other.developerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(window, developerId);
+        }
+    }
+
+    private static final class BucketKey implements Comparable<BucketKey> {
+        private static final Comparator<BucketKey> ORDER = Comparator
+                .comparing((BucketKey key) -> key.window)
+                .thenComparing(key -> key.bucketStart)
+                .thenComparingLong(key -> key.developerId)
+                .thenComparingLong(key -> key.playerId);
+
+        private final LeaderboardWindow window;
+        private final LocalDate bucketStart;
+        private final long developerId;
+        private final long playerId;
+
+        private BucketKey(LeaderboardWindow window, LocalDate bucketStart, long developerId, long playerId) {
+            this.window = window;
+            this.bucketStart = bucketStart;
+            this.developerId = developerId;
+            this.playerId = playerId;
+        }
+
+        @Override
+        public int compareTo(BucketKey other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BucketKey)) return false;
+            BucketKey other = (BucketKey) o;
+            return window == other.window && bucketStart.equals(other.bucketStart)
+                    && developerId == other.developerId && playerId == other.playerId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(window, bucketStart, developerId, playerId);
+        }
+    }
+}
@@ -44,6 +44,9 @@ public class PaymentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
     @Transactional
     public PaymentInfo createOrUpdatePaymentInfo(PaymentInfoRequest request) {
         // Tìm system user
@@ -167,6 +170,7 @@ public class PaymentService {
             User user = depositRequest.getUser();
             user.setBalance(user.getBalance().add(depositRequest.getAmount()));
             userRepository.save(user);
+            userIdentityCache.evict(user);
         }
 
         return depositRequestRepository.save(depositRequest);
@@ -260,6 +264,7 @@ public class PaymentService {
 
             user.setBalance(user.getBalance().subtract(withdrawRequest.getAmount()));
             userRepository.save(user);
+            userIdentityCache.evict(user);
         }
 
         return withdrawRequestRepository.save(withdrawRequest);
@@ -0,0 +1,625 @@
+// Note: Chế độ ghi trễ (write-behind) cho player_developer_points, bật bằng gamehub.points.write-behind.enabled.
+// - Mỗi lần cộng điểm đã commit (point_transactions vẫn ghi ngay) chỉ cộng vào một bộ đếm long trong bộ nhớ theo
+//   cặp (player, developer): ConcurrentHashMap<PairKey, AtomicLong>, cập nhật bằng CAS, không khóa toàn cục.
+// - Thread nền gộp các bộ đếm và ghi định kỳ (hoặc khi số cặp chờ vượt ngưỡng): mỗi cặp một câu upsert cộng dồn.
+//   Bộ đếm được "niêm phong" (SEALED) khi lấy ra; lần cộng đến sau sẽ tạo bộ đếm mới nên không mất cập nhật.
+// - Đọc điểm (getPlayerPointsForDeveloper) cộng thêm phần đang chờ và đang ghi; khóa đọc/ghi chỉ bao quanh bước
+//   lấy bộ đếm ra và bước commit, nên người đọc không bao giờ thấy một khoản bị tính thiếu hoặc tính hai lần.
+// - Khi tắt ứng dụng: ngừng nhận, ghi hết phần còn lại; nếu DB lỗi thì ghi ra file handoff và nạp lại lúc khởi động.
+package com.gamehub.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+@Service
+public class PointAccrualBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointAccrualBuffer.class);
+
+    // Giá trị đánh dấu bộ đếm đã được lấy ra để ghi; người cộng gặp giá trị này thì tạo bộ đếm mới
+    private static final long SEALED = Long.MIN_VALUE;
+
+    private static final String UPSERT_PLAYER_DEVELOPER_POINTS =
+            "INSERT INTO player_developer_points (player_id, developer_id, total_points, last_updated) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_points = total_points + VALUES(total_points), last_updated = VALUES(last_updated)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gamehub.points.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gamehub.points.write-behind.max-pairs:10000}")
+    private int maxPairs;
+
+    @Value("${gamehub.points.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${gamehub.points.write-behind.handoff-file:data/point-accruals.handoff}")
+    private String handoffFile;
+
+    private final Map<PairKey, AtomicLong> pending = new ConcurrentHashMap<>();
+    // Các khoản đã lấy khỏi pending nhưng chưa commit; chỉ sửa khi giữ khóa ghi của visibilityLock
+    private final Map<PairKey, Long> inFlight = new HashMap<>();
+    private final ReentrantReadWriteLock visibilityLock = new ReentrantReadWriteLock();
+    // Mỗi lúc chỉ một lần ghi (định kỳ, theo ngưỡng, theo cặp hoặc lúc tắt)
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean thresholdFlushQueued = new AtomicBoolean();
+    // Số lần cộng đang chạy dở; lúc tắt chờ về 0 rồi mới ghi lần cuối
+    private final LongAdder activeAdders = new LongAdder();
+
+    private ExecutorService flusher;
+    private volatile boolean accepting;
+
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder directWrites = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder thresholdFlushes = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder droppedRows = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final LongAdder handoffSpilled = new LongAdder();
+    private final LongAdder handoffReplayed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        replayHandoff();
+        flusher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-accrual-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        accepting = true;
+        logger.info("Point write-behind buffer started: maxPairs={}, batchSize={}", maxPairs, batchSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Gọi trong transaction ghi point_transactions: chỉ cộng vào buffer khi transaction đó commit
+    public void recordAfterCommit(Long playerId, Long developerId, long points) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(playerId, developerId, points);
+                }
+            });
+        } else {
+            add(playerId, developerId, points);
+        }
+    }
+
+    // Điểm đã lưu trong DB cộng phần đang chờ ghi của cặp (player, developer).
+    // persisted phải đọc giá trị đã commit mới nhất (READ COMMITTED), không dùng snapshot cũ của transaction.
+    public long readWithPending(Long playerId, Long developerId, LongSupplier persisted) {
+        PairKey key = new PairKey(playerId, developerId);
+        visibilityLock.readLock().lock();
+        try {
+            return persisted.getAsLong() + pendingDelta(key);
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+    }
+
+    // Như readWithPending cho mọi developer của một player: persisted (developerId -> điểm đã lưu, một câu truy vấn)
+    // được đọc trong cùng khóa đọc với phần đang chờ, nên một lần ghi xen giữa không bị tính hai lần
+    public Map<Long, Long> readAllWithPending(Long playerId, Supplier<Map<Long, Long>> persisted) {
+        visibilityLock.readLock().lock();
+        try {
+            Map<Long, Long> points = new HashMap<>(persisted.get());
+            Set<PairKey> keys = new HashSet<>();
+            for (PairKey key : pending.keySet()) {
+                if (key.playerId == playerId) {
+                    keys.add(key);
+                }
+            }
+            for (PairKey key : inFlight.keySet()) {
+                if (key.playerId == playerId) {
+                    keys.add(key);
+                }
+            }
+            for (PairKey key : keys) {
+                points.merge(key.developerId, pendingDelta(key), Long::sum);
+            }
+            return points;
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+    }
+
+    // Như readAllWithPending cho mọi cặp (dựng lại bảng xếp hạng): pendingDeltas nhận từng khoản đang chờ/đang ghi.
+    // Giữ khóa đọc trong suốt lúc đọc persisted nên lần ghi trùng thời điểm phải chờ; chỉ dùng cho thao tác hiếm.
+    public <T> T readWithAllPending(Supplier<T> persisted, PendingDeltaConsumer pendingDeltas) {
+        visibilityLock.readLock().lock();
+        try {
+            T result = persisted.get();
+            Set<PairKey> keys = new HashSet<>(pending.keySet());
+            keys.addAll(inFlight.keySet());
+            for (PairKey key : keys) {
+                long delta = pendingDelta(key);
+                if (delta != 0) {
+                    pendingDeltas.accept(key.playerId, key.developerId, delta);
+                }
+            }
+            return result;
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+    }
+
+    // Ghi ngay phần đang chờ của một cặp (ví dụ trước khi trừ điểm đổi quà) trong transaction riêng
+    public void flushPair(Long playerId, Long developerId) {
+        if (enabled) {
+            flush(new PairKey(playerId, developerId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gamehub.points.write-behind.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (!enabled || !accepting) {
+            return;
+        }
+        try {
+            flush(null);
+        } catch (Exception e) {
+            logger.error("Unexpected error while flushing buffered points", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        accepting = false;
+        // Lần cộng đến sau thời điểm này ghi thẳng DB; chờ (có giới hạn) các lần cộng đang dở ghi xong vào buffer
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (activeAdders.sum() != 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        if (activeAdders.sum() != 0) {
+            logger.warn("Stopping point buffer with {} increments still in progress", activeAdders.sum());
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush(null);
+        } catch (Exception e) {
+            logger.error("Final flush of buffered points failed", e);
+        }
+        spillHandoff(Map.of());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        int bufferedPairs = pending.size();
+        int inFlightPairs;
+        visibilityLock.readLock().lock();
+        try {
+            inFlightPairs = inFlight.size();
+        } finally {
+            visibilityLock.readLock().unlock();
+        }
+        stats.put("bufferedPairs", bufferedPairs);
+        stats.put("inFlightPairs", inFlightPairs);
+        stats.put("maxPairs", maxPairs);
+        stats.put("increments", increments.sum());
+        stats.put("directWrites", directWrites.sum());
+        long written = rowsWritten.sum();
+        long flushCount = flushes.sum();
+        stats.put("flushes", flushCount);
+        stats.put("thresholdFlushes", thresholdFlushes.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("rowsWritten", written);
+        stats.put("droppedRows", droppedRows.sum());
+        // Số lần cộng điểm được gộp vào mỗi câu upsert (mỗi cặp còn chờ sẽ thành đúng một câu upsert)
+        long rows = written + bufferedPairs + inFlightPairs;
+        stats.put("coalescingRatio", rows > 0 ? Math.round(increments.sum() * 100.0 / rows) / 100.0 : 0.0);
+        stats.put("lastFlushMs", TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get()));
+        stats.put("avgFlushMs", flushCount > 0 ? TimeUnit.NANOSECONDS.toMillis(flushNanos.sum() / flushCount) : 0);
+        stats.put("maxFlushMs", TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()));
+        stats.put("handoffSpilled", handoffSpilled.sum());
+        stats.put("handoffReplayed", handoffReplayed.sum());
+        return stats;
+    }
+
+    private void add(Long playerId, Long developerId, long points) {
+        activeAdders.increment();
+        try {
+            if (!accepting) {
+                try {
+                    writeNow(playerId, developerId, points);
+                } catch (Exception e) {
+                    // Buffer đã ngừng nhận và DB lỗi: ghi ra file handoff như lúc tắt để lần khởi động sau nạp lại
+                    logger.error("Direct write of {} points for PlayerID={}, DeveloperID={} failed, spilling to handoff file: {}",
+                            points, playerId, developerId, e.getMessage());
+                    spillHandoff(Map.of(new PairKey(playerId, developerId), points));
+                }
+                return;
+            }
+            PairKey key = new PairKey(playerId, developerId);
+            while (true) {
+                AtomicLong counter = pending.computeIfAbsent(key, k -> new AtomicLong());
+                long current = counter.get();
+                if (current == SEALED) {
+                    // Bộ đếm vừa bị lấy ra để ghi: bỏ nó khỏi map (nếu còn) rồi thử lại với bộ đếm mới
+                    pending.remove(key, counter);
+                    continue;
+                }
+                if (counter.compareAndSet(current, current + points)) {
+                    break;
+                }
+            }
+            increments.increment();
+        } finally {
+            activeAdders.decrement();
+        }
+        if (accepting && pending.size() >= maxPairs && thresholdFlushQueued.compareAndSet(false, true)) {
+            thresholdFlushes.increment();
+            try {
+                flusher.execute(() -> {
+                    try {
+                        flush(null);
+                    } catch (Exception e) {
+                        logger.error("Threshold flush of buffered points failed", e);
+                    } finally {
+                        thresholdFlushQueued.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // stop() vừa tắt flusher: khoản vừa cộng đã nằm trong pending trước khi activeAdders giảm,
+                // nên lần ghi cuối của stop() sẽ ghi nó; không để lỗi lan ra luồng cộng điểm
+                thresholdFlushQueued.set(false);
+            }
+        }
+    }
+
+    // only = null: ghi mọi cặp; ngược lại chỉ ghi một cặp
+    private void flush(PairKey only) {
+        flushLock.lock();
+        try {
+            long started = System.nanoTime();
+            Map<PairKey, Long> batch = new LinkedHashMap<>();
+            visibilityLock.writeLock().lock();
+            try {
+                drain(only);
+                if (only == null) {
+                    batch.putAll(inFlight);
+                } else if (inFlight.containsKey(only)) {
+                    batch.put(only, inFlight.get(only));
+                }
+            } finally {
+                visibilityLock.writeLock().unlock();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            int written = writeAll(batch);
+            if (written < 0) {
+                writeOneByOne(batch);
+            }
+            long elapsed = System.nanoTime() - started;
+            flushes.increment();
+            flushNanos.add(elapsed);
+            lastFlushNanos.set(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Niêm phong bộ đếm và chuyển sang inFlight (gọi khi giữ khóa ghi)
+    private void drain(PairKey only) {
+        List<Map.Entry<PairKey, AtomicLong>> entries = new ArrayList<>();
+        if (only == null) {
+            entries.addAll(pending.entrySet());
+        } else {
+            AtomicLong counter = pending.get(only);
+            if (counter != null) {
+                entries.add(Map.entry(only, counter));
+            }
+        }
+        for (Map.Entry<PairKey, AtomicLong> entry : entries) {
+            long value = entry.getValue().getAndSet(SEALED);
+            pending.remove(entry.getKey(), entry.getValue());
+            if (value != SEALED && value != 0) {
+                inFlight.merge(entry.getKey(), value, Long::sum);
+            }
+        }
+    }
+
+    // Ghi cả lô trong một transaction; commit và xóa khỏi inFlight cùng lúc dưới khóa ghi. Trả về -1 nếu lỗi.
+    private int writeAll(Map<PairKey, Long> batch) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(Math.min(batch.size(), batchSize));
+            for (Map.Entry<PairKey, Long> entry : batch.entrySet()) {
+                rows.add(new Object[]{entry.getKey().playerId, entry.getKey().developerId, entry.getValue(), now});
+                if (rows.size() == batchSize) {
+                    jdbcTemplate.batchUpdate(UPSERT_PLAYER_DEVELOPER_POINTS, rows);
+                    rows.clear();
+                }
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_PLAYER_DEVELOPER_POINTS, rows);
+            }
+        } catch (Exception e) {
+            transactionManager.rollback(status);
+            failedFlushes.increment();
+            logger.warn("Flush of {} buffered point rows failed, retrying one by one: {}", batch.size(), e.getMessage());
+            return -1;
+        }
+        if (!commitAndRelease(status, batch)) {
+            failedFlushes.increment();
+            return -1;
+        }
+        rowsWritten.add(batch.size());
+        return batch.size();
+    }
+
+    // Cặp có player/developer đã bị xóa thì bỏ; lỗi khác (DB không truy cập được) thì giữ lại cho lần ghi sau
+    private void writeOneByOne(Map<PairKey, Long> batch) {
+        for (Map.Entry<PairKey, Long> entry : batch.entrySet()) {
+            TransactionStatus status = transactionManager.getTransaction(
+                    new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+            try {
+                jdbcTemplate.update(UPSERT_PLAYER_DEVELOPER_POINTS, entry.getKey().playerId, entry.getKey().developerId,
+                        entry.getValue(), Timestamp.valueOf(LocalDateTime.now()));
+            } catch (DataIntegrityViolationException e) {
+                transactionManager.rollback(status);
+                droppedRows.increment();
+                logger.error("Dropping buffered points: PlayerID={}, DeveloperID={}, Points={}: {}",
+                        entry.getKey().playerId, entry.getKey().developerId, entry.getValue(), e.getMessage());
+                release(Map.of(entry.getKey(), entry.getValue()));
+                continue;
+            } catch (Exception e) {
+                transactionManager.rollback(status);
+                logger.warn("Buffered points kept for next flush: {}", e.getMessage());
+                return;
+            }
+            if (!commitAndRelease(status, Map.of(entry.getKey(), entry.getValue()))) {
+                return;
+            }
+            rowsWritten.increment();
+        }
+    }
+
+    private boolean commitAndRelease(TransactionStatus status, Map<PairKey, Long> written) {
+        visibilityLock.writeLock().lock();
+        try {
+            transactionManager.commit(status);
+            removeFromInFlight(written);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Commit of buffered points failed, keeping {} rows for next flush: {}", written.size(), e.getMessage());
+            return false;
+        } finally {
+            visibilityLock.writeLock().unlock();
+        }
+    }
+
+    private void release(Map<PairKey, Long> dropped) {
+        visibilityLock.writeLock().lock();
+        try {
+            removeFromInFlight(dropped);
+        } finally {
+            visibilityLock.writeLock().unlock();
+        }
+    }
+
+    // Trong lúc ghi có thể đã có lần drain khác cộng thêm vào cùng cặp: chỉ trừ phần vừa ghi
+    private void removeFromInFlight(Map<PairKey, Long> written) {
+        for (Map.Entry<PairKey, Long> entry : written.entrySet()) {
+            inFlight.computeIfPresent(entry.getKey(), (key, value) -> {
+                long remaining = value - entry.getValue();
+                return remaining == 0 ? null : remaining;
+            });
+        }
+    }
+
+    private long pendingDelta(PairKey key) {
+        long delta = inFlight.getOrDefault(key, 0L);
+        AtomicLong counter = pending.get(key);
+        if (counter != null) {
+            long value = counter.get();
+            if (value != SEALED) {
+                delta += value;
+            }
+        }
+        return delta;
+    }
+
+    private void writeNow(Long playerId, Long developerId, long points) {
+        directWrites.increment();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> jdbcTemplate.update(UPSERT_PLAYER_DEVELOPER_POINTS,
+                playerId, developerId, points, Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    // Ghi phần chưa ghi được (cộng với file handoff cũ nếu lần nạp trước thất bại và các khoản extra) ra file, thay thế
+    // nguyên tử. Giữ flushLock để không lần ghi nào đang chạy; phần đã ra file được bỏ khỏi bộ nhớ nên gọi lại
+    // (ví dụ khi một lần ghi thẳng sau lúc tắt bị lỗi) không tính hai lần.
+    private void spillHandoff(Map<PairKey, Long> extra) {
+        flushLock.lock();
+        try {
+            Map<PairKey, Long> remaining = new LinkedHashMap<>(readHandoff());
+            extra.forEach((key, value) -> remaining.merge(key, value, Long::sum));
+            Map<PairKey, Long> buffered = new LinkedHashMap<>();
+            visibilityLock.writeLock().lock();
+            try {
+                drain(null);
+                buffered.putAll(inFlight);
+            } finally {
+                visibilityLock.writeLock().unlock();
+            }
+            buffered.forEach((key, value) -> remaining.merge(key, value, Long::sum));
+            if (remaining.isEmpty()) {
+                return;
+            }
+            if (writeHandoff(remaining)) {
+                release(buffered);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean writeHandoff(Map<PairKey, Long> remaining) {
+        Path target = Paths.get(handoffFile);
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<PairKey, Long> entry : remaining.entrySet()) {
+                    writer.write(entry.getKey().playerId + "," + entry.getKey().developerId + "," + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            handoffSpilled.add(remaining.size());
+            logger.warn("Spilled {} buffered point rows to {}", remaining.size(), target.toAbsolutePath());
+            return true;
+        } catch (IOException e) {
+            logger.error("Could not write point handoff file, {} buffered rows lost: {}", remaining, e.getMessage());
+            return false;
+        }
+    }
+
+    // Nạp file handoff của lần tắt trước vào DB trước khi nhận điểm mới (và trước khi dựng bảng xếp hạng)
+    private void replayHandoff() {
+        Map<PairKey, Long> rows = readHandoff();
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> args = new ArrayList<>(rows.size());
+                rows.forEach((key, points) -> args.add(new Object[]{key.playerId, key.developerId, points, now}));
+                jdbcTemplate.batchUpdate(UPSERT_PLAYER_DEVELOPER_POINTS, args);
+            });
+            Files.deleteIfExists(Paths.get(handoffFile));
+            handoffReplayed.add(rows.size());
+            logger.info("Replayed {} buffered point rows from {}", rows.size(), handoffFile);
+        } catch (Exception e) {
+            // Giữ file để thử lại ở lần khởi động sau
+            logger.error("Could not replay point handoff file {}: {}", handoffFile, e.getMessage());
+        }
+    }
+
+    private Map<PairKey, Long> readHandoff() {
+        Path path = Paths.get(handoffFile);
+        Map<PairKey, Long> rows = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return rows;
+        }
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.trim().split(",");
+                if (parts.length == 3) {
+                    rows.merge(new PairKey(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                            Long.parseLong(parts[2]), Long::sum);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Could not read point handoff file {}: {}", handoffFile, e.getMessage());
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    public interface PendingDeltaConsumer {
+        void accept(long playerId, long developerId, long delta);
+    }
+
+    private static final class PairKey {
+        private final long playerId;
+        private final long developerId;
+
+        private PairKey(long playerId, long developerId) {
+            this.playerId = playerId;
+            this.developerId = developerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PairKey)) return false;
+            PairKey other = (PairKey) o;
+            return playerId == other.playerId && developerId == other.developerId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(playerId) * 31 + Long.hashCode(developerId);
+        }
+    }
+}
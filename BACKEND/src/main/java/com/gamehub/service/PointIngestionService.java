@@ -0,0 +1,298 @@
+// Note: Ghi lô cộng điểm do game server gửi lên qua API key (POST /api/v1/ingest/points).
+// - Cả lô được kiểm tra trước (actionType thuộc PointActionType, player tồn tại, points dương và không vượt số điểm
+//   mà luồng nội bộ cộng cho hành động đó - review/tải game - để game server không thổi phồng điểm qua đường ingest);
+//   chỉ cần một phần tử sai là từ chối cả lô để game server sửa rồi gửi lại.
+// - Mỗi (player, game, action) chỉ được cộng một lần như awardPoints: bỏ qua phần tử trùng trong lô hoặc đã có trong DB,
+//   nên gửi lại một lô sau khi timeout là an toàn.
+// - Ghi trong một transaction: JDBC batch vào point_transactions, một câu upsert player_developer_points cho mỗi player,
+//   kèm điểm theo ngày/tuần/mùa; bảng xếp hạng trong bộ nhớ được cộng sau khi commit.
+package com.gamehub.service;
+
+import com.gamehub.dto.PointAccrual;
+import com.gamehub.dto.PointAwardBatchResponse;
+import com.gamehub.dto.PointAwardItem;
+import com.gamehub.exception.GameException;
+import com.gamehub.model.enums.PointActionType;
+import com.gamehub.model.enums.UserRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class PointIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointIngestionService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private static final String INSERT_POINT_TRANSACTION =
+            "INSERT INTO point_transactions (player_id, game_id, action_type, points, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_PLAYER_DEVELOPER_POINTS =
+            "INSERT INTO player_developer_points (player_id, developer_id, total_points, last_updated) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_points = total_points + VALUES(total_points), last_updated = VALUES(last_updated)";
+
+    private static final String FIND_PLAYERS =
+            "SELECT id, email FROM users WHERE id IN (:playerIds) AND role = :role";
+
+    // Cả giao dịch đã lưu trữ (PointLedgerArchiveService) cũng tính là đã cộng điểm
+    private static final String FIND_AWARDED =
+            "SELECT player_id, action_type FROM point_transactions WHERE game_id = :gameId AND player_id IN (:playerIds) " +
+            "UNION ALL SELECT player_id, action_type FROM point_transaction_archive WHERE game_id = :gameId AND player_id IN (:playerIds)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private LeaderboardWindowService leaderboardWindowService;
+
+    @Autowired
+    private GameApiKeyService gameApiKeyService;
+
+    @Autowired
+    private DuplicateActionCache duplicateActionCache;
+
+    @Value("${gamehub.ingest.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejectedBatches = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder awarded = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder pointsAwarded = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    public PointAwardBatchResponse ingest(GameApiKeyService.IngestClient client, List<PointAwardItem> items) throws GameException {
+        if (items == null || items.isEmpty()) {
+            throw new GameException("awards must not be empty");
+        }
+        if (items.size() > maxBatchSize) {
+            rejectedBatches.increment();
+            throw new GameException("Batch too large: " + items.size() + " awards (max " + maxBatchSize + ")");
+        }
+
+        long started = System.nanoTime();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        PointAwardBatchResponse response;
+        try {
+            List<PointActionType> actions = validate(items);
+            try {
+                response = template.execute(status -> writeBatch(client, items, actions));
+            } catch (DuplicateKeyException e) {
+                // Một lần cộng điểm khác (awardPoints, lô song song) vừa ghi cùng (player, game, action):
+                // ghi lại một lần, lần này phần tử đó được tính là trùng
+                logger.info("Point batch for game {} raced with another award, retrying once", client.getGameId());
+                response = template.execute(status -> writeBatch(client, items, actions));
+            }
+        } catch (GameException e) {
+            rejectedBatches.increment();
+            throw e;
+        }
+        // Bộ đếm chỉ được cộng sau khi lô commit
+        writeNanos.add(System.nanoTime() - started);
+        batches.increment();
+        received.add(items.size());
+        awarded.add(response.getAwarded());
+        duplicates.add(response.getDuplicates());
+        pointsAwarded.add(response.getPointsAwarded());
+        logger.info("Ingested point batch for game {}: received={}, awarded={}, duplicates={}",
+                client.getGameId(), items.size(), response.getAwarded(), response.getDuplicates());
+        return response;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batchCount = batches.sum();
+        stats.put("batches", batchCount);
+        stats.put("rejectedBatches", rejectedBatches.sum());
+        stats.put("awardsReceived", received.sum());
+        stats.put("awarded", awarded.sum());
+        stats.put("duplicateAwardsSkipped", duplicates.sum());
+        stats.put("pointsAwarded", pointsAwarded.sum());
+        stats.put("avgBatchWriteMs", batchCount > 0 ? TimeUnit.NANOSECONDS.toMillis(writeNanos.sum() / batchCount) : 0);
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("apiKeys", gameApiKeyService.getStats());
+        return stats;
+    }
+
+    private PointAwardBatchResponse writeBatch(GameApiKeyService.IngestClient client, List<PointAwardItem> items,
+                                               List<PointActionType> actions) {
+        Map<Long, String> emails = findPlayers(items);
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < items.size() && errors.size() < MAX_REPORTED_ERRORS; i++) {
+            if (!emails.containsKey(items.get(i).getPlayerId())) {
+                errors.add("awards[" + i + "]: player " + items.get(i).getPlayerId() + " not found");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new GameException("Invalid batch: " + String.join("; ", errors));
+        }
+
+        // Bỏ phần tử trùng trong lô và các hành động đã được cộng điểm cho game này;
+        // chỉ player còn hành động chưa biết trong cache mới cần tra point_transactions
+        boolean[] cached = new boolean[items.size()];
+        Set<Long> unknownPlayers = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            cached[i] = duplicateActionCache.isAwarded(client.getGameId(), items.get(i).getPlayerId(), actions.get(i));
+            if (!cached[i]) {
+                unknownPlayers.add(items.get(i).getPlayerId());
+            }
+        }
+        Set<PlayerAction> alreadyAwarded = unknownPlayers.isEmpty()
+                ? new HashSet<>() : findAwarded(client.getGameId(), unknownPlayers);
+        for (PlayerAction key : alreadyAwarded) {
+            duplicateActionCache.markAwarded(client.getGameId(), key.playerId, key.action);
+        }
+        Set<PlayerAction> seen = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        List<Object[]> transactionRows = new ArrayList<>(items.size());
+        Map<Long, Long> pointsByPlayer = new LinkedHashMap<>();
+        List<PointAccrual> accruals = new ArrayList<>(items.size());
+        int skipped = 0;
+        long total = 0;
+        for (int i = 0; i < items.size(); i++) {
+            PointAwardItem item = items.get(i);
+            PointActionType action = actions.get(i);
+            PlayerAction key = new PlayerAction(item.getPlayerId(), action);
+            if (cached[i] || alreadyAwarded.contains(key) || !seen.add(key)) {
+                skipped++;
+                continue;
+            }
+            long points = item.getPoints() != null ? item.getPoints() : action.getDefaultPoints();
+            transactionRows.add(new Object[]{item.getPlayerId(), client.getGameId(), action.name(), points, createdAt});
+            pointsByPlayer.merge(item.getPlayerId(), points, Long::sum);
+            duplicateActionCache.markAwardedAfterCommit(client.getGameId(), item.getPlayerId(), action);
+            accruals.add(new PointAccrual(client.getDeveloperId(), item.getPlayerId(), points, now));
+            total += points;
+        }
+        if (transactionRows.isEmpty()) {
+            return new PointAwardBatchResponse(client.getGameId(), items.size(), 0, skipped, 0);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_POINT_TRANSACTION, transactionRows);
+        List<Object[]> pointRows = new ArrayList<>(pointsByPlayer.size());
+        pointsByPlayer.forEach((playerId, points) ->
+                pointRows.add(new Object[]{playerId, client.getDeveloperId(), points, createdAt}));
+        jdbcTemplate.batchUpdate(UPSERT_PLAYER_DEVELOPER_POINTS, pointRows);
+        leaderboardWindowService.recordPoints(accruals);
+        // Bảng xếp hạng trong bộ nhớ chỉ được cộng sau khi lô commit
+        pointsByPlayer.forEach((playerId, points) ->
+                leaderboardIndex.recordDelta(client.getDeveloperId(), playerId, emails.get(playerId), points));
+        return new PointAwardBatchResponse(client.getGameId(), items.size(), transactionRows.size(), skipped, total);
+    }
+
+    // Kiểm tra actionType và points của từng phần tử; trả về PointActionType theo đúng thứ tự lô
+    private List<PointActionType> validate(List<PointAwardItem> items) {
+        List<PointActionType> actions = new ArrayList<>(items.size());
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            PointAwardItem item = items.get(i);
+            PointActionType action = null;
+            if (item == null || item.getPlayerId() == null) {
+                errors.add("awards[" + i + "]: playerId is required");
+            } else if (item.getActionType() == null) {
+                errors.add("awards[" + i + "]: actionType is required");
+            } else {
+                try {
+                    action = PointActionType.valueOf(item.getActionType().trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    errors.add("awards[" + i + "]: invalid action type '" + item.getActionType() + "'");
+                }
+                // Cùng mức với ReviewService/DownloadTrackingService (số điểm mặc định của hành động)
+                if (action != null && item.getPoints() != null
+                        && (item.getPoints() <= 0 || item.getPoints() > action.getDefaultPoints())) {
+                    errors.add("awards[" + i + "]: points for " + action + " must be between 1 and " + action.getDefaultPoints());
+                }
+            }
+            actions.add(action);
+            if (errors.size() >= MAX_REPORTED_ERRORS) {
+                break;
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new GameException("Invalid batch: " + String.join("; ", errors));
+        }
+        return actions;
+    }
+
+    private Map<Long, String> findPlayers(List<PointAwardItem> items) {
+        Set<Long> playerIds = new HashSet<>();
+        for (PointAwardItem item : items) {
+            playerIds.add(item.getPlayerId());
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("playerIds", playerIds)
+                .addValue("role", UserRole.PLAYER.name());
+        Map<Long, String> emails = new HashMap<>();
+        namedParameterJdbcTemplate.query(FIND_PLAYERS, params, rs -> {
+            emails.put(rs.getLong("id"), rs.getString("email"));
+        });
+        return emails;
+    }
+
+    private Set<PlayerAction> findAwarded(Long gameId, Set<Long> playerIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("gameId", gameId)
+                .addValue("playerIds", playerIds);
+        Set<PlayerAction> awardedActions = new HashSet<>();
+        namedParameterJdbcTemplate.query(FIND_AWARDED, params, rs -> {
+            awardedActions.add(new PlayerAction(rs.getLong("player_id"), PointActionType.valueOf(rs.getString("action_type"))));
+        });
+        return awardedActions;
+    }
+
+    private static final class PlayerAction {
+        private final long playerId;
+        private final PointActionType action;
+
+        private PlayerAction(long playerId, PointActionType action) {
+            this.playerId = playerId;
+            this.action = action;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PlayerAction)) return false;
+            PlayerAction other = (PlayerAction) o;
+            return playerId == other.playerId && action == other.action;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerId, action);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+// Note: Giữ point_transactions nhỏ: job định kỳ chuyển các giao dịch cũ hơn gamehub.points.archive.retention-days
+// sang point_transaction_archive theo từng lô giới hạn (mỗi lô một transaction ngắn) và cộng dồn vào
+// point_monthly_summaries (tổng theo tháng cho mỗi player, game).
+// - Mỗi lô: xóa khỏi bảng nóng theo id, chép sang bảng lưu trữ, upsert tổng tháng trong cùng transaction.
+//   Số dòng xóa khác số dòng đã đọc nghĩa là instance khác đang lưu trữ cùng lô: rollback, để lần chạy sau.
+// - Bảng lưu trữ giữ unique (player, game, action) như bảng gốc; các đường cộng điểm kiểm tra trùng ở cả hai bảng.
+// - Đọc lịch sử: giao dịch gần đây từ bảng nóng (bù bằng dòng lưu trữ nếu chưa đủ), phần cũ hơn từ tổng theo tháng.
+package com.gamehub.service;
+
+import com.gamehub.dto.PointHistoryResponse;
+import com.gamehub.dto.PointMonthlySummaryResponse;
+import com.gamehub.dto.PointTransactionResponse;
+import com.gamehub.model.PointTransaction;
+import com.gamehub.model.PointTransactionArchive;
+import com.gamehub.repository.PointMonthlySummaryRepository;
+import com.gamehub.repository.PointTransactionArchiveRepository;
+import com.gamehub.repository.PointTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Service
+public class PointLedgerArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointLedgerArchiveService.class);
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    // Đọc theo index idx_point_transactions_created (created_at, id): chỉ chạm các dòng cũ hơn mốc và dừng khi đủ lô,
+    // không quét bảng khi hết dòng cần lưu trữ hay khi created_at không tăng theo id (ghi lại từ handoff, import)
+    private static final String FIND_OLD_TRANSACTIONS =
+            "SELECT id, player_id, game_id, action_type, points, created_at FROM point_transactions " +
+            "WHERE created_at < ? ORDER BY created_at, id LIMIT ?";
+
+    private static final String DELETE_TRANSACTIONS =
+            "DELETE FROM point_transactions WHERE id IN (:ids)";
+
+    private static final String INSERT_ARCHIVE =
+            "INSERT INTO point_transaction_archive (id, player_id, game_id, action_type, points, created_at, archived_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_MONTHLY_SUMMARY =
+            "INSERT INTO point_monthly_summaries (player_id, game_id, month_start, transaction_count, total_points, last_created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE transaction_count = transaction_count + VALUES(transaction_count), " +
+            "total_points = total_points + VALUES(total_points), " +
+            "last_created_at = GREATEST(last_created_at, VALUES(last_created_at))";
+
+    // Tổng tháng dùng game_id = 0 cho giao dịch không gắn game
+    private static final long NO_GAME = 0L;
+
+    @Autowired
+    private PointTransactionRepository pointTransactionRepository;
+
+    @Autowired
+    private PointTransactionArchiveRepository archiveRepository;
+
+    @Autowired
+    private PointMonthlySummaryRepository monthlySummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gamehub.points.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gamehub.points.archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${gamehub.points.archive.batch-size:1000}")
+    private int batchSize;
+
+    // Giới hạn số lô mỗi lần chạy để job không chiếm DB quá lâu; phần còn lại để lần chạy sau
+    @Value("${gamehub.points.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    // Số dòng tổng tháng tối đa trả về trong lịch sử (mỗi tháng một dòng cho mỗi game có giao dịch)
+    @Value("${gamehub.points.archive.history-summary-limit:120}")
+    private int historySummaryLimit;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder archivedRows = new LongAdder();
+    private final LongAdder summaryUpserts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private volatile long lastRunMs;
+    private volatile LocalDateTime lastCutoff;
+
+    @Scheduled(initialDelayString = "${gamehub.points.archive.initial-delay-ms:120000}",
+            fixedDelayString = "${gamehub.points.archive.interval-ms:3600000}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveOldTransactions();
+        } catch (Exception e) {
+            logger.error("Could not archive old point transactions", e);
+        }
+    }
+
+    // Lưu trữ tối đa maxBatchesPerRun lô giao dịch cũ hơn thời hạn giữ; trả về số dòng đã chuyển
+    public synchronized int archiveOldTransactions() {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int moved;
+            try {
+                moved = template.execute(status -> archiveBatch(cutoff));
+            } catch (ArchiveConflictException e) {
+                conflicts.increment();
+                logger.warn("Point transaction archive batch conflicted with another archiver, stopping this run");
+                break;
+            }
+            if (moved == 0) {
+                break;
+            }
+            total += moved;
+            batches.increment();
+            archivedRows.add(moved);
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        runs.increment();
+        lastCutoff = cutoff;
+        lastRunMs = (System.nanoTime() - started) / 1_000_000;
+        if (total > 0) {
+            logger.info("Archived {} point transactions created before {} in {} ms", total, cutoff, lastRunMs);
+        }
+        return total;
+    }
+
+    // limit giao dịch gần nhất: lấy từ bảng nóng, chỉ đọc bảng lưu trữ khi bảng nóng không đủ
+    @Transactional(readOnly = true)
+    public List<PointTransactionResponse> getRecentTransactions(Long playerId, int limit) {
+        List<PointTransactionResponse> recent = pointTransactionRepository
+                .findByPlayerIdOrderByCreatedAtDesc(playerId, PageRequest.of(0, limit)).stream()
+                .map(PointLedgerArchiveService::toResponse)
+                .collect(Collectors.toList());
+        if (recent.size() < limit) {
+            archiveRepository.findByPlayerIdOrderByCreatedAtDesc(playerId, PageRequest.of(0, limit - recent.size()))
+                    .forEach(row -> recent.add(toResponse(row)));
+        }
+        return recent;
+    }
+
+    // Lịch sử: giao dịch gần đây dạng dòng gốc và tổng theo tháng (mới nhất trước) của phần đã lưu trữ
+    @Transactional(readOnly = true)
+    public PointHistoryResponse getHistory(Long playerId, int limit) {
+        List<PointTransactionResponse> recent = pointTransactionRepository
+                .findByPlayerIdOrderByCreatedAtDesc(playerId, PageRequest.of(0, limit)).stream()
+                .map(PointLedgerArchiveService::toResponse)
+                .collect(Collectors.toList());
+        List<PointMonthlySummaryResponse> monthly = monthlySummaryRepository
+                .findByPlayerIdOrderByMonthStartDescGameIdAsc(playerId, PageRequest.of(0, historySummaryLimit)).stream()
+                .map(summary -> new PointMonthlySummaryResponse(
+                        summary.getPlayerId(),
+                        summary.getGameId() == NO_GAME ? null : summary.getGameId(),
+                        summary.getMonthStart().format(MONTH_FORMAT),
+                        summary.getTransactionCount(),
+                        summary.getTotalPoints()))
+                .collect(Collectors.toList());
+        return new PointHistoryResponse(recent, monthly);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("retentionDays", retentionDays);
+        stats.put("batchSize", batchSize);
+        stats.put("runs", runs.sum());
+        stats.put("batches", batches.sum());
+        stats.put("archivedRows", archivedRows.sum());
+        stats.put("summaryUpserts", summaryUpserts.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("lastRunMs", lastRunMs);
+        stats.put("lastCutoff", lastCutoff != null ? lastCutoff.toString() : null);
+        return stats;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<LedgerRow> rows = jdbcTemplate.query(FIND_OLD_TRANSACTIONS, (rs, rowNum) -> new LedgerRow(
+                rs.getLong("id"),
+                rs.getLong("player_id"),
+                rs.getObject("game_id", Long.class),
+                rs.getString("action_type"),
+                rs.getLong("points"),
+                rs.getTimestamp("created_at").toLocalDateTime()
+        ), Timestamp.valueOf(cutoff), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // Xóa trước để khóa các dòng: nếu instance khác đã lấy lô này thì số dòng xóa được sẽ thiếu
+        List<Long> ids = rows.stream().map(row -> row.id).collect(Collectors.toList());
+        int deleted = namedParameterJdbcTemplate.update(DELETE_TRANSACTIONS, new MapSqlParameterSource("ids", ids));
+        if (deleted != rows.size()) {
+            throw new ArchiveConflictException();
+        }
+
+        Timestamp archivedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> archiveRows = new ArrayList<>(rows.size());
+        // Gộp theo dòng đích và sắp theo khóa để các transaction khóa dòng tổng tháng theo cùng thứ tự
+        Map<SummaryKey, SummaryDelta> summaries = new TreeMap<>();
+        for (LedgerRow row : rows) {
+            archiveRows.add(new Object[]{row.id, row.playerId, row.gameId, row.actionType, row.points,
+                    Timestamp.valueOf(row.createdAt), archivedAt});
+            SummaryKey key = new SummaryKey(row.playerId, row.createdAt.toLocalDate().withDayOfMonth(1),
+                    row.gameId != null ? row.gameId : NO_GAME);
+            summaries.computeIfAbsent(key, k -> new SummaryDelta()).add(row.points, row.createdAt);
+        }
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVE, archiveRows);
+
+        List<Object[]> summaryRows = new ArrayList<>(summaries.size());
+        summaries.forEach((key, delta) -> summaryRows.add(new Object[]{key.playerId, key.gameId,
+                Date.valueOf(key.monthStart), delta.count, delta.points, Timestamp.valueOf(delta.lastCreatedAt)}));
+        jdbcTemplate.batchUpdate(UPSERT_MONTHLY_SUMMARY, summaryRows);
+        summaryUpserts.add(summaryRows.size());
+        return rows.size();
+    }
+
+    private static PointTransactionResponse toResponse(PointTransaction transaction) {
+        return new PointTransactionResponse(
+                transaction.getId(),
+                transaction.getPlayer().getId(),
+                transaction.getGame() != null ? transaction.getGame().getId() : null,
+                transaction.getActionType(),
+                transaction.getPoints(),
+                transaction.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+        );
+    }
+
+    private static PointTransactionResponse toResponse(PointTransactionArchive row) {
+        return new PointTransactionResponse(
+                row.getId(),
+                row.getPlayerId(),
+                row.getGameId(),
+                row.getActionType(),
+                row.getPoints(),
+                row.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+        );
+    }
+
+    // Lô vừa đọc đã bị instance khác lưu trữ; ném ra để rollback transaction của lô
+    private static final class ArchiveConflictException extends RuntimeException {
+        private ArchiveConflictException() {
+            super("Point transaction archive batch conflict", null, false, false);
+        }
+    }
+
+    private static final class LedgerRow {
+        private final long id;
+        private final long playerId;
+        private final Long gameId;
+        private final String actionType;
+        private final long points;
+        private final LocalDateTime createdAt;
+
+        private LedgerRow(long id, long playerId, Long gameId, String actionType, long points, LocalDateTime createdAt) {
+            this.id = id;
+            this.playerId = playerId;
+            this.gameId = gameId;
+            this.actionType = actionType;
+            this.points = points;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class SummaryDelta {
+        private long count;
+        private long points;
+        private LocalDateTime lastCreatedAt;
+
+        private void add(long points, LocalDateTime createdAt) {
+            this.count++;
+            this.points += points;
+            if (lastCreatedAt == null || createdAt.isAfter(lastCreatedAt)) {
+                lastCreatedAt = createdAt;
+            }
+        }
+    }
+
+    private static final class SummaryKey implements Comparable<SummaryKey> {
+        private static final Comparator<SummaryKey> ORDER = Comparator
+                .comparingLong((SummaryKey key) -> key.playerId)
+                .thenComparing(key -> key.monthStart)
+                .thenComparingLong(key -> key.gameId);
+
+        private final long playerId;
+        private final LocalDate monthStart;
+        private final long gameId;
+
+        private SummaryKey(long playerId, LocalDate monthStart, long gameId) {
+            this.playerId = playerId;
+            this.monthStart = monthStart;
+            this.gameId = gameId;
+        }
+
+        @Override
+        public int compareTo(SummaryKey other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SummaryKey)) return false;
+            SummaryKey other = (SummaryKey) o;
+            return playerId == other.playerId && gameId == other.gameId && monthStart.equals(other.monthStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerId, monthStart, gameId);
+        }
+    }
+}
@@ -2,27 +2,30 @@
 package com.gamehub.service;
 
 import com.gamehub.dto.PlayerDeveloperPointsDTO;
+import com.gamehub.dto.PointAccrual;
 import com.gamehub.exception.GameException;
 import com.gamehub.model.Game;
 import com.gamehub.model.PlayerDeveloperPoints;
-import com.gamehub.model.PointTransaction;
 import com.gamehub.model.User;
 import com.gamehub.model.enums.PointActionType;
 import com.gamehub.model.enums.UserRole;
 import com.gamehub.repository.GameRepository;
-import com.gamehub.repository.PointTransactionRepository;
-import com.gamehub.repository.UserRepository;
 import com.gamehub.repository.PlayerDeveloperPointsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,11 +35,20 @@ public class PointService {
 
     private static final Logger logger = LoggerFactory.getLogger(PointService.class);
 
+    // Chèn giao dịch nếu chưa nằm trong point_transaction_archive; trùng trong bảng nóng thì unique key
+    // (player_id, game_id, action_type) báo DuplicateKeyException. Không dùng INSERT IGNORE vì nó cũng nuốt
+    // lỗi khóa ngoại/cắt dữ liệu và biến chúng thành "đã cộng điểm".
+    private static final String INSERT_POINT_TRANSACTION =
+            "INSERT INTO point_transactions (player_id, game_id, action_type, points, created_at) " +
+            "SELECT ?, ?, ?, ?, ? FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM point_transaction_archive a " +
+            "WHERE a.player_id = ? AND a.game_id = ? AND a.action_type = ?)";
+
     @Autowired
-    private PointTransactionRepository pointTransactionRepository;
+    private JdbcTemplate jdbcTemplate;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserIdentityCache userIdentityCache;
 
     @Autowired
     private GameRepository gameRepository;
@@ -44,10 +56,22 @@ public class PointService {
     @Autowired
     private PlayerDeveloperPointsRepository playerDeveloperPointsRepository;
 
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private LeaderboardWindowService leaderboardWindowService;
+
+    @Autowired
+    private PointAccrualBuffer pointAccrualBuffer;
+
+    @Autowired
+    private DuplicateActionCache duplicateActionCache;
+
     public void awardPoints(Long playerId, Long gameId, String actionType, Long points) throws GameException {
         logger.info("Awarding {} points to player {} for action {}", points, playerId, actionType);
 
-        User player = userRepository.findById(playerId)
+        User player = userIdentityCache.findById(playerId)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", playerId);
                     return new GameException("User not found");
@@ -82,41 +106,48 @@ public class PointService {
 
         // Default points based on action if not provided
         if (points == null) {
-            switch (pointActionType) {
-                case DOWNLOAD_GAME:
-                    points = 10L;
-                    break;
-                case WRITE_REVIEW:
-                    points = 20L;
-                    break;
-                default:
-                    points = 0L;
-            }
+            points = pointActionType.getDefaultPoints();
         }
 
-        // Kiểm tra duplicate action per game per player
-        if (pointTransactionRepository.existsByPlayerIdAndGameIdAndActionType(playerId, gameId, pointActionType)) {
+        // Kiểm tra duplicate action per game per player: lặp lại đã biết thì trả lời ngay từ cache,
+        // còn lại dựa vào unique constraint (chèn trùng báo DuplicateKeyException) thay cho truy vấn exists
+        if (duplicateActionCache.isAwarded(gameId, playerId, pointActionType)) {
             logger.warn("Points already awarded for player {} and game {} for action {}", playerId, gameId, actionType);
             throw new GameException("Points already awarded for this action");
         }
 
-        PointTransaction transaction = new PointTransaction(
-                player,
-                game,
-                pointActionType,
-                points,
-                LocalDateTime.now()
-        );
-
+        LocalDateTime createdAt = LocalDateTime.now();
+        int inserted;
         try {
-            pointTransactionRepository.save(transaction);
+            // JdbcTemplate chạy trong transaction hiện tại; lỗi trùng khóa chỉ hủy câu lệnh này,
+            // không đánh dấu rollback transaction như khi ném qua EntityManager
+            inserted = jdbcTemplate.update(INSERT_POINT_TRANSACTION, playerId, gameId, pointActionType.name(), points,
+                    Timestamp.valueOf(createdAt), playerId, gameId, pointActionType.name());
+        } catch (DuplicateKeyException e) {
+            inserted = 0;
+        } catch (Exception e) {
+            logger.error("Error awarding points: {}", e.getMessage());
+            throw new GameException("Error awarding points");
+        }
+        if (inserted == 0) {
+            duplicateActionCache.markAwarded(gameId, playerId, pointActionType);
+            logger.warn("Points already awarded for player {} and game {} for action {}", playerId, gameId, actionType);
+            throw new GameException("Points already awarded for this action");
+        }
 
-            // Update per developer total
-            Optional<PlayerDeveloperPoints> optionalPdp = playerDeveloperPointsRepository.findByPlayerAndDeveloper(player, developer);
-            PlayerDeveloperPoints pdp = optionalPdp.orElse(new PlayerDeveloperPoints(player, developer, 0L, LocalDateTime.now()));
-            pdp.setTotalPoints(pdp.getTotalPoints() + points);
-            pdp.setLastUpdated(LocalDateTime.now());
-            playerDeveloperPointsRepository.save(pdp);
+        try {
+            duplicateActionCache.markAwardedAfterCommit(gameId, playerId, pointActionType);
+
+            // Update per developer total (upsert cộng dồn trong DB, không đọc-sửa-ghi entity);
+            // chế độ write-behind thì gộp trong bộ nhớ sau commit và ghi theo lô
+            if (pointAccrualBuffer.isEnabled()) {
+                pointAccrualBuffer.recordAfterCommit(player.getId(), developer.getId(), points);
+            } else {
+                playerDeveloperPointsRepository.addPoints(player.getId(), developer.getId(), points, LocalDateTime.now());
+            }
+            leaderboardIndex.recordDelta(developer.getId(), player.getId(), player.getEmail(), points);
+            leaderboardWindowService.recordPoints(List.of(
+                    new PointAccrual(developer.getId(), player.getId(), points, createdAt)));
 
             logger.info("Points awarded successfully: PlayerID={}, Points={}, Action={}, DeveloperID={}", playerId, points, actionType, developer.getId());
         } catch (Exception e) {
@@ -125,30 +156,49 @@ public class PointService {
         }
     }
 
+    // Như getPlayerPointsForDeveloper: chế độ write-behind thì cộng phần đang chờ ghi của mọi developer
+    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
     public List<PlayerDeveloperPointsDTO> getPlayerPointsByDeveloper(Long playerId) throws GameException {
-        User player = userRepository.findById(playerId)
+        userIdentityCache.findById(playerId)
                 .orElseThrow(() -> new GameException("Player not found"));
 
-        List<PlayerDeveloperPoints> pdps = playerDeveloperPointsRepository.findByPlayer(player);
-        return pdps.stream()
-                .map(pdp -> new PlayerDeveloperPointsDTO(pdp.getDeveloper().getId(), pdp.getTotalPoints()))
+        if (!pointAccrualBuffer.isEnabled()) {
+            return playerDeveloperPointsRepository.findPointsByPlayerId(playerId);
+        }
+        Map<Long, Long> points = pointAccrualBuffer.readAllWithPending(playerId, () ->
+                playerDeveloperPointsRepository.findPointsByPlayerId(playerId).stream()
+                        .collect(Collectors.toMap(PlayerDeveloperPointsDTO::getId, PlayerDeveloperPointsDTO::getPoints)));
+        return points.entrySet().stream()
+                .map(entry -> new PlayerDeveloperPointsDTO(entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
     }
 
+    // READ COMMITTED: mỗi lần đọc thấy dữ liệu vừa commit, để cộng với phần đang chờ ghi mà không bị tính hai lần
+    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
     public Long getPlayerPointsForDeveloper(Long playerId, Long developerId) throws GameException {
-        User player = userRepository.findById(playerId)
+        User player = userIdentityCache.findById(playerId)
                 .orElseThrow(() -> new GameException("Player not found"));
-        User developer = userRepository.findById(developerId)
+        User developer = userIdentityCache.findById(developerId)
                 .orElseThrow(() -> new GameException("Developer not found"));
 
+        if (pointAccrualBuffer.isEnabled()) {
+            return pointAccrualBuffer.readWithPending(playerId, developerId, () -> playerDeveloperPointsRepository
+                    .findByPlayerAndDeveloper(player, developer).map(PlayerDeveloperPoints::getTotalPoints).orElse(0L));
+        }
         Optional<PlayerDeveloperPoints> pdp = playerDeveloperPointsRepository.findByPlayerAndDeveloper(player, developer);
         return pdp.map(PlayerDeveloperPoints::getTotalPoints).orElse(0L);
     }
 
     public List<PlayerDeveloperPointsDTO> getDeveloperLeaderboard(Long developerId) throws GameException {
-        User developer = userRepository.findById(developerId)
+        User developer = userIdentityCache.findById(developerId)
                 .orElseThrow(() -> new GameException("Developer not found"));
 
+        if (leaderboardIndex.isReady()) {
+            return leaderboardIndex.top(developerId, 10).stream()
+                    .map(entry -> new PlayerDeveloperPointsDTO(entry.getPlayerId(), entry.getTotalPoints()))
+                    .collect(Collectors.toList());
+        }
+
         List<PlayerDeveloperPoints> pdps = playerDeveloperPointsRepository.findByDeveloperOrderByTotalPointsDesc(
                 developer, PageRequest.of(0, 10, Sort.by("totalPoints").descending()));
 
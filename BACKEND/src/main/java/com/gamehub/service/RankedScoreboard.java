@@ -0,0 +1,211 @@
+// Note: Bảng xếp hạng có thứ tự trong bộ nhớ (order-statistic treap) cho một developer.
+// - Thứ tự: điểm giảm dần, cập nhật gần nhất trước, rồi playerId tăng dần (giống truy vấn top 10 cũ).
+// - Mỗi node giữ kích thước cây con nên cả rank của một player lẫn phần tử thứ k đều O(log n).
+// - Điểm và thời gian lưu dạng long nguyên thủy; không thread-safe, caller (LeaderboardIndex) giữ khóa.
+package com.gamehub.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class RankedScoreboard {
+
+    private final Map<Long, Node> byPlayer = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean contains(long playerId) {
+        return byPlayer.containsKey(playerId);
+    }
+
+    // Đặt điểm tuyệt đối cho player (thêm mới hoặc thay thế vị trí cũ)
+    public void put(long playerId, long score, long updatedAtMillis) {
+        Node existing = byPlayer.remove(playerId);
+        if (existing != null) {
+            root = delete(root, existing);
+        }
+        Node node = new Node(playerId, score, updatedAtMillis, random.nextInt());
+        byPlayer.put(playerId, node);
+        Node[] parts = split(root, node, false);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    // Cộng/trừ điểm; player chưa có trong bảng bắt đầu từ 0
+    public long add(long playerId, long delta, long updatedAtMillis) {
+        Node existing = byPlayer.get(playerId);
+        long score = (existing != null ? existing.score : 0L) + delta;
+        put(playerId, score, updatedAtMillis);
+        return score;
+    }
+
+    public void remove(long playerId) {
+        Node existing = byPlayer.remove(playerId);
+        if (existing != null) {
+            root = delete(root, existing);
+        }
+    }
+
+    // Hạng bắt đầu từ 1; -1 nếu player không có trong bảng
+    public int rankOf(long playerId) {
+        Node target = byPlayer.get(playerId);
+        if (target == null) {
+            return -1;
+        }
+        int before = 0;
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(target, current);
+            if (cmp == 0) {
+                return before + size(current.left) + 1;
+            }
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                before += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return -1;
+    }
+
+    public long scoreOf(long playerId) {
+        Node node = byPlayer.get(playerId);
+        return node != null ? node.score : 0L;
+    }
+
+    // Các phần tử từ vị trí offset (bắt đầu từ 0), tối đa limit phần tử, theo thứ tự xếp hạng
+    public List<Entry> range(int offset, int limit) {
+        int total = size();
+        int from = Math.max(0, offset);
+        int to = (int) Math.min((long) from + Math.max(0, limit), total);
+        List<Entry> entries = new ArrayList<>(Math.max(0, to - from));
+        collect(root, 0, from, to, entries);
+        return entries;
+    }
+
+    // Duyệt in-order nhưng bỏ qua các cây con nằm ngoài [from, to): O(log n + số phần tử trả về)
+    private static void collect(Node node, int before, int from, int to, List<Entry> out) {
+        if (node == null || before >= to || before + node.size <= from) {
+            return;
+        }
+        int leftSize = size(node.left);
+        collect(node.left, before, from, to, out);
+        int index = before + leftSize;
+        if (index >= from && index < to) {
+            out.add(new Entry(node.playerId, node.score, node.updatedAtMillis, index + 1));
+        }
+        collect(node.right, index + 1, from, to, out);
+    }
+
+    // Tách cây thành (các node đứng trước key, các node còn lại); inclusive = true thì node bằng key về bên trái
+    private static Node[] split(Node node, Node key, boolean inclusive) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        int cmp = compare(node, key);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Node[] parts = split(node.right, key, inclusive);
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, key, inclusive);
+        node.left = parts[1];
+        node.update();
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node delete(Node node, Node key) {
+        Node[] lower = split(node, key, false);
+        Node[] upper = split(lower[1], key, true);
+        return merge(lower[0], upper[1]);
+    }
+
+    private static int compare(Node a, Node b) {
+        if (a.score != b.score) {
+            return a.score > b.score ? -1 : 1;
+        }
+        if (a.updatedAtMillis != b.updatedAtMillis) {
+            return a.updatedAtMillis > b.updatedAtMillis ? -1 : 1;
+        }
+        return Long.compare(a.playerId, b.playerId);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    public static final class Entry {
+        private final long playerId;
+        private final long score;
+        private final long updatedAtMillis;
+        private final int rank;
+
+        private Entry(long playerId, long score, long updatedAtMillis, int rank) {
+            this.playerId = playerId;
+            this.score = score;
+            this.updatedAtMillis = updatedAtMillis;
+            this.rank = rank;
+        }
+
+        public long getPlayerId() {
+            return playerId;
+        }
+
+        public long getScore() {
+            return score;
+        }
+
+        public long getUpdatedAtMillis() {
+            return updatedAtMillis;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+    }
+
+    private static final class Node {
+        private final long playerId;
+        private final long score;
+        private final long updatedAtMillis;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long playerId, long score, long updatedAtMillis, int priority) {
+            this.playerId = playerId;
+            this.score = score;
+            this.updatedAtMillis = updatedAtMillis;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = 1 + RankedScoreboard.size(left) + RankedScoreboard.size(right);
+        }
+    }
+}
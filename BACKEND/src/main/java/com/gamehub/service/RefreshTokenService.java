@@ -0,0 +1,250 @@
+// Note: Quản lý refresh token: phát hành, xoay vòng (rotation) và thu hồi.
+// - Refresh token là JWT ký sẵn (typ=refresh), DB chỉ lưu SHA-256 của token trong bảng refresh_tokens.
+// - Mỗi lần refresh, token cũ bị thu hồi bằng một câu UPDATE có điều kiện rồi mới phát token mới,
+//   nên refresh không cần BCrypt và không cần SELECT ở đường đi bình thường.
+// - Token đã thu hồi được đưa vào bloom filter: dùng lại token cũ (replay) bị chặn ngay và
+//   toàn bộ refresh token của user đó bị thu hồi.
+package com.gamehub.service;
+
+import com.gamehub.dto.AuthResponse;
+import com.gamehub.exception.AuthenticationException;
+import com.gamehub.model.RefreshToken;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.RefreshTokenRepository;
+import com.gamehub.repository.UserRepository;
+import com.gamehub.security.JwtUtil;
+import com.gamehub.security.RevocationBloomFilter;
+import com.gamehub.security.VerifiedClaims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${jwt.refresh-bloom.expected-insertions:100000}")
+    private long bloomExpectedInsertions;
+
+    @Value("${jwt.refresh-bloom.false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    private volatile RevocationBloomFilter revokedTokens;
+
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder replaysDetected = new LongAdder();
+    private final LongAdder bloomPositives = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuildRevocationFilter();
+        } catch (Exception e) {
+            // Bloom filter rỗng vẫn an toàn: token bị thu hồi vẫn bị chặn bởi UPDATE có điều kiện
+            logger.error("Could not build refresh token revocation filter at startup", e);
+        }
+    }
+
+    // Dựng lại bloom filter từ DB; đồng thời dọn các token đã hết hạn (không cần kiểm tra nữa).
+    // Chạy trong transaction riêng vì có thể được gọi từ afterCommit của một transaction khác.
+    public synchronized void rebuildRevocationFilter() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int deleted = refreshTokenRepository.deleteExpiredBefore(now);
+            RevocationBloomFilter filter = new RevocationBloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+            List<String> revokedHashes = refreshTokenRepository.findRevokedUnexpiredTokenHashes(now);
+            revokedHashes.forEach(filter::add);
+            revokedTokens = filter;
+            logger.info("Refresh token revocation filter rebuilt: revoked={}, expiredDeleted={}, bits={}, hashes={}",
+                    revokedHashes.size(), deleted, filter.getBitCount(), filter.getHashFunctions());
+        });
+    }
+
+    public String issue(User user) {
+        String token = jwtUtil.generateRefreshToken(user.getId(), user.getEmail(), user.getRole().name());
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(
+                userRepository.getReferenceById(user.getId()),
+                hash(token),
+                now.plusNanos(jwtUtil.getRefreshExpirationMs() * 1_000_000L),
+                now
+        ));
+        return token;
+    }
+
+    // Đổi refresh token lấy cặp access/refresh token mới; token cũ không dùng lại được nữa
+    public AuthResponse refresh(String refreshToken) throws AuthenticationException {
+        VerifiedClaims claims = refreshToken != null ? jwtUtil.verifyRefreshToken(refreshToken) : null;
+        if (claims == null || claims.getUserId() == null) {
+            rejected.increment();
+            throw new AuthenticationException("Invalid refresh token");
+        }
+
+        String tokenHash = hash(refreshToken);
+        if (revocationFilter().mightContain(tokenHash)) {
+            bloomPositives.increment();
+            rejectIfRevoked(tokenHash, claims);
+        }
+
+        if (refreshTokenRepository.revokeIfActive(tokenHash, LocalDateTime.now()) == 0) {
+            // Không tìm thấy, đã hết hạn, hoặc vừa bị request khác dùng mất (bloom filter chưa kịp biết)
+            rejectIfRevoked(tokenHash, claims);
+            rejected.increment();
+            throw new AuthenticationException("Invalid refresh token");
+        }
+        markRevokedAfterCommit(List.of(tokenHash));
+
+        User user = userIdentityCache.findById(claims.getUserId())
+                .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
+        if (user.getStatus() != UserStatus.APPROVED) {
+            rejected.increment();
+            throw new AuthenticationException("Account is not approved. Please wait for admin approval.");
+        }
+
+        String accessToken = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name());
+        String newRefreshToken = issue(user);
+        refreshed.increment();
+        logger.debug("Refresh token rotated for user: {}", user.getEmail());
+        return new AuthResponse(accessToken, user.getRole().name(), user.getEmail(), user.getId(), newRefreshToken);
+    }
+
+    // Đăng xuất: thu hồi refresh token hiện tại (token không hợp lệ thì bỏ qua)
+    public void revoke(String refreshToken) {
+        if (refreshToken == null || jwtUtil.verifyRefreshToken(refreshToken) == null) {
+            return;
+        }
+        String tokenHash = hash(refreshToken);
+        if (refreshTokenRepository.revokeIfActive(tokenHash, LocalDateTime.now()) > 0) {
+            markRevokedAfterCommit(List.of(tokenHash));
+        }
+    }
+
+    public void revokeAllForUser(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> activeHashes = refreshTokenRepository.findActiveTokenHashesByUserId(userId, now);
+        refreshTokenRepository.revokeAllByUserId(userId, now);
+        markRevokedAfterCommit(activeHashes);
+    }
+
+    // Gọi trong transaction xóa user; token không còn dòng trong DB thì refresh luôn bị từ chối
+    public int deleteAllForUser(Long userId) {
+        return refreshTokenRepository.deleteAllByUserId(userId);
+    }
+
+    public Map<String, Object> getStats() {
+        RevocationBloomFilter filter = revocationFilter();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("refreshed", refreshed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("replaysDetected", replaysDetected.sum());
+        stats.put("bloomPositives", bloomPositives.sum());
+        stats.put("bloomInsertions", filter.getInsertions());
+        stats.put("bloomBits", filter.getBitCount());
+        stats.put("bloomHashFunctions", filter.getHashFunctions());
+        return stats;
+    }
+
+    // Token đã bị thu hồi mà vẫn được dùng lại: coi như bị lộ, thu hồi toàn bộ phiên của user.
+    // AuthenticationException là checked exception nên transaction vẫn commit việc thu hồi.
+    private void rejectIfRevoked(String tokenHash, VerifiedClaims claims) throws AuthenticationException {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(tokenHash).orElse(null);
+        if (stored != null && stored.isRevoked()) {
+            replaysDetected.increment();
+            rejected.increment();
+            logger.warn("Refresh token replay detected for user: {} - revoking all sessions", claims.getEmail());
+            revokeAllForUser(claims.getUserId());
+            throw new AuthenticationException("Refresh token has been revoked");
+        }
+    }
+
+    private void markRevokedAfterCommit(List<String> tokenHashes) {
+        if (tokenHashes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToFilter(tokenHashes);
+                }
+            });
+        } else {
+            addToFilter(tokenHashes);
+        }
+    }
+
+    private void addToFilter(List<String> tokenHashes) {
+        RevocationBloomFilter filter = revocationFilter();
+        tokenHashes.forEach(filter::add);
+        if (filter.isSaturated()) {
+            try {
+                rebuildRevocationFilter();
+            } catch (Exception e) {
+                logger.error("Could not rebuild refresh token revocation filter", e);
+            }
+        }
+    }
+
+    private RevocationBloomFilter revocationFilter() {
+        RevocationBloomFilter filter = revokedTokens;
+        if (filter == null) {
+            synchronized (this) {
+                if (revokedTokens == null) {
+                    revokedTokens = new RevocationBloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+                }
+                filter = revokedTokens;
+            }
+        }
+        return filter;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 // Note: Xử lý logic gửi và lấy danh sách review của game (review tự động được duyệt).
 package com.gamehub.service;
 
+import com.gamehub.dto.ReviewCursor;
+import com.gamehub.dto.ReviewPageResponse;
 import com.gamehub.dto.ReviewRequest;
 import com.gamehub.dto.ReviewResponse;
 import com.gamehub.exception.GameException;
@@ -11,17 +13,19 @@ import com.gamehub.model.enums.ReviewStatus;
 import com.gamehub.model.enums.UserRole;
 import com.gamehub.repository.GameRepository;
 import com.gamehub.repository.ReviewRepository;
-import com.gamehub.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -33,7 +37,7 @@ public class ReviewService {
     private ReviewRepository reviewRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserIdentityCache userIdentityCache;
 
     @Autowired
     private GameRepository gameRepository;
@@ -41,10 +45,19 @@ public class ReviewService {
     @Autowired
     private PointService pointService; // Note: Inject PointService để cộng điểm khi gửi review
 
+    @Autowired
+    private GameRatingStatsService gameRatingStatsService;
+
+    @Autowired
+    private DuplicateActionCache duplicateActionCache;
+
+    @Value("${gamehub.reviews.max-page-size:100}")
+    private int maxPageSize;
+
     public ReviewResponse submitReview(ReviewRequest reviewRequest, String userEmail) throws GameException {
         logger.info("Review submission attempt by user: {}", userEmail);
 
-        User player = userRepository.findByEmail(userEmail)
+        User player = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> {
                     logger.warn("User not found: {}", userEmail);
                     return new GameException("User not found");
@@ -61,7 +74,8 @@ public class ReviewService {
                     return new GameException("Game not found");
                 });
 
-        if (reviewRepository.existsByPlayerIdAndGameId(player.getId(), game.getId())) {
+        // Lặp lại đã biết thì trả lời ngay từ cache; còn lại unique (player_id, game_id) của reviews quyết định
+        if (duplicateActionCache.isReviewed(game.getId(), player.getId())) {
             logger.warn("Review submission failed - user already reviewed game: {}", game.getId());
             throw new GameException("You have already reviewed this game");
         }
@@ -76,6 +90,17 @@ public class ReviewService {
 
         try {
             reviewRepository.save(review);
+        } catch (DataIntegrityViolationException e) {
+            // Player và game đã được kiểm tra ở trên nên vi phạm ràng buộc ở đây là review trùng
+            duplicateActionCache.markReviewed(game.getId(), player.getId());
+            logger.warn("Review submission failed - user already reviewed game: {}", game.getId());
+            throw new GameException("You have already reviewed this game");
+        }
+
+        try {
+            duplicateActionCache.markReviewedAfterCommit(game.getId(), player.getId());
+            // Cập nhật thống kê rating trong cùng transaction với review
+            gameRatingStatsService.recordReview(game.getId(), review.getRating());
             logger.info("Review submitted successfully: ID={}, GameID={}", review.getId(), game.getId());
             // Tự động cộng 20 điểm khi gửi review
             pointService.awardPoints(player.getId(), game.getId(), "WRITE_REVIEW", 20L);
@@ -96,22 +121,54 @@ public class ReviewService {
         );
     }
 
+    // Danh sách đầy đủ (không phân trang), chỉ giữ lại cho client cũ khi bật gamehub.reviews.legacy-unpaged-enabled
+    @Transactional(readOnly = true)
     public List<ReviewResponse> getReviewsByGameId(Long gameId) {
         logger.info("Fetching reviews for game: {}", gameId);
+        return withoutEmptyRow(gameId, reviewRepository.findReviewPageNewest(gameId, Pageable.unpaged()));
+    }
 
-        gameRepository.findById(gameId)
-                .orElseThrow(() -> new GameException("Game not found with ID: " + gameId));
+    // Phân trang keyset theo review mới nhất (createdAt DESC, id DESC) hoặc rating cao nhất (rating DESC, createdAt DESC, id DESC)
+    @Transactional(readOnly = true)
+    public ReviewPageResponse getReviewsPage(Long gameId, String cursor, int limit, String sort) {
+        ReviewCursor.Sort order = ReviewCursor.Sort.parse(sort);
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // Lấy dư 1 phần tử để biết còn trang sau hay không
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        ReviewCursor position = cursor == null || cursor.isBlank() ? null : ReviewCursor.decode(cursor, order);
+        List<ReviewResponse> rows;
+        if (order == ReviewCursor.Sort.RATING) {
+            rows = position == null
+                    ? reviewRepository.findReviewPageByRating(gameId, pageable)
+                    : reviewRepository.findReviewPageByRatingAfter(gameId, position.getRating(),
+                    position.getCreatedAt(), position.getId(), pageable);
+        } else {
+            rows = position == null
+                    ? reviewRepository.findReviewPageNewest(gameId, pageable)
+                    : reviewRepository.findReviewPageNewestAfter(gameId, position.getCreatedAt(), position.getId(), pageable);
+        }
+        rows = withoutEmptyRow(gameId, rows);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ReviewResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ReviewResponse last = items.get(items.size() - 1);
+            nextCursor = new ReviewCursor(order, order == ReviewCursor.Sort.RATING ? last.getRating() : null,
+                    LocalDateTime.parse(last.getCreatedAt()), last.getId()).encode();
+        }
+        return new ReviewPageResponse(items, nextCursor);
+    }
 
-        List<Review> reviews = reviewRepository.findByGameId(gameId);
-        return reviews.stream().map(review -> new ReviewResponse(
-                review.getId(),
-                review.getPlayer().getId(),
-                review.getPlayer().getFullName(),
-                review.getGame().getId(),
-                review.getRating(),
-                review.getComment(),
-                ReviewStatus.APPROVED,
-                review.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
-        )).collect(Collectors.toList());
+    // Query đi từ bảng games: không có dòng nào nghĩa là game không tồn tại, dòng có id null là "game chưa có review"
+    private List<ReviewResponse> withoutEmptyRow(Long gameId, List<ReviewResponse> rows) {
+        if (rows.isEmpty()) {
+            throw new GameException("Game not found with ID: " + gameId);
+        }
+        if (rows.size() == 1 && rows.get(0).getId() == null) {
+            return List.of();
+        }
+        return rows;
     }
 }
@@ -0,0 +1,178 @@
+// Note: Bộ đếm tồn kho trong bộ nhớ cho các gift đang được đổi dồn dập (flash drop), tùy chọn
+// (gamehub.gifts.striped-inventory.enabled). Chỉ là cổng chặn trước: câu UPDATE có điều kiện trong DB vẫn quyết định
+// cuối cùng nên không bao giờ bán quá số lượng.
+// - Số lượng còn lại của mỗi gift chia vào nhiều stripe (AtomicLongArray, mỗi stripe một cache line riêng);
+//   mỗi lần đổi lấy một đơn vị từ stripe ngẫu nhiên, stripe hết thì thử các stripe khác. Khi mọi stripe về 0,
+//   người đổi bị từ chối ngay mà không phải xếp hàng chờ khóa dòng gifts.
+// - Transaction đổi quà rollback (không đủ điểm, lỗi) thì trả lại đơn vị đã lấy.
+// - Đối chiếu với DB: nạp lần đầu từ DB; DB báo hết hàng thì đặt về 0; sửa/xóa gift thì bỏ bộ đếm sau commit;
+//   định kỳ nạp lại các gift không có lượt đổi đang chạy (sửa sai lệch, ví dụ do instance khác bán bớt).
+package com.gamehub.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+@Service
+public class StripedGiftInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedGiftInventory.class);
+
+    // 8 long = 64 byte: mỗi stripe nằm trên một cache line riêng để các thread không tranh nhau
+    private static final int PADDING = 8;
+
+    @Value("${gamehub.gifts.striped-inventory.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gamehub.gifts.striped-inventory.stripes:16}")
+    private int stripes;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Lấy một đơn vị cho lượt đổi trong transaction hiện tại; false = hết hàng (theo bộ đếm).
+    // loader đọc số lượng từ DB khi gift chưa có bộ đếm
+    public boolean tryReserve(Long giftId, Function<Long, Optional<Long>> loader) {
+        if (!enabled) {
+            return true;
+        }
+        Counter counter = counters.get(giftId);
+        if (counter == null) {
+            Optional<Long> quantity = loader.apply(giftId);
+            if (quantity.isEmpty()) {
+                return true;
+            }
+            counter = counters.computeIfAbsent(giftId, id -> new Counter(stripes, quantity.get()));
+            reloads.increment();
+        }
+        if (!counter.take()) {
+            rejected.increment();
+            return false;
+        }
+        reserved.increment();
+        counter.inFlight.incrementAndGet();
+        Counter taken = counter;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                taken.inFlight.decrementAndGet();
+                if (status != STATUS_COMMITTED) {
+                    taken.release();
+                    released.increment();
+                }
+            }
+        });
+        return true;
+    }
+
+    // DB báo hết hàng dù bộ đếm còn: bộ đếm đang lệch, đặt về 0
+    public void markSoldOut(Long giftId) {
+        Counter counter = counters.get(giftId);
+        if (counter != null) {
+            counter.reset(0);
+        }
+    }
+
+    // Gift được sửa số lượng hoặc bị xóa: bỏ bộ đếm sau commit để lần đổi tiếp theo nạp lại từ DB
+    public void invalidateAfterCommit(Long giftId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counters.remove(giftId);
+                }
+            });
+        } else {
+            counters.remove(giftId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gamehub.gifts.striped-inventory.reconcile-interval-ms:30000}")
+    public void scheduledReconcile() {
+        if (!enabled || counters.isEmpty()) {
+            return;
+        }
+        try {
+            // Chỉ bỏ các bộ đếm đang rảnh: lần đổi tiếp theo nạp lại số lượng từ DB
+            counters.entrySet().removeIf(entry -> entry.getValue().inFlight.get() == 0);
+        } catch (Exception e) {
+            logger.error("Could not reconcile gift inventory counters", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("stripes", stripes);
+        stats.put("gifts", counters.size());
+        stats.put("reserved", reserved.sum());
+        stats.put("rejectedSoldOut", rejected.sum());
+        stats.put("released", released.sum());
+        stats.put("reloads", reloads.sum());
+        return stats;
+    }
+
+    private static final class Counter {
+        private final AtomicLongArray cells;
+        private final int stripes;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Counter(int stripes, long quantity) {
+            this.stripes = Math.max(1, stripes);
+            this.cells = new AtomicLongArray(this.stripes * PADDING);
+            reset(quantity);
+        }
+
+        // Chia đều số lượng vào các stripe (phần dư vào các stripe đầu)
+        private void reset(long quantity) {
+            long share = Math.max(0, quantity) / stripes;
+            long remainder = Math.max(0, quantity) % stripes;
+            for (int i = 0; i < stripes; i++) {
+                cells.set(i * PADDING, share + (i < remainder ? 1 : 0));
+            }
+        }
+
+        private boolean take() {
+            int start = ThreadLocalRandom.current().nextInt(stripes);
+            for (int i = 0; i < stripes; i++) {
+                int index = ((start + i) % stripes) * PADDING;
+                long current;
+                while ((current = cells.get(index)) > 0) {
+                    if (cells.compareAndSet(index, current, current - 1)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void release() {
+            cells.incrementAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING);
+        }
+    }
+}
@@ -43,7 +43,7 @@ public class TransactionService {
     // Developer mua asset
     @Transactional
     public TransactionResponse purchaseAsset(PurchaseAssetRequest request, String buyerEmail) {
-        User buyer = userService.findByEmail(buyerEmail);
+        User buyer = userService.findFreshByEmail(buyerEmail); // Số dư sẽ bị trừ nên đọc thẳng từ DB
         Asset asset = assetRepository.findById(request.getAssetId())
                 .orElseThrow(() -> new ResourceNotFoundException("Asset không tồn tại"));
 
@@ -100,7 +100,7 @@ public class TransactionService {
     // Admin duyệt giao dịch
     @Transactional
     public TransactionResponse approveTransaction(Long transactionId, String adminEmail) {
-        User admin = userService.findByEmail(adminEmail);
+        User admin = userService.findFreshByEmail(adminEmail); // Số dư admin sẽ được cộng phí nên đọc thẳng từ DB
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Giao dịch không tồn tại"));
 
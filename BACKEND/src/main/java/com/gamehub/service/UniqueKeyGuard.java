@@ -0,0 +1,117 @@
+// Note: Kiểm tra lúc khởi động các unique key mà logic chống trùng dựa vào
+// (PointService.awardPoints bắt lỗi trùng khóa khi chèn point_transactions, ReviewService.submitReview cũng vậy).
+// - ddl-auto=update bỏ qua (chỉ log warning) khi không tạo được unique key vì dữ liệu cũ đã có bản ghi trùng;
+//   khi đó cộng điểm/review trùng sẽ lọt qua mà không ai biết, nên thiếu key là dừng khởi động.
+// - Chạy sau khi mọi bean đã tạo (Hibernate đã cập nhật schema) nhưng trước khi web server nhận request.
+// - Dọn dữ liệu trùng là migration riêng (DuplicateAwardMigration), chỉ chạy khi bật gamehub.schema.repair-unique-keys.
+package com.gamehub.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class UniqueKeyGuard implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueKeyGuard.class);
+
+    static final List<RequiredKey> REQUIRED_KEYS = List.of(
+            new RequiredKey("point_transactions", "uk_point_transactions_player_game_action",
+                    List.of("player_id", "game_id", "action_type")),
+            new RequiredKey("reviews", "uk_reviews_player_game", List.of("player_id", "game_id")));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DuplicateAwardMigration duplicateAwardMigration;
+
+    @Value("${gamehub.schema.repair-unique-keys:false}")
+    private boolean repairEnabled;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        verify();
+    }
+
+    public void verify() {
+        List<RequiredKey> missing = missingKeys();
+        if (missing.isEmpty()) {
+            return;
+        }
+        if (repairEnabled) {
+            logger.warn("Unique keys missing: {} - running duplicate award migration", names(missing));
+            duplicateAwardMigration.run(missing);
+            missing = missingKeys();
+        }
+        if (!missing.isEmpty()) {
+            logger.error("Unique keys missing: {}; duplicate points/reviews are not prevented. "
+                    + "Run scripts/schema.sql or start once with gamehub.schema.repair-unique-keys=true", names(missing));
+            throw new IllegalStateException("Missing unique keys " + names(missing));
+        }
+    }
+
+    private List<RequiredKey> missingKeys() {
+        List<RequiredKey> missing = new ArrayList<>();
+        for (RequiredKey key : REQUIRED_KEYS) {
+            if (!hasUniqueKey(key)) {
+                missing.add(key);
+            }
+        }
+        return missing;
+    }
+
+    private static List<String> names(List<RequiredKey> keys) {
+        return keys.stream().map(key -> key.table + "." + key.name).toList();
+    }
+
+    // So theo tập cột thay vì tên: H2 đặt tên index khác tên constraint
+    private boolean hasUniqueKey(RequiredKey key) {
+        Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Set<String>> uniqueIndexes = new HashMap<>();
+            for (String table : new String[]{key.table, key.table.toUpperCase()}) {
+                try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+                    while (rs.next()) {
+                        String indexName = rs.getString("INDEX_NAME");
+                        String column = rs.getString("COLUMN_NAME");
+                        if (indexName != null && column != null && !rs.getBoolean("NON_UNIQUE")) {
+                            uniqueIndexes.computeIfAbsent(indexName, n -> new HashSet<>()).add(column.toLowerCase());
+                        }
+                    }
+                }
+                if (!uniqueIndexes.isEmpty()) {
+                    break;
+                }
+            }
+            return uniqueIndexes.containsValue(new HashSet<>(key.columns));
+        });
+        return Boolean.TRUE.equals(found);
+    }
+
+    static final class RequiredKey {
+        final String table;
+        final String name;
+        final List<String> columns;
+
+        RequiredKey(String table, String name, List<String> columns) {
+            this.table = table;
+            this.name = name;
+            this.columns = columns;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+// Note: Cache ngắn hạn (TTL) cho User theo email và id, thay cho findByEmail/findById lặp lại ở mỗi request.
+// - Trả về bản sao (detached) nên caller có thể sửa mà không ảnh hưởng cache; muốn ghi thì gọi UserService.save.
+// - Trong cùng một request, các lần tra cứu trả về cùng một instance (memo theo request).
+// - Mọi chỗ ghi vào bảng users (save, duyệt tài khoản, thay đổi số dư) phải gọi evict().
+package com.gamehub.service;
+
+import com.gamehub.model.User;
+import com.gamehub.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class UserIdentityCache {
+
+    private static final String REQUEST_ATTRIBUTE_PREFIX = UserIdentityCache.class.getName() + ".";
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<String, CachedUser> byEmail = new ConcurrentHashMap<>();
+    private final Map<Long, CachedUser> byId = new ConcurrentHashMap<>();
+    // Tăng mỗi lần evict; kết quả load từ DB chỉ được đưa vào cache nếu không có evict nào xảy ra trong lúc load
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder requestHits = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public UserIdentityCache(UserRepository userRepository,
+                             @Value("${gamehub.user-cache.ttl-ms:30000}") long ttlMs,
+                             @Value("${gamehub.user-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        String requestKey = REQUEST_ATTRIBUTE_PREFIX + "email:" + email;
+        User memoized = getRequestMemo(requestKey);
+        if (memoized != null) {
+            requestHits.increment();
+            return Optional.of(memoized);
+        }
+
+        CachedUser cached = byEmail.get(email);
+        User user;
+        if (cached != null && !cached.isExpired()) {
+            hits.increment();
+            user = copyOf(cached.user);
+        } else {
+            misses.increment();
+            long loadGeneration = generation.get();
+            Optional<User> loaded = userRepository.findByEmail(email);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            put(loaded.get(), loadGeneration);
+            user = copyOf(loaded.get());
+        }
+        memoize(user);
+        return Optional.of(user);
+    }
+
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        String requestKey = REQUEST_ATTRIBUTE_PREFIX + "id:" + id;
+        User memoized = getRequestMemo(requestKey);
+        if (memoized != null) {
+            requestHits.increment();
+            return Optional.of(memoized);
+        }
+
+        CachedUser cached = byId.get(id);
+        User user;
+        if (cached != null && !cached.isExpired()) {
+            hits.increment();
+            user = copyOf(cached.user);
+        } else {
+            misses.increment();
+            long loadGeneration = generation.get();
+            Optional<User> loaded = userRepository.findById(id);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            put(loaded.get(), loadGeneration);
+            user = copyOf(loaded.get());
+        }
+        memoize(user);
+        return Optional.of(user);
+    }
+
+    // Xóa user khỏi cache ngay, và một lần nữa sau khi transaction hiện tại kết thúc
+    // để không giữ lại dữ liệu cũ do request khác load trước khi commit
+    public void evict(User user) {
+        if (user == null) {
+            return;
+        }
+        evict(user.getId(), user.getEmail());
+    }
+
+    public void evict(Long id, String email) {
+        evictNow(id, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(id, email);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        byEmail.clear();
+        byId.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", byId.size());
+        stats.put("ttlMs", ttlMs);
+        stats.put("requestHits", requestHits.sum());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private void evictNow(Long id, String email) {
+        generation.incrementAndGet();
+        evictions.increment();
+        CachedUser removed = null;
+        if (id != null) {
+            removed = byId.remove(id);
+            removeRequestMemo(REQUEST_ATTRIBUTE_PREFIX + "id:" + id);
+        }
+        if (email != null) {
+            byEmail.remove(email);
+            removeRequestMemo(REQUEST_ATTRIBUTE_PREFIX + "email:" + email);
+        }
+        // Email có thể đã đổi: xóa luôn key email cũ đang trỏ tới cùng user
+        if (removed != null && removed.user.getEmail() != null) {
+            byEmail.remove(removed.user.getEmail());
+            removeRequestMemo(REQUEST_ATTRIBUTE_PREFIX + "email:" + removed.user.getEmail());
+        }
+    }
+
+    private void put(User user, long loadGeneration) {
+        if (user.getId() == null || user.getEmail() == null) {
+            return;
+        }
+        if (byId.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            byId.values().removeIf(entry -> entry.expiresAt <= now);
+            byEmail.values().removeIf(entry -> entry.expiresAt <= now);
+            if (byId.size() >= maxEntries) {
+                return;
+            }
+        }
+        CachedUser entry = new CachedUser(copyOf(user), System.currentTimeMillis() + ttlMs);
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        byId.put(user.getId(), entry);
+        byEmail.put(user.getEmail(), entry);
+    }
+
+    private void memoize(User user) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        attributes.setAttribute(REQUEST_ATTRIBUTE_PREFIX + "id:" + user.getId(), user, RequestAttributes.SCOPE_REQUEST);
+        attributes.setAttribute(REQUEST_ATTRIBUTE_PREFIX + "email:" + user.getEmail(), user, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private User getRequestMemo(String key) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (User) attributes.getAttribute(key, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private void removeRequestMemo(String key) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(key, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static User copyOf(User source) {
+        User copy = new User();
+        copy.setId(source.getId());
+        copy.setEmail(source.getEmail());
+        copy.setPassword(source.getPassword());
+        copy.setRole(source.getRole());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setFullName(source.getFullName());
+        copy.setPortfolioUrl(source.getPortfolioUrl());
+        copy.setExperienceYears(source.getExperienceYears());
+        copy.setStatus(source.getStatus());
+        copy.setBalance(source.getBalance());
+        copy.setAvatarUrl(source.getAvatarUrl());
+        return copy;
+    }
+
+    private static final class CachedUser {
+        private final User user;
+        private final long expiresAt;
+
+        private CachedUser(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
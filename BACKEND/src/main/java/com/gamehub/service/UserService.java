@@ -22,25 +22,43 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    // Tra cứu qua UserIdentityCache; dùng cho kiểm tra quyền và các thao tác chỉ đọc
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return userIdentityCache.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
 
     public User findById(Long id) {
-        return userRepository.findById(id)
+        return userIdentityCache.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
 
+    // Đọc thẳng từ DB, dùng trước khi sửa rồi lưu lại user (số dư, hồ sơ)
+    public User findFreshByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
     public User updateUserBalance(Long userId, BigDecimal amount) {
-        User user = findById(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         BigDecimal currentBalance = user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO;
         user.setBalance(currentBalance.add(amount));
-        return userRepository.save(user);
+        return save(user);
     }
 
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userIdentityCache.evict(saved);
+        // Tên và avatar của designer nằm trong danh sách asset công khai
+        catalogVersions.bumpAfterCommit(CatalogVersions.Catalog.ASSETS);
+        return saved;
     }
 
     public List<User> findByRoleAndStatus(UserRole role, UserStatus status) {
@@ -154,3 +154,162 @@ CREATE TABLE IF NOT EXISTS transactions (
     INDEX idx_seller_id (seller_id),
     INDEX idx_created_at (created_at)
     );
+
+-- Tạo bảng refresh_tokens (chỉ lưu SHA-256 của refresh token)
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    revoked_at DATETIME,
+    expires_at DATETIME NOT NULL,
+    created_at DATETIME NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    INDEX idx_refresh_tokens_user (user_id)
+);
+
+-- Index cho phân trang keyset danh sách game công khai (status, created_at DESC, id DESC)
+CREATE INDEX idx_games_status_created ON games (status, created_at, id);
+
+-- Tạo bảng game_rating_stats (thống kê rating cộng dồn theo game, đối soát định kỳ với reviews)
+CREATE TABLE IF NOT EXISTS game_rating_stats (
+    game_id BIGINT PRIMARY KEY,
+    review_count BIGINT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    rating_1 BIGINT NOT NULL DEFAULT 0,
+    rating_2 BIGINT NOT NULL DEFAULT 0,
+    rating_3 BIGINT NOT NULL DEFAULT 0,
+    rating_4 BIGINT NOT NULL DEFAULT 0,
+    rating_5 BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME NOT NULL
+);
+
+-- Index cho phân trang keyset review theo game (mới nhất / rating cao nhất)
+CREATE INDEX idx_reviews_game_created ON reviews (game_id, created_at, id);
+CREATE INDEX idx_reviews_game_rating ON reviews (game_id, rating, created_at, id);
+
+-- Tạo bảng game_download_stats (số lượt tải theo game, cộng dồn theo lô)
+CREATE TABLE IF NOT EXISTS game_download_stats (
+    game_id BIGINT PRIMARY KEY,
+    download_count BIGINT NOT NULL DEFAULT 0,
+    last_download_at DATETIME NOT NULL
+);
+
+-- Chiều xếp hạng bảng điểm của game (DESC: cao hơn tốt hơn, ASC: thấp hơn tốt hơn)
+ALTER TABLE games ADD COLUMN score_order VARCHAR(8) DEFAULT 'DESC';
+
+-- Tạo bảng game_scores (điểm tốt nhất của mỗi người chơi trong mỗi game, ghi theo lô)
+CREATE TABLE IF NOT EXISTS game_scores (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    game_id BIGINT NOT NULL,
+    player_id BIGINT NOT NULL,
+    best_score BIGINT NOT NULL,
+    achieved_at DATETIME NOT NULL,
+    submit_count BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME NOT NULL,
+    FOREIGN KEY (game_id) REFERENCES games(id),
+    FOREIGN KEY (player_id) REFERENCES users(id),
+    UNIQUE KEY uk_game_scores_game_player (game_id, player_id),
+    INDEX idx_game_scores_game_score (game_id, best_score, achieved_at)
+);
+
+-- Tạo bảng leaderboard_window_points (điểm kiếm được theo developer trong kỳ ngày/tuần/mùa còn mở)
+CREATE TABLE IF NOT EXISTS leaderboard_window_points (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    window_type VARCHAR(16) NOT NULL,
+    bucket_start DATE NOT NULL,
+    developer_id BIGINT NOT NULL,
+    player_id BIGINT NOT NULL,
+    points BIGINT NOT NULL DEFAULT 0,
+    last_updated DATETIME NOT NULL,
+    UNIQUE KEY uk_window_points_bucket_dev_player (window_type, bucket_start, developer_id, player_id)
+);
+
+-- Tạo bảng leaderboard_snapshots (top N mỗi developer của các kỳ đã đóng)
+CREATE TABLE IF NOT EXISTS leaderboard_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    window_type VARCHAR(16) NOT NULL,
+    bucket_start DATE NOT NULL,
+    developer_id BIGINT NOT NULL,
+    rank_position INT NOT NULL,
+    player_id BIGINT NOT NULL,
+    points BIGINT NOT NULL,
+    total_players INT NOT NULL,
+    UNIQUE KEY uk_snapshots_bucket_dev_rank (window_type, bucket_start, developer_id, rank_position),
+    INDEX idx_snapshots_bucket_dev_player (window_type, bucket_start, developer_id, player_id)
+);
+
+-- Tạo bảng game_api_keys (API key của game server, chỉ lưu SHA-256; mỗi game tối đa một key)
+CREATE TABLE IF NOT EXISTS game_api_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    game_id BIGINT NOT NULL,
+    key_hash VARCHAR(64) NOT NULL,
+    key_prefix VARCHAR(16) NOT NULL,
+    created_at DATETIME NOT NULL,
+    UNIQUE KEY uk_game_api_keys_game (game_id),
+    UNIQUE KEY uk_game_api_keys_hash (key_hash)
+);
+
+-- Mỗi (player, game, loại hành động) chỉ được cộng điểm một lần, mỗi player chỉ review một game một lần.
+-- Dữ liệu cũ có bản ghi trùng thì ALTER lỗi: khởi động ứng dụng một lần với gamehub.schema.repair-unique-keys=true
+-- để xóa bản ghi trùng, trừ lại điểm đã cộng thừa (player_developer_points, bảng xếp hạng theo kỳ) và thêm key.
+-- Thiếu key thì UniqueKeyGuard dừng khởi động. Key đã có thì ALTER báo "Duplicate key name" và có thể bỏ qua.
+ALTER TABLE point_transactions ADD UNIQUE KEY uk_point_transactions_player_game_action (player_id, game_id, action_type);
+ALTER TABLE reviews ADD UNIQUE KEY uk_reviews_player_game (player_id, game_id);
+
+-- Index cho job lưu trữ giao dịch điểm cũ (WHERE created_at < ? ORDER BY created_at, id LIMIT ?)
+CREATE INDEX idx_point_transactions_created ON point_transactions (created_at, id);
+
+-- Tạo bảng point_transaction_archive (giao dịch điểm cũ chuyển khỏi point_transactions, giữ nguyên id;
+-- unique giống bảng gốc để kiểm tra cộng điểm trùng vẫn đúng sau khi lưu trữ)
+CREATE TABLE IF NOT EXISTS point_transaction_archive (
+    id BIGINT PRIMARY KEY,
+    player_id BIGINT NOT NULL,
+    game_id BIGINT,
+    action_type VARCHAR(50) NOT NULL,
+    points BIGINT NOT NULL,
+    created_at DATETIME NOT NULL,
+    archived_at DATETIME NOT NULL,
+    UNIQUE KEY uk_point_archive_player_game_action (player_id, game_id, action_type),
+    INDEX idx_point_archive_player_created (player_id, created_at)
+);
+
+-- Tạo bảng point_monthly_summaries (tổng theo tháng cho mỗi player, game của giao dịch đã lưu trữ; game_id = 0 nếu không gắn game)
+CREATE TABLE IF NOT EXISTS point_monthly_summaries (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    player_id BIGINT NOT NULL,
+    game_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    total_points BIGINT NOT NULL,
+    last_created_at DATETIME NOT NULL,
+    UNIQUE KEY uk_point_monthly_player_month_game (player_id, month_start, game_id)
+);
+
+-- Gift ở chế độ drop: lượt đổi được xếp hàng thành ticket và xử lý theo lô
+ALTER TABLE gifts ADD COLUMN drop_mode BOOLEAN DEFAULT FALSE;
+
+-- Tạo bảng gift_codes (mã đổi quà developer tải lên hoặc hệ thống sinh cho từng gift; claimed_* được ghi sau theo lô)
+CREATE TABLE IF NOT EXISTS gift_codes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    gift_id BIGINT NOT NULL,
+    code VARCHAR(64) NOT NULL,
+    created_at DATETIME NOT NULL,
+    claimed_by BIGINT,
+    claimed_at DATETIME,
+    UNIQUE KEY uk_gift_codes_gift_code (gift_id, code),
+    INDEX idx_gift_codes_gift_claimed (gift_id, claimed_at)
+);
+
+-- Mã phát cho mỗi lượt đổi được ghi cùng transaction đổi quà; unique theo gift để một mã không bao giờ phát hai lần
+ALTER TABLE gift_transactions ADD COLUMN redemption_code VARCHAR(64);
+ALTER TABLE gift_transactions ADD UNIQUE KEY uk_gift_transactions_gift_code (gift_id, redemption_code);
+
+-- Tạo bảng asset_tags (tag đã chuẩn hóa của từng asset; assets.tags giữ chuỗi gốc để hiển thị)
+CREATE TABLE IF NOT EXISTS asset_tags (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    asset_id BIGINT NOT NULL,
+    tag VARCHAR(64) NOT NULL,
+    UNIQUE KEY uk_asset_tags_asset_tag (asset_id, tag),
+    INDEX idx_asset_tags_tag_asset (tag, asset_id)
+);
@@ -0,0 +1,97 @@
+// Note: JMH benchmark so sánh chi phí xác thực JWT mỗi request:
+// - legacy: dựng key + parser mới và parse token 3 lần (validateToken, getEmailFromToken, getRoleFromToken)
+// - singleParse: key/parser dựng sẵn, parse đúng 1 lần (cache tắt)
+// - cached: đường đi mặc định của JwtAuthenticationFilter (cache token đã xác thực)
+// Chạy (JMH cần classpath thật cho JVM fork):
+//   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.gamehub.security.JwtVerificationBenchmark
+package com.gamehub.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+
+    private JwtUtil singleParse;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        singleParse = newJwtUtil(0);
+        cached = newJwtUtil(10000);
+        token = cached.generateToken(1L, "player@example.com", "PLAYER");
+    }
+
+    @Benchmark
+    public String legacy() {
+        if (!legacyValidate(token)) {
+            return null;
+        }
+        return legacyClaims(token).getSubject() + legacyClaims(token).get("role", String.class);
+    }
+
+    @Benchmark
+    public String singleParse() {
+        VerifiedClaims claims = singleParse.verify(token);
+        return claims.getEmail() + claims.getRole();
+    }
+
+    @Benchmark
+    public String cached() {
+        VerifiedClaims claims = cached.verify(token);
+        return claims.getEmail() + claims.getRole();
+    }
+
+    private static JwtUtil newJwtUtil(int cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", cacheSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static boolean legacyValidate(String token) {
+        try {
+            legacyClaims(token);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,54 @@
+// Note: Xóa tài khoản (ADMIN) khi user đã từng đăng nhập: refresh_tokens.user_id là khóa ngoại tới users,
+// deleteUser phải xóa refresh token của user trong cùng transaction thay vì lỗi vi phạm ràng buộc.
+// Chạy trên H2 chế độ MySQL (profile "test"): mvn test -Dtest=ApprovalServiceTest
+package com.gamehub.service;
+
+import com.gamehub.exception.AuthenticationException;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ApprovalServiceTest {
+
+    @Autowired
+    private ApprovalService approvalService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletingUserWithRefreshTokensRemovesTheTokens() throws Exception {
+        User player = userRepository.save(new User("player-" + UUID.randomUUID() + "@test.local", "password123",
+                UserRole.PLAYER, "Player", null, 1, UserStatus.APPROVED));
+        String refreshToken = refreshTokenService.issue(player);
+        refreshTokenService.issue(player);
+
+        approvalService.deleteUser(player.getId());
+
+        assertFalse(userRepository.findById(player.getId()).isPresent());
+        Integer remaining = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE user_id = ?", Integer.class, player.getId());
+        assertEquals(0, remaining);
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.refresh(refreshToken));
+    }
+}
@@ -0,0 +1,171 @@
+// Note: Unit test cho AssetTagIndex (chỉ mục tag -> assets trong bộ nhớ), không cần Spring context:
+// - chuẩn hóa tag: bỏ khoảng trắng thừa, chữ thường, bỏ trùng, bỏ tag rỗng/dài quá MAX_TAG_LENGTH
+// - mode "all"/"any", phân trang trên các bit đã set theo thứ tự danh mục, đếm theo tag và theo loại
+// - truyền tag nhưng không tag nào hợp lệ thì bị từ chối, không trả về toàn bộ danh mục
+// Chạy: mvn test -Dtest=AssetTagIndexTest
+package com.gamehub.service;
+
+import com.gamehub.dto.AssetResponse;
+import com.gamehub.dto.AssetSearchResponse;
+import com.gamehub.exception.AssetException;
+import com.gamehub.model.enums.AssetStatus;
+import com.gamehub.model.enums.AssetType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssetTagIndexTest {
+
+    private static final String LONG_TAG = "x".repeat(AssetTagIndex.MAX_TAG_LENGTH + 1);
+
+    private AssetTagIndex index;
+
+    // Thứ tự danh mục là thứ tự id 1..10
+    @BeforeEach
+    void setUp() {
+        index = new AssetTagIndex();
+        ReflectionTestUtils.setField(index, "catalogVersions", new CatalogVersions());
+        ReflectionTestUtils.setField(index, "maxQueryTags", 10);
+        ReflectionTestUtils.setField(index, "maxPageSize", 50);
+        ReflectionTestUtils.setField(index, "maxFacets", 50);
+
+        List<AssetResponse> assets = new ArrayList<>();
+        List<Long> tagAssetIds = new ArrayList<>();
+        List<String> tagNames = new ArrayList<>();
+        addAsset(assets, tagAssetIds, tagNames, 1L, AssetType.FREE, "pixel", "sci-fi");
+        addAsset(assets, tagAssetIds, tagNames, 2L, AssetType.PAID, "sci-fi");
+        addAsset(assets, tagAssetIds, tagNames, 3L, AssetType.FREE, "pixel");
+        addAsset(assets, tagAssetIds, tagNames, 4L, AssetType.PAID, "sci-fi", "music");
+        addAsset(assets, tagAssetIds, tagNames, 5L, AssetType.FREE, "pixel");
+        addAsset(assets, tagAssetIds, tagNames, 6L, AssetType.FREE, "music");
+        addAsset(assets, tagAssetIds, tagNames, 7L, AssetType.PAID, "pixel", "sci-fi");
+        addAsset(assets, tagAssetIds, tagNames, 8L, AssetType.FREE);
+        addAsset(assets, tagAssetIds, tagNames, 9L, AssetType.FREE, "pixel");
+        addAsset(assets, tagAssetIds, tagNames, 10L, AssetType.PAID, "pixel", "music");
+        // Cặp tag của asset không còn trong danh mục (bị gỡ duyệt giữa hai câu SELECT) bị bỏ qua
+        tagAssetIds.add(99L);
+        tagNames.add("pixel");
+        index.install(0L, assets, tagAssetIds, tagNames);
+    }
+
+    @Test
+    void normalizeTagsTrimsLowercasesAndDropsInvalid() {
+        assertEquals(List.of("pixel art", "sci-fi"),
+                AssetTagIndex.normalizeTags(" Pixel   Art, pixel art ,,SCI-FI, " + LONG_TAG));
+        assertTrue(AssetTagIndex.normalizeTags(null).isEmpty());
+        assertTrue(AssetTagIndex.normalizeTags("  ").isEmpty());
+        assertTrue(AssetTagIndex.normalizeTags(" , ,").isEmpty());
+
+        String maxLength = "y".repeat(AssetTagIndex.MAX_TAG_LENGTH);
+        assertEquals(maxLength, AssetTagIndex.normalizeTag(" " + maxLength.toUpperCase() + " "));
+        assertNull(AssetTagIndex.normalizeTag(LONG_TAG));
+        assertNull(AssetTagIndex.normalizeTag("   "));
+    }
+
+    @Test
+    void allModeIntersectsAndAnyModeUnites() {
+        AssetSearchResponse all = index.search(List.of("pixel", "SCI-FI"), "all", null, 0, 50);
+        assertEquals(List.of(1L, 7L), ids(all));
+        assertEquals(2, all.getTotalHits());
+        assertEquals(List.of("pixel", "sci-fi"), all.getTags());
+
+        AssetSearchResponse any = index.search(List.of("sci-fi,music"), "ANY", null, 0, 50);
+        assertEquals(List.of(1L, 2L, 4L, 6L, 7L, 10L), ids(any));
+        assertEquals("any", any.getMode());
+
+        // Tag không có trong danh mục: "all" không khớp gì, "any" chỉ lấy các tag còn lại
+        assertEquals(0, index.search(List.of("pixel", "unknown"), null, null, 0, 50).getTotalHits());
+        assertEquals(List.of(6L), ids(index.search(List.of("unknown", "music"), "any", AssetType.FREE, 0, 50)));
+
+        // Không truyền tag: toàn bộ danh mục
+        assertEquals(10, index.search(List.of(), null, null, 0, 50).getTotalHits());
+        assertEquals(10, index.search(null, null, null, 0, 50).getTotalHits());
+    }
+
+    @Test
+    void pagesWalkSetBitsInCatalogOrder() {
+        AssetSearchResponse first = index.search(List.of("pixel"), null, null, 0, 4);
+        assertEquals(List.of(1L, 3L, 5L, 7L), ids(first));
+        assertEquals(6, first.getTotalHits());
+
+        AssetSearchResponse second = index.search(List.of("pixel"), null, null, 1, 4);
+        assertEquals(List.of(9L, 10L), ids(second));
+        assertEquals(6, second.getTotalHits());
+
+        AssetSearchResponse beyond = index.search(List.of("pixel"), null, null, 2, 4);
+        assertTrue(beyond.getItems().isEmpty());
+        assertEquals(6, beyond.getTotalHits());
+
+        // Kích thước trang bị giới hạn trong [1, maxPageSize], trang âm thành trang 0
+        ReflectionTestUtils.setField(index, "maxPageSize", 3);
+        AssetSearchResponse clamped = index.search(List.of("pixel"), null, null, -1, 100);
+        assertEquals(List.of(1L, 3L, 5L), ids(clamped));
+        assertEquals(0, clamped.getPage());
+        assertEquals(3, clamped.getSize());
+        assertEquals(List.of(1L), ids(index.search(List.of("pixel"), null, null, 0, 0)));
+    }
+
+    @Test
+    void facetsCountTagsAndTypesOfMatchedAssets() {
+        AssetSearchResponse pixel = index.search(List.of("pixel"), null, null, 0, 2);
+        // Đếm trên toàn bộ kết quả, không chỉ trang hiện tại; cùng số lượng thì theo tên
+        assertEquals(List.of("pixel", "sci-fi", "music"), List.copyOf(pixel.getTagCounts().keySet()));
+        assertEquals(Map.of("pixel", 6L, "sci-fi", 2L, "music", 1L), pixel.getTagCounts());
+        assertEquals(Map.of("FREE", 4L, "PAID", 2L), pixel.getTypeCounts());
+
+        // Lọc theo loại: số lượng theo loại vẫn tính trước khi lọc, số lượng theo tag tính sau
+        AssetSearchResponse paid = index.search(List.of("pixel"), null, AssetType.PAID, 0, 50);
+        assertEquals(List.of(7L, 10L), ids(paid));
+        assertEquals(Map.of("FREE", 4L, "PAID", 2L), paid.getTypeCounts());
+        assertEquals(Map.of("pixel", 2L, "sci-fi", 1L, "music", 1L), paid.getTagCounts());
+
+        ReflectionTestUtils.setField(index, "maxFacets", 2);
+        assertEquals(List.of("pixel", "sci-fi"),
+                List.copyOf(index.search(List.of("pixel"), null, null, 0, 50).getTagCounts().keySet()));
+    }
+
+    @Test
+    void suppliedTagsThatNormalizeAwayAreRejected() {
+        assertThrows(AssetException.class, () -> index.search(List.of(LONG_TAG), null, null, 0, 50));
+        assertThrows(AssetException.class, () -> index.search(List.of(" , "), "any", null, 0, 50));
+        assertThrows(AssetException.class, () -> index.search(List.of(""), null, null, 0, 50));
+        // Một tag sai trong nhiều tag cũng bị từ chối: bỏ qua sẽ làm mode "all" rộng ra
+        assertThrows(AssetException.class, () -> index.search(List.of("pixel," + LONG_TAG), null, null, 0, 50));
+        assertThrows(AssetException.class, () -> index.search(List.of("pixel"), "some", null, 0, 50));
+
+        ReflectionTestUtils.setField(index, "maxQueryTags", 2);
+        assertThrows(AssetException.class, () -> index.search(List.of("a", "b", "c"), null, null, 0, 50));
+        // Tag trùng sau chuẩn hóa chỉ tính một lần
+        assertEquals(2, index.search(List.of("Pixel", "pixel ", "sci-fi"), null, null, 0, 50).getTotalHits());
+    }
+
+    private static void addAsset(List<AssetResponse> assets, List<Long> tagAssetIds, List<String> tagNames,
+                                 long id, AssetType type, String... tags) {
+        assets.add(new AssetResponse(id, "Asset " + id, null, "/files/" + id, null, type,
+                type == AssetType.PAID ? BigDecimal.ONE : null, String.join(",", tags), "SVG",
+                AssetStatus.APPROVED, 1L, "Designer", null, LocalDateTime.now()));
+        for (String tag : tags) {
+            tagAssetIds.add(id);
+            tagNames.add(tag);
+        }
+    }
+
+    private static List<Long> ids(AssetSearchResponse response) {
+        List<Long> ids = new ArrayList<>(response.getItems().size());
+        for (AssetResponse asset : response.getItems()) {
+            ids.add(asset.getId());
+        }
+        return ids;
+    }
+}
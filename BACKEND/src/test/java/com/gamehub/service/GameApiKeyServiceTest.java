@@ -0,0 +1,130 @@
+// Note: Test API key của game server (GameApiKeyService):
+// - DB chỉ lưu SHA-256 của key gốc, key gốc chỉ có trong response lúc cấp
+// - xác thực: key đúng trả về game/developer (lần sau lấy từ cache), key sai hoặc sai tiền tố bị từ chối
+// - xoay/thu hồi key: key cũ bị xóa khỏi cache ngay sau commit, không đợi hết TTL
+// Chạy trên H2 chế độ MySQL (profile "test"): mvn test -Dtest=GameApiKeyServiceTest
+package com.gamehub.service;
+
+import com.gamehub.dto.GameApiKeyResponse;
+import com.gamehub.exception.GameException;
+import com.gamehub.model.Game;
+import com.gamehub.model.GameApiKey;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.GameStatus;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.GameApiKeyRepository;
+import com.gamehub.repository.GameRepository;
+import com.gamehub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GameApiKeyServiceTest {
+
+    @Autowired
+    private GameApiKeyService gameApiKeyService;
+
+    @Autowired
+    private GameApiKeyRepository gameApiKeyRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void storesOnlyTheHashAndAuthenticatesTheRawKey() throws Exception {
+        User developer = newUser(UserRole.DEVELOPER);
+        Game game = newGame(developer, GameStatus.APPROVED, true);
+
+        GameApiKeyResponse issued = gameApiKeyService.issueKey(game.getId(), developer.getEmail());
+        String rawKey = issued.getApiKey();
+        assertTrue(rawKey.startsWith(GameApiKeyService.KEY_PREFIX));
+        assertEquals(rawKey.substring(0, issued.getKeyPrefix().length()), issued.getKeyPrefix());
+
+        GameApiKey stored = gameApiKeyRepository.findByGameId(game.getId()).orElseThrow();
+        assertEquals(sha256(rawKey), stored.getKeyHash());
+        assertNotEquals(rawKey, stored.getKeyHash());
+        // Xem lại key chỉ thấy prefix
+        assertNull(gameApiKeyService.getKey(game.getId(), developer.getEmail()).orElseThrow().getApiKey());
+
+        GameApiKeyService.IngestClient client = gameApiKeyService.authenticate(rawKey).orElseThrow();
+        assertEquals(game.getId(), client.getGameId());
+        assertEquals(developer.getId(), client.getDeveloperId());
+
+        // Lần thứ hai lấy từ cache
+        long hits = (Long) gameApiKeyService.getStats().get("hits");
+        assertTrue(gameApiKeyService.authenticate(rawKey).isPresent());
+        assertEquals(hits + 1, (Long) gameApiKeyService.getStats().get("hits"));
+
+        assertFalse(gameApiKeyService.authenticate(rawKey + "x").isPresent());
+        assertFalse(gameApiKeyService.authenticate(rawKey.substring(GameApiKeyService.KEY_PREFIX.length())).isPresent());
+        assertFalse(gameApiKeyService.authenticate(stored.getKeyHash()).isPresent());
+        assertFalse(gameApiKeyService.authenticate(null).isPresent());
+    }
+
+    @Test
+    void rotatedKeyIsEvictedFromCache() throws Exception {
+        User developer = newUser(UserRole.DEVELOPER);
+        Game game = newGame(developer, GameStatus.APPROVED, true);
+
+        String oldKey = gameApiKeyService.issueKey(game.getId(), developer.getEmail()).getApiKey();
+        assertTrue(gameApiKeyService.authenticate(oldKey).isPresent());
+
+        // Key cũ đang nằm trong cache (TTL mặc định 5 phút): sau khi xoay phải bị từ chối ngay
+        String newKey = gameApiKeyService.issueKey(game.getId(), developer.getEmail()).getApiKey();
+        assertNotEquals(oldKey, newKey);
+        assertFalse(gameApiKeyService.authenticate(oldKey).isPresent());
+        assertEquals(game.getId(), gameApiKeyService.authenticate(newKey).orElseThrow().getGameId());
+        assertEquals(sha256(newKey), gameApiKeyRepository.findByGameId(game.getId()).orElseThrow().getKeyHash());
+
+        gameApiKeyService.revokeKey(game.getId(), developer.getEmail());
+        assertFalse(gameApiKeyService.authenticate(newKey).isPresent());
+        assertFalse(gameApiKeyRepository.findByGameId(game.getId()).isPresent());
+    }
+
+    @Test
+    void onlyOwnerOfApprovedPointsGameGetsKey() {
+        User developer = newUser(UserRole.DEVELOPER);
+        User other = newUser(UserRole.DEVELOPER);
+        Game pending = newGame(developer, GameStatus.PENDING, true);
+        Game noPoints = newGame(developer, GameStatus.APPROVED, false);
+        Game approved = newGame(developer, GameStatus.APPROVED, true);
+
+        assertThrows(GameException.class, () -> gameApiKeyService.issueKey(pending.getId(), developer.getEmail()));
+        assertThrows(GameException.class, () -> gameApiKeyService.issueKey(noPoints.getId(), developer.getEmail()));
+        assertThrows(GameException.class, () -> gameApiKeyService.issueKey(approved.getId(), other.getEmail()));
+        assertFalse(gameApiKeyRepository.findByGameId(approved.getId()).isPresent());
+    }
+
+    private static String sha256(String value) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Game newGame(User developer, GameStatus status, boolean supportPoints) {
+        return gameRepository.save(new Game("Game " + UUID.randomUUID(), "desc", null, null, null,
+                true, supportPoints, status, developer));
+    }
+
+    private User newUser(UserRole role) {
+        return userRepository.save(new User(UUID.randomUUID() + "@apikey.test", "password123", role,
+                "ApiKey " + role, null, 1, UserStatus.APPROVED));
+    }
+}
@@ -0,0 +1,199 @@
+// Note: Test chế độ drop (GiftDropService): enqueue -> consumer xử lý theo lô -> kết quả qua ticket/SSE.
+// - nhiều player hơn hẳn số lượng gift cùng xếp hàng: số lượt REDEEMED đúng bằng số lượng (không bán quá),
+//   player thiếu điểm bị REJECTED, mọi ticket đều đạt trạng thái cuối và mọi stream SSE đều được đóng
+// - sau khi hết hàng: lượt mới trả SOLD_OUT ngay mà không lưu thêm ticket
+// Chạy trên H2 chế độ MySQL (profile "test"): mvn test -Dtest=GiftDropServiceTest
+package com.gamehub.service;
+
+import com.gamehub.dto.RedeemTicketResponse;
+import com.gamehub.model.Gift;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.RedeemTicketStatus;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.GiftRepository;
+import com.gamehub.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GiftDropServiceTest {
+
+    private static final int THREADS = 32;
+    private static final int PLAYERS = 400;
+    private static final long STOCK = 25;
+    private static final long COST = 10;
+    // Mỗi player thứ 10 không có điểm
+    private static final int BROKE_EVERY = 10;
+
+    @Autowired
+    private GiftDropService giftDropService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GiftRepository giftRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Object originalBatchSize;
+
+    @AfterEach
+    void restoreBatchSize() {
+        if (originalBatchSize != null) {
+            ReflectionTestUtils.setField(giftDropService, "batchSize", originalBatchSize);
+        }
+    }
+
+    @Test
+    void overloadedDropNeverOversellsAndEveryTicketFinishes() throws Exception {
+        // Lô nhỏ để hàng đợi được xử lý qua nhiều lô
+        originalBatchSize = ReflectionTestUtils.getField(giftDropService, "batchSize");
+        ReflectionTestUtils.setField(giftDropService, "batchSize", 16);
+
+        User developer = newUser(UserRole.DEVELOPER);
+        Gift gift = giftRepository.save(new Gift("Drop", null, null, COST, STOCK, developer, LocalDateTime.now()));
+        giftDropService.setDropMode(gift.getId(), true, developer.getEmail());
+        assertTrue(giftDropService.isDropMode(gift.getId()));
+
+        List<User> players = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            User player = newUser(UserRole.PLAYER);
+            givePoints(player, developer, i % BROKE_EVERY == 0 ? 0 : COST);
+            players.add(player);
+        }
+
+        ConcurrentLinkedQueue<RedeemTicketResponse> queued = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<SseEmitter> emitters = new ConcurrentLinkedQueue<>();
+        List<Runnable> requests = new ArrayList<>(PLAYERS);
+        for (User player : players) {
+            requests.add(() -> {
+                RedeemTicketResponse ticket = giftDropService.enqueue(player.getId(), player.getEmail(), gift.getId());
+                queued.add(ticket);
+                // Ticket SOLD_OUT trả ngay (sau khi đã biết hết hàng) không được lưu nên không có stream
+                if (ticket.getStatus() == RedeemTicketStatus.QUEUED) {
+                    emitters.add(giftDropService.subscribe(ticket.getTicketId(), player.getId()).orElseThrow());
+                }
+            });
+        }
+        runConcurrently(requests);
+        assertEquals(PLAYERS, queued.size());
+
+        Map<RedeemTicketStatus, Integer> counts = awaitResults(queued);
+        long redeemedTransactions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM gift_transactions WHERE gift_id = ?", Long.class, gift.getId());
+        long negativeBalances = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM player_developer_points WHERE developer_id = ? AND total_points < 0",
+                Long.class, developer.getId());
+
+        assertEquals(STOCK, counts.getOrDefault(RedeemTicketStatus.REDEEMED, 0).longValue());
+        assertEquals(STOCK, redeemedTransactions);
+        assertEquals(0L, quantity(gift));
+        assertEquals(0L, negativeBalances);
+        assertEquals(0, counts.getOrDefault(RedeemTicketStatus.FAILED, 0));
+        assertTrue(counts.getOrDefault(RedeemTicketStatus.REJECTED, 0) > 0, "Players without points must be rejected");
+        assertEquals(PLAYERS, counts.values().stream().mapToInt(Integer::intValue).sum());
+
+        // Mọi stream SSE nhận kết quả cuối và được đóng
+        assertFalse(emitters.isEmpty());
+        for (SseEmitter emitter : emitters) {
+            assertTrue((Boolean) ReflectionTestUtils.getField(emitter, "complete"), "SSE stream must be completed");
+        }
+
+        // Hết hàng: lượt mới trả SOLD_OUT ngay và không được lưu lại
+        Object tracked = giftDropService.getStats().get("trackedTickets");
+        User late = newUser(UserRole.PLAYER);
+        givePoints(late, developer, COST);
+        RedeemTicketResponse lateTicket = giftDropService.enqueue(late.getId(), late.getEmail(), gift.getId());
+        assertEquals(RedeemTicketStatus.SOLD_OUT, lateTicket.getStatus());
+        assertFalse(giftDropService.getTicket(lateTicket.getTicketId(), late.getId()).isPresent());
+        assertEquals(tracked, giftDropService.getStats().get("trackedTickets"));
+        assertEquals(COST, totalPoints(late, developer));
+    }
+
+    // Chờ mọi ticket rời trạng thái QUEUED rồi đếm theo kết quả
+    private Map<RedeemTicketStatus, Integer> awaitResults(ConcurrentLinkedQueue<RedeemTicketResponse> queued)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (true) {
+            Map<RedeemTicketStatus, Integer> counts = new EnumMap<>(RedeemTicketStatus.class);
+            for (RedeemTicketResponse ticket : queued) {
+                RedeemTicketResponse current = ticket.getStatus() != RedeemTicketStatus.QUEUED ? ticket
+                        : giftDropService.getTicket(ticket.getTicketId(), ticket.getPlayerId()).orElseThrow();
+                counts.merge(current.getStatus(), 1, Integer::sum);
+            }
+            if (!counts.containsKey(RedeemTicketStatus.QUEUED)) {
+                return counts;
+            }
+            assertTrue(System.nanoTime() < deadline, "Tickets still queued: " + counts);
+            Thread.sleep(50);
+        }
+    }
+
+    private void runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void givePoints(User player, User developer, long points) {
+        jdbcTemplate.update("INSERT INTO player_developer_points (player_id, developer_id, total_points, last_updated) VALUES (?, ?, ?, ?)",
+                player.getId(), developer.getId(), points, LocalDateTime.now());
+    }
+
+    private long totalPoints(User player, User developer) {
+        return jdbcTemplate.queryForObject(
+                "SELECT total_points FROM player_developer_points WHERE player_id = ? AND developer_id = ?",
+                Long.class, player.getId(), developer.getId());
+    }
+
+    private long quantity(Gift gift) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM gifts WHERE id = ?", Long.class, gift.getId());
+    }
+
+    private User newUser(UserRole role) {
+        return userRepository.save(new User(UUID.randomUUID() + "@drop.test", "password123", role,
+                "Drop " + role, null, 1, UserStatus.APPROVED));
+    }
+}
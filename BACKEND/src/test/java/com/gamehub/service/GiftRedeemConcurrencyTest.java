@@ -0,0 +1,200 @@
+// Note: Stress test đổi quà song song:
+// - hàng nghìn player cùng đổi một gift số lượng ít: số lượt thành công đúng bằng số lượng, quantity không âm (không bán quá),
+//   chạy cả khi tắt và bật bộ đếm tồn kho chia stripe trong bộ nhớ, ghi lại số lượt đổi mỗi giây
+// - một player gửi nhiều lượt đổi cùng lúc: chỉ thành công trong giới hạn số điểm, số dư không bao giờ âm
+// Chạy trên H2 chế độ MySQL (profile "test"): mvn test -Dtest=GiftRedeemConcurrencyTest
+package com.gamehub.service;
+
+import com.gamehub.exception.GameException;
+import com.gamehub.model.Gift;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.GiftRepository;
+import com.gamehub.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GiftRedeemConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(GiftRedeemConcurrencyTest.class);
+
+    private static final int THREADS = 64;
+    private static final int REDEEMERS = 2000;
+    private static final long STOCK = 50;
+    private static final long COST = 10;
+
+    @Autowired
+    private GiftService giftService;
+
+    @Autowired
+    private StripedGiftInventory stripedGiftInventory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GiftRepository giftRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void disableStripedInventory() {
+        ReflectionTestUtils.setField(stripedGiftInventory, "enabled", false);
+    }
+
+    @Test
+    void hotGiftIsNeverOversoldByConditionalDecrement() throws Exception {
+        flashDrop(false);
+    }
+
+    @Test
+    void hotGiftIsNeverOversoldWithStripedInventory() throws Exception {
+        ReflectionTestUtils.setField(stripedGiftInventory, "enabled", true);
+        flashDrop(true);
+    }
+
+    @Test
+    void concurrentRedeemsNeverDriveBalanceNegative() throws Exception {
+        User developer = newUser(UserRole.DEVELOPER);
+        User player = newUser(UserRole.PLAYER);
+        Gift gift = giftRepository.save(new Gift("Plenty", null, null, COST, 1000L, developer, LocalDateTime.now()));
+        // Đủ điểm cho đúng 5 lượt đổi
+        givePoints(player, developer, COST * 5);
+
+        List<Runnable> attempts = new ArrayList<>();
+        Outcome outcome = new Outcome();
+        for (int i = 0; i < 200; i++) {
+            attempts.add(() -> outcome.redeem(() -> giftService.redeemGift(player.getId(), gift.getId())));
+        }
+        runConcurrently(attempts);
+
+        assertEquals(0, outcome.errors.get());
+        assertEquals(5, outcome.redeemed.get());
+        assertEquals(0L, totalPoints(player, developer));
+        assertEquals(995L, quantity(gift));
+    }
+
+    private void flashDrop(boolean striped) throws Exception {
+        User developer = newUser(UserRole.DEVELOPER);
+        Gift gift = giftRepository.save(new Gift("Flash " + striped, null, null, COST, STOCK, developer, LocalDateTime.now()));
+        List<User> players = new ArrayList<>(REDEEMERS);
+        for (int i = 0; i < REDEEMERS; i++) {
+            User player = newUser(UserRole.PLAYER);
+            givePoints(player, developer, COST);
+            players.add(player);
+        }
+
+        List<Runnable> attempts = new ArrayList<>(REDEEMERS);
+        Outcome outcome = new Outcome();
+        for (User player : players) {
+            attempts.add(() -> outcome.redeem(() -> giftService.redeemGift(player.getId(), gift.getId())));
+        }
+        long nanos = runConcurrently(attempts);
+
+        Long transactions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM gift_transactions WHERE gift_id = ?", Long.class, gift.getId());
+        Long negativeBalances = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM player_developer_points WHERE developer_id = ? AND total_points < 0",
+                Long.class, developer.getId());
+        Long spent = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM player_developer_points WHERE developer_id = ? AND total_points = 0",
+                Long.class, developer.getId());
+        logger.info("Flash drop (striped inventory {}): {} redeemers, {} redeemed, {} sold out, {} errors, {} attempts/s",
+                striped ? "on" : "off", REDEEMERS, outcome.redeemed.get(), outcome.rejected.get(), outcome.errors.get(),
+                REDEEMERS * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos));
+
+        assertEquals(0, outcome.errors.get());
+        assertEquals(STOCK, outcome.redeemed.get());
+        assertEquals(STOCK, transactions);
+        assertEquals(0L, quantity(gift));
+        assertEquals(0L, negativeBalances);
+        // Chỉ người đổi thành công bị trừ điểm (lượt hết hàng được rollback cả phần điểm)
+        assertEquals(STOCK, spent);
+        assertEquals(REDEEMERS - STOCK, outcome.rejected.get());
+    }
+
+    private long runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+            return System.nanoTime() - began;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void givePoints(User player, User developer, long points) {
+        jdbcTemplate.update("INSERT INTO player_developer_points (player_id, developer_id, total_points, last_updated) VALUES (?, ?, ?, ?)",
+                player.getId(), developer.getId(), points, LocalDateTime.now());
+    }
+
+    private long totalPoints(User player, User developer) {
+        return jdbcTemplate.queryForObject(
+                "SELECT total_points FROM player_developer_points WHERE player_id = ? AND developer_id = ?",
+                Long.class, player.getId(), developer.getId());
+    }
+
+    private long quantity(Gift gift) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM gifts WHERE id = ?", Long.class, gift.getId());
+    }
+
+    private User newUser(UserRole role) {
+        return userRepository.save(new User(UUID.randomUUID() + "@stress.test", "password123", role,
+                "Stress " + role, null, 1, UserStatus.APPROVED));
+    }
+
+    private static final class Outcome {
+        private final AtomicInteger redeemed = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        private void redeem(Runnable attempt) {
+            try {
+                attempt.run();
+                redeemed.incrementAndGet();
+            } catch (GameException e) {
+                rejected.incrementAndGet();
+            } catch (RuntimeException e) {
+                logger.warn("Unexpected redeem failure: {}", e.getMessage());
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
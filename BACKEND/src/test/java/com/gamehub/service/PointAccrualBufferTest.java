@@ -0,0 +1,209 @@
+// Note: Test buffer ghi trễ (PointAccrualBuffer) trên một instance riêng đã bật (bean của context test để tắt):
+// - gộp: nhiều lần cộng song song cho cùng cặp (player, developer) thành một câu upsert, tổng không mất khoản nào
+// - đọc thấy ngay điểm vừa cộng (readWithPending), kể cả khi lần ghi chạy xen giữa: không thiếu, không tính hai lần
+// - tắt khi DB lỗi: phần chưa ghi (và lần cộng đến sau khi tắt) ra file handoff, lần khởi động sau nạp lại vào DB
+// Chạy trên H2 chế độ MySQL (profile "test"): mvn test -Dtest=PointAccrualBufferTest
+package com.gamehub.service;
+
+import com.gamehub.model.User;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PointAccrualBufferTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void concurrentIncrementsCoalesceIntoOneRow() throws Exception {
+        PointAccrualBuffer buffer = newBuffer(jdbcTemplate);
+        User developer = newUser(UserRole.DEVELOPER);
+        User player = newUser(UserRole.PLAYER);
+        int increments = 2000;
+
+        List<Runnable> adds = new ArrayList<>(increments);
+        for (int i = 0; i < increments; i++) {
+            adds.add(() -> buffer.recordAfterCommit(player.getId(), developer.getId(), 3L));
+        }
+        runConcurrently(adds);
+
+        // Chưa ghi gì xuống DB, nhưng đọc qua buffer thấy đủ
+        assertEquals(0L, persisted(player, developer));
+        assertEquals(3L * increments, read(buffer, player, developer));
+
+        buffer.scheduledFlush();
+        Map<String, Object> stats = buffer.getStats();
+        assertEquals(3L * increments, persisted(player, developer));
+        assertEquals((long) increments, stats.get("increments"));
+        assertEquals(1L, stats.get("rowsWritten"));
+        assertEquals(0, stats.get("bufferedPairs"));
+        assertEquals(3L * increments, read(buffer, player, developer));
+        buffer.stop();
+    }
+
+    @Test
+    void readsSeePendingPointsWhileFlushesRun() throws Exception {
+        PointAccrualBuffer buffer = newBuffer(jdbcTemplate);
+        User developer = newUser(UserRole.DEVELOPER);
+        User player = newUser(UserRole.PLAYER);
+        jdbcTemplate.update("INSERT INTO player_developer_points (player_id, developer_id, total_points, last_updated) " +
+                "VALUES (?, ?, 100, CURRENT_TIMESTAMP)", player.getId(), developer.getId());
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService flusher = Executors.newSingleThreadExecutor();
+        Future<?> flushes = flusher.submit(() -> {
+            while (running.get()) {
+                buffer.scheduledFlush();
+            }
+        });
+        try {
+            long expected = 100;
+            for (int i = 0; i < 500; i++) {
+                buffer.recordAfterCommit(player.getId(), developer.getId(), 1L);
+                expected++;
+                // Mỗi lần đọc thấy đúng tổng bất kể khoản vừa cộng đang chờ, đang ghi hay đã commit
+                assertEquals(expected, read(buffer, player, developer));
+                assertEquals(Map.of(developer.getId(), expected), buffer.readAllWithPending(player.getId(),
+                        () -> Map.of(developer.getId(), persisted(player, developer))));
+            }
+        } finally {
+            running.set(false);
+            flushes.get(30, TimeUnit.SECONDS);
+            flusher.shutdown();
+        }
+        buffer.scheduledFlush();
+        assertEquals(600L, persisted(player, developer));
+        buffer.stop();
+    }
+
+    @Test
+    void shutdownSpillsUnwrittenPointsAndNextStartReplaysThem() throws Exception {
+        User developer = newUser(UserRole.DEVELOPER);
+        User player = newUser(UserRole.PLAYER);
+        Path handoff = tempDir.resolve("point-accruals.handoff");
+
+        // DB "không truy cập được": mọi câu ghi của buffer đều lỗi
+        JdbcTemplate failing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+
+            @Override
+            public int update(String sql, Object... args) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+        };
+        PointAccrualBuffer down = newBuffer(failing);
+        ReflectionTestUtils.setField(down, "handoffFile", handoff.toString());
+        down.recordAfterCommit(player.getId(), developer.getId(), 40L);
+        down.recordAfterCommit(player.getId(), developer.getId(), 2L);
+        down.scheduledFlush();
+        assertEquals(42L, read(down, player, developer));
+
+        down.stop();
+        assertTrue(Files.exists(handoff));
+        // Lần cộng đến sau khi đã tắt ghi thẳng DB; DB lỗi thì cũng vào file, không mất
+        down.recordAfterCommit(player.getId(), developer.getId(), 8L);
+        assertEquals(0L, persisted(player, developer));
+
+        PointAccrualBuffer restarted = newBuffer(jdbcTemplate, handoff);
+        assertFalse(Files.exists(handoff));
+        assertEquals(50L, persisted(player, developer));
+        assertEquals(1L, restarted.getStats().get("handoffReplayed"));
+        restarted.stop();
+    }
+
+    private PointAccrualBuffer newBuffer(JdbcTemplate template) {
+        return newBuffer(template, tempDir.resolve(UUID.randomUUID() + ".handoff"));
+    }
+
+    private PointAccrualBuffer newBuffer(JdbcTemplate template, Path handoff) {
+        PointAccrualBuffer buffer = new PointAccrualBuffer();
+        ReflectionTestUtils.setField(buffer, "jdbcTemplate", template);
+        ReflectionTestUtils.setField(buffer, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "maxPairs", 10000);
+        ReflectionTestUtils.setField(buffer, "batchSize", 1000);
+        ReflectionTestUtils.setField(buffer, "handoffFile", handoff.toString());
+        buffer.start();
+        return buffer;
+    }
+
+    private long read(PointAccrualBuffer buffer, User player, User developer) {
+        return buffer.readWithPending(player.getId(), developer.getId(), () -> persisted(player, developer));
+    }
+
+    private long persisted(User player, User developer) {
+        List<Long> points = jdbcTemplate.queryForList(
+                "SELECT total_points FROM player_developer_points WHERE player_id = ? AND developer_id = ?",
+                Long.class, player.getId(), developer.getId());
+        return points.isEmpty() ? 0L : points.get(0);
+    }
+
+    private void runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private User newUser(UserRole role) {
+        return userRepository.save(new User(UUID.randomUUID() + "@buffer.test", "password123", role,
+                "Buffer " + role, null, 1, UserStatus.APPROVED));
+    }
+}
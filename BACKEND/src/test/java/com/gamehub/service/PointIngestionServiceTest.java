@@ -0,0 +1,124 @@
+// Note: Test ghi lô cộng điểm qua API key (PointIngestionService):
+// - phần tử trùng trong cùng lô chỉ được cộng một lần; gửi lại cả lô (sau timeout) không cộng thêm điểm nào
+// - points vượt số điểm của hành động ở luồng nội bộ (review/tải game) làm cả lô bị từ chối, không ghi gì
+// Chạy trên H2 chế độ MySQL (profile "test"): mvn test -Dtest=PointIngestionServiceTest
+package com.gamehub.service;
+
+import com.gamehub.dto.PointAwardBatchResponse;
+import com.gamehub.dto.PointAwardItem;
+import com.gamehub.exception.GameException;
+import com.gamehub.model.Game;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.GameStatus;
+import com.gamehub.model.enums.PointActionType;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.GameRepository;
+import com.gamehub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PointIngestionServiceTest {
+
+    @Autowired
+    private PointIngestionService pointIngestionService;
+
+    @Autowired
+    private GameApiKeyService gameApiKeyService;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resendingBatchAwardsNothingTwice() throws Exception {
+        User developer = newUser(UserRole.DEVELOPER);
+        GameApiKeyService.IngestClient client = newClient(developer);
+        User first = newUser(UserRole.PLAYER);
+        User second = newUser(UserRole.PLAYER);
+        long review = PointActionType.WRITE_REVIEW.getDefaultPoints();
+        long download = PointActionType.DOWNLOAD_GAME.getDefaultPoints();
+
+        List<PointAwardItem> batch = List.of(
+                new PointAwardItem(first.getId(), "WRITE_REVIEW", review),
+                new PointAwardItem(first.getId(), "write_review", review),
+                new PointAwardItem(first.getId(), "DOWNLOAD_GAME", null),
+                new PointAwardItem(second.getId(), "DOWNLOAD_GAME", download));
+
+        PointAwardBatchResponse response = pointIngestionService.ingest(client, batch);
+        assertEquals(4, response.getReceived());
+        assertEquals(3, response.getAwarded());
+        assertEquals(1, response.getDuplicates());
+        assertEquals(review + 2 * download, response.getPointsAwarded());
+
+        // Game server gửi lại cả lô sau timeout
+        PointAwardBatchResponse resent = pointIngestionService.ingest(client, batch);
+        assertEquals(0, resent.getAwarded());
+        assertEquals(4, resent.getDuplicates());
+        assertEquals(0L, resent.getPointsAwarded());
+
+        assertEquals(review + download, totalPoints(first, developer));
+        assertEquals(download, totalPoints(second, developer));
+        assertEquals(3L, transactionCount(client));
+    }
+
+    @Test
+    void pointsAboveInternalAwardRejectWholeBatch() throws Exception {
+        User developer = newUser(UserRole.DEVELOPER);
+        GameApiKeyService.IngestClient client = newClient(developer);
+        User player = newUser(UserRole.PLAYER);
+
+        List<PointAwardItem> inflated = List.of(
+                new PointAwardItem(player.getId(), "DOWNLOAD_GAME", null),
+                new PointAwardItem(player.getId(), "WRITE_REVIEW", PointActionType.WRITE_REVIEW.getDefaultPoints() + 1));
+        assertThrows(GameException.class, () -> pointIngestionService.ingest(client, inflated));
+        assertThrows(GameException.class, () -> pointIngestionService.ingest(client,
+                List.of(new PointAwardItem(player.getId(), "DOWNLOAD_GAME", 0L))));
+        assertEquals(0L, transactionCount(client));
+
+        // Ít hơn số điểm mặc định vẫn hợp lệ
+        PointAwardBatchResponse response = pointIngestionService.ingest(client,
+                List.of(new PointAwardItem(player.getId(), "WRITE_REVIEW", 5L)));
+        assertEquals(1, response.getAwarded());
+        assertEquals(5L, totalPoints(player, developer));
+    }
+
+    private GameApiKeyService.IngestClient newClient(User developer) throws Exception {
+        Game game = gameRepository.save(new Game("Ingest " + UUID.randomUUID(), "desc", null, null, null,
+                true, true, GameStatus.APPROVED, developer));
+        String rawKey = gameApiKeyService.issueKey(game.getId(), developer.getEmail()).getApiKey();
+        return gameApiKeyService.authenticate(rawKey).orElseThrow();
+    }
+
+    private long totalPoints(User player, User developer) {
+        return jdbcTemplate.queryForObject(
+                "SELECT total_points FROM player_developer_points WHERE player_id = ? AND developer_id = ?",
+                Long.class, player.getId(), developer.getId());
+    }
+
+    private long transactionCount(GameApiKeyService.IngestClient client) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM point_transactions WHERE game_id = ?",
+                Long.class, client.getGameId());
+    }
+
+    private User newUser(UserRole role) {
+        return userRepository.save(new User(UUID.randomUUID() + "@ingest.test", "password123", role,
+                "Ingest " + role, null, 1, UserStatus.APPROVED));
+    }
+}
@@ -0,0 +1,177 @@
+// Note: Stress test cộng điểm song song cho cùng một (player, developer):
+// - awardPoints: nhiều thread cộng điểm vào cùng một dòng player_developer_points, tổng cuối phải đúng (không mất cập nhật)
+// - upsert nguyên tử addPoints không mất lượt cộng nào khi chạy song song; cách cũ (đọc entity, cộng trong Java, save lại)
+//   chạy cùng tải chỉ để ghi log số lượt mất/lỗi và thông lượng so sánh (không assert vì phụ thuộc lịch chạy thread và máy)
+// Chạy trên H2 chế độ MySQL (profile "test"): mvn test -Dtest=PointServiceConcurrencyTest
+package com.gamehub.service;
+
+import com.gamehub.model.Game;
+import com.gamehub.model.PlayerDeveloperPoints;
+import com.gamehub.model.User;
+import com.gamehub.model.enums.GameStatus;
+import com.gamehub.model.enums.UserRole;
+import com.gamehub.model.enums.UserStatus;
+import com.gamehub.repository.GameRepository;
+import com.gamehub.repository.PlayerDeveloperPointsRepository;
+import com.gamehub.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PointServiceConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointServiceConcurrencyTest.class);
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private PointService pointService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private PlayerDeveloperPointsRepository playerDeveloperPointsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentAwardsForSamePlayerAndDeveloperAreNotLost() throws Exception {
+        int games = 200;
+        User developer = newUser(UserRole.DEVELOPER);
+        User player = newUser(UserRole.PLAYER);
+        List<Game> developerGames = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            developerGames.add(gameRepository.save(new Game("Stress " + i, null, null, null, null,
+                    false, true, GameStatus.APPROVED, developer)));
+        }
+
+        // Mỗi game một lần DOWNLOAD_GAME và một lần WRITE_REVIEW, tất cả dồn vào cùng một dòng điểm
+        List<Runnable> awards = new ArrayList<>();
+        for (Game game : developerGames) {
+            awards.add(() -> pointService.awardPoints(player.getId(), game.getId(), "DOWNLOAD_GAME", 10L));
+            awards.add(() -> pointService.awardPoints(player.getId(), game.getId(), "WRITE_REVIEW", 20L));
+        }
+        runConcurrently(awards);
+
+        Long transactions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM point_transactions WHERE player_id = ?", Long.class, player.getId());
+        assertEquals(games * 2L, transactions);
+        assertEquals(games * 30L, totalPoints(player, developer));
+    }
+
+    @Test
+    void atomicUpsertHasNoLostUpdatesUnlikeReadModifyWrite() throws Exception {
+        int increments = 4000;
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        // Cách cũ: đọc entity, cộng trong Java rồi save (có thể mất cập nhật hoặc lỗi khi chạy song song)
+        User legacyDeveloper = newUser(UserRole.DEVELOPER);
+        User legacyPlayer = newUser(UserRole.PLAYER);
+        playerDeveloperPointsRepository.save(new PlayerDeveloperPoints(legacyPlayer, legacyDeveloper, 0L, LocalDateTime.now()));
+        AtomicInteger legacyFailures = new AtomicInteger();
+        List<Runnable> legacy = new ArrayList<>();
+        for (int i = 0; i < increments; i++) {
+            legacy.add(() -> {
+                try {
+                    template.executeWithoutResult(status -> {
+                        PlayerDeveloperPoints pdp = playerDeveloperPointsRepository
+                                .findByPlayerAndDeveloper(legacyPlayer, legacyDeveloper).orElseThrow();
+                        pdp.setTotalPoints(pdp.getTotalPoints() + 1);
+                        pdp.setLastUpdated(LocalDateTime.now());
+                        playerDeveloperPointsRepository.save(pdp);
+                    });
+                } catch (RuntimeException e) {
+                    legacyFailures.incrementAndGet();
+                }
+            });
+        }
+        long legacyNanos = runConcurrently(legacy);
+        long legacyTotal = totalPoints(legacyPlayer, legacyDeveloper);
+
+        // Cách mới: một câu upsert cộng dồn trong DB
+        User developer = newUser(UserRole.DEVELOPER);
+        User player = newUser(UserRole.PLAYER);
+        List<Runnable> atomic = new ArrayList<>();
+        for (int i = 0; i < increments; i++) {
+            atomic.add(() -> template.executeWithoutResult(status ->
+                    playerDeveloperPointsRepository.addPoints(player.getId(), developer.getId(), 1L, LocalDateTime.now())));
+        }
+        long atomicNanos = runConcurrently(atomic);
+        long atomicTotal = totalPoints(player, developer);
+
+        logger.info("Read-modify-write: {} ops/s, total={} of {}, lost={}, failed={}",
+                opsPerSecond(increments, legacyNanos), legacyTotal, increments,
+                increments - legacyFailures.get() - legacyTotal, legacyFailures.get());
+        logger.info("Atomic upsert: {} ops/s, total={} of {}",
+                opsPerSecond(increments, atomicNanos), atomicTotal, increments);
+        // Cách cũ có mất lượt hay không tùy lịch chạy thread nên chỉ ghi log; cách mới phải đủ
+        assertEquals(increments, atomicTotal);
+    }
+
+    private long runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            return System.nanoTime() - began;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long totalPoints(User player, User developer) {
+        return jdbcTemplate.queryForObject(
+                "SELECT total_points FROM player_developer_points WHERE player_id = ? AND developer_id = ?",
+                Long.class, player.getId(), developer.getId());
+    }
+
+    private User newUser(UserRole role) {
+        return userRepository.save(new User(UUID.randomUUID() + "@stress.test", "password123", role,
+                "Stress " + role, null, 1, UserStatus.APPROVED));
+    }
+
+    private static long opsPerSecond(int operations, long nanos) {
+        return operations * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+    }
+}
@@ -0,0 +1,128 @@
+// Note: Unit test cho RankedScoreboard (treap xếp hạng trong bộ nhớ của LeaderboardIndex), không cần Spring context:
+// - bằng điểm: cập nhật gần nhất đứng trước, cùng thời điểm thì playerId nhỏ đứng trước
+// - xóa rồi thêm lại, cộng điểm âm (trừ điểm khi đổi quà) phải đưa player về đúng hạng
+// - thao tác ngẫu nhiên được so với danh sách sắp xếp lại toàn bộ (cách tính hạng cũ)
+// Chạy: mvn test -Dtest=RankedScoreboardTest
+package com.gamehub.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedScoreboardTest {
+
+    @Test
+    void tiesAreOrderedByMostRecentUpdateThenPlayerId() {
+        RankedScoreboard board = new RankedScoreboard();
+        board.put(3L, 100L, 1_000L);
+        board.put(1L, 100L, 1_000L);
+        board.put(2L, 100L, 2_000L);
+        board.put(4L, 150L, 500L);
+
+        assertEquals(1, board.rankOf(4L));
+        assertEquals(2, board.rankOf(2L));
+        assertEquals(3, board.rankOf(1L));
+        assertEquals(4, board.rankOf(3L));
+        assertEquals(List.of(4L, 2L, 1L, 3L), playerIds(board.range(0, 10)));
+
+        List<RankedScoreboard.Entry> page = board.range(1, 2);
+        assertEquals(List.of(2L, 1L), playerIds(page));
+        assertEquals(2, page.get(0).getRank());
+        assertEquals(3, page.get(1).getRank());
+    }
+
+    @Test
+    void removeAndReinsertRestoresRank() {
+        RankedScoreboard board = new RankedScoreboard();
+        for (long playerId = 1; playerId <= 5; playerId++) {
+            board.put(playerId, playerId * 10, 0L);
+        }
+
+        board.remove(3L);
+        assertFalse(board.contains(3L));
+        assertEquals(-1, board.rankOf(3L));
+        assertEquals(0L, board.scoreOf(3L));
+        assertEquals(4, board.size());
+        assertEquals(3, board.rankOf(2L));
+
+        board.put(3L, 30L, 0L);
+        assertTrue(board.contains(3L));
+        assertEquals(3, board.rankOf(3L));
+        assertEquals(4, board.rankOf(2L));
+        assertEquals(5, board.size());
+
+        // Xóa player không có trong bảng không làm gì
+        board.remove(42L);
+        assertEquals(5, board.size());
+    }
+
+    @Test
+    void negativeDeltaMovesPlayerDown() {
+        RankedScoreboard board = new RankedScoreboard();
+        board.add(1L, 50L, 1L);
+        board.add(2L, 40L, 2L);
+        board.add(3L, 30L, 3L);
+        assertEquals(1, board.rankOf(1L));
+
+        assertEquals(20L, board.add(1L, -30L, 4L));
+        assertEquals(3, board.rankOf(1L));
+        assertEquals(1, board.rankOf(2L));
+        assertEquals(3, board.size());
+
+        // Player mới bắt đầu từ 0 nên trừ điểm cho điểm âm, đứng cuối bảng
+        assertEquals(-5L, board.add(4L, -5L, 5L));
+        assertEquals(4, board.rankOf(4L));
+        assertEquals(-5L, board.scoreOf(4L));
+    }
+
+    @Test
+    void randomOperationsMatchFullSort() {
+        RankedScoreboard board = new RankedScoreboard();
+        Map<Long, long[]> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int step = 0; step < 5_000; step++) {
+            long playerId = random.nextInt(200);
+            long now = random.nextInt(50);
+            int op = random.nextInt(10);
+            if (op == 0) {
+                board.remove(playerId);
+                expected.remove(playerId);
+            } else {
+                long delta = random.nextInt(41) - 20;
+                long[] current = expected.get(playerId);
+                long score = (current != null ? current[0] : 0L) + delta;
+                assertEquals(score, board.add(playerId, delta, now));
+                expected.put(playerId, new long[]{score, now});
+            }
+        }
+
+        List<Long> sorted = new ArrayList<>(expected.keySet());
+        sorted.sort(Comparator.<Long>comparingLong(id -> -expected.get(id)[0])
+                .thenComparingLong(id -> -expected.get(id)[1])
+                .thenComparingLong(id -> id));
+
+        assertEquals(sorted.size(), board.size());
+        assertEquals(sorted, playerIds(board.range(0, sorted.size())));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, board.rankOf(sorted.get(i)));
+        }
+    }
+
+    private static List<Long> playerIds(List<RankedScoreboard.Entry> entries) {
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (RankedScoreboard.Entry entry : entries) {
+            ids.add(entry.getPlayerId());
+        }
+        return ids;
+    }
+}
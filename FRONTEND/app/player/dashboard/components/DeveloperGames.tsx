@@ -15,6 +15,7 @@ import {
   submitReview,
   getGiftsByDeveloper,
   redeemGift, // Added redeemGift import
+  waitForRedeemTicket,
 } from "@/lib/api"
 import type { User, Game, LeaderboardResponse, Review, ReviewRequest, GiftDTO } from "@/lib/types"
 
@@ -293,7 +294,18 @@ export default function DeveloperGames({ developer, onBack }: DeveloperGamesProp
     try {
       setRedeemingGifts((prev) => new Set(prev).add(gift.id))
 
-      await redeemGift(currentUser.id, gift.id)
+      const result = await redeemGift(currentUser.id, gift.id)
+
+      // Gift in drop mode: the redeem was queued as a ticket, wait for its outcome
+      let failureMessage: string | undefined
+      if ("ticketId" in result) {
+        const ticket = await waitForRedeemTicket(result)
+        if (ticket.status === "QUEUED") {
+          failureMessage = "Your redemption is still queued, check your gift history shortly."
+        } else if (ticket.status !== "REDEEMED") {
+          failureMessage = ticket.message || "Failed to redeem gift. Please try again."
+        }
+      }
 
       // Refresh data after successful redemption
       const [updatedPoints, updatedGifts] = await Promise.all([
@@ -304,6 +316,10 @@ export default function DeveloperGames({ developer, onBack }: DeveloperGamesProp
       setPlayerPoints(updatedPoints)
       setGifts(updatedGifts)
 
+      if (failureMessage) {
+        showNotification(failureMessage)
+        return
+      }
       showNotification(`Successfully redeemed ${gift.name}! Points deducted: ${gift.pointCost}`)
     } catch (error) {
       console.error("Failed to redeem gift:", error)
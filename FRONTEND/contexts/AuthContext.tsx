@@ -3,7 +3,7 @@
 import type React from "react"
 
 import { createContext, useContext, useEffect, useState } from "react"
-import { loginUser, registerUser, getCurrentUser, getUserProfile } from "@/lib/api"
+import { loginUser, registerUser, logoutUser, getCurrentUser, getUserProfile } from "@/lib/api"
 import type { LoginRequest, RegisterRequest, AuthResponse, User } from "@/lib/types"
 
 interface AuthContextType {
@@ -105,6 +105,8 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
   }
 
   const logout = () => {
+    // Thu hồi refresh token phía server (không chờ kết quả)
+    logoutUser()
     localStorage.removeItem("user")
     setUser(null)
   }
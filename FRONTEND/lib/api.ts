@@ -9,6 +9,7 @@ import type {
   Review,
   ReviewRequest,
   Asset,
+  AssetSearchResult,
   PaymentInfo,
   DepositRequestCreate,
   DepositRequest,
@@ -16,11 +17,23 @@ import type {
   TransactionResponse,
   PurchasedAssetResponse,
   LeaderboardEntry,
+  LeaderboardPage,
+  LeaderboardWindow,
   WithdrawRequestCreate,
   WithdrawRequest,
   WithdrawApprovalRequest,
   GiftDTO,
   GiftTransactionDTO,
+  RedeemTicket,
+  GiftPage,
+  PlayerGiftDTO,
+  GiftCodePool,
+  GamePage,
+  GameSearchResult,
+  ReviewPage,
+  GameScoreBoard,
+  GameApiKey,
+  PointHistory,
 } from "./types"
 
 const API_BASE_URL = "http://localhost:8080/api/v1"
@@ -57,7 +70,45 @@ async function getCurrentUser(): Promise<User | null> {
   return null
 }
 
-async function fetchWrapper(url: string, options: RequestInit = {}) {
+// Access token sống ngắn: khi bị 401/403 thì đổi refresh token lấy token mới rồi gửi lại request một lần.
+// Các request đồng thời dùng chung một lần refresh (refresh token chỉ dùng được một lần).
+let refreshInFlight: Promise<string | null> | null = null
+
+async function refreshAccessToken(): Promise<string | null> {
+  if (!refreshInFlight) {
+    refreshInFlight = (async () => {
+      try {
+        const userStr = localStorage.getItem("user")
+        if (!userStr) return null
+        const stored: AuthResponse = JSON.parse(userStr)
+        if (!stored.refreshToken) return null
+
+        const response = await fetch(`${API_BASE_URL}/auth/refresh`, {
+          method: "POST",
+          headers: { "Content-Type": "application/json" },
+          body: JSON.stringify({ refreshToken: stored.refreshToken }),
+        })
+        if (!response.ok) {
+          if (response.status === 401) {
+            localStorage.removeItem("user")
+          }
+          return null
+        }
+        const refreshed: AuthResponse = await response.json()
+        localStorage.setItem("user", JSON.stringify({ ...stored, ...refreshed }))
+        return refreshed.token
+      } catch (e) {
+        console.error("Could not refresh access token", e)
+        return null
+      } finally {
+        refreshInFlight = null
+      }
+    })()
+  }
+  return refreshInFlight
+}
+
+async function fetchWrapper(url: string, options: RequestInit = {}, retried = false): Promise<any> {
   const token = await getAuthToken()
   const headers = {
     ...options.headers,
@@ -73,6 +124,13 @@ async function fetchWrapper(url: string, options: RequestInit = {}) {
 
   const response = await fetch(url, { ...options, headers })
 
+  if ((response.status === 401 || response.status === 403) && token && !retried) {
+    const newToken = await refreshAccessToken()
+    if (newToken) {
+      return fetchWrapper(url, options, true)
+    }
+  }
+
   if (!response.ok) {
     const errorData = await response.json().catch(() => ({ message: "An unknown error occurred" }))
     throw new Error(errorData.message || `HTTP error! status: ${response.status}`)
@@ -99,6 +157,22 @@ export const loginUser = (data: LoginRequest): Promise<AuthResponse> => {
   })
 }
 
+export const logoutUser = async (): Promise<void> => {
+  try {
+    const userStr = localStorage.getItem("user")
+    const stored: AuthResponse | null = userStr ? JSON.parse(userStr) : null
+    if (stored?.refreshToken) {
+      await fetch(`${API_BASE_URL}/auth/logout`, {
+        method: "POST",
+        headers: { "Content-Type": "application/json" },
+        body: JSON.stringify({ refreshToken: stored.refreshToken }),
+      })
+    }
+  } catch (e) {
+    console.error("Could not revoke refresh token", e)
+  }
+}
+
 // Admin
 export const getPendingUsers = (): Promise<User[]> => {
   return fetchWrapper(`${API_BASE_URL}/admin/pending`)
@@ -144,6 +218,26 @@ export const getPublicGames = (): Promise<Game[]> => {
   return fetchWrapper(`${API_BASE_URL}/games/public`)
 }
 
+// Phân trang keyset: truyền nextCursor của trang trước để lấy trang tiếp theo
+export const getPublicGamesPage = (params: {
+  cursor?: string
+  limit?: number
+  supportsLeaderboard?: boolean
+  supportsPoints?: boolean
+  developerId?: number
+}): Promise<GamePage> => {
+  const query = new URLSearchParams()
+  Object.entries(params).forEach(([key, value]) => {
+    if (value !== undefined && value !== null) query.append(key, String(value))
+  })
+  return fetchWrapper(`${API_BASE_URL}/games/public?${query.toString()}`)
+}
+
+export const searchGames = (q: string, page = 0, size = 20): Promise<GameSearchResult> => {
+  const query = new URLSearchParams({ q, page: String(page), size: String(size) })
+  return fetchWrapper(`${API_BASE_URL}/games/search?${query.toString()}`)
+}
+
 export const getGameById = (id: number): Promise<Game> => {
   return fetchWrapper(`${API_BASE_URL}/games/${id}`)
 }
@@ -170,6 +264,23 @@ export const deleteGame = (gameId: number): Promise<string> => {
   })
 }
 
+// API key cho game server (gửi lô điểm tới /ingest/points với header X-Api-Key)
+export const issueGameApiKey = (gameId: number): Promise<GameApiKey> => {
+  return fetchWrapper(`${API_BASE_URL}/games/${gameId}/api-key`, {
+    method: "POST",
+  })
+}
+
+export const getGameApiKey = (gameId: number): Promise<GameApiKey> => {
+  return fetchWrapper(`${API_BASE_URL}/games/${gameId}/api-key`)
+}
+
+export const revokeGameApiKey = (gameId: number): Promise<string> => {
+  return fetchWrapper(`${API_BASE_URL}/games/${gameId}/api-key`, {
+    method: "DELETE",
+  })
+}
+
 export const getMyGames = (): Promise<Game[]> => {
   return fetchWrapper(`${API_BASE_URL}/games/my-games`)
 }
@@ -183,6 +294,18 @@ export const getGameReviews = (gameId: number): Promise<Review[]> => {
   return fetchWrapper(`${API_BASE_URL}/reviews/${gameId}`)
 }
 
+export const getGameReviewsPage = (
+  gameId: number,
+  params: { cursor?: string; limit?: number; sort?: "newest" | "rating" } = {},
+): Promise<ReviewPage> => {
+  const query = new URLSearchParams()
+  Object.entries(params).forEach(([key, value]) => {
+    if (value !== undefined && value !== null) query.append(key, String(value))
+  })
+  if (!query.has("limit")) query.append("limit", "20")
+  return fetchWrapper(`${API_BASE_URL}/reviews/${gameId}?${query.toString()}`)
+}
+
 export const submitReview = (reviewData: ReviewRequest): Promise<Review> => {
   return fetchWrapper(`${API_BASE_URL}/reviews`, {
     method: "POST",
@@ -283,6 +406,21 @@ export const searchAssetsByTag = (tag: string): Promise<Asset[]> => {
   return fetchWrapper(`${API_BASE_URL}/assets/search?tag=${encodeURIComponent(tag)}`)
 }
 
+// Tìm theo nhiều tag (mode "all": có mọi tag, "any": có ít nhất một), kèm số lượng theo tag/loại để lọc tiếp
+export const searchAssets = (
+  tags: string[],
+  options: { mode?: "all" | "any"; type?: "FREE" | "PAID"; page?: number; size?: number } = {},
+): Promise<AssetSearchResult> => {
+  const query = new URLSearchParams({
+    tags: tags.join(","),
+    mode: options.mode ?? "all",
+    page: String(options.page ?? 0),
+    size: String(options.size ?? 20),
+  })
+  if (options.type) query.set("type", options.type)
+  return fetchWrapper(`${API_BASE_URL}/assets/search?${query.toString()}`)
+}
+
 // Admin asset management
 export const getPendingAssets = (): Promise<Asset[]> => {
   return fetchWrapper(`${API_BASE_URL}/assets/pending`)
@@ -401,6 +539,10 @@ export const getPlayerTransactions = (playerId: number): Promise<any[]> => {
   return fetchWrapper(`${API_BASE_URL}/points/transactions/${playerId}`)
 }
 
+export const getPlayerPointHistory = (playerId: number, limit = 20): Promise<PointHistory> => {
+  return fetchWrapper(`${API_BASE_URL}/points/transactions/${playerId}/history?limit=${limit}`)
+}
+
 export const getDeveloperLeaderboard = (developerId: number): Promise<{ playerId: number; totalPoints: number }[]> => {
   return fetchWrapper(`${API_BASE_URL}/points/developer/${developerId}/leaderboard`)
 }
@@ -409,6 +551,63 @@ export const getLeaderboardByDeveloper = (developerId: number): Promise<any[]> =
   return fetchWrapper(`${API_BASE_URL}/leaderboard/developer/${developerId}`)
 }
 
+// window: ALL_TIME | DAILY | WEEKLY | SEASON; period (YYYY-MM-DD) selects a past day/week/season
+const windowQuery = (window: LeaderboardWindow, period?: string) =>
+  `window=${window}${period ? `&period=${encodeURIComponent(period)}` : ""}`
+
+export const getLeaderboardTop = (
+  developerId: number,
+  limit = 10,
+  window: LeaderboardWindow = "ALL_TIME",
+  period?: string,
+): Promise<LeaderboardEntry[]> => {
+  return fetchWrapper(
+    `${API_BASE_URL}/leaderboard/developer/${developerId}/top?limit=${limit}&${windowQuery(window, period)}`,
+  )
+}
+
+export const getLeaderboardPage = (
+  developerId: number,
+  offset = 0,
+  limit = 20,
+  window: LeaderboardWindow = "ALL_TIME",
+  period?: string,
+): Promise<LeaderboardPage> => {
+  return fetchWrapper(
+    `${API_BASE_URL}/leaderboard/developer/${developerId}/page?offset=${offset}&limit=${limit}&${windowQuery(window, period)}`,
+  )
+}
+
+export const getLeaderboardAroundMe = (
+  developerId: number,
+  radius = 5,
+  window: LeaderboardWindow = "ALL_TIME",
+  period?: string,
+): Promise<LeaderboardPage> => {
+  return fetchWrapper(
+    `${API_BASE_URL}/leaderboard/developer/${developerId}/around-me?radius=${radius}&${windowQuery(window, period)}`,
+  )
+}
+
+// Per-game score boards
+export const submitGameScore = (
+  gameId: number,
+  score: number,
+): Promise<{ gameId: number; score: number; rank: number | null }> => {
+  return fetchWrapper(`${API_BASE_URL}/scores/${gameId}`, {
+    method: "POST",
+    body: JSON.stringify({ score }),
+  })
+}
+
+export const getGameScoreTop = (gameId: number, limit = 10): Promise<GameScoreBoard> => {
+  return fetchWrapper(`${API_BASE_URL}/scores/${gameId}/top?limit=${limit}`)
+}
+
+export const getMyGameScore = (gameId: number): Promise<GameScoreBoard> => {
+  return fetchWrapper(`${API_BASE_URL}/scores/${gameId}/me`)
+}
+
 // Admin transaction management APIs
 export const getPendingTransactions = (
   page = 0,
@@ -518,16 +717,92 @@ export const getAllGifts = (): Promise<GiftDTO[]> => {
   return fetchWrapper(`${API_BASE_URL}/gifts`)
 }
 
+export interface GiftPageParams {
+  cursor?: string
+  limit?: number
+  developerId?: number
+  inStock?: boolean
+  minCost?: number
+  maxCost?: number
+}
+
+const giftPageQuery = (params: object) => {
+  const query = new URLSearchParams()
+  Object.entries(params).forEach(([key, value]) => {
+    if (value !== undefined && value !== null) query.append(key, String(value))
+  })
+  return query.toString()
+}
+
+// Phân trang keyset: truyền nextCursor của trang trước để lấy trang tiếp theo
+export const getGiftsPage = (params: GiftPageParams): Promise<GiftPage> => {
+  return fetchWrapper(`${API_BASE_URL}/gifts?${giftPageQuery(params)}`)
+}
+
+// "What can I afford": each gift carries the player's points at its developer
+export const getGiftsForPlayer = (
+  playerId: number,
+  params: GiftPageParams & { affordableOnly?: boolean } = {},
+): Promise<GiftPage<PlayerGiftDTO>> => {
+  return fetchWrapper(`${API_BASE_URL}/gifts/for-player?${giftPageQuery({ playerId, ...params })}`)
+}
+
 export const getMyGifts = (): Promise<GiftDTO[]> => {
   return fetchWrapper(`${API_BASE_URL}/gifts/my-gifts`)
 }
 
-export const redeemGift = (playerId: number, giftId: number): Promise<GiftTransactionDTO> => {
+// Gifts in drop mode answer with a RedeemTicket (status QUEUED); use waitForRedeemTicket for the outcome
+export const redeemGift = (playerId: number, giftId: number): Promise<GiftTransactionDTO | RedeemTicket> => {
   return fetchWrapper(`${API_BASE_URL}/gifts/redeem?playerId=${playerId}&giftId=${giftId}`, {
     method: "POST",
   })
 }
 
+export const getRedeemTicket = (ticketId: string): Promise<RedeemTicket> => {
+  return fetchWrapper(`${API_BASE_URL}/gifts/redeem/tickets/${encodeURIComponent(ticketId)}`)
+}
+
+// Polls until the ticket leaves QUEUED (or the timeout passes, returning the last seen state)
+export const waitForRedeemTicket = async (
+  ticket: RedeemTicket,
+  intervalMs = 500,
+  timeoutMs = 30000,
+): Promise<RedeemTicket> => {
+  const deadline = Date.now() + timeoutMs
+  let current = ticket
+  while (current.status === "QUEUED" && Date.now() < deadline) {
+    await new Promise((resolve) => setTimeout(resolve, intervalMs))
+    current = await getRedeemTicket(ticket.ticketId)
+  }
+  return current
+}
+
+// Text file, one code per line
+export const uploadGiftCodes = (giftId: number, file: File): Promise<GiftCodePool> => {
+  const data = new FormData()
+  data.append("file", file)
+  return fetchWrapper(`${API_BASE_URL}/gifts/${giftId}/codes`, {
+    method: "POST",
+    body: data,
+  })
+}
+
+export const generateGiftCodes = (giftId: number, count: number): Promise<GiftCodePool> => {
+  return fetchWrapper(`${API_BASE_URL}/gifts/${giftId}/codes/generate?count=${count}`, {
+    method: "POST",
+  })
+}
+
+export const getGiftCodePool = (giftId: number): Promise<GiftCodePool> => {
+  return fetchWrapper(`${API_BASE_URL}/gifts/${giftId}/codes`)
+}
+
+export const setGiftDropMode = (giftId: number, enabled: boolean): Promise<GiftDTO> => {
+  return fetchWrapper(`${API_BASE_URL}/gifts/${giftId}/drop-mode?enabled=${enabled}`, {
+    method: "PUT",
+  })
+}
+
 export const getGiftTransactions = (playerId: number): Promise<GiftTransactionDTO[]> => {
   return fetchWrapper(`${API_BASE_URL}/gifts/transactions?playerId=${playerId}`)
 }
@@ -14,6 +14,7 @@ export interface LoginRequest {
 
 export interface AuthResponse {
   token: string
+  refreshToken?: string
   role: string
   email: string
   id?: number
@@ -44,6 +45,39 @@ export interface Game {
   status: "PENDING" | "APPROVED" | "REJECTED"
   developerId: number
   apiKeyMessage?: string
+  createdAt?: string
+  reviewCount?: number
+  averageRating?: number | null
+  ratingHistogram?: number[]
+}
+
+export interface GameApiKey {
+  gameId: number
+  // Chỉ có khi vừa cấp/xoay key; các lần xem sau chỉ thấy keyPrefix
+  apiKey?: string | null
+  keyPrefix: string
+  createdAt: string
+}
+
+export interface GamePage {
+  items: Game[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
+export interface GameSearchHit {
+  game: Game
+  score: number
+  nameHighlight: string | null
+  descriptionHighlight: string | null
+}
+
+export interface GameSearchResult {
+  query: string
+  page: number
+  size: number
+  totalHits: number
+  items: GameSearchHit[]
 }
 
 export interface ApprovalRequest {
@@ -67,6 +101,12 @@ export interface Review {
   createdAt: string
 }
 
+export interface ReviewPage {
+  items: Review[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
 export interface ReviewRequest {
   gameId: number
   rating: number
@@ -80,6 +120,37 @@ export interface LeaderboardEntry {
   rank: number
 }
 
+export type LeaderboardWindow = "ALL_TIME" | "DAILY" | "WEEKLY" | "SEASON"
+
+export interface LeaderboardPage {
+  developerId: number
+  totalPlayers: number
+  offset: number
+  playerRank: number | null
+  playerPoints: number | null
+  items: LeaderboardEntry[]
+  window: LeaderboardWindow
+  periodStart: string | null
+  periodEnd: string | null
+  archived: boolean
+}
+
+export interface GameScoreEntry {
+  rank: number
+  playerId: number
+  playerEmail: string
+  score: number
+  achievedAt: string
+}
+
+export interface GameScoreBoard {
+  gameId: number
+  order: "DESC" | "ASC"
+  items: GameScoreEntry[]
+  playerScore: number | null
+  playerRank: number | null
+}
+
 export interface PointTransaction {
   id: number
   playerId: number
@@ -89,6 +160,19 @@ export interface PointTransaction {
   createdAt: string
 }
 
+export interface PointMonthlySummary {
+  playerId: number
+  gameId: number | null
+  month: string
+  transactionCount: number
+  totalPoints: number
+}
+
+export interface PointHistory {
+  recent: PointTransaction[]
+  monthly: PointMonthlySummary[]
+}
+
 export interface Asset {
   id: number
   name: string
@@ -107,6 +191,18 @@ export interface Asset {
   createdAt: string
 }
 
+export interface AssetSearchResult {
+  tags: string[]
+  mode: "all" | "any"
+  type: "FREE" | "PAID" | null
+  page: number
+  size: number
+  totalHits: number
+  items: Asset[]
+  tagCounts: Record<string, number>
+  typeCounts: Record<string, number>
+}
+
 export interface PaymentInfo {
   id: number
   userId?: number
@@ -159,6 +255,7 @@ export interface GiftDTO {
   developerId: number
   developerName: string
   createdAt: string
+  dropMode: boolean // Redeems are queued as tickets (flash drop)
 }
 
 export interface GiftTransactionDTO {
@@ -167,6 +264,43 @@ export interface GiftTransactionDTO {
   giftId: number
   pointsSpent: number // Changed from pointCost to pointsSpent to match backend
   createdAt: string // Changed from redeemedAt to createdAt to match backend
+  redemptionCode?: string | null // Voucher code, set when the gift has a code pool
+}
+
+export interface GiftCodePool {
+  giftId: number
+  totalCodes: number
+  issuedCodes: number
+  availableCodes: number
+  added: number // Codes added by the upload/generate call that returned this
+  duplicates: number // Skipped because they already existed (or repeated in the file)
+}
+
+// Personalized catalog entry: the player's points at the gift's developer
+export interface PlayerGiftDTO extends GiftDTO {
+  playerPoints: number
+  affordable: boolean // In stock and playerPoints >= pointCost
+}
+
+export interface GiftPage<T extends GiftDTO = GiftDTO> {
+  items: T[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
+export type RedeemTicketStatus = "QUEUED" | "REDEEMED" | "SOLD_OUT" | "REJECTED" | "FAILED"
+
+// Returned (202) by /gifts/redeem for gifts in drop mode
+export interface RedeemTicket {
+  ticketId: string
+  giftId: number
+  playerId: number
+  status: RedeemTicketStatus
+  message?: string
+  position: number // Tickets ahead in the queue when it was issued
+  transaction?: GiftTransactionDTO // Set when REDEEMED
+  createdAt: string
+  completedAt?: string
 }
 
 export interface TransactionResponse {